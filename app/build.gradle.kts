@@ -1,10 +1,14 @@
 plugins {
     alias(libs.plugins.android.application)
+    // Erzeugt das Baseline-Profil aus :macrobenchmark (./gradlew :app:generateBaselineProfile)
+    alias(libs.plugins.baselineprofile)
 }
 
 android {
     buildFeatures {
         viewBinding = true
+        // AppLog.DEBUG stützt sich auf BuildConfig.DEBUG
+        buildConfig = true
     }
     namespace = "com.example.myapplication"
     compileSdk = 35
@@ -21,7 +25,8 @@ android {
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            // R8 entfernt Debug-Logging (siehe proguard-rules.pro) und ungenutzten Code
+            isMinifyEnabled = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
@@ -32,6 +37,24 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // JVM-Tests des Repositorys laufen über AppLog; android.util.Log liefert dort nur Standardwerte
+        unitTests.isReturnDefaultValues = true
+    }
+}
+
+// Testdaten-Receiver für :macrobenchmark (src/benchmark). Er kann die Bibliothek löschen und die Musikordner
+// umstellen und gehört daher nur in debug und die vom Baseline-Profile-Plugin angelegten Build-Typen:
+// benchmarkRelease für die Messungen, nonMinifiedRelease für die Profilerzeugung. Nie in release.
+val benchmarkFixtureBuildTypes = setOf("debug", "benchmarkRelease", "nonMinifiedRelease")
+
+androidComponents {
+    onVariants { variant ->
+        if (variant.buildType in benchmarkFixtureBuildTypes) {
+            variant.sources.java?.addStaticSourceDirectory("src/benchmark/java")
+            variant.sources.manifests.addStaticManifestFile("src/benchmark/AndroidManifest.xml")
+        }
+    }
 }
 
 dependencies {
@@ -50,6 +73,10 @@ dependencies {
     implementation(libs.recyclerview)
     implementation(libs.work.runtime)
     implementation(libs.work.testing)
+    implementation(libs.startup.runtime)
+    // Installiert das Baseline-Profil auch bei Installation außerhalb des Play Stores
+    implementation(libs.profileinstaller)
+    baselineProfile(project(":macrobenchmark"))
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
@@ -14,7 +14,18 @@
 
 # Uncomment this to preserve the line number information for
 # debugging stack traces.
-#-keepattributes SourceFile,LineNumberTable
+-keepattributes SourceFile,LineNumberTable
+
+# Debug- und Verbose-Logging hat in Release-Builds keine Wirkung: R8 entfernt die Aufrufe
+# samt der nur dafür aufgebauten Argumente.
+-assumenosideeffects class com.example.myapplication.AppLog {
+    public static void v(...);
+    public static void d(...);
+}
+-assumenosideeffects class android.util.Log {
+    public static int v(...);
+    public static int d(...);
+}
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
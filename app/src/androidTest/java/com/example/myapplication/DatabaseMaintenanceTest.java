@@ -0,0 +1,77 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Führt einen vollständigen Wartungslauf gegen die echte Datenbank aus, so wie ihn der
+ * {@link DatabaseMaintenanceWorker} startet.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMaintenanceTest {
+
+    private MusicRepository repository;
+    private DatabaseMaintenance maintenance;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        repository = MusicRepository.getInstance(context);
+        maintenance = DatabaseMaintenance.getInstance(context);
+        repository.deleteAllTracks();
+    }
+
+    @Test
+    public void testRunPurgesTombstonesAndCompletes() {
+        // Mehr als ein Lösch-Batch, damit die Schleife mehrfach die Datenbank öffnet und schließt
+        int count = DatabaseMaintenance.TOMBSTONE_BATCH + 20;
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tracks.add(new Track.Builder("Song " + i, "uri://maintenance/" + i).build());
+        }
+        repository.insertTracks(tracks);
+        // Leere Ordnerliste: alle Tracks als gelöscht markieren
+        repository.cleanupTracks("");
+
+        MaintenanceReport report = maintenance.run(60_000, () -> false);
+
+        assertEquals(count, report.getPurged());
+        assertTrue(report.isComplete());
+        assertTrue(report.getAfter().getPageCount() > 0);
+        assertEquals(0, report.getAfter().getWalBytes());
+        assertEquals(0, repository.getTrackCount());
+
+        // Nach dem Lauf ist die Datenbank weiter benutzbar und der Bericht lässt sich speichern
+        repository.saveMaintenanceReport(report);
+        List<MaintenanceReport> reports = repository.getMaintenanceReports();
+        assertFalse(reports.isEmpty());
+        assertEquals(count, reports.get(0).getPurged());
+    }
+
+    @Test
+    public void testRunOnCleanDatabase() {
+        MaintenanceReport report = maintenance.run(60_000, () -> false);
+
+        assertEquals(0, report.getPurged());
+        assertTrue(report.isComplete());
+    }
+
+    @Test
+    public void testStoppedRunIsIncomplete() {
+        MaintenanceReport report = maintenance.run(60_000, () -> true);
+
+        assertEquals(0, report.getPurged());
+        assertFalse(report.isComplete());
+    }
+}
@@ -39,8 +39,8 @@ public class MusicRepositoryTest {
     @Test
     public void testInsertAndGetCachedTracks() {
         // Erstelle beispielhafte Tracks und füge sie ein.
-        Track track1 = new Track("Song A", "uri://songA");
-        Track track2 = new Track("Song B", "uri://songB");
+        Track track1 = new Track.Builder("Song A", "uri://songA").build();
+        Track track2 = new Track.Builder("Song B", "uri://songB").build();
         List<Track> trackList = Arrays.asList(track1, track2);
         repository.insertTracks(trackList);
 
@@ -56,7 +56,7 @@ public class MusicRepositoryTest {
     @Test
     public void testDeleteAllTracks() {
         // Füge einen Track ein, lösche dann alle und prüfe das Ergebnis.
-        Track track = new Track("Song A", "uri://songA");
+        Track track = new Track.Builder("Song A", "uri://songA").build();
         repository.insertTracks(Collections.singletonList(track));
         repository.deleteAllTracks();
         List<Track> cachedTracks = repository.getCachedTracks();
@@ -68,7 +68,7 @@ public class MusicRepositoryTest {
         // Füge 10 Tracks ein.
         List<Track> tracks = new ArrayList<>();
         for (int i = 1; i <= 10; i++) {
-            tracks.add(new Track("Track " + i, "uri://track" + i));
+            tracks.add(new Track.Builder("Track " + i, "uri://track" + i).build());
         }
         repository.insertTracks(tracks);
 
@@ -0,0 +1,207 @@
+package com.example.myapplication;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.net.Uri;
+
+import androidx.preference.PreferenceManager;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BenchmarkFixtureReceiver bereitet die Daten für die Macrobenchmarks vor (Modul {@code :macrobenchmark}).
+ * Er wird per Shell angesprochen, z. B.
+ * {@code adb shell am broadcast -n com.example.myapplication/.BenchmarkFixtureReceiver -a ...POPULATE --ei count 20000};
+ * das Ergebnis steht in den Result-Daten des Broadcasts.
+ * <p>
+ * Der Receiver ist nur mit der Berechtigung DUMP erreichbar, die außer der Shell keine App erhält
+ * (wie der ProfileInstallReceiver). Alle Aktionen laufen auf einem eigenen Thread. Da RESET die Bibliothek löscht
+ * und die Musikordner umgestellt werden, liegt der Receiver im Source-Set {@code src/benchmark} und fehlt im
+ * Release-Build.
+ */
+public class BenchmarkFixtureReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "BenchmarkFixture";
+
+    // Füllt die Datenbank direkt mit {@link #EXTRA_COUNT} synthetischen Tracks (ohne Dateien)
+    public static final String ACTION_POPULATE = "com.example.myapplication.benchmark.POPULATE";
+    // Erzeugt {@link #EXTRA_COUNT} getaggte Audio-Dateien in verschachtelten Ordnern (siehe LibraryFixtureGenerator)
+    public static final String ACTION_GENERATE_FILES = "com.example.myapplication.benchmark.GENERATE_FILES";
+    // Leert die Datenbank
+    public static final String ACTION_RESET = "com.example.myapplication.benchmark.RESET";
+    // Startet einen vollständigen Scan des Benchmark-Ordners
+    public static final String ACTION_SCAN = "com.example.myapplication.benchmark.SCAN";
+    // Liefert "done", "running" oder "none" für den zuletzt gestarteten Scan
+    public static final String ACTION_STATUS = "com.example.myapplication.benchmark.STATUS";
+    public static final String EXTRA_COUNT = "count";
+    // Anzahl der verschachtelten Ordner; ohne Angabe etwa ein Ordner je 100 Tracks, höchstens 500
+    public static final String EXTRA_FOLDERS = "folders";
+
+    private static final String FIXTURE_DIR = "benchmark-library";
+    private static final String FIXTURE_FOLDER_NAME = "Benchmark";
+    // Ordnerliste für den Scan; als Eingabedaten wäre sie bei 500 Ordnern größer als die 10 KB, die Data erlaubt
+    private static final String FOLDER_LIST_FILE = "benchmark-folders.txt";
+    private static final String WORK_SCAN = "BenchmarkScan";
+    private static final int INSERT_BATCH = 500;
+    private static final long SEED = 42;
+    private static final int TRACKS_PER_FOLDER = 100;
+    // Der Scan übergibt jeden Ordner einzeln; cleanupTracks verknüpft sie per OR, und SQLite begrenzt die
+    // Tiefe eines Ausdrucks auf 1000
+    private static final int MAX_FOLDERS = 500;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r ->
+            new Thread(r, "BenchmarkFixture"));
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        PendingResult result = goAsync();
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            try {
+                result.setResultData(handle(appContext, intent));
+            } catch (Exception e) {
+                AppLog.e(TAG, "Aktion fehlgeschlagen: " + intent.getAction(), e);
+                result.setResultData("error: " + e.getMessage());
+            } finally {
+                result.finish();
+            }
+        });
+    }
+
+    private String handle(Context context, Intent intent) throws Exception {
+        String action = intent.getAction();
+        int count = intent.getIntExtra(EXTRA_COUNT, 1000);
+        int folders = Math.min(MAX_FOLDERS,
+                intent.getIntExtra(EXTRA_FOLDERS, Math.max(1, count / TRACKS_PER_FOLDER)));
+        LibraryFixtureGenerator generator = new LibraryFixtureGenerator(SEED, folders);
+        MusicRepository repository = MusicRepositoryInitializer.get(context);
+        if (ACTION_POPULATE.equals(action)) {
+            populate(context, repository, generator.generate(count));
+            return "populated " + count;
+        } else if (ACTION_GENERATE_FILES.equals(action)) {
+            generateFiles(context, generator.generate(count));
+            return "generated " + count;
+        } else if (ACTION_RESET.equals(action)) {
+            repository.deleteAllTracks();
+            return "reset";
+        } else if (ACTION_SCAN.equals(action)) {
+            enqueueScan(context);
+            return "enqueued";
+        } else if (ACTION_STATUS.equals(action)) {
+            return scanStatus(context);
+        }
+        return "unknown action: " + action;
+    }
+
+    private static File fixtureDir(Context context) {
+        return new File(context.getFilesDir(), FIXTURE_DIR);
+    }
+
+    private static String folderUri(Context context) {
+        return Uri.fromFile(fixtureDir(context)).toString();
+    }
+
+    /**
+     * Trägt den Benchmark-Ordner als einzigen Musikordner ein, damit Player und Listen ihn anzeigen.
+     */
+    private static void useFixtureFolder(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        Set<String> folders = new HashSet<>(Collections.singleton(FIXTURE_FOLDER_NAME + "|" + folderUri(context)));
+        prefs.edit().putStringSet("music_folders", folders).commit();
+    }
+
+    /**
+     * Schreibt die Tracks direkt in die Datenbank, mit den URIs, die ein Scan der erzeugten Dateien ergäbe.
+     */
+    private static void populate(Context context, MusicRepository repository,
+                                 List<LibraryFixtureGenerator.FixtureTrack> tracks) {
+        long start = System.nanoTime();
+        repository.deleteAllTracks();
+        File root = fixtureDir(context);
+        List<Track> batch = new ArrayList<>(INSERT_BATCH);
+        for (LibraryFixtureGenerator.FixtureTrack track : tracks) {
+            batch.add(track.toTrack(Uri.fromFile(new File(root, track.getRelativePath())).toString()));
+            if (batch.size() == INSERT_BATCH) {
+                repository.insertTracks(batch);
+                batch = new ArrayList<>(INSERT_BATCH);
+            }
+        }
+        if (!batch.isEmpty()) {
+            repository.insertTracks(batch);
+        }
+        useFixtureFolder(context);
+        AppLog.i(TAG, tracks.size() + " Tracks eingefügt in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void generateFiles(Context context, List<LibraryFixtureGenerator.FixtureTrack> tracks)
+            throws IOException {
+        long start = System.nanoTime();
+        File root = fixtureDir(context);
+        deleteRecursively(root);
+        LibraryFixtureGenerator.writeLibrary(root, tracks);
+        useFixtureFolder(context);
+        AppLog.i(TAG, tracks.size() + " Dateien erzeugt in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Sammelt alle Ordner unterhalb von {@code dir}; der Scanner durchsucht je Ordner nur die oberste Ebene.
+     */
+    private static void collectFolders(File dir, List<String> uris) {
+        uris.add(Uri.fromFile(dir).toString());
+        File[] children = dir.listFiles(File::isDirectory);
+        if (children != null) {
+            for (File child : children) {
+                collectFolders(child, uris);
+            }
+        }
+    }
+
+    private static void enqueueScan(Context context) throws IOException {
+        List<String> folders = new ArrayList<>();
+        collectFolders(fixtureDir(context), folders);
+        File folderList = new File(context.getFilesDir(), FOLDER_LIST_FILE);
+        Files.write(folderList.toPath(), folders, StandardCharsets.UTF_8);
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(MusicLoaderWorker.class)
+                .setInputData(new Data.Builder()
+                        .putString("folder_list_file", folderList.getAbsolutePath())
+                        .putInt("page_size", 50)
+                        .build())
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_SCAN, ExistingWorkPolicy.REPLACE, request);
+    }
+
+    private static String scanStatus(Context context) throws Exception {
+        List<WorkInfo> infos = WorkManager.getInstance(context).getWorkInfosForUniqueWork(WORK_SCAN).get();
+        if (infos.isEmpty()) {
+            return "none";
+        }
+        return infos.get(0).getState().isFinished() ? "done" : "running";
+    }
+}
@@ -0,0 +1,477 @@
+package com.example.myapplication;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FixtureAudioWriter kodiert die Dateien des {@link LibraryFixtureGenerator}: gültige, etwa eine Sekunde lange
+ * Stille in vier Containern, jeweils mit Titel, Interpret, Album und Tracknummer im formattypischen Tag.
+ * <ul>
+ *     <li>MP3: ID3v2.3-Tag und stumme MPEG-1-Layer-III-Frames,</li>
+ *     <li>FLAC: STREAMINFO, VORBIS_COMMENT und Frames mit konstantem Subframe samt CRC-8/CRC-16,</li>
+ *     <li>M4A: ISO-BMFF mit AAC-LC-Spur (stumme Frames) und iTunes-Metadaten (ilst),</li>
+ *     <li>Ogg: Opus mit OpusTags (Vorbis-Comment-Format). Ein Vorbis-Setup-Header bräuchte echte Codebooks;
+ *     Opus erlaubt leere Frames und bleibt so wenige Bytes groß.</li>
+ * </ul>
+ * Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+final class FixtureAudioWriter {
+
+    private static final String VENDOR = "fixture";
+
+    // MPEG-1 Layer III, 128 kbit/s, 44,1 kHz, ohne Padding: 417 Bytes bzw. 1152 Samples je Frame
+    private static final byte[] MP3_FRAME_HEADER = {(byte) 0xFF, (byte) 0xFB, (byte) 0x90, 0x00};
+    private static final int MP3_FRAME_SIZE = 417;
+    private static final int MP3_FRAMES = 38;
+
+    private static final int SAMPLE_RATE = 44_100;
+    private static final int FLAC_BLOCK_SIZE = 4096;
+    private static final int FLAC_FRAMES = 11;
+
+    // Opus: 20 ms CELT-Vollband, mono, ein Frame je Paket (TOC-Konfiguration 31, Code 0)
+    private static final byte OPUS_TOC = (byte) 0xF8;
+    private static final int OPUS_SAMPLES_PER_PACKET = 960;
+    private static final int OPUS_PACKETS = 50;
+    private static final int OPUS_PRE_SKIP = 312;
+
+    // AAC-LC, 44,1 kHz, mono: AudioSpecificConfig und ein stummer Frame mit 1024 Samples
+    private static final byte[] AAC_CONFIG = {0x12, 0x08};
+    private static final byte[] AAC_SILENT_FRAME = {0x01, 0x40, 0x20, 0x07};
+    private static final int AAC_FRAMES = 43;
+
+    private FixtureAudioWriter() {
+    }
+
+    static byte[] encode(LibraryFixtureGenerator.FixtureTrack track) {
+        switch (track.getFormat()) {
+            case LibraryFixtureGenerator.FORMAT_FLAC:
+                return flac(track);
+            case LibraryFixtureGenerator.FORMAT_M4A:
+                return m4a(track);
+            case LibraryFixtureGenerator.FORMAT_OGG:
+                return ogg(track);
+            default:
+                return mp3(track);
+        }
+    }
+
+    // --- MP3 ---
+
+    static byte[] mp3(LibraryFixtureGenerator.FixtureTrack track) {
+        Bytes frames = new Bytes();
+        frames.put(id3Frame("TIT2", track.getTitle()));
+        frames.put(id3Frame("TPE1", track.getArtist()));
+        frames.put(id3Frame("TALB", track.getAlbum()));
+        frames.put(id3Frame("TRCK", String.valueOf(track.getTrackNumber())));
+        int size = frames.size();
+
+        Bytes out = new Bytes();
+        out.put(new byte[]{'I', 'D', '3', 3, 0, 0});
+        // Tag-Größe ohne Header als Synchsafe-Integer (7 Bit je Byte)
+        out.put(new byte[]{(byte) ((size >> 21) & 0x7F), (byte) ((size >> 14) & 0x7F),
+                (byte) ((size >> 7) & 0x7F), (byte) (size & 0x7F)});
+        out.put(frames.toByteArray());
+        byte[] frame = new byte[MP3_FRAME_SIZE];
+        System.arraycopy(MP3_FRAME_HEADER, 0, frame, 0, MP3_FRAME_HEADER.length);
+        for (int i = 0; i < MP3_FRAMES; i++) {
+            out.put(frame);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Textframe in ISO-8859-1, falls möglich, sonst in UTF-16 mit BOM (ID3v2.3 kennt kein UTF-8).
+     */
+    private static byte[] id3Frame(String id, String text) {
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        boolean isLatin1 = latin1.newEncoder().canEncode(text);
+        Bytes value = new Bytes();
+        if (isLatin1) {
+            value.write(0);
+            value.put(text.getBytes(latin1));
+        } else {
+            value.write(1);
+            value.put(new byte[]{(byte) 0xFF, (byte) 0xFE});
+            value.put(text.getBytes(StandardCharsets.UTF_16LE));
+        }
+        Bytes frame = new Bytes();
+        frame.put(id.getBytes(StandardCharsets.US_ASCII));
+        frame.writeInt(value.size());
+        frame.writeShort(0);
+        frame.put(value.toByteArray());
+        return frame.toByteArray();
+    }
+
+    // --- FLAC ---
+
+    static byte[] flac(LibraryFixtureGenerator.FixtureTrack track) {
+        Bytes out = new Bytes();
+        out.put("fLaC".getBytes(StandardCharsets.US_ASCII));
+
+        // STREAMINFO (Typ 0)
+        out.write(0);
+        out.writeInt24(34);
+        out.writeShort(FLAC_BLOCK_SIZE);
+        out.writeShort(FLAC_BLOCK_SIZE);
+        out.writeInt24(0); // minimale Framegröße unbekannt
+        out.writeInt24(0); // maximale Framegröße unbekannt
+        long totalSamples = (long) FLAC_BLOCK_SIZE * FLAC_FRAMES;
+        // Abtastrate (20 Bit), Kanäle - 1 (3 Bit), Bits je Sample - 1 (5 Bit), Samples gesamt (36 Bit)
+        out.writeLong(((long) SAMPLE_RATE << 44) | (15L << 36) | totalSamples);
+        out.put(new byte[16]); // MD5 unbekannt
+
+        // VORBIS_COMMENT (Typ 4) als letzter Metadatenblock
+        byte[] comments = vorbisComments(track);
+        out.write(0x80 | 4);
+        out.writeInt24(comments.length);
+        out.put(comments);
+
+        for (int i = 0; i < FLAC_FRAMES; i++) {
+            out.put(flacFrame(i));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] flacFrame(int frameNumber) {
+        Bytes frame = new Bytes();
+        // Sync-Code, feste Blockgröße; Blockgröße 4096 (0b1100), 44,1 kHz (0b1001); mono, 16 Bit
+        frame.put(new byte[]{(byte) 0xFF, (byte) 0xF8, (byte) 0xC9, 0x08});
+        frame.write(frameNumber); // UTF-8-kodierte Framenummer, hier stets < 128
+        frame.write(crc8(frame.toByteArray()));
+        // Subframe CONSTANT mit dem Wert 0
+        frame.write(0);
+        frame.writeShort(0);
+        frame.writeShort(crc16(frame.toByteArray()));
+        return frame.toByteArray();
+    }
+
+    static int crc8(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= b & 0xFF;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+            }
+        }
+        return crc;
+    }
+
+    static int crc16(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= (b & 0xFF) << 8;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x8000) != 0 ? ((crc << 1) ^ 0x8005) & 0xFFFF : (crc << 1) & 0xFFFF;
+            }
+        }
+        return crc;
+    }
+
+    /**
+     * Vorbis-Comment-Block (Längen little-endian), wie ihn FLAC und OpusTags verwenden.
+     */
+    private static byte[] vorbisComments(LibraryFixtureGenerator.FixtureTrack track) {
+        String[] comments = {
+                "TITLE=" + track.getTitle(),
+                "ARTIST=" + track.getArtist(),
+                "ALBUM=" + track.getAlbum(),
+                "TRACKNUMBER=" + track.getTrackNumber()};
+        Bytes out = new Bytes();
+        byte[] vendor = VENDOR.getBytes(StandardCharsets.UTF_8);
+        out.writeIntLE(vendor.length);
+        out.put(vendor);
+        out.writeIntLE(comments.length);
+        for (String comment : comments) {
+            byte[] bytes = comment.getBytes(StandardCharsets.UTF_8);
+            out.writeIntLE(bytes.length);
+            out.put(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    // --- Ogg Opus ---
+
+    static byte[] ogg(LibraryFixtureGenerator.FixtureTrack track) {
+        int serial = 0x5EED0000 | (track.getIndex() & 0xFFFF);
+
+        Bytes head = new Bytes();
+        head.put("OpusHead".getBytes(StandardCharsets.US_ASCII));
+        head.write(1); // Version
+        head.write(1); // Kanäle
+        head.writeShortLE(OPUS_PRE_SKIP);
+        head.writeIntLE(SAMPLE_RATE);
+        head.writeShortLE(0); // Ausgabeverstärkung
+        head.write(0); // Kanal-Mapping-Familie
+
+        Bytes tags = new Bytes();
+        tags.put("OpusTags".getBytes(StandardCharsets.US_ASCII));
+        tags.put(vorbisComments(track));
+
+        byte[][] audio = new byte[OPUS_PACKETS][];
+        for (int i = 0; i < OPUS_PACKETS; i++) {
+            audio[i] = new byte[]{OPUS_TOC};
+        }
+
+        Bytes out = new Bytes();
+        out.put(oggPage(0x02, 0, serial, 0, new byte[][]{head.toByteArray()}));
+        out.put(oggPage(0x00, 0, serial, 1, new byte[][]{tags.toByteArray()}));
+        long granule = OPUS_PRE_SKIP + (long) OPUS_PACKETS * OPUS_SAMPLES_PER_PACKET;
+        out.put(oggPage(0x04, granule, serial, 2, audio));
+        return out.toByteArray();
+    }
+
+    private static byte[] oggPage(int headerType, long granule, int serial, int sequence, byte[][] packets) {
+        Bytes lacing = new Bytes();
+        Bytes body = new Bytes();
+        for (byte[] packet : packets) {
+            // Lacing: Segmente zu 255 Bytes, abgeschlossen durch ein kürzeres (ggf. leeres) Segment
+            int remaining = packet.length;
+            while (remaining >= 255) {
+                lacing.write(255);
+                remaining -= 255;
+            }
+            lacing.write(remaining);
+            body.put(packet);
+        }
+        Bytes page = new Bytes();
+        page.put("OggS".getBytes(StandardCharsets.US_ASCII));
+        page.write(0); // Version
+        page.write(headerType);
+        page.writeLongLE(granule);
+        page.writeIntLE(serial);
+        page.writeIntLE(sequence);
+        page.writeIntLE(0); // CRC, wird unten eingesetzt
+        page.write(lacing.size());
+        page.put(lacing.toByteArray());
+        page.put(body.toByteArray());
+        byte[] bytes = page.toByteArray();
+        int crc = oggCrc(bytes);
+        bytes[22] = (byte) crc;
+        bytes[23] = (byte) (crc >>> 8);
+        bytes[24] = (byte) (crc >>> 16);
+        bytes[25] = (byte) (crc >>> 24);
+        return bytes;
+    }
+
+    static int oggCrc(byte[] data) {
+        int crc = 0;
+        for (byte b : data) {
+            crc ^= (b & 0xFF) << 24;
+            for (int i = 0; i < 8; i++) {
+                crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ 0x04C11DB7 : crc << 1;
+            }
+        }
+        return crc;
+    }
+
+    // --- M4A ---
+
+    static byte[] m4a(LibraryFixtureGenerator.FixtureTrack track) {
+        byte[] ftyp = box("ftyp", concat("M4A ".getBytes(StandardCharsets.US_ASCII), new byte[4],
+                "M4A mp42isom".getBytes(StandardCharsets.US_ASCII)));
+        Bytes samples = new Bytes();
+        for (int i = 0; i < AAC_FRAMES; i++) {
+            samples.put(AAC_SILENT_FRAME);
+        }
+        // Die Größe der moov-Box hängt nicht vom Chunk-Offset ab; erst messen, dann mit Offset bauen
+        int moovSize = moov(track, 0).length;
+        byte[] moov = moov(track, ftyp.length + moovSize + 8);
+        return concat(ftyp, moov, box("mdat", samples.toByteArray()));
+    }
+
+    private static byte[] moov(LibraryFixtureGenerator.FixtureTrack track, int chunkOffset) {
+        int duration = AAC_FRAMES * 1024;
+        Bytes mvhd = fullBoxHeader();
+        mvhd.writeInt(0); // Erstellung
+        mvhd.writeInt(0); // Änderung
+        mvhd.writeInt(SAMPLE_RATE);
+        mvhd.writeInt(duration);
+        mvhd.writeInt(0x00010000); // Abspielrate 1.0
+        mvhd.writeShort(0x0100); // Lautstärke 1.0
+        mvhd.put(new byte[10]);
+        mvhd.put(unityMatrix());
+        mvhd.put(new byte[24]);
+        mvhd.writeInt(2); // nächste Track-ID
+
+        Bytes tkhd = new Bytes();
+        tkhd.writeInt(0x00000007); // Version 0, aktiviert, im Film, in der Vorschau
+        tkhd.writeInt(0);
+        tkhd.writeInt(0);
+        tkhd.writeInt(1); // Track-ID
+        tkhd.writeInt(0);
+        tkhd.writeInt(duration);
+        tkhd.put(new byte[8]);
+        tkhd.writeShort(0); // Ebene
+        tkhd.writeShort(0); // alternative Gruppe
+        tkhd.writeShort(0x0100); // Lautstärke
+        tkhd.writeShort(0);
+        tkhd.put(unityMatrix());
+        tkhd.writeInt(0); // Breite
+        tkhd.writeInt(0); // Höhe
+
+        Bytes mdhd = fullBoxHeader();
+        mdhd.writeInt(0);
+        mdhd.writeInt(0);
+        mdhd.writeInt(SAMPLE_RATE);
+        mdhd.writeInt(duration);
+        mdhd.writeShort(0x55C4); // Sprache "und"
+        mdhd.writeShort(0);
+
+        byte[] stbl = box("stbl", concat(
+                box("stsd", concat(fullBoxHeader().writeInt(1).toByteArray(), mp4aSampleEntry())),
+                box("stts", fullBoxHeader().writeInt(1).writeInt(AAC_FRAMES).writeInt(1024).toByteArray()),
+                box("stsc", fullBoxHeader().writeInt(1).writeInt(1).writeInt(AAC_FRAMES).writeInt(1)
+                        .toByteArray()),
+                box("stsz", fullBoxHeader().writeInt(AAC_SILENT_FRAME.length).writeInt(AAC_FRAMES)
+                        .toByteArray()),
+                box("stco", fullBoxHeader().writeInt(1).writeInt(chunkOffset).toByteArray())));
+        byte[] dinf = box("dinf", box("dref", concat(fullBoxHeader().writeInt(1).toByteArray(),
+                box("url ", new Bytes().writeInt(1).toByteArray())))); // Flag 1: Daten in dieser Datei
+        byte[] minf = box("minf", concat(
+                box("smhd", fullBoxHeader().writeInt(0).toByteArray()), dinf, stbl));
+        byte[] mdia = box("mdia", concat(box("mdhd", mdhd.toByteArray()), handler("soun", "SoundHandler"), minf));
+        byte[] trak = box("trak", concat(box("tkhd", tkhd.toByteArray()), mdia));
+
+        return box("moov", concat(box("mvhd", mvhd.toByteArray()), trak, udta(track)));
+    }
+
+    private static byte[] mp4aSampleEntry() {
+        Bytes entry = new Bytes();
+        entry.put(new byte[6]);
+        entry.writeShort(1); // Datenreferenz
+        entry.put(new byte[8]);
+        entry.writeShort(1); // Kanäle
+        entry.writeShort(16); // Bits je Sample
+        entry.writeInt(0);
+        entry.writeInt(SAMPLE_RATE << 16);
+
+        // ES_Descriptor mit DecoderConfigDescriptor (AAC) und SLConfigDescriptor; Längen jeweils < 128
+        Bytes decoderConfig = new Bytes();
+        decoderConfig.write(0x40); // MPEG-4 Audio
+        decoderConfig.write(0x15); // Audio-Stream
+        decoderConfig.writeInt24(0); // Puffergröße
+        decoderConfig.writeInt(0); // maximale Bitrate
+        decoderConfig.writeInt(0); // mittlere Bitrate
+        decoderConfig.write(0x05);
+        decoderConfig.write(AAC_CONFIG.length);
+        decoderConfig.put(AAC_CONFIG);
+        Bytes es = new Bytes();
+        es.writeShort(0); // ES-ID
+        es.write(0);
+        es.write(0x04);
+        es.write(decoderConfig.size());
+        es.put(decoderConfig.toByteArray());
+        es.put(new byte[]{0x06, 0x01, 0x02});
+        Bytes esds = fullBoxHeader();
+        esds.write(0x03);
+        esds.write(es.size());
+        esds.put(es.toByteArray());
+
+        return box("mp4a", concat(entry.toByteArray(), box("esds", esds.toByteArray())));
+    }
+
+    private static byte[] handler(String type, String name) {
+        Bytes hdlr = fullBoxHeader();
+        hdlr.writeInt(0);
+        hdlr.put(type.getBytes(StandardCharsets.US_ASCII));
+        hdlr.put(new byte[12]);
+        hdlr.put(name.getBytes(StandardCharsets.UTF_8));
+        hdlr.write(0);
+        return box("hdlr", hdlr.toByteArray());
+    }
+
+    /**
+     * iTunes-Metadaten: udta/meta/ilst mit ©nam, ©ART, ©alb und trkn.
+     */
+    private static byte[] udta(LibraryFixtureGenerator.FixtureTrack track) {
+        byte[] trkn = new Bytes().writeShort(0).writeShort(track.getTrackNumber()).writeShort(0).writeShort(0)
+                .toByteArray();
+        byte[] ilst = box("ilst", concat(
+                ilstItem("©nam", 1, track.getTitle().getBytes(StandardCharsets.UTF_8)),
+                ilstItem("©ART", 1, track.getArtist().getBytes(StandardCharsets.UTF_8)),
+                ilstItem("©alb", 1, track.getAlbum().getBytes(StandardCharsets.UTF_8)),
+                ilstItem("trkn", 0, trkn)));
+        byte[] meta = box("meta", concat(fullBoxHeader().toByteArray(), handler("mdir", ""), ilst));
+        return box("udta", meta);
+    }
+
+    private static byte[] ilstItem(String type, int dataType, byte[] value) {
+        byte[] data = box("data", concat(new Bytes().writeInt(dataType).writeInt(0).toByteArray(), value));
+        return box(type, data);
+    }
+
+    private static byte[] unityMatrix() {
+        return new Bytes().writeInt(0x00010000).writeInt(0).writeInt(0)
+                .writeInt(0).writeInt(0x00010000).writeInt(0)
+                .writeInt(0).writeInt(0).writeInt(0x40000000).toByteArray();
+    }
+
+    private static Bytes fullBoxHeader() {
+        return new Bytes().writeInt(0); // Version 0, keine Flags
+    }
+
+    /**
+     * Box mit 32-Bit-Größe; der Typ wird als ISO-8859-1 geschrieben, damit "©" ein Byte (0xA9) bleibt.
+     */
+    private static byte[] box(String type, byte[] content) {
+        return new Bytes().writeInt(8 + content.length).put(type.getBytes(StandardCharsets.ISO_8859_1))
+                .put(content).toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        Bytes out = new Bytes();
+        for (byte[] part : parts) {
+            out.put(part);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * ByteArrayOutputStream mit Big- und Little-Endian-Schreibmethoden.
+     */
+    private static final class Bytes extends ByteArrayOutputStream {
+
+        Bytes put(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        Bytes writeShort(int value) {
+            write(value >>> 8);
+            write(value);
+            return this;
+        }
+
+        Bytes writeInt24(int value) {
+            write(value >>> 16);
+            return writeShort(value);
+        }
+
+        Bytes writeInt(int value) {
+            writeShort(value >>> 16);
+            return writeShort(value);
+        }
+
+        Bytes writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            return writeInt((int) value);
+        }
+
+        Bytes writeShortLE(int value) {
+            write(value);
+            write(value >>> 8);
+            return this;
+        }
+
+        Bytes writeIntLE(int value) {
+            writeShortLE(value);
+            return writeShortLE(value >>> 16);
+        }
+
+        Bytes writeLongLE(long value) {
+            writeIntLE((int) value);
+            return writeIntLE((int) (value >>> 32));
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.myapplication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * LibraryFixtureGenerator erzeugt reproduzierbare Test-Bibliotheken beliebiger Größe (1.000 bis 200.000 Tracks)
+ * für Benchmarks und Regressionstests von Scan, Paging und Suche.
+ * <p>
+ * Bei gleichem Seed entstehen immer dieselben Tracks: Interpreten und Titelwörter werden Zipf-verteilt gezogen
+ * (wenige sehr häufige, viele seltene Namen wie in echten Bibliotheken), Alben haben 8 bis 16 Tracks und
+ * verteilen sich auf einen Baum aus {@code folderCount} verschachtelten Ordnern. {@link #writeLibrary} schreibt dazu gültige,
+ * kurze MP3-, FLAC-, M4A- und Ogg-Dateien mit ID3-, Vorbis- bzw. MP4-Tags (siehe {@link FixtureAudioWriter}).
+ * <p>
+ * Die Klasse ist frei von Android-Abhängigkeiten und läuft auch in Unit-Tests auf dem CI-Rechner. Wie der
+ * {@link BenchmarkFixtureReceiver} liegt sie in {@code src/benchmark} und gehört nicht zum Release-Build; ihre
+ * Tests stehen deshalb unter {@code src/testDebug}.
+ */
+public final class LibraryFixtureGenerator {
+
+    public static final String FORMAT_MP3 = "mp3";
+    public static final String FORMAT_FLAC = "flac";
+    public static final String FORMAT_M4A = "m4a";
+    public static final String FORMAT_OGG = "ogg";
+
+    private static final String[] FORMATS = {FORMAT_MP3, FORMAT_FLAC, FORMAT_M4A, FORMAT_OGG};
+    // Anteile in Prozent, etwa wie in einer gewachsenen Sammlung
+    private static final int[] FORMAT_WEIGHTS = {60, 15, 15, 10};
+
+    // Exponent der Zipf-Verteilung; ~1 entspricht gemessenen Wiedergabe- und Namenshäufigkeiten
+    static final double ZIPF_EXPONENT = 1.07;
+    // Unterordner je Ordner im Ordnerbaum
+    private static final int FOLDER_BRANCHING = 8;
+    private static final int TRACKS_PER_ARTIST = 40;
+    private static final int MIN_ALBUM_TRACKS = 8;
+    private static final int MAX_ALBUM_TRACKS = 16;
+    private static final int VOCABULARY_SIZE = 2_000;
+    private static final int MIN_NAMES = 8;
+
+    // Silben für Kunstwörter; einige mit Umlauten und Akzenten, damit auch die Tag-Kodierung geprüft wird
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ra", "su", "ti", "vo", "ba", "de", "fu", "ge", "ho", "ja", "ke", "li",
+            "ma", "no", "pe", "ri", "sa", "to", "un", "ve", "wa", "ze", "an", "el", "or", "is", "mü", "hö",
+            "bä", "ré", "lé", "xa", "qui", "sch", "ter", "lin"};
+    private static final String[] ARTIST_PREFIXES = {"", "", "", "", "The ", "DJ ", "Los "};
+
+    private final long seed;
+    private final int folderCount;
+
+    /**
+     * @param seed        Startwert; gleicher Seed, gleiche Bibliothek.
+     * @param folderCount Anzahl der Ordner (mindestens 1), verschachtelt mit je {@value #FOLDER_BRANCHING}
+     *                    Unterordnern.
+     */
+    public LibraryFixtureGenerator(long seed, int folderCount) {
+        this.seed = seed;
+        this.folderCount = Math.max(1, folderCount);
+    }
+
+    /**
+     * Ein erzeugter Track samt Dateipfad relativ zum Wurzelordner der Bibliothek.
+     */
+    public static final class FixtureTrack {
+        private final int index;
+        private final String folder;
+        private final String fileName;
+        private final String format;
+        private final String title;
+        private final String artist;
+        private final String album;
+        private final int trackNumber;
+        private final long durationMs;
+
+        FixtureTrack(int index, String folder, String fileName, String format, String title, String artist,
+                     String album, int trackNumber, long durationMs) {
+            this.index = index;
+            this.folder = folder;
+            this.fileName = fileName;
+            this.format = format;
+            this.title = title;
+            this.artist = artist;
+            this.album = album;
+            this.trackNumber = trackNumber;
+            this.durationMs = durationMs;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return Der Ordner relativ zur Wurzel, z. B. "Kalo 1/Rasu 9"; leer für die Wurzel selbst.
+         */
+        public String getFolder() {
+            return folder;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getRelativePath() {
+            return folder.isEmpty() ? fileName : folder + "/" + fileName;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getArtist() {
+            return artist;
+        }
+
+        public String getAlbum() {
+            return album;
+        }
+
+        public int getTrackNumber() {
+            return trackNumber;
+        }
+
+        /**
+         * @return Die Dauer für die Datenbank. Die geschriebenen Dateien sind unabhängig davon etwa eine
+         * Sekunde lang.
+         */
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        /**
+         * @return Der Track, wie ihn ein Scan von {@code uri} in die Datenbank schreiben würde.
+         */
+        public Track toTrack(String uri) {
+            return new Track.Builder(title, uri)
+                    .artist(artist)
+                    .album(album)
+                    .trackNumber(trackNumber)
+                    .durationMs(durationMs)
+                    .build();
+        }
+    }
+
+    /**
+     * Erzeugt {@code count} Tracks. Das Ergebnis hängt nur von Seed, Ordnerzahl und {@code count} ab.
+     */
+    public List<FixtureTrack> generate(int count) {
+        Random random = new Random(seed);
+        int artistCount = Math.max(MIN_NAMES, count / TRACKS_PER_ARTIST);
+
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random, 1 + random.nextInt(3));
+        }
+        ZipfSampler words = new ZipfSampler(vocabulary.length, ZIPF_EXPONENT);
+
+        String[] artists = new String[artistCount];
+        for (int i = 0; i < artistCount; i++) {
+            artists[i] = ARTIST_PREFIXES[random.nextInt(ARTIST_PREFIXES.length)]
+                    + capitalize(word(random, 2 + random.nextInt(2)))
+                    + (random.nextInt(3) == 0 ? " " + capitalize(word(random, 2)) : "");
+        }
+        String[] folders = folderPaths(random);
+
+        // Beliebte Interpreten haben mehr Tracks und damit mehr Alben; ein Album hat 8 bis 16 Tracks
+        ZipfSampler artistSampler = new ZipfSampler(artistCount, ZIPF_EXPONENT);
+        String[] currentAlbum = new String[artistCount];
+        int[] albumFolder = new int[artistCount];
+        int[] albumTracksLeft = new int[artistCount];
+        int[] nextTrackNumber = new int[artistCount];
+        int albumCount = 0;
+        List<FixtureTrack> tracks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int artist = artistSampler.sample(random);
+            if (albumTracksLeft[artist] == 0) {
+                albumCount++;
+                currentAlbum[artist] = phrase(random, vocabulary, words, 1 + random.nextInt(3)) + " " + albumCount;
+                albumFolder[artist] = albumCount % folders.length;
+                albumTracksLeft[artist] = MIN_ALBUM_TRACKS + random.nextInt(MAX_ALBUM_TRACKS - MIN_ALBUM_TRACKS + 1);
+                nextTrackNumber[artist] = 0;
+            }
+            albumTracksLeft[artist]--;
+            int trackNumber = ++nextTrackNumber[artist];
+            String title = phrase(random, vocabulary, words, 1 + random.nextInt(4));
+            String format = pickFormat(random);
+            // 1 bis 8 Minuten, um 3:30 gehäuft
+            long durationMs = Math.max(60_000, Math.min(480_000,
+                    (long) (210_000 + random.nextGaussian() * 60_000)));
+            String fileName = String.format(Locale.ROOT, "%02d %s %06d.%s",
+                    trackNumber, safeFileName(title), i, format);
+            tracks.add(new FixtureTrack(i, folders[albumFolder[artist]], fileName, format, title,
+                    artists[artist], currentAlbum[artist], trackNumber, durationMs));
+        }
+        return tracks;
+    }
+
+    /**
+     * Schreibt die Dateien aller Tracks unterhalb von {@code root} und legt die Ordner dabei an.
+     */
+    public static void writeLibrary(File root, List<FixtureTrack> tracks) throws IOException {
+        for (FixtureTrack track : tracks) {
+            File file = new File(root, track.getRelativePath());
+            File dir = file.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Ordner nicht anlegbar: " + dir);
+            }
+            try (OutputStream out = new FileOutputStream(file)) {
+                out.write(FixtureAudioWriter.encode(track));
+            }
+        }
+    }
+
+    /**
+     * Pfade der Ordner 1..folderCount als Baum: Ordner k liegt in Ordner (k - 1) / {@value #FOLDER_BRANCHING};
+     * Ordner 0 ist die Wurzel. Mit nur einem Ordner liegt alles direkt in der Wurzel.
+     */
+    private String[] folderPaths(Random random) {
+        if (folderCount == 1) {
+            return new String[]{""};
+        }
+        String[] paths = new String[folderCount + 1];
+        paths[0] = "";
+        for (int k = 1; k <= folderCount; k++) {
+            String name = capitalize(word(random, 2)) + " " + k;
+            String parent = paths[(k - 1) / FOLDER_BRANCHING];
+            paths[k] = parent.isEmpty() ? name : parent + "/" + name;
+        }
+        return Arrays.copyOfRange(paths, 1, paths.length);
+    }
+
+    /**
+     * @return Alle Ordner der Tracks (relativ zur Wurzel), z. B. für Scanner, die nicht rekursiv arbeiten.
+     */
+    public static List<String> foldersOf(List<FixtureTrack> tracks) {
+        List<String> folders = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (FixtureTrack track : tracks) {
+            if (seen.add(track.getFolder())) {
+                folders.add(track.getFolder());
+            }
+        }
+        Collections.sort(folders);
+        return folders;
+    }
+
+    private static String pickFormat(Random random) {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < FORMATS.length; i++) {
+            roll -= FORMAT_WEIGHTS[i];
+            if (roll < 0) {
+                return FORMATS[i];
+            }
+        }
+        return FORMAT_MP3;
+    }
+
+    private static String word(Random random, int syllables) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String phrase(Random random, String[] vocabulary, ZipfSampler sampler, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(capitalize(vocabulary[sampler.sample(random)]));
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String word) {
+        return word.isEmpty() ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static String safeFileName(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) || c == ' ' || c == '-' ? c : '_');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Zieht Ränge 0..n-1 mit Wahrscheinlichkeit proportional zu 1 / (Rang + 1)^s über die kumulierte
+     * Verteilung und binäre Suche.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            // Nicht gefunden: -(Einfügeposition) - 1; die Einfügeposition ist der gesuchte Rang
+            int rank = index >= 0 ? index : -index - 1;
+            return Math.min(rank, cumulative.length - 1);
+        }
+    }
+}
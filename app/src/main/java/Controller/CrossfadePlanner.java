@@ -0,0 +1,70 @@
+package Controller;
+
+/**
+ * CrossfadePlanner entscheidet, wie zwei aufeinanderfolgende Tracks ineinander übergehen, und berechnet
+ * die Überblendkurve. Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public final class CrossfadePlanner {
+
+    public static final int TRANSITION_NONE = 0;
+    // Lückenlos: derselbe Album-Kontext mit direkt aufeinanderfolgenden Tracknummern
+    public static final int TRANSITION_GAPLESS = 1;
+    public static final int TRANSITION_CROSSFADE = 2;
+
+    // Kein Track wird zu mehr als der Hälfte überblendet.
+    private static final double MAX_OVERLAP_FRACTION = 0.5;
+
+    private CrossfadePlanner() {}
+
+    /**
+     * @param album            Album des laufenden Tracks.
+     * @param trackNumber      Tracknummer des laufenden Tracks (0 = unbekannt).
+     * @param nextAlbum        Album des folgenden Tracks.
+     * @param nextTrackNumber  Tracknummer des folgenden Tracks (0 = unbekannt).
+     * @param crossfadeMs      Eingestellte Überblenddauer, 0 = aus.
+     */
+    public static int planTransition(String album, int trackNumber, String nextAlbum, int nextTrackNumber,
+                                     long crossfadeMs) {
+        if (isGapless(album, trackNumber, nextAlbum, nextTrackNumber)) {
+            return TRANSITION_GAPLESS;
+        }
+        return crossfadeMs > 0 ? TRANSITION_CROSSFADE : TRANSITION_NONE;
+    }
+
+    static boolean isGapless(String album, int trackNumber, String nextAlbum, int nextTrackNumber) {
+        return album != null && !album.trim().isEmpty() && album.equals(nextAlbum)
+                && trackNumber > 0 && nextTrackNumber == trackNumber + 1;
+    }
+
+    /**
+     * Begrenzt die Überblendung auf die Hälfte des kürzeren Tracks. Unbekannte Dauern (0) begrenzen nicht.
+     */
+    public static long overlapMs(long crossfadeMs, long durationMs, long nextDurationMs) {
+        long overlap = Math.max(0, crossfadeMs);
+        if (durationMs > 0) {
+            overlap = Math.min(overlap, (long) (durationMs * MAX_OVERLAP_FRACTION));
+        }
+        if (nextDurationMs > 0) {
+            overlap = Math.min(overlap, (long) (nextDurationMs * MAX_OVERLAP_FRACTION));
+        }
+        return overlap;
+    }
+
+    /**
+     * Lautstärke des ausgehenden Tracks bei Fortschritt {@code t} (0..1), Equal-Power-Kurve.
+     */
+    public static float fadeOutGain(double t) {
+        return (float) Math.cos(clamp(t) * Math.PI / 2);
+    }
+
+    /**
+     * Lautstärke des eingehenden Tracks bei Fortschritt {@code t} (0..1), Equal-Power-Kurve.
+     */
+    public static float fadeInGain(double t) {
+        return (float) Math.sin(clamp(t) * Math.PI / 2);
+    }
+
+    private static double clamp(double t) {
+        return Math.max(0, Math.min(1, t));
+    }
+}
@@ -0,0 +1,289 @@
+package Controller;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.AudioDeviceCallback;
+import android.media.AudioDeviceInfo;
+import android.media.AudioManager;
+import android.media.audiofx.DynamicsProcessing;
+import android.media.audiofx.Equalizer;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+
+/**
+ * EqualizerManager verwaltet die Effektkette des Equalizers für die Audio-Session des Players.
+ * Der Effekt wird genau einmal pro Session erzeugt ({@link #attach(int)}) und bleibt über Trackwechsel
+ * hinweg bestehen, da MediaPlayer#reset() die Session-ID beibehält. Änderungen an Presets oder
+ * Bändern werden direkt auf den laufenden Effekt angewendet, ohne den Player anzufassen.
+ * Für jedes Ausgabegerät (Lautsprecher, Kopfhörer, Bluetooth, USB) wird ein eigenes Profil gespeichert
+ * und beim Wechsel des Ausgabegeräts automatisch geladen.
+ */
+public class EqualizerManager {
+    private static final String TAG = "EqualizerManager";
+
+    private static final String PREF_ENABLED = "eq_enabled";
+    private static final String PREF_PROFILE_PREFIX = "eq_profile_";
+
+    public static final String DEVICE_SPEAKER = "speaker";
+    public static final String DEVICE_WIRED = "wired";
+    public static final String DEVICE_BLUETOOTH = "bluetooth";
+    public static final String DEVICE_USB = "usb";
+
+    /**
+     * Wird aufgerufen, wenn sich das aktive Profil ändert (z. B. nach einem Gerätewechsel).
+     */
+    public interface OnProfileChangedListener {
+        void onProfileChanged(String deviceKey, EqualizerProfile profile);
+    }
+
+    private static volatile EqualizerManager instance;
+
+    private final SharedPreferences prefs;
+    private final AudioManager audioManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private int sessionId = AudioManager.ERROR;
+    private DynamicsProcessing dynamics;
+    // Fallback, falls DynamicsProcessing auf dem Gerät nicht verfügbar ist
+    private Equalizer equalizer;
+
+    private String deviceKey;
+    private EqualizerProfile profile;
+    private OnProfileChangedListener listener;
+
+    private final AudioDeviceCallback deviceCallback = new AudioDeviceCallback() {
+        @Override
+        public void onAudioDevicesAdded(AudioDeviceInfo[] addedDevices) {
+            onOutputChanged();
+        }
+
+        @Override
+        public void onAudioDevicesRemoved(AudioDeviceInfo[] removedDevices) {
+            onOutputChanged();
+        }
+    };
+
+    private EqualizerManager(Context context) {
+        Context appContext = context.getApplicationContext();
+        prefs = PreferenceManager.getDefaultSharedPreferences(appContext);
+        audioManager = (AudioManager) appContext.getSystemService(Context.AUDIO_SERVICE);
+        deviceKey = detectOutputDevice();
+        profile = loadProfile(deviceKey);
+        audioManager.registerAudioDeviceCallback(deviceCallback, mainHandler);
+    }
+
+    public static EqualizerManager getInstance(Context context) {
+        if (instance == null) {
+            synchronized (EqualizerManager.class) {
+                if (instance == null) {
+                    instance = new EqualizerManager(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Hängt den Equalizer an die Audio-Session an. Mehrfache Aufrufe mit derselben Session sind wirkungslos.
+     */
+    public void attach(int audioSessionId) {
+        if (audioSessionId == sessionId && (dynamics != null || equalizer != null)) {
+            return;
+        }
+        releaseEffects();
+        sessionId = audioSessionId;
+        try {
+            DynamicsProcessing.Config config = new DynamicsProcessing.Config.Builder(
+                    DynamicsProcessing.VARIANT_FAVOR_FREQUENCY_RESOLUTION,
+                    2,                                   // Stereo
+                    true, EqualizerProfile.BAND_COUNT,  // Pre-EQ
+                    false, 0,                            // kein Multiband-Kompressor
+                    false, 0,                            // kein Post-EQ
+                    false)                               // kein Limiter
+                    .build();
+            dynamics = new DynamicsProcessing(0, audioSessionId, config);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "DynamicsProcessing nicht verfügbar, verwende Equalizer", e);
+            dynamics = null;
+            try {
+                equalizer = new Equalizer(0, audioSessionId);
+            } catch (RuntimeException fallbackError) {
+                Log.e(TAG, "Kein Equalizer-Effekt verfügbar", fallbackError);
+                equalizer = null;
+            }
+        }
+        applyProfile();
+    }
+
+    /**
+     * Gibt die Effekte frei, sofern sie zur angegebenen Session gehören.
+     */
+    public void detach(int audioSessionId) {
+        if (audioSessionId == sessionId) {
+            releaseEffects();
+            sessionId = AudioManager.ERROR;
+        }
+    }
+
+    public void setOnProfileChangedListener(OnProfileChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public boolean isEnabled() {
+        return prefs.getBoolean(PREF_ENABLED, false);
+    }
+
+    public void setEnabled(boolean enabled) {
+        prefs.edit().putBoolean(PREF_ENABLED, enabled).apply();
+        applyProfile();
+    }
+
+    public String getDeviceKey() {
+        return deviceKey;
+    }
+
+    public EqualizerProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Übernimmt ein Profil (z. B. ein Preset) für das aktuelle Ausgabegerät.
+     */
+    public void setProfile(EqualizerProfile newProfile) {
+        profile = newProfile;
+        saveProfile();
+        applyProfile();
+    }
+
+    /**
+     * Ändert die Verstärkung eines einzelnen Bandes für das aktuelle Ausgabegerät.
+     */
+    public void setBandGain(int band, float gainDb) {
+        profile = profile.withGain(band, gainDb);
+        saveProfile();
+        applyProfile();
+    }
+
+    private void onOutputChanged() {
+        String newKey = detectOutputDevice();
+        if (newKey.equals(deviceKey)) {
+            return;
+        }
+        Log.d(TAG, "Ausgabegerät gewechselt: " + deviceKey + " -> " + newKey);
+        deviceKey = newKey;
+        profile = loadProfile(newKey);
+        applyProfile();
+        if (listener != null) {
+            listener.onProfileChanged(deviceKey, profile);
+        }
+    }
+
+    private void applyProfile() {
+        boolean enabled = isEnabled();
+        try {
+            if (dynamics != null) {
+                for (int band = 0; band < EqualizerProfile.BAND_COUNT; band++) {
+                    dynamics.setPreEqBandAllChannelsTo(band,
+                            new DynamicsProcessing.EqBand(true, bandCutoff(band), profile.getGain(band)));
+                }
+                dynamics.setInputGainAllChannelsTo(profile.getPreGain());
+                dynamics.setEnabled(enabled);
+            } else if (equalizer != null) {
+                applyToEqualizer(equalizer);
+                equalizer.setEnabled(enabled);
+            }
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Equalizer-Profil konnte nicht angewendet werden", e);
+        }
+    }
+
+    /**
+     * Überträgt das 10-Band-Profil auf die Bänder des Plattform-Equalizers (meist 5),
+     * indem für jede Mittenfrequenz der Wert des nächstgelegenen Profilbandes gewählt wird.
+     */
+    private void applyToEqualizer(Equalizer eq) {
+        short[] range = eq.getBandLevelRange();
+        short bands = eq.getNumberOfBands();
+        for (short band = 0; band < bands; band++) {
+            float centerHz = eq.getCenterFreq(band) / 1000f;
+            int nearest = 0;
+            for (int i = 1; i < EqualizerProfile.BAND_COUNT; i++) {
+                if (Math.abs(Math.log(EqualizerProfile.BAND_FREQUENCIES[i] / centerHz))
+                        < Math.abs(Math.log(EqualizerProfile.BAND_FREQUENCIES[nearest] / centerHz))) {
+                    nearest = i;
+                }
+            }
+            int millibel = Math.round(profile.getGain(nearest) * 100);
+            eq.setBandLevel(band, (short) Math.max(range[0], Math.min(range[1], millibel)));
+        }
+    }
+
+    /**
+     * Obere Grenzfrequenz eines Pre-EQ-Bandes: das geometrische Mittel zum nächsten Band.
+     */
+    private static float bandCutoff(int band) {
+        if (band == EqualizerProfile.BAND_COUNT - 1) {
+            return 20000f;
+        }
+        return (float) Math.sqrt(EqualizerProfile.BAND_FREQUENCIES[band] * EqualizerProfile.BAND_FREQUENCIES[band + 1]);
+    }
+
+    /**
+     * Ermittelt das bevorzugte aktive Ausgabegerät: Bluetooth vor USB vor Kabelkopfhörer vor Lautsprecher.
+     */
+    private String detectOutputDevice() {
+        String best = DEVICE_SPEAKER;
+        int bestRank = 0;
+        for (AudioDeviceInfo device : audioManager.getDevices(AudioManager.GET_DEVICES_OUTPUTS)) {
+            String key;
+            int rank;
+            switch (device.getType()) {
+                case AudioDeviceInfo.TYPE_BLUETOOTH_A2DP:
+                case AudioDeviceInfo.TYPE_BLE_HEADSET:
+                    key = DEVICE_BLUETOOTH;
+                    rank = 3;
+                    break;
+                case AudioDeviceInfo.TYPE_USB_HEADSET:
+                case AudioDeviceInfo.TYPE_USB_DEVICE:
+                    key = DEVICE_USB;
+                    rank = 2;
+                    break;
+                case AudioDeviceInfo.TYPE_WIRED_HEADSET:
+                case AudioDeviceInfo.TYPE_WIRED_HEADPHONES:
+                    key = DEVICE_WIRED;
+                    rank = 1;
+                    break;
+                default:
+                    continue;
+            }
+            if (rank > bestRank) {
+                best = key;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    private EqualizerProfile loadProfile(String key) {
+        EqualizerProfile stored = EqualizerProfile.parse(prefs.getString(PREF_PROFILE_PREFIX + key, null));
+        return stored != null ? stored : EqualizerProfile.FLAT;
+    }
+
+    private void saveProfile() {
+        prefs.edit().putString(PREF_PROFILE_PREFIX + deviceKey, profile.serialize()).apply();
+    }
+
+    private void releaseEffects() {
+        if (dynamics != null) {
+            dynamics.release();
+            dynamics = null;
+        }
+        if (equalizer != null) {
+            equalizer.release();
+            equalizer = null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package Controller;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * EqualizerProfile beschreibt die Einstellung des 10-Band-Equalizers: Name des Presets, Vorverstärkung
+ * und die Verstärkung je Band in dB. Die Klasse ist unveränderlich und frei von Android-Abhängigkeiten,
+ * damit sie als String in den SharedPreferences abgelegt werden kann.
+ */
+public final class EqualizerProfile {
+
+    // Mittenfrequenzen der Bänder in Hz (Oktavabstand)
+    public static final float[] BAND_FREQUENCIES = {31, 62, 125, 250, 500, 1000, 2000, 4000, 8000, 16000};
+    public static final int BAND_COUNT = BAND_FREQUENCIES.length;
+    public static final float MIN_GAIN_DB = -12f;
+    public static final float MAX_GAIN_DB = 12f;
+
+    public static final String CUSTOM = "Benutzerdefiniert";
+
+    public static final EqualizerProfile FLAT = new EqualizerProfile("Neutral", new float[BAND_COUNT]);
+
+    // Eingebaute Presets; die Vorverstärkung wird aus dem höchsten Band abgeleitet.
+    public static final EqualizerProfile[] PRESETS = {
+            FLAT,
+            new EqualizerProfile("Bass", new float[]{6, 5, 4, 2, 0, 0, 0, 0, 0, 0}),
+            new EqualizerProfile("Stimme", new float[]{-2, -2, -1, 0, 2, 4, 4, 2, 0, -1}),
+            new EqualizerProfile("Rock", new float[]{5, 4, 2, -1, -2, -1, 1, 3, 4, 4}),
+            new EqualizerProfile("Klassik", new float[]{3, 2, 1, 0, 0, 0, 0, 1, 2, 3}),
+            new EqualizerProfile("Höhen", new float[]{0, 0, 0, 0, 0, 1, 2, 4, 5, 6}),
+    };
+
+    private final String name;
+    private final float[] gains;
+
+    public EqualizerProfile(String name, float[] gains) {
+        if (gains.length != BAND_COUNT) {
+            throw new IllegalArgumentException("Erwartet " + BAND_COUNT + " Bänder, erhalten " + gains.length);
+        }
+        this.name = name;
+        this.gains = new float[BAND_COUNT];
+        for (int i = 0; i < BAND_COUNT; i++) {
+            this.gains[i] = clamp(gains[i]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public float getGain(int band) {
+        return gains[band];
+    }
+
+    /**
+     * Vorverstärkung in dB: senkt das Signal um die größte Anhebung ab, damit der Equalizer nicht übersteuert.
+     */
+    public float getPreGain() {
+        float max = 0;
+        for (float gain : gains) {
+            max = Math.max(max, gain);
+        }
+        return -max;
+    }
+
+    /**
+     * Liefert eine Kopie mit geänderter Verstärkung eines Bandes; das Ergebnis gilt als benutzerdefiniert.
+     */
+    public EqualizerProfile withGain(int band, float gainDb) {
+        float[] copy = Arrays.copyOf(gains, BAND_COUNT);
+        copy[band] = gainDb;
+        return new EqualizerProfile(CUSTOM, copy);
+    }
+
+    public static EqualizerProfile findPreset(String name) {
+        for (EqualizerProfile preset : PRESETS) {
+            if (preset.name.equals(name)) {
+                return preset;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Serialisiert das Profil als "Name|g0,g1,…".
+     */
+    public String serialize() {
+        StringBuilder sb = new StringBuilder(name).append('|');
+        for (int i = 0; i < BAND_COUNT; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(String.format(Locale.ROOT, "%.1f", gains[i]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Liest ein mit {@link #serialize()} erzeugtes Profil.
+     *
+     * @return Das Profil oder {@code null}, wenn der Wert ungültig ist.
+     */
+    public static EqualizerProfile parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        String[] parts = value.substring(separator + 1).split(",");
+        if (parts.length != BAND_COUNT) {
+            return null;
+        }
+        float[] gains = new float[BAND_COUNT];
+        try {
+            for (int i = 0; i < BAND_COUNT; i++) {
+                gains[i] = Float.parseFloat(parts[i]);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return new EqualizerProfile(value.substring(0, separator), gains);
+    }
+
+    private static float clamp(float gain) {
+        if (Float.isNaN(gain)) {
+            return 0f;
+        }
+        return Math.max(MIN_GAIN_DB, Math.min(MAX_GAIN_DB, gain));
+    }
+}
@@ -9,6 +9,7 @@ import android.util.Log;
 import androidx.documentfile.provider.DocumentFile;
 import androidx.lifecycle.LifecycleOwner;
 
+import com.example.myapplication.AppExecutors;
 import com.example.myapplication.MetadataUtil;
 
 import java.util.ArrayList;
@@ -47,7 +48,8 @@ public class LibraryScanController {
      * @param callback       Das Callback, an das nach Abschluss des Scanvorgangs die Liste der gefundenen Tracktitel übergeben wird.
      */
     public void scanLibrary(final LifecycleOwner lifecycleOwner, final String folderUri, final LibraryScanCallback callback) {
-        new Thread(new Runnable() {
+        // Niedrige Priorität im Scan-Pool, damit der Scan UI-Abfragen nicht verdrängt
+        AppExecutors.getInstance(context).scan().execute(new Runnable() {
             @Override
             public void run() {
                 final List<String> tracksCollected = new ArrayList<>();
@@ -71,7 +73,7 @@ public class LibraryScanController {
                     }
                 });
             }
-        }).start();
+        });
     }
 
     /**
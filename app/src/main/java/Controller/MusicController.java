@@ -2,12 +2,11 @@ package Controller;
 
 import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.Observer;
+import com.example.myapplication.AppLog;
 import com.example.myapplication.MusicRepository;
-import com.example.myapplication.Track;
-import java.util.List;
 
 public class MusicController extends AppCompatActivity {
+    private static final String TAG = "MusicController";
 
     private MusicRepository repository;
 
@@ -26,26 +25,13 @@ public class MusicController extends AppCompatActivity {
     }
 
     /**
-     * Lädt alle Tracks aus der Datenbank asynchron über LiveData und verarbeitet sie.
+     * Lädt den Bibliotheksindex im Hintergrund, statt jeden Track aus der Datenbank zu lesen.
      */
     public void loadTracks() {
-        // "getAllTracks()" liefert LiveData<List<Track>> zurück.
-        repository.getAllTracksLiveData().observe(this, new Observer<List<Track>>() {
-            @Override
-            public void onChanged(List<Track> tracks) {
-                if (tracks != null && !tracks.isEmpty()) {
-                    // Hier kannst du die erhaltenen Tracks weiterverarbeiten,
-                    // zum Beispiel an einen Adapter übergeben oder in der UI anzeigen.
-                    // Beispiel:
-                    for (Track track : tracks) {
-                        // Debug-Ausgabe oder UI-Update
-                        System.out.println("Geladener Track: " + track.getTitle());
-                    }
-                } else {
-                    // Behandle den Fall, dass keine Tracks in der DB gefunden wurden.
-                    System.out.println("Keine Tracks gefunden.");
-                }
-            }
-        });
+        repository.load(this, "library-index", repository::getLibraryIndex,
+                index -> AppLog.d(TAG, () -> "Bibliotheksindex geladen: " + index.size() + " Tracks"),
+                error -> {
+                    // Bereits vom Repository protokolliert
+                });
     }
 }
@@ -4,8 +4,18 @@ import android.content.Context;
 import android.media.MediaPlayer;
 import android.net.Uri;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.Choreographer;
 
+import androidx.preference.PreferenceManager;
+
+import com.example.myapplication.AppExecutors;
+import com.example.myapplication.MusicRepository;
+import com.example.myapplication.SeekIndex;
+import com.example.myapplication.SeekIndexBuilder;
 import com.example.myapplication.Track;
 
 import java.io.IOException;
@@ -13,15 +23,72 @@ import java.io.IOException;
 public class MusicPlayerController {
     private static final String TAG = "MusicPlayerController";
 
+    // Nach dieser Zeit wird die extrapolierte Position einmal mit dem MediaPlayer abgeglichen.
+    private static final long RESYNC_INTERVAL_MS = 5000;
+
+    // Überblenddauer in Sekunden (SharedPreferences), 0 = aus
+    public static final String PREF_CROSSFADE_SECONDS = "crossfade_seconds";
+    // So lange vor Beginn des Übergangs wird der nächste Track vorbereitet.
+    private static final long PRELOAD_LEAD_MS = 5000;
+    // Taktung der Lautstärkerampe während der Überblendung
+    private static final long FADE_STEP_MS = 20;
+
     private MediaPlayer mediaPlayer;
-    private Handler handler = new Handler();
-    private Runnable updateProgressRunnable;
     private MusicPlayerListener listener;
+    private Context appContext;
+    private Track currentTrack;
+    private ReplayGainProcessor replayGain;
+    // Grundlautstärke des laufenden Tracks nach ReplayGain; Überblendungen skalieren darauf.
+    private float currentBaseVolume = 1f;
+
+    // Übergang zum nächsten Track: der zweite Player wird erst kurz vor dem Übergang vorbereitet
+    // und nutzt dieselbe Audio-Session, damit die Effektkette nicht neu aufgebaut werden muss.
+    private MediaPlayer nextPlayer;
+    private Track nextTrack;
+    private boolean nextPrepared = false;
+    private int transition = CrossfadePlanner.TRANSITION_NONE;
+    private long transitionOverlapMs = 0;
+    private float nextBaseVolume = 1f;
+    private boolean fading = false;
+    private long fadeStartUptime;
+    private final Runnable preloadRunnable = this::preloadNextTrack;
+    private final Runnable fadeStartRunnable = this::startCrossfade;
+    private final Runnable fadeStepRunnable = this::stepCrossfade;
+
+    // Seek-Index des aktuellen Tracks; wird im Hintergrund aus der DB geladen oder einmalig erstellt.
+    private SeekIndex currentSeekIndex;
+    // Wurde der Player über einen Byte-Offset geöffnet, beginnt seine Zeitachse bei dieser Position.
+    private long basePositionMs = 0;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Fortschritt wird aus der PlaybackClock extrapoliert und nur im Takt des Displays
+    // (Choreographer) gemeldet, solange die Fortschrittsanzeige sichtbar ist und der Track läuft.
+    private final PlaybackClock clock = new PlaybackClock(SystemClock::elapsedRealtime);
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private boolean progressVisible = true;
+    private boolean frameCallbackPosted = false;
+    private long lastReportedPosition = -1;
+    private final Choreographer.FrameCallback progressFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameCallbackPosted = false;
+            if (mediaPlayer == null || !clock.isRunning() || !progressVisible) {
+                return;
+            }
+            if (clock.getMsSinceSync() >= RESYNC_INTERVAL_MS) {
+                clock.sync(getPlayerPosition());
+            }
+            reportProgress(clock.getPositionMs());
+            scheduleNextFrame();
+        }
+    };
 
     public interface MusicPlayerListener {
         void onTrackStarted(String title, int duration);
         void onProgressUpdated(int progress);
         void onTrackCompleted();
+        // Der Controller ist per Überblendung oder lückenlos selbst zum vorgemerkten Track gewechselt.
+        void onTrackAdvanced(Track track);
     }
 
     public MusicPlayerController(MusicPlayerListener listener) {
@@ -30,13 +97,34 @@ public class MusicPlayerController {
     }
 
     private void initializeMediaPlayer() {
-        mediaPlayer = new MediaPlayer();
-        mediaPlayer.setOnCompletionListener(mp -> {
-            stopProgressUpdater();
-            if (listener != null) {
-                listener.onTrackCompleted();
-            }
-        });
+        mediaPlayer = createPlayer();
+    }
+
+    private MediaPlayer createPlayer() {
+        MediaPlayer player = new MediaPlayer();
+        player.setOnCompletionListener(this::onPlayerCompleted);
+        return player;
+    }
+
+    private void onPlayerCompleted(MediaPlayer mp) {
+        if (mp != mediaPlayer) {
+            return;
+        }
+        if (fading) {
+            // Die tatsächliche Dauer war kürzer als gespeichert: Überblendung sofort abschließen.
+            finishCrossfade();
+            return;
+        }
+        if (transition == CrossfadePlanner.TRANSITION_GAPLESS && nextPrepared) {
+            // Die Plattform hat den verketteten Player bereits lückenlos gestartet.
+            promoteNextPlayer();
+            return;
+        }
+        stopProgressUpdater();
+        clock.pause(clock.getDurationMs());
+        if (listener != null) {
+            listener.onTrackCompleted();
+        }
     }
 
     public void playTrack(Context context, Track track) {
@@ -44,6 +132,17 @@ public class MusicPlayerController {
             Log.e(TAG, "Invalid track or URI");
             return;
         }
+        appContext = context.getApplicationContext();
+        if (replayGain == null) {
+            replayGain = new ReplayGainProcessor(appContext);
+        }
+        // Der Equalizer hängt an der Audio-Session, die über reset() hinweg bestehen bleibt;
+        // für dieselbe Session ist der Aufruf wirkungslos.
+        EqualizerManager.getInstance(appContext).attach(mediaPlayer.getAudioSessionId());
+        cancelTransition();
+        currentTrack = track;
+        currentSeekIndex = null;
+        basePositionMs = 0;
         try {
             if (mediaPlayer.isPlaying()) {
                 mediaPlayer.stop();
@@ -52,56 +151,405 @@ public class MusicPlayerController {
             Uri trackUri = Uri.parse(track.getUri());
             mediaPlayer.setDataSource(context, trackUri);
             mediaPlayer.prepare();
+            currentBaseVolume = replayGain.apply(mediaPlayer, track);
             mediaPlayer.start();
-            if (listener != null) {
-                String title = track.getTitle() != null ? track.getTitle() : "Unbekannt";
-                listener.onTrackStarted(title, mediaPlayer.getDuration());
-            }
-            startProgressUpdater();
+            onTrackBecameCurrent(track);
         } catch (IOException e) {
             Log.e(TAG, "Error playing track: " + track.getTitle(), e);
         }
     }
 
-    private void startProgressUpdater() {
-        stopProgressUpdater();
-        updateProgressRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (mediaPlayer != null && mediaPlayer.isPlaying()) {
-                    int currentPosition = mediaPlayer.getCurrentPosition();
-                    if(listener != null) {
-                        listener.onProgressUpdated(currentPosition);
-                    }
+    private void onTrackBecameCurrent(Track track) {
+        currentTrack = track;
+        currentSeekIndex = null;
+        basePositionMs = 0;
+        int duration = mediaPlayer.getDuration();
+        clock.setDurationMs(duration);
+        clock.start(mediaPlayer.getCurrentPosition());
+        lastReportedPosition = -1;
+        if (listener != null) {
+            String title = track.getTitle() != null ? track.getTitle() : "Unbekannt";
+            listener.onTrackStarted(title, duration);
+        }
+        startProgressUpdater();
+        loadSeekIndex(track);
+    }
+
+    /**
+     * Merkt den Track vor, der auf den laufenden folgt. Je nach Einstellung und Album-Kontext wird
+     * lückenlos angeschlossen, überblendet oder wie bisher erst nach dem Ende gewechselt.
+     * Muss nach {@link #playTrack(Context, Track)} aufgerufen werden.
+     *
+     * @param track Der folgende Track oder {@code null}, um die Vormerkung aufzuheben.
+     */
+    public void setNextTrack(Track track) {
+        cancelTransition();
+        if (track == null || currentTrack == null || appContext == null) {
+            return;
+        }
+        nextTrack = track;
+        long crossfadeMs = PreferenceManager.getDefaultSharedPreferences(appContext)
+                .getInt(PREF_CROSSFADE_SECONDS, 0) * 1000L;
+        transition = CrossfadePlanner.planTransition(currentTrack.getAlbum(), currentTrack.getTrackNumber(),
+                track.getAlbum(), track.getTrackNumber(), crossfadeMs);
+        if (transition == CrossfadePlanner.TRANSITION_CROSSFADE) {
+            transitionOverlapMs = CrossfadePlanner.overlapMs(crossfadeMs, currentDurationMs(), track.getDurationMs());
+            if (transitionOverlapMs <= 0) {
+                transition = CrossfadePlanner.TRANSITION_NONE;
+            }
+        }
+        scheduleTransition();
+    }
+
+    /**
+     * Dauer des laufenden Tracks: bevorzugt der beim Scan gespeicherte Wert, sonst der des Players.
+     */
+    private long currentDurationMs() {
+        if (currentTrack != null && currentTrack.getDurationMs() > 0) {
+            return currentTrack.getDurationMs();
+        }
+        return clock.getDurationMs();
+    }
+
+    /**
+     * Plant Vorbereitung bzw. Start des Übergangs relativ zur aktuellen Position neu.
+     * Wird nach Start, Fortsetzen und Springen aufgerufen.
+     */
+    private void scheduleTransition() {
+        mainHandler.removeCallbacks(preloadRunnable);
+        mainHandler.removeCallbacks(fadeStartRunnable);
+        if (transition == CrossfadePlanner.TRANSITION_NONE || nextTrack == null || !clock.isRunning() || fading) {
+            return;
+        }
+        long remaining = currentDurationMs() - clock.getPositionMs();
+        if (nextPlayer == null) {
+            mainHandler.postDelayed(preloadRunnable,
+                    Math.max(0, remaining - transitionOverlapMs - PRELOAD_LEAD_MS));
+        } else if (nextPrepared && transition == CrossfadePlanner.TRANSITION_CROSSFADE) {
+            mainHandler.postDelayed(fadeStartRunnable, Math.max(0, remaining - transitionOverlapMs));
+        }
+    }
+
+    private void preloadNextTrack() {
+        if (nextTrack == null || nextPlayer != null || mediaPlayer == null) {
+            return;
+        }
+        final Track track = nextTrack;
+        MediaPlayer player = createPlayer();
+        try {
+            player.setAudioSessionId(mediaPlayer.getAudioSessionId());
+            player.setDataSource(appContext, Uri.parse(track.getUri()));
+        } catch (IOException | RuntimeException e) {
+            Log.e(TAG, "Nächster Track kann nicht vorbereitet werden: " + track.getTitle(), e);
+            player.release();
+            transition = CrossfadePlanner.TRANSITION_NONE;
+            return;
+        }
+        nextPlayer = player;
+        player.setOnPreparedListener(mp -> {
+            if (mp != nextPlayer) {
+                return;
+            }
+            nextPrepared = true;
+            if (transition == CrossfadePlanner.TRANSITION_GAPLESS) {
+                // Die Lautstärke muss vor dem Verketten stehen: die Plattform startet den Player selbst
+                nextBaseVolume = replayGain.applyOnSharedSession(mp, track);
+                mediaPlayer.setNextMediaPlayer(mp);
+            } else {
+                scheduleTransition();
+            }
+        });
+        player.setOnErrorListener((mp, what, extra) -> {
+            Log.e(TAG, "Fehler im vorbereiteten Player: " + what + "/" + extra);
+            if (mp == nextPlayer) {
+                releaseNextPlayer();
+                transition = CrossfadePlanner.TRANSITION_NONE;
+            }
+            return true;
+        });
+        player.prepareAsync();
+    }
+
+    private void startCrossfade() {
+        if (nextPlayer == null || !nextPrepared || fading) {
+            return;
+        }
+        // Der Enhancer der gemeinsamen Session gehört noch dem ausgehenden Track
+        nextBaseVolume = replayGain.applyOnSharedSession(nextPlayer, nextTrack);
+        nextPlayer.setVolume(0f, 0f);
+        nextPlayer.start();
+        fading = true;
+        fadeStartUptime = SystemClock.uptimeMillis();
+        mainHandler.post(fadeStepRunnable);
+    }
+
+    private void stepCrossfade() {
+        if (!fading) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        double t = (now - fadeStartUptime) / (double) transitionOverlapMs;
+        if (t >= 1) {
+            finishCrossfade();
+            return;
+        }
+        float out = currentBaseVolume * CrossfadePlanner.fadeOutGain(t);
+        float in = nextBaseVolume * CrossfadePlanner.fadeInGain(t);
+        mediaPlayer.setVolume(out, out);
+        nextPlayer.setVolume(in, in);
+        mainHandler.postAtTime(fadeStepRunnable, now + FADE_STEP_MS);
+    }
+
+    private void finishCrossfade() {
+        fading = false;
+        mainHandler.removeCallbacks(fadeStepRunnable);
+        nextPlayer.setVolume(nextBaseVolume, nextBaseVolume);
+        promoteNextPlayer();
+    }
+
+    /**
+     * Bricht eine laufende Überblendung ab; der nächste Track bleibt vorbereitet und beginnt später von vorn.
+     */
+    private void abortCrossfade() {
+        if (!fading) {
+            return;
+        }
+        fading = false;
+        mainHandler.removeCallbacks(fadeStepRunnable);
+        nextPlayer.pause();
+        nextPlayer.seekTo(0);
+        mediaPlayer.setVolume(currentBaseVolume, currentBaseVolume);
+    }
+
+    /**
+     * Macht den vorbereiteten Player zum aktuellen und gibt den ausgehenden Decoder sofort frei.
+     */
+    private void promoteNextPlayer() {
+        MediaPlayer outgoing = mediaPlayer;
+        Track track = nextTrack;
+        mediaPlayer = nextPlayer;
+        nextPlayer = null;
+        nextTrack = null;
+        nextPrepared = false;
+        transition = CrossfadePlanner.TRANSITION_NONE;
+        mediaPlayer.setOnErrorListener(null);
+        outgoing.setOnCompletionListener(null);
+        outgoing.release();
+
+        // Die Lautstärke stand schon vor Überblendung bzw. Verkettung; den Enhancer jetzt umzustellen wäre ein
+        // hörbarer Sprung mitten im Track. Erst playTrack() setzt beides neu.
+        currentBaseVolume = nextBaseVolume;
+        onTrackBecameCurrent(track);
+        if (listener != null) {
+            listener.onTrackAdvanced(track);
+        }
+    }
+
+    /**
+     * Hebt die Vormerkung des nächsten Tracks auf und gibt dessen Player frei.
+     */
+    private void cancelTransition() {
+        mainHandler.removeCallbacks(preloadRunnable);
+        mainHandler.removeCallbacks(fadeStartRunnable);
+        mainHandler.removeCallbacks(fadeStepRunnable);
+        if (fading && mediaPlayer != null) {
+            mediaPlayer.setVolume(currentBaseVolume, currentBaseVolume);
+        }
+        fading = false;
+        releaseNextPlayer();
+        nextTrack = null;
+        transition = CrossfadePlanner.TRANSITION_NONE;
+        transitionOverlapMs = 0;
+    }
+
+    private void releaseNextPlayer() {
+        if (nextPlayer == null) {
+            return;
+        }
+        if (nextPrepared && mediaPlayer != null && transition == CrossfadePlanner.TRANSITION_GAPLESS) {
+            try {
+                mediaPlayer.setNextMediaPlayer(null);
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Verkettung konnte nicht gelöst werden", e);
+            }
+        }
+        nextPlayer.release();
+        nextPlayer = null;
+        nextPrepared = false;
+    }
+
+    /**
+     * Springt an die angegebene Position des aktuellen Tracks.
+     * Liegt für den Track ein erzeugter Frame-Index vor (VBR-MP3 ohne Xing/VBRI-Tabelle), wird die Datei
+     * direkt ab dem passenden Frame-Offset geöffnet, statt den Extractor die Datei durchsuchen zu lassen.
+     * In allen anderen Fällen kann der Plattform-Extractor selbst genau springen.
+     *
+     * @param positionMs Zielposition in Millisekunden.
+     */
+    public void seekTo(int positionMs) {
+        if (mediaPlayer == null || currentTrack == null) {
+            return;
+        }
+        long target = Math.max(0, positionMs);
+        if (clock.getDurationMs() > 0) {
+            target = Math.min(target, clock.getDurationMs());
+        }
+        abortCrossfade();
+        boolean wasPlaying = clock.isRunning();
+        SeekIndex index = currentSeekIndex;
+        try {
+            if (index != null && !index.isNativelySeekable()) {
+                seekViaByteOffset(index, target, wasPlaying);
+                // reset() hat die lückenlose Verkettung gelöst.
+                if (transition == CrossfadePlanner.TRANSITION_GAPLESS && nextPrepared) {
+                    mediaPlayer.setNextMediaPlayer(nextPlayer);
                 }
-                handler.postDelayed(this, 1000);
+            } else {
+                mediaPlayer.seekTo(target - basePositionMs, MediaPlayer.SEEK_CLOSEST);
             }
-        };
-        handler.post(updateProgressRunnable);
+        } catch (Exception e) {
+            Log.e(TAG, "Seek fehlgeschlagen: " + currentTrack.getTitle(), e);
+            return;
+        }
+        clock.sync(target);
+        reportProgress(clock.getPositionMs());
+        scheduleTransition();
+    }
+
+    private void seekViaByteOffset(SeekIndex index, long target, boolean wasPlaying) throws IOException {
+        int point = index.findPoint(target);
+        long offset = index.getByteOffset(point);
+        long pointTime = index.getTimeMs(point);
+
+        mediaPlayer.reset();
+        try (ParcelFileDescriptor pfd = appContext.getContentResolver()
+                .openFileDescriptor(Uri.parse(currentTrack.getUri()), "r")) {
+            if (pfd == null) {
+                throw new IOException("Datei nicht lesbar: " + currentTrack.getUri());
+            }
+            // MediaPlayer dupliziert den Deskriptor, daher darf pfd danach geschlossen werden.
+            mediaPlayer.setDataSource(pfd.getFileDescriptor(), offset, pfd.getStatSize() - offset);
+        }
+        mediaPlayer.prepare();
+        basePositionMs = pointTime;
+        // Der Rest bis zur Zielposition ist kürzer als ein Indexintervall und wird exakt dekodiert.
+        long remainder = target - pointTime;
+        if (remainder > 0) {
+            mediaPlayer.seekTo(remainder, MediaPlayer.SEEK_CLOSEST);
+        }
+        if (wasPlaying) {
+            mediaPlayer.start();
+        }
+    }
+
+    private void loadSeekIndex(final Track track) {
+        final Context context = appContext;
+        // Der Index entsteht aus einem Durchlauf über die Datei und läuft deshalb im Scan-Pool
+        AppExecutors.getInstance(context).scan().execute(() -> {
+            MusicRepository repository = MusicRepository.getInstance(context);
+            SeekIndex index = repository.getSeekIndex(track.getId());
+            if (index == null) {
+                index = SeekIndexBuilder.build(context, Uri.parse(track.getUri()));
+                if (index != null) {
+                    repository.saveSeekIndex(track.getId(), index);
+                    Log.d(TAG, "Seek-Index erstellt für " + track.getTitle() + ": " + index);
+                }
+            }
+            final SeekIndex loaded = index;
+            mainHandler.post(() -> {
+                // Nur übernehmen, wenn inzwischen kein anderer Track gestartet wurde.
+                if (currentTrack == track) {
+                    currentSeekIndex = loaded;
+                }
+            });
+        });
+    }
+
+    private long getPlayerPosition() {
+        return basePositionMs + mediaPlayer.getCurrentPosition();
+    }
+
+    /**
+     * Legt fest, ob die Fortschrittsanzeige sichtbar ist (z. B. aus onStart()/onStop() der Activity).
+     * Im Hintergrund wird kein einziger Frame-Callback mehr eingeplant.
+     */
+    public void setProgressVisible(boolean visible) {
+        progressVisible = visible;
+        if (visible) {
+            // Beim Zurückkehren sofort den aktuellen Stand anzeigen, auch wenn pausiert ist.
+            if (mediaPlayer != null && clock.getDurationMs() > 0) {
+                reportProgress(clock.getPositionMs());
+            }
+            startProgressUpdater();
+        } else {
+            stopProgressUpdater();
+        }
+    }
+
+    private void startProgressUpdater() {
+        if (clock.isRunning() && progressVisible) {
+            scheduleNextFrame();
+        }
+    }
+
+    private void scheduleNextFrame() {
+        if (!frameCallbackPosted) {
+            frameCallbackPosted = true;
+            choreographer.postFrameCallback(progressFrameCallback);
+        }
     }
 
     private void stopProgressUpdater() {
-        if (updateProgressRunnable != null) {
-            handler.removeCallbacks(updateProgressRunnable);
+        if (frameCallbackPosted) {
+            choreographer.removeFrameCallback(progressFrameCallback);
+            frameCallbackPosted = false;
+        }
+    }
+
+    private void reportProgress(long positionMs) {
+        if (positionMs == lastReportedPosition) {
+            return;
+        }
+        lastReportedPosition = positionMs;
+        if (listener != null) {
+            listener.onProgressUpdated((int) positionMs);
         }
     }
 
     public void pause() {
         if (mediaPlayer != null && mediaPlayer.isPlaying()) {
+            abortCrossfade();
             mediaPlayer.pause();
+            clock.pause(getPlayerPosition());
+            mainHandler.removeCallbacks(preloadRunnable);
+            mainHandler.removeCallbacks(fadeStartRunnable);
+            stopProgressUpdater();
+            reportProgress(clock.getPositionMs());
         }
     }
 
     public void resume() {
         if (mediaPlayer != null && !mediaPlayer.isPlaying()) {
             mediaPlayer.start();
+            clock.start(getPlayerPosition());
             startProgressUpdater();
+            scheduleTransition();
         }
     }
 
     public void release() {
         stopProgressUpdater();
+        clock.reset();
+        cancelTransition();
+        currentTrack = null;
+        if (replayGain != null) {
+            replayGain.release();
+            replayGain = null;
+        }
         if (mediaPlayer != null) {
+            if (appContext != null) {
+                EqualizerManager.getInstance(appContext).detach(mediaPlayer.getAudioSessionId());
+            }
             if (mediaPlayer.isPlaying()) {
                 mediaPlayer.stop();
             }
@@ -0,0 +1,117 @@
+package Controller;
+
+/**
+ * PlaybackClock extrapoliert die aktuelle Wiedergabeposition aus einem Ankerzeitpunkt und der Wiedergaberate.
+ * Dadurch muss die Position nicht bei jedem Frame über JNI vom MediaPlayer abgefragt werden –
+ * ein Abgleich mit der echten Position ist nur beim Start, beim Pausieren und beim Springen nötig.
+ * Die Klasse ist frei von Android-Abhängigkeiten, die Zeitquelle wird von außen übergeben.
+ */
+public class PlaybackClock {
+
+    /**
+     * Liefert eine monotone Zeit in Millisekunden (z. B. SystemClock::elapsedRealtime).
+     */
+    public interface TimeSource {
+        long nowMs();
+    }
+
+    private final TimeSource timeSource;
+    private long anchorPositionMs;
+    private long anchorTimeMs;
+    private float rate = 1f;
+    private long durationMs;
+    private boolean running;
+
+    public PlaybackClock(TimeSource timeSource) {
+        this.timeSource = timeSource;
+    }
+
+    /**
+     * Startet die Uhr an der angegebenen Position.
+     *
+     * @param positionMs Die tatsächliche Position des Players in Millisekunden.
+     */
+    public void start(long positionMs) {
+        anchor(positionMs);
+        running = true;
+    }
+
+    /**
+     * Hält die Uhr an der angegebenen Position an.
+     *
+     * @param positionMs Die tatsächliche Position des Players in Millisekunden.
+     */
+    public void pause(long positionMs) {
+        anchor(positionMs);
+        running = false;
+    }
+
+    /**
+     * Gleicht die Uhr mit der tatsächlichen Position ab, ohne den Lauf-Zustand zu ändern (z. B. nach einem Seek).
+     */
+    public void sync(long positionMs) {
+        anchor(positionMs);
+    }
+
+    /**
+     * Setzt die Uhr vollständig zurück (kein Track geladen).
+     */
+    public void reset() {
+        running = false;
+        anchorPositionMs = 0;
+        anchorTimeMs = timeSource.nowMs();
+        durationMs = 0;
+    }
+
+    /**
+     * Ändert die Wiedergaberate. Die bisher vergangene Zeit wird mit der alten Rate verrechnet.
+     */
+    public void setRate(float rate) {
+        if (rate <= 0f || rate == this.rate) {
+            return;
+        }
+        anchor(getPositionMs());
+        this.rate = rate;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = Math.max(0, durationMs);
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Liefert die extrapolierte Position, begrenzt auf [0, Dauer] (sofern eine Dauer bekannt ist).
+     */
+    public long getPositionMs() {
+        long position = anchorPositionMs;
+        if (running) {
+            position += (long) ((timeSource.nowMs() - anchorTimeMs) * rate);
+        }
+        if (position < 0) {
+            return 0;
+        }
+        if (durationMs > 0 && position > durationMs) {
+            return durationMs;
+        }
+        return position;
+    }
+
+    /**
+     * Millisekunden seit dem letzten Abgleich mit dem Player.
+     */
+    public long getMsSinceSync() {
+        return timeSource.nowMs() - anchorTimeMs;
+    }
+
+    private void anchor(long positionMs) {
+        anchorPositionMs = Math.max(0, positionMs);
+        anchorTimeMs = timeSource.nowMs();
+    }
+}
@@ -0,0 +1,139 @@
+package Controller;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.MediaPlayer;
+import android.media.audiofx.LoudnessEnhancer;
+import android.util.Log;
+
+import androidx.preference.PreferenceManager;
+
+import com.example.myapplication.Track;
+
+/**
+ * ReplayGainProcessor wendet den gespeicherten ReplayGain-Wert eines Tracks auf einen MediaPlayer an.
+ * Absenkungen erfolgen über {@link MediaPlayer#setVolume(float, float)}, Anhebungen über einen
+ * {@link LoudnessEnhancer} auf der Audio-Session des Players. Anhebungen werden so begrenzt, dass der
+ * gespeicherte True Peak 0 dBTP nicht überschreitet.
+ * <p>
+ * Der LoudnessEnhancer hängt an der Audio-Session und wirkt damit auf alle Player dieser Session. Ein zweiter
+ * Player für Überblendung oder lückenlosen Übergang erhält seinen Gain deshalb über
+ * {@link #applyOnSharedSession(MediaPlayer, Track)} allein per Lautstärke, ohne den Enhancer anzufassen.
+ */
+public class ReplayGainProcessor {
+    private static final String TAG = "ReplayGainProcessor";
+
+    public static final String PREF_MODE = "replaygain_mode";
+    public static final String MODE_OFF = "off";
+    public static final String MODE_TRACK = "track";
+    public static final String MODE_ALBUM = "album";
+
+    private final SharedPreferences prefs;
+    private LoudnessEnhancer enhancer;
+    private int enhancerSessionId = -1;
+    // Anhebung, die der Enhancer gerade auf die Session anwendet (0 = aus)
+    private float enhancerGainDb = 0f;
+
+    public ReplayGainProcessor(Context context) {
+        this.prefs = PreferenceManager.getDefaultSharedPreferences(context.getApplicationContext());
+    }
+
+    public String getMode() {
+        return prefs.getString(PREF_MODE, MODE_TRACK);
+    }
+
+    /**
+     * Wendet den Gain des Tracks auf den (vorbereiteten) Player an.
+     *
+     * @return Die gesetzte Grundlautstärke (0..1), auf die z. B. eine Überblendung skaliert werden muss.
+     */
+    public float apply(MediaPlayer player, Track track) {
+        float gainDb = resolveGain(track, getMode());
+        if (gainDb <= 0) {
+            float volume = (float) Math.pow(10, gainDb / 20.0);
+            player.setVolume(volume, volume);
+            setEnhancerGain(player, 0);
+            return volume;
+        }
+        player.setVolume(1f, 1f);
+        setEnhancerGain(player, gainDb);
+        return 1f;
+    }
+
+    /**
+     * Wendet den Gain eines Tracks auf einen weiteren Player derselben Audio-Session an, solange der laufende
+     * Track noch spielt. Der Enhancer bleibt unverändert; die Lautstärke gleicht seine aktive Anhebung aus.
+     * Mehr Anhebung, als der Enhancer gerade liefert, ist per Lautstärke nicht möglich und entfällt.
+     * Vor {@link MediaPlayer#setNextMediaPlayer(MediaPlayer)} bzw. vor dem Start des Players aufrufen.
+     *
+     * @return Die gesetzte Grundlautstärke (0..1).
+     */
+    public float applyOnSharedSession(MediaPlayer player, Track track) {
+        float gainDb = resolveGain(track, getMode()) - enhancerGainDb;
+        float volume = gainDb >= 0 ? 1f : (float) Math.pow(10, gainDb / 20.0);
+        player.setVolume(volume, volume);
+        return volume;
+    }
+
+    /**
+     * Ermittelt den anzuwendenden Gain in dB. Der Album-Modus fällt auf den Track-Gain zurück,
+     * wenn für das Album noch kein Wert vorliegt.
+     */
+    static float resolveGain(Track track, String mode) {
+        if (track == null || MODE_OFF.equals(mode)) {
+            return 0f;
+        }
+        float gain = track.getTrackGain();
+        float peak = track.getTrackPeak();
+        if (MODE_ALBUM.equals(mode) && !Float.isNaN(track.getAlbumGain())) {
+            gain = track.getAlbumGain();
+            peak = track.getAlbumPeak();
+        }
+        if (Float.isNaN(gain)) {
+            return 0f;
+        }
+        if (gain > 0 && !Float.isNaN(peak) && peak > 0) {
+            // Clipping vermeiden: höchstens so weit anheben, bis der Peak 0 dBTP erreicht.
+            float headroomDb = (float) (-20 * Math.log10(peak));
+            gain = Math.min(gain, Math.max(0f, headroomDb));
+        }
+        return gain;
+    }
+
+    private void setEnhancerGain(MediaPlayer player, float gainDb) {
+        try {
+            int sessionId = player.getAudioSessionId();
+            if (gainDb <= 0) {
+                if (enhancer != null) {
+                    enhancer.setEnabled(false);
+                }
+                enhancerGainDb = 0f;
+                return;
+            }
+            if (enhancer == null || enhancerSessionId != sessionId) {
+                releaseEnhancer();
+                enhancer = new LoudnessEnhancer(sessionId);
+                enhancerSessionId = sessionId;
+            }
+            enhancer.setTargetGain(Math.round(gainDb * 100)); // Millibel
+            enhancer.setEnabled(true);
+            enhancerGainDb = gainDb;
+        } catch (RuntimeException e) {
+            Log.w(TAG, "LoudnessEnhancer nicht verfügbar, Anhebung entfällt", e);
+            releaseEnhancer();
+        }
+    }
+
+    private void releaseEnhancer() {
+        if (enhancer != null) {
+            enhancer.release();
+            enhancer = null;
+            enhancerSessionId = -1;
+        }
+        enhancerGainDb = 0f;
+    }
+
+    public void release() {
+        releaseEnhancer();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.myapplication;
 
 import android.os.Bundle;
+import android.view.Gravity;
+import android.widget.LinearLayout;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -10,44 +13,44 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import com.example.myapplication.databinding.ActivityAllTracksBinding;
 
 import java.util.Set;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
-import dagger.hilt.android.AndroidEntryPoint;
-
-@AndroidEntryPoint
 public class AllTracksActivity extends AppCompatActivity {
     private ActivityAllTracksBinding binding;
     private TrackViewModel trackViewModel;
-    private TrackAdapter adapter = new TrackAdapter();
+    private TrackAdapter adapter;
 
     @Inject MusicScanScheduler scheduler;
     @Inject FolderManager folderManager;
+    @Inject AppExecutors executors;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        MusicComponents.get(this).inject(this);
         super.onCreate(savedInstanceState);
         binding = ActivityAllTracksBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
+        FrameMetricsRecorder.track(this, "AllTracks");
+        adapter = new TrackAdapter(executors);
 
-        // RecyclerView einrichten
-        binding.recyclerTracks.setLayoutManager(new LinearLayoutManager(this));
-        binding.recyclerTracks.setAdapter(adapter);
+        // RecyclerView einrichten: gemeinsamer Zeilen-Pool und Vorab-Binden beim Fling
+        TrackListPipeline.attach(this, binding.recyclerTracks, adapter);
 
         // Debugging der DB off-main-thread
-        Executors.newSingleThreadExecutor().execute(() ->
+        executors.dbRead().execute(() ->
                 MusicRepository.getInstance(getApplicationContext()).debugDatabase()
         );
 
         // LiveData-Beobachtung: UI reagiert automatisch auf DB-Updates
         trackViewModel = new ViewModelProvider(this).get(TrackViewModel.class);
-        trackViewModel.getAllTracks().observe(this, tracks -> {
-            if (tracks == null || tracks.isEmpty()) {
+        trackViewModel.getTitles().observe(this, titles -> {
+            if (titles.tracks.isEmpty()) {
                 Toast.makeText(this, "Keine Tracks gefunden", Toast.LENGTH_SHORT).show();
             }
-            adapter.submitList(tracks);
+            adapter.submitList(titles.tracks);
+            showSectionIndex(titles.sections);
         });
 
         // Periodischen Scan einmalig planen
@@ -71,10 +74,25 @@ public class AllTracksActivity extends AppCompatActivity {
         scheduler.triggerOneTime(foldersCsv);
     }
 
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // OneTime-Scan ohne Ordner-Parameter, um neue Dateien zu erfassen
-        scheduler.triggerOneTime(null);
+    /**
+     * Baut aus dem Sektionsindex der Liste die Buchstabenleiste am rechten Rand auf.
+     * Ein Tipp auf einen Buchstaben springt ohne Suche direkt an die erste Zeile der Sektion.
+     */
+    private void showSectionIndex(SectionIndex index) {
+        adapter.setSectionIndex(index);
+        LinearLayout strip = binding.sectionStrip;
+        strip.removeAllViews();
+        String[] sections = index.getSections();
+        for (int i = 0; i < sections.length; i++) {
+            TextView letter = new TextView(this);
+            letter.setText(sections[i]);
+            letter.setTextColor(0xFFAAAAAA);
+            letter.setGravity(Gravity.CENTER);
+            final int section = i;
+            letter.setOnClickListener(v -> ((LinearLayoutManager) binding.recyclerTracks.getLayoutManager())
+                    .scrollToPositionWithOffset(adapter.getPositionForSection(section), 0));
+            strip.addView(letter, new LinearLayout.LayoutParams(
+                    LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+        }
     }
 }
@@ -0,0 +1,130 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * AppExecutors ist das zentrale Verzeichnis der Hintergrund-Threads. Jede Art von Arbeit hat einen eigenen,
+ * benannten Pool, damit Vordergrund-Abfragen nie hinter einem Scan warten:
+ * <ul>
+ *     <li>{@link #dbWrite()}: genau ein Thread, der einzige Schreiber der Datenbank. Schreibzugriffe der UI
+ *     (Playlists, Ordner entfernen) landen direkt hier; Scanner, Worker, Wiedergabeprotokoll und
+ *     {@link DatabaseMaintenance} reichen jede Transaktion über {@link DbWriter} hierher weiter und warten auf
+ *     sie. So zeigt die Warteschlange dieses Pools jede Wartezeit auf die Schreibsperre.</li>
+ *     <li>{@link #dbRead()}: begrenzter Pool für Abfragen des Repositorys (LiveData, Diagnose).</li>
+ *     <li>{@link #scan()}: Dateisystem-Scans, Seek-Indizes und alle WorkManager-Worker (siehe
+ *     {@link WorkManagerConfigInitializer}) mit {@code THREAD_PRIORITY_BACKGROUND}, damit sie UI und
+ *     Wiedergabe keine CPU-Zeit nehmen.</li>
+ *     <li>{@link #uiLoad()}: Daten, auf die ein Bildschirm wartet (erste Seite, Nachladen, Sektionsindex,
+ *     Listen-Diffs, Arbeit nach dem ersten Frame).</li>
+ *     <li>{@link #textLayout()}: Textlayouts der Listenzeilen, getrennt von {@link #uiLoad()}, damit ein langer
+ *     Diff sie nicht aufhält.</li>
+ * </ul>
+ * Wartezeiten und Warteschlangenlängen jedes Pools misst {@link MonitoredExecutor}; die Diagnose zeigt sie an.
+ * Für verzögerte Aufgaben gibt es {@link #timer()}, für Android-APIs, die einen {@link Handler} verlangen,
+ * {@link #callbackHandler()}; beide reichen Arbeit nur weiter oder zählen Messwerte und tauchen deshalb nicht
+ * in der Diagnose auf. Die Pools laufen für die Lebensdauer des Prozesses und werden nicht beendet.
+ */
+@Singleton
+public class AppExecutors {
+
+    private static final int READER_THREADS = 3;
+    // Ein Thread mehr als Scan und Analyse gleichzeitig brauchen, damit die Wartung nicht hinter ihnen wartet
+    private static final int SCAN_THREADS = 3;
+    private static final int UI_LOAD_THREADS = 2;
+
+    private final MonitoredExecutor dbWrite;
+    private final MonitoredExecutor dbRead;
+    private final MonitoredExecutor scan;
+    private final MonitoredExecutor uiLoad;
+    private final MonitoredExecutor textLayout;
+    private final ScheduledExecutorService timer;
+    private Handler callbackHandler;
+
+    @Inject
+    public AppExecutors() {
+        dbWrite = new MonitoredExecutor("DbWriter", 1,
+                threadFactory("DbWriter", Process.THREAD_PRIORITY_DEFAULT));
+        dbRead = new MonitoredExecutor("DbReader", READER_THREADS,
+                threadFactory("DbReader", Process.THREAD_PRIORITY_DEFAULT));
+        scan = new MonitoredExecutor("Scan", SCAN_THREADS,
+                threadFactory("Scan", Process.THREAD_PRIORITY_BACKGROUND));
+        uiLoad = new MonitoredExecutor("UiLoad", UI_LOAD_THREADS,
+                threadFactory("UiLoad", Process.THREAD_PRIORITY_DEFAULT));
+        textLayout = new MonitoredExecutor("TextLayout", 1,
+                threadFactory("TextLayout", Process.THREAD_PRIORITY_DEFAULT + Process.THREAD_PRIORITY_LESS_FAVORABLE));
+        timer = new ScheduledThreadPoolExecutor(1, threadFactory("Timer", Process.THREAD_PRIORITY_BACKGROUND));
+    }
+
+    public static AppExecutors getInstance(Context context) {
+        return MusicComponents.get(context).appExecutors();
+    }
+
+    public MonitoredExecutor dbWrite() {
+        return dbWrite;
+    }
+
+    public MonitoredExecutor dbRead() {
+        return dbRead;
+    }
+
+    public MonitoredExecutor scan() {
+        return scan;
+    }
+
+    public MonitoredExecutor uiLoad() {
+        return uiLoad;
+    }
+
+    public MonitoredExecutor textLayout() {
+        return textLayout;
+    }
+
+    /**
+     * Ein Thread für verzögerte Aufgaben. Sie dürfen nur kurz laufen und die eigentliche Arbeit an einen der
+     * Pools übergeben.
+     */
+    public ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    /**
+     * Ein gemeinsamer Hintergrund-Thread für Callbacks von Android-APIs, die einen {@link Handler} verlangen
+     * (z. B. Frame-Metriken). Er wird beim ersten Aufruf gestartet.
+     */
+    public synchronized Handler callbackHandler() {
+        if (callbackHandler == null) {
+            HandlerThread thread = new HandlerThread("Callbacks", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            callbackHandler = new Handler(thread.getLooper());
+        }
+        return callbackHandler;
+    }
+
+    public List<MonitoredExecutor> all() {
+        return Arrays.asList(uiLoad, textLayout, dbRead, dbWrite, scan);
+    }
+
+    /**
+     * Benennt die Threads "name-1", "name-2", … und setzt ihre Linux-Priorität beim Start.
+     */
+    private static ThreadFactory threadFactory(String name, int priority) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(() -> {
+            Process.setThreadPriority(priority);
+            runnable.run();
+        }, name + "-" + count.incrementAndGet());
+    }
+}
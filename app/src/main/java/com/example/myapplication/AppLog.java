@@ -0,0 +1,66 @@
+package com.example.myapplication;
+
+import android.util.Log;
+
+import java.util.function.Supplier;
+
+/**
+ * AppLog ist die Logging-Fassade der App. Debug- und Verbose-Ausgaben erscheinen nur in Debug-Builds:
+ * {@link #DEBUG} ist in Release-Builds eine Compile-Zeit-Konstante {@code false}, sodass javac Blöcke der Form
+ * {@code if (AppLog.DEBUG) { ... }} entfernt, und R8 streicht verbleibende Aufrufe von {@code v()} und {@code d()}
+ * samt ihrer Argumente (siehe proguard-rules.pro).
+ * <p>
+ * Für Meldungen, deren Aufbau selbst Zeit kostet, gibt es Varianten mit {@link Supplier}: Der Text wird nur
+ * gebaut, wenn er auch ausgegeben wird. Info, Warnungen und Fehler werden immer geloggt.
+ */
+public final class AppLog {
+
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    private AppLog() {
+    }
+
+    public static void v(String tag, String msg) {
+        if (DEBUG) {
+            Log.v(tag, msg);
+        }
+    }
+
+    public static void v(String tag, Supplier<String> msg) {
+        if (DEBUG) {
+            Log.v(tag, msg.get());
+        }
+    }
+
+    public static void d(String tag, String msg) {
+        if (DEBUG) {
+            Log.d(tag, msg);
+        }
+    }
+
+    public static void d(String tag, Supplier<String> msg) {
+        if (DEBUG) {
+            Log.d(tag, msg.get());
+        }
+    }
+
+    public static void i(String tag, String msg) {
+        Log.i(tag, msg);
+    }
+
+    public static void w(String tag, String msg) {
+        Log.w(tag, msg);
+    }
+
+    public static void w(String tag, String msg, Throwable tr) {
+        Log.w(tag, msg, tr);
+    }
+
+    public static void e(String tag, String msg) {
+        Log.e(tag, msg);
+    }
+
+    public static void e(String tag, String msg, Throwable tr) {
+        Log.e(tag, msg, tr);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.myapplication;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die BrowseActivity listet Interpreten oder Alben aus den vorberechneten Zusammenfassungstabellen auf.
+ * Seiten werden per Keyset nachgeladen, sodass Öffnen und Blättern unabhängig von der Bibliotheksgröße bleiben.
+ * Ein Klick öffnet die Titel des gewählten Eintrags in der {@link TrackListActivity}. Jede Seite wird als neue
+ * Liste an den {@link LibrarySummaryAdapter} übergeben, dessen Diff im Hintergrund läuft.
+ */
+public class BrowseActivity extends AppCompatActivity {
+
+    public static final String EXTRA_MODE = "browse_mode";
+    public static final String MODE_ARTISTS = "artists";
+    public static final String MODE_ALBUMS = "albums";
+
+    private static final int PAGE_SIZE = 50;
+
+    private MusicRepository repository;
+    private AppExecutors executors;
+    private LibrarySummaryAdapter adapter;
+    private final List<LibrarySummary> summaries = new ArrayList<>();
+    private Button btnMode;
+    private TextView lblCount;
+    private String mode;
+    private boolean isLoading = false;
+    private boolean endReached = false;
+    // Erhöht sich bei jedem Moduswechsel, damit verspätete Seiten des alten Modus verworfen werden.
+    private int generation = 0;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_browse);
+
+        repository = MusicRepository.getInstance(getApplicationContext());
+        executors = AppExecutors.getInstance(getApplicationContext());
+        btnMode = findViewById(R.id.btnBrowseMode);
+        lblCount = findViewById(R.id.lblBrowseCount);
+        RecyclerView recyclerView = findViewById(R.id.recyclerSummaries);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new LibrarySummaryAdapter(executors, summary -> {
+            Intent intent = new Intent(BrowseActivity.this, TrackListActivity.class);
+            intent.putExtra(MODE_ALBUMS.equals(mode) ? TrackListActivity.EXTRA_ALBUM : TrackListActivity.EXTRA_ARTIST,
+                    summary.getName());
+            startActivity(intent);
+        });
+        recyclerView.setAdapter(adapter);
+
+        mode = MODE_ALBUMS.equals(getIntent().getStringExtra(EXTRA_MODE)) ? MODE_ALBUMS : MODE_ARTISTS;
+        btnMode.setOnClickListener(v -> switchMode(MODE_ARTISTS.equals(mode) ? MODE_ALBUMS : MODE_ARTISTS));
+
+        TrackListPipeline.prefetchPages(recyclerView, 5, () -> {
+            if (!isLoading && !endReached) {
+                loadNextPage();
+            }
+        });
+
+        switchMode(mode);
+    }
+
+    private void switchMode(String newMode) {
+        mode = newMode;
+        generation++;
+        summaries.clear();
+        adapter.submitList(new ArrayList<>());
+        endReached = false;
+        isLoading = false;
+        btnMode.setText(MODE_ARTISTS.equals(mode) ? "Ansicht: Interpreten" : "Ansicht: Alben");
+        lblCount.setText("");
+
+        final int requestGeneration = generation;
+        final boolean artists = MODE_ARTISTS.equals(mode);
+        executors.uiLoad().execute(() -> {
+            long count = artists ? repository.getArtistCount() : repository.getAlbumCount();
+            runOnUiThread(() -> {
+                if (requestGeneration == generation) {
+                    lblCount.setText(count + (artists ? " Interpreten" : " Alben"));
+                }
+            });
+        });
+        loadNextPage();
+    }
+
+    /**
+     * Lädt asynchron die Seite nach dem zuletzt angezeigten Eintrag.
+     */
+    private void loadNextPage() {
+        isLoading = true;
+        final int requestGeneration = generation;
+        final boolean artists = MODE_ARTISTS.equals(mode);
+        final LibrarySummary last = summaries.isEmpty() ? null : summaries.get(summaries.size() - 1);
+        executors.uiLoad().execute(() -> {
+            final List<LibrarySummary> page = artists
+                    ? repository.getArtistsPage(last, PAGE_SIZE)
+                    : repository.getAlbumsPage(last, PAGE_SIZE);
+            runOnUiThread(() -> {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                summaries.addAll(page);
+                // Der Diff läuft im Hintergrund; submitList braucht je Änderung eine neue Liste.
+                adapter.submitList(new ArrayList<>(summaries));
+                endReached = page.size() < PAGE_SIZE;
+                isLoading = false;
+            });
+        });
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.myapplication;
+
+/**
+ * ChromaFingerprinter berechnet aus einem kurzen dekodierten Ausschnitt einen kompakten akustischen Fingerabdruck.
+ * Die Samples werden zu Mono gemischt, in FFT-Frames zerlegt und die Spektralenergie auf die zwölf Tonklassen
+ * (Chroma) abgebildet. Die Frames werden über {@link #SEGMENTS} gleich lange Zeitsegmente summiert; je Segment und
+ * Tonklasse entsteht ein Bit "stärker als der Durchschnitt des Segments".
+ * <p>
+ * Solche Vergleichsbits hängen weder von Lautstärke noch von Abtastrate oder Codec ab, sodass neu kodierte
+ * Kopien desselben Stücks nur in wenigen Bits abweichen (siehe {@link DuplicateIndex}). Die Klasse ist frei von
+ * Android-Abhängigkeiten.
+ */
+public class ChromaFingerprinter {
+
+    public static final int SEGMENTS = 16;
+    public static final double SEGMENT_SECONDS = 1.25;
+    public static final int BITS = SEGMENTS * 12;
+
+    private static final int FFT_SIZE = 4096;
+    private static final double MIN_HZ = 200;
+    private static final double MAX_HZ = 4000;
+
+    private final int channels;
+    private final long segmentFrames;
+    private final int[] binClass;
+    private final double[] window;
+    private final double[] cos;
+    private final double[] sin;
+
+    private final double[] frame = new double[FFT_SIZE];
+    private final double[] re = new double[FFT_SIZE];
+    private final double[] im = new double[FFT_SIZE];
+    private int framePos = 0;
+    private long framesSeen = 0;
+
+    private final double[][] chroma = new double[SEGMENTS][12];
+    private final int[] framesPerSegment = new int[SEGMENTS];
+
+    public ChromaFingerprinter(int sampleRate, int channels) {
+        if (sampleRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Ungültiges Format: " + sampleRate + " Hz, " + channels + " Kanäle");
+        }
+        this.channels = channels;
+        this.segmentFrames = Math.round(sampleRate * SEGMENT_SECONDS);
+        // Zuordnung FFT-Bin → Tonklasse (0 = C), -1 außerhalb des ausgewerteten Frequenzbereichs
+        binClass = new int[FFT_SIZE / 2];
+        for (int bin = 0; bin < binClass.length; bin++) {
+            double hz = (double) bin * sampleRate / FFT_SIZE;
+            if (hz < MIN_HZ || hz > MAX_HZ) {
+                binClass[bin] = -1;
+            } else {
+                long midi = Math.round(69 + 12 * Math.log(hz / 440.0) / Math.log(2));
+                binClass[bin] = (int) (midi % 12);
+            }
+        }
+        window = new double[FFT_SIZE];
+        cos = new double[FFT_SIZE / 2];
+        sin = new double[FFT_SIZE / 2];
+        for (int i = 0; i < FFT_SIZE; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (FFT_SIZE - 1));
+        }
+        for (int i = 0; i < FFT_SIZE / 2; i++) {
+            cos[i] = Math.cos(2 * Math.PI * i / FFT_SIZE);
+            sin[i] = -Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+    }
+
+    /**
+     * @return Gesamtlänge des benötigten Ausschnitts in Sekunden.
+     */
+    public static double windowSeconds() {
+        return SEGMENTS * SEGMENT_SECONDS;
+    }
+
+    /**
+     * @param samples Interleavte Samples (-1..1).
+     * @param frames  Anzahl gültiger Frames.
+     * @return false, sobald alle Segmente gefüllt sind und weitere Samples nicht mehr benötigt werden.
+     */
+    public boolean process(float[] samples, int frames) {
+        for (int f = 0; f < frames; f++) {
+            if (isComplete()) {
+                return false;
+            }
+            double sum = 0;
+            int base = f * channels;
+            for (int c = 0; c < channels; c++) {
+                sum += samples[base + c];
+            }
+            frame[framePos++] = sum / channels;
+            if (framePos == FFT_SIZE) {
+                analyzeFrame((int) (framesSeen / segmentFrames));
+                framePos = 0;
+            }
+            framesSeen++;
+        }
+        return !isComplete();
+    }
+
+    private boolean isComplete() {
+        return framesSeen >= SEGMENTS * segmentFrames;
+    }
+
+    private void analyzeFrame(int segment) {
+        if (segment >= SEGMENTS) {
+            return;
+        }
+        for (int i = 0; i < FFT_SIZE; i++) {
+            re[i] = frame[i] * window[i];
+            im[i] = 0;
+        }
+        fft(re, im);
+        double[] target = chroma[segment];
+        for (int bin = 1; bin < binClass.length; bin++) {
+            int pitchClass = binClass[bin];
+            if (pitchClass >= 0) {
+                target[pitchClass] += Math.sqrt(re[bin] * re[bin] + im[bin] * im[bin]);
+            }
+        }
+        framesPerSegment[segment]++;
+    }
+
+    /**
+     * @return Der Fingerabdruck mit {@link #BITS} Bits (Bit {@code s * 12 + c} in Wort {@code / 64}), oder
+     * {@code null}, wenn der Ausschnitt zu kurz oder stumm war.
+     */
+    public long[] getFingerprint() {
+        long[] bits = new long[(BITS + 63) / 64];
+        boolean audible = false;
+        for (int s = 0; s < SEGMENTS; s++) {
+            if (framesPerSegment[s] == 0) {
+                return null;
+            }
+            double[] segment = chroma[s];
+            double mean = 0;
+            for (int c = 0; c < 12; c++) {
+                mean += segment[c] / 12;
+            }
+            if (mean > 0) {
+                audible = true;
+            }
+            for (int c = 0; c < 12; c++) {
+                if (segment[c] > mean) {
+                    int bit = s * 12 + c;
+                    bits[bit / 64] |= 1L << (bit % 64);
+                }
+            }
+        }
+        return audible ? bits : null;
+    }
+
+    /**
+     * Iterative Radix-2-FFT (in place).
+     */
+    private void fft(double[] re, double[] im) {
+        int n = re.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        for (int len = 2; len <= n; len <<= 1) {
+            int half = len >> 1;
+            int step = n / len;
+            for (int i = 0; i < n; i += len) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step];
+                    double wi = sin[k * step];
+                    int a = i + k;
+                    int b = a + half;
+                    double xr = re[b] * wr - im[b] * wi;
+                    double xi = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - xr;
+                    im[b] = im[a] - xi;
+                    re[a] += xr;
+                    im[a] += xi;
+                }
+            }
+        }
+    }
+}
@@ -9,6 +9,13 @@ import androidx.work.WorkerParameters;
 
 import javax.xml.transform.Result;
 
+/**
+ * Entfernt als gelöscht markierte Tracks ab der Schwelle des Repositorys.
+ *
+ * @deprecated Ersetzt durch den {@link DatabaseMaintenanceWorker}. Bleibt nur, damit ein von älteren Versionen
+ * eingeplanter Job noch ausgeführt werden kann, bis {@link DeferredStartup} ihn abbestellt.
+ */
+@Deprecated
 public class CleanupWorker extends Worker {
 
     private static final String TAG = "CleanupWorker";
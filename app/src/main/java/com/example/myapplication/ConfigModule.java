@@ -1,4 +1,66 @@
 package com.example.myapplication;
 
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.preference.PreferenceManager;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+
+/**
+ * ConfigModule stellt die Konfiguration und die gemeinsam genutzten Threads für den {@link MusicComponent}
+ * bereit: Batchgröße des Scans, Einstellungen, den Executor des Repositorys (siehe {@link AppExecutors}), den
+ * gemeinsamen Schreib-Thread ({@link DbWriter}) und die abbrechbaren Bildschirm-Abfragen ({@link SharedQueries}).
+ */
+@Module
 public class ConfigModule {
+    public static final String BATCH_SIZE = "batch_size";
+    public static final String REPOSITORY_EXECUTOR = "repository_executor";
+
+    // Tracks je Scan-Batch und Transaktion (Standardwert des MusicLoaderWorker)
+    static final int DEFAULT_BATCH_SIZE = 50;
+
+    @Provides
+    @Named(BATCH_SIZE)
+    static int provideBatchSize() {
+        return DEFAULT_BATCH_SIZE;
+    }
+
+    // Abfragen des Repositorys laufen im Leser-Pool
+    @Provides
+    @Named(REPOSITORY_EXECUTOR)
+    static ExecutorService provideRepositoryExecutor(AppExecutors executors) {
+        return executors.dbRead();
+    }
+
+    // Alle Schreibzugriffe laufen nacheinander auf dem einen Schreib-Thread
+    @Provides
+    @Singleton
+    static DbWriter provideDbWriter(AppExecutors executors) {
+        return new DbWriter(executors.dbWrite());
+    }
+
+    // Bildschirm-Abfragen laufen im UiLoad-Pool, Ergebnisse kommen auf dem Main-Thread an
+    @Provides
+    @Singleton
+    static SharedQueries provideSharedQueries(Context context, AppExecutors executors) {
+        return new SharedQueries(executors.uiLoad(), context.getMainExecutor());
+    }
+
+    @Provides
+    @Singleton
+    static SharedPreferences provideSharedPreferences(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context);
+    }
+
+    @Provides
+    static FolderManager provideFolderManager(SharedPreferences prefs) {
+        return new FolderManager(prefs);
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.myapplication;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * ContentHasher bildet einen günstigen Inhalts-Hash einer Datei: Dateigröße plus je ein Block am Anfang,
+ * in der Mitte und am Ende. Gelesen werden höchstens {@code 3 * BLOCK_SIZE} Bytes, unabhängig von der
+ * Dateigröße. Zwei byte-identische Kopien (z. B. in zwei Musikordnern) ergeben denselben Hash.
+ */
+public final class ContentHasher {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    // Privater Konstruktor verhindert Instanziierung
+    private ContentHasher() {}
+
+    /**
+     * @param channel Lesbarer Kanal der Datei; die Position wird nicht verändert.
+     * @return SHA-1 über Größe und Stichproben als Hex-String (40 Zeichen).
+     */
+    public static String hash(FileChannel channel) throws IOException {
+        long size = channel.size();
+        MessageDigest digest = newDigest();
+        ByteBuffer header = ByteBuffer.allocate(8).putLong(size);
+        digest.update(header.array());
+
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        if (size <= 3L * BLOCK_SIZE) {
+            // Kleine Dateien vollständig lesen
+            readBlock(channel, 0, size, block, digest);
+        } else {
+            readBlock(channel, 0, BLOCK_SIZE, block, digest);
+            readBlock(channel, (size - BLOCK_SIZE) / 2, BLOCK_SIZE, block, digest);
+            readBlock(channel, size - BLOCK_SIZE, BLOCK_SIZE, block, digest);
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void readBlock(FileChannel channel, long position, long length, ByteBuffer block,
+                                  MessageDigest digest) throws IOException {
+        long end = position + length;
+        while (position < end) {
+            block.clear();
+            block.limit((int) Math.min(block.capacity(), end - position));
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            digest.update(block.array(), 0, read);
+            position += read;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 nicht verfügbar", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.io.File;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * DatabaseMaintenance hält die Datenbank klein und die Abfragepläne aktuell. Ein Lauf
+ * ({@link #run(long, BooleanSupplier)}) besteht aus vier Schritten:
+ * <ol>
+ *     <li>Als gelöscht markierte Tracks in kurzen Batches endgültig entfernen, solange das Zeitbudget reicht.</li>
+ *     <li>Statistiken für den Query-Planer: beim ersten Lauf {@code ANALYZE}, danach {@code PRAGMA optimize}, das
+ *     nur Tabellen mit veralteten Statistiken neu vermisst.</li>
+ *     <li>Freie Seiten zurückgeben: {@code PRAGMA incremental_vacuum} in begrenzten Schritten. Datenbanken aus
+ *     Versionen ohne {@code auto_vacuum = INCREMENTAL} werden dafür einmalig per {@code VACUUM} umgestellt.</li>
+ *     <li>{@code PRAGMA wal_checkpoint(TRUNCATE)}: das Write-Ahead-Log zurück in die Hauptdatei schreiben und auf
+ *     null Bytes kürzen.</li>
+ * </ol>
+ * Jeder schreibende Schritt ist eine eigene Aufgabe für den {@link DbWriter}; dazwischen kommen andere
+ * Schreibzugriffe an die Reihe.
+ * Größe und Fragmentierung vor und nach dem Lauf landen im {@link MaintenanceReport}. Geplant wird der Lauf vom
+ * {@link DatabaseMaintenanceWorker} (nur im Leerlauf beim Laden); den Checkpoint allein löst zusätzlich der
+ * {@link MusicLoaderWorker} nach großen Scans aus.
+ */
+@Singleton
+public class DatabaseMaintenance {
+    private static final String TAG = "DatabaseMaintenance";
+
+    // Tracks je Lösch-Transaktion: kurz genug, dass ein gleichzeitiger Scan kaum auf die Schreibsperre wartet
+    static final int TOMBSTONE_BATCH = 500;
+    // Seiten je incremental_vacuum-Schritt (bei 4 KiB je Seite 4 MiB)
+    static final int VACUUM_STEP_PAGES = 1024;
+    // Ab so vielen neuen Tracks in einem Scan lohnt der Checkpoint direkt danach
+    public static final int CHECKPOINT_AFTER_INSERTS = 500;
+    // Wert von PRAGMA auto_vacuum für INCREMENTAL
+    private static final long AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final TrackDatabaseHelper dbHelper;
+    private final TrackStore store;
+    private final DbWriter writer;
+
+    @Inject
+    public DatabaseMaintenance(TrackDatabaseHelper dbHelper, TrackStore store, DbWriter writer) {
+        this.dbHelper = dbHelper;
+        this.store = store;
+        this.writer = writer;
+    }
+
+    public static DatabaseMaintenance getInstance(Context context) {
+        return MusicComponents.get(context).databaseMaintenance();
+    }
+
+    /**
+     * Führt einen Wartungslauf aus. Blockiert; nur im Hintergrund aufrufen.
+     *
+     * @param budgetMs Zeitbudget für die unterbrechbaren Schritte (Löschen, incremental_vacuum). Die einmalige
+     *                 Umstellung per VACUUM und der Checkpoint laufen auch nach Ablauf des Budgets zu Ende.
+     * @param stopped  Liefert true, sobald der Lauf abbrechen soll (z. B. WorkManager-Constraint entfallen).
+     */
+    public MaintenanceReport run(long budgetMs, BooleanSupplier stopped) {
+        long startedAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        long deadline = start + budgetMs * 1_000_000;
+        DatabaseStats before = measure();
+        AppLog.d(TAG, "Wartung gestartet: " + before);
+
+        long purged = 0;
+        boolean complete = true;
+        // Jeder Batch ist eine eigene Aufgabe auf dem Schreib-Thread, damit Scanner und UI dazwischen schreiben können
+        while (true) {
+            if (outOfTime(deadline, stopped)) {
+                complete = false;
+                break;
+            }
+            int removed = writer.call(() -> store.purgeDeletedBatch(TOMBSTONE_BATCH));
+            purged += removed;
+            if (removed < TOMBSTONE_BATCH) {
+                break;
+            }
+        }
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        long vacuumed = 0;
+        if (complete) {
+            writer.run(() -> updateStatistics(db));
+            long freeBefore = pragmaLong(db, "PRAGMA freelist_count");
+            complete = vacuum(db, deadline, stopped);
+            vacuumed = Math.max(0, freeBefore - pragmaLong(db, "PRAGMA freelist_count"));
+        }
+        writer.call(() -> checkpoint(db));
+
+        DatabaseStats after = measure(db);
+        return new MaintenanceReport(startedAt, (System.nanoTime() - start) / 1_000_000, before, after,
+                purged, vacuumed, complete);
+    }
+
+    /**
+     * Schreibt das Write-Ahead-Log in die Hauptdatei zurück und kürzt es auf null Bytes. Nach großen Scans
+     * aufrufen; läuft gerade ein Leser, bleibt der Rest für den nächsten Checkpoint.
+     *
+     * @return false, wenn ein Leser oder Schreiber den vollständigen Checkpoint verhindert hat.
+     */
+    public boolean checkpoint() {
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            return writer.call(() -> checkpoint(db));
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim WAL-Checkpoint", e);
+            return false;
+        }
+    }
+
+    private static boolean checkpoint(SQLiteDatabase db) {
+        // Ergebniszeile: busy (0/1), Seiten im Log, davon zurückgeschrieben
+        try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            if (cursor.moveToFirst() && cursor.getInt(0) != 0) {
+                AppLog.d(TAG, () -> "WAL-Checkpoint unvollständig: " + cursor.getLong(2) + " von " +
+                        cursor.getLong(1) + " Seiten");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Erst ANALYZE für vollständige Statistiken, danach genügt PRAGMA optimize.
+     */
+    private static void updateStatistics(SQLiteDatabase db) {
+        long start = System.nanoTime();
+        boolean analyzed;
+        try (Cursor cursor = db.rawQuery("SELECT 1 FROM sqlite_master WHERE name = 'sqlite_stat1'", null)) {
+            analyzed = cursor.moveToFirst();
+        }
+        if (analyzed) {
+            pragma(db, "PRAGMA optimize");
+        } else {
+            db.execSQL("ANALYZE");
+        }
+        AppLog.d(TAG, () -> (analyzed ? "PRAGMA optimize" : "ANALYZE") + " in " +
+                (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Gibt freie Seiten schrittweise zurück; stellt ältere Datenbanken vorher einmalig auf INCREMENTAL um.
+     *
+     * @return false, wenn Budget oder Abbruch freie Seiten übrig gelassen haben.
+     */
+    private boolean vacuum(SQLiteDatabase db, long deadline, BooleanSupplier stopped) {
+        if (pragmaLong(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            // Der Modus einer bestehenden Datei ändert sich nur durch ein vollständiges VACUUM. Es ist nicht
+            // unterbrechbar und braucht kurzzeitig Platz für eine Kopie, läuft aber nur dieses eine Mal.
+            long start = System.nanoTime();
+            writer.run(() -> {
+                db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+                db.execSQL("VACUUM");
+            });
+            AppLog.i(TAG, "Datenbank auf auto_vacuum = INCREMENTAL umgestellt in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return true;
+        }
+        while (pragmaLong(db, "PRAGMA freelist_count") > 0) {
+            if (outOfTime(deadline, stopped)) {
+                return false;
+            }
+            writer.run(() -> pragma(db, "PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ")"));
+        }
+        return true;
+    }
+
+    private DatabaseStats measure() {
+        return measure(dbHelper.getReadableDatabase());
+    }
+
+    private static DatabaseStats measure(SQLiteDatabase db) {
+        File wal = new File(db.getPath() + "-wal");
+        return new DatabaseStats(pragmaLong(db, "PRAGMA page_size"), pragmaLong(db, "PRAGMA page_count"),
+                pragmaLong(db, "PRAGMA freelist_count"), wal.length());
+    }
+
+    private static boolean outOfTime(long deadline, BooleanSupplier stopped) {
+        return System.nanoTime() >= deadline || stopped.getAsBoolean();
+    }
+
+    private static long pragmaLong(SQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * Führt ein PRAGMA vollständig aus. execSQL genügt nicht bei PRAGMAs, die Zeilen liefern oder schrittweise
+     * arbeiten; getCount() liest den Cursor bis zum Ende.
+     */
+    private static void pragma(SQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            cursor.getCount();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseMaintenanceWorker führt einmal täglich die {@link DatabaseMaintenance} aus, nur wenn das Gerät im
+ * Leerlauf ist und lädt. Endet eine Bedingung, bricht der Lauf nach dem aktuellen Batch ab; was übrig bleibt,
+ * erledigt der nächste Lauf. Der Bericht wird für die Diagnose gespeichert.
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+
+    private static final String TAG = "DatabaseMaintenanceWorker";
+    // Zeitbudget der unterbrechbaren Schritte je Lauf
+    private static final long BUDGET_MS = 60_000;
+
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Die tägliche Wartung, beschränkt auf Leerlauf und Laden.
+     */
+    static PeriodicWorkRequest periodicRequest() {
+        return new PeriodicWorkRequest.Builder(DatabaseMaintenanceWorker.class, 24, TimeUnit.HOURS)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiresDeviceIdle(true)
+                        .setRequiresCharging(true)
+                        .build())
+                .build();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        try {
+            MaintenanceReport report = DatabaseMaintenance.getInstance(getApplicationContext())
+                    .run(BUDGET_MS, this::isStopped);
+            MusicRepository.getInstance(getApplicationContext()).saveMaintenanceReport(report);
+            AppLog.i(TAG, "Wartung abgeschlossen: " + report);
+            return Result.success();
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler bei der Datenbankwartung", e);
+            return Result.failure();
+        }
+    }
+}
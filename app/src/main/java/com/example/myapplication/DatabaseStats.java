@@ -0,0 +1,61 @@
+package com.example.myapplication;
+
+/**
+ * Die DatabaseStats-Klasse hält Größe und Fragmentierung der Datenbank zu einem Zeitpunkt fest: Seitengröße,
+ * Seitenzahl und freie Seiten der Hauptdatei ({@code PRAGMA page_count}, {@code freelist_count}) sowie die Größe
+ * des Write-Ahead-Logs. Das Model-Objekt ist unveränderlich.
+ */
+public class DatabaseStats {
+    private final long pageSize;
+    private final long pageCount;
+    private final long freePages;
+    private final long walBytes;
+
+    public DatabaseStats(long pageSize, long pageCount, long freePages, long walBytes) {
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        this.freePages = freePages;
+        this.walBytes = walBytes;
+    }
+
+    public long getPageSize() {
+        return pageSize;
+    }
+
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    public long getFreePages() {
+        return freePages;
+    }
+
+    public long getWalBytes() {
+        return walBytes;
+    }
+
+    /**
+     * @return Größe der Hauptdatei in Bytes.
+     */
+    public long getFileBytes() {
+        return pageCount * pageSize;
+    }
+
+    /**
+     * @return Anteil der freien Seiten an der Datei (0..1); diesen Platz gibt ein Vacuum zurück.
+     */
+    public double getFragmentation() {
+        return pageCount > 0 ? (double) freePages / pageCount : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseStats{" +
+                "fileBytes=" + getFileBytes() +
+                ", pageCount=" + pageCount +
+                ", freePages=" + freePages +
+                ", fragmentation=" + Math.round(getFragmentation() * 1000) / 10.0 + "%" +
+                ", walBytes=" + walBytes +
+                '}';
+    }
+}
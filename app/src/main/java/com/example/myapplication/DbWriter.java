@@ -0,0 +1,69 @@
+package com.example.myapplication;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * DbWriter führt Schreibzugriffe auf dem einen Schreib-Thread ({@link AppExecutors#dbWrite()}) aus und wartet,
+ * bis sie abgeschlossen sind. Aufrufer aus Scanner, Workern oder der Wartung schreiben damit weiter synchron,
+ * aber nie gleichzeitig; wer schon auf dem Schreib-Thread läuft, schreibt direkt.
+ * <p>
+ * Ausnahmen der Aufgabe kommen unverändert beim Aufrufer an. Eine Unterbrechung des wartenden Threads bricht
+ * den Schreibzugriff nicht ab: Er läuft zu Ende, danach ist das Interrupt-Flag wieder gesetzt.
+ */
+public final class DbWriter {
+
+    private final Executor executor;
+    private final ThreadLocal<Boolean> onWriter = ThreadLocal.withInitial(() -> false);
+
+    public DbWriter(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> task) {
+        if (onWriter.get()) {
+            return task.get();
+        }
+        FutureTask<T> future = new FutureTask<>(() -> {
+            onWriter.set(true);
+            try {
+                return task.get();
+            } finally {
+                onWriter.set(false);
+            }
+        });
+        executor.execute(future);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
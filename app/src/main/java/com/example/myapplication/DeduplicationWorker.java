@@ -0,0 +1,154 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.FileInputStream;
+import java.nio.channels.FileChannel;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DeduplicationWorker berechnet für neue Tracks einen Inhalts-Hash ({@link ContentHasher}) und – wenn in den
+ * Einstellungen aktiviert – einen akustischen Fingerabdruck aus einem kurzen dekodierten Ausschnitt
+ * ({@link ChromaFingerprinter}). Anschließend werden die Dublettengruppen neu gebildet, sodass die Gesamtliste
+ * jede Gruppe nur einmal anzeigt. Wie die Lautheitsanalyse läuft der Abgleich in kleinen Batches mit niedrigster
+ * Priorität und setzt nach einem Abbruch an derselben Stelle fort. Tracks, deren Ergebnis sich nicht speichern
+ * ließ, werden im selben Lauf nicht erneut gelesen; bringt ein Batch keine neuen Tracks mehr, endet der Lauf mit
+ * einem späteren Neuversuch.
+ */
+public class DeduplicationWorker extends Worker {
+
+    private static final String TAG = "DeduplicationWorker";
+    private static final String UNIQUE_WORK_NAME = "DEDUPLICATION";
+    private static final int BATCH_SIZE = 20;
+
+    // Akustische Erkennung (neu kodierte Kopien) ist teurer und daher abschaltbar
+    public static final String PREF_ACOUSTIC = "dedup_acoustic";
+    // Der Ausschnitt beginnt nach dem Intro, bei kurzen Tracks am Anfang
+    private static final long FINGERPRINT_OFFSET_US = 30_000_000L;
+    // Reserve, weil der Decoder ab dem vorherigen Sync-Frame liest
+    private static final long DECODE_MARGIN_US = 2_000_000L;
+
+    public DeduplicationWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Plant den Abgleich ein. Ein bereits laufender oder wartender Auftrag bleibt erhalten.
+     */
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(DeduplicationWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+        MusicRepository repository = MusicRepository.getInstance(getApplicationContext());
+        boolean acoustic = PreferenceManager.getDefaultSharedPreferences(getApplicationContext())
+                .getBoolean(PREF_ACOUSTIC, false);
+        // Bereits bearbeitete Tracks: taucht einer wieder auf, ist sein Ergebnis nicht gespeichert worden
+        Set<Long> seen = new HashSet<>();
+        int processed = 0;
+        boolean stalled = false;
+        try {
+            List<Track> batch = repository.getTracksPendingDedup(BATCH_SIZE, acoustic);
+            while (!batch.isEmpty()) {
+                int progress = 0;
+                for (Track track : batch) {
+                    if (isStopped()) {
+                        Log.d(TAG, "Abgleich unterbrochen nach " + processed + " Tracks.");
+                        return Result.retry();
+                    }
+                    if (!seen.add(track.getId())) {
+                        continue;
+                    }
+                    process(repository, track, acoustic);
+                    processed++;
+                    progress++;
+                }
+                if (progress == 0) {
+                    Log.w(TAG, "Kein Fortschritt: " + batch.size() + " Ergebnisse ließen sich nicht speichern.");
+                    stalled = true;
+                    break;
+                }
+                batch = repository.getTracksPendingDedup(BATCH_SIZE, acoustic);
+            }
+            // Auch ohne neue Tracks neu gruppieren: gelöschte Repräsentanten haben ihre Gruppe freigegeben.
+            int hidden = repository.updateDuplicateGroups();
+            Log.d(TAG, "Dublettenabgleich abgeschlossen: " + processed + " Tracks, " + hidden + " Dubletten.");
+            return stalled ? Result.retry() : Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Fehler beim Dublettenabgleich", e);
+            return Result.failure();
+        }
+    }
+
+    private void process(MusicRepository repository, Track track, boolean acoustic) {
+        Uri uri = Uri.parse(track.getUri());
+        try {
+            String hash;
+            try (ParcelFileDescriptor pfd = getApplicationContext().getContentResolver().openFileDescriptor(uri, "r")) {
+                if (pfd == null) {
+                    if (!repository.markDedupFailed(track.getId())) {
+                        Log.w(TAG, "Ergebnis für Track " + track.getId() + " nicht gespeichert.");
+                    }
+                    return;
+                }
+                try (FileInputStream in = new FileInputStream(pfd.getFileDescriptor());
+                     FileChannel channel = in.getChannel()) {
+                    hash = ContentHasher.hash(channel);
+                }
+            }
+            long[] fingerprint = acoustic ? fingerprint(uri, track.getDurationMs()) : null;
+            if (isStopped()) {
+                return; // Track bleibt ausstehend
+            }
+            if (!repository.saveDedupData(track.getId(), hash, fingerprint, acoustic)) {
+                Log.w(TAG, "Ergebnis für Track " + track.getId() + " nicht gespeichert.");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Track konnte nicht abgeglichen werden: " + track.getUri(), e);
+            repository.markDedupFailed(track.getId());
+        }
+    }
+
+    private long[] fingerprint(Uri uri, long durationMs) throws Exception {
+        final ChromaFingerprinter[] fingerprinter = new ChromaFingerprinter[1];
+        long windowUs = (long) (ChromaFingerprinter.windowSeconds() * 1_000_000);
+        long startUs = durationMs * 1000 >= FINGERPRINT_OFFSET_US + windowUs ? FINGERPRINT_OFFSET_US : 0;
+        boolean decoded = PcmDecoder.decode(getApplicationContext(), uri, startUs, windowUs + DECODE_MARGIN_US,
+                new PcmDecoder.PcmSink() {
+                    @Override
+                    public void onFormat(int sampleRate, int channels) {
+                        fingerprinter[0] = new ChromaFingerprinter(sampleRate, channels);
+                    }
+
+                    @Override
+                    public boolean onPcm(float[] samples, int frames) {
+                        return fingerprinter[0].process(samples, frames) && !isStopped();
+                    }
+                });
+        return decoded && fingerprinter[0] != null ? fingerprinter[0].getFingerprint() : null;
+    }
+}
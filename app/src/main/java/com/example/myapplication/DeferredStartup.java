@@ -0,0 +1,92 @@
+package com.example.myapplication;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DeferredStartup verschiebt Arbeit, die für den ersten Frame nicht gebraucht wird, hinter diesen Frame:
+ * das Einplanen der periodischen Jobs und das Öffnen der Datenbank.
+ * <p>
+ * Die periodischen Jobs werden mit {@link ExistingPeriodicWorkPolicy#KEEP} eingeplant. Ein bereits geplanter Job
+ * bleibt unverändert; mit REPLACE begann sein Intervall bei jedem Start von vorn, sodass z. B. die tägliche
+ * Wartung bei täglicher Nutzung nie lief.
+ */
+public final class DeferredStartup {
+
+    private static final String TAG = "DeferredStartup";
+
+    // Frühere tägliche Bereinigung; wird abbestellt, die Wartung übernimmt sie
+    static final String WORK_CLEANUP = "CleanupWorker";
+    static final String WORK_MAINTENANCE = "DatabaseMaintenance";
+
+    // Die Jobs werden höchstens einmal je Prozess eingeplant
+    private static final AtomicBoolean workScheduled = new AtomicBoolean(false);
+
+    private DeferredStartup() {
+    }
+
+    /**
+     * Führt {@code task} im UiLoad-Pool ({@link AppExecutors#uiLoad()}) aus, nachdem die Activity ihren ersten
+     * Frame gezeichnet hat.
+     */
+    public static void afterFirstFrame(@NonNull Activity activity, @NonNull Runnable task) {
+        AppExecutors executors = AppExecutors.getInstance(activity.getApplicationContext());
+        View decorView = activity.getWindow().getDecorView();
+        Handler handler = new Handler(Looper.getMainLooper());
+        ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+            private boolean fired = false;
+
+            @Override
+            public void onDraw() {
+                if (fired) {
+                    return;
+                }
+                fired = true;
+                // Während onDraw darf der Listener nicht entfernt werden; der Post läuft nach dem Frame
+                handler.post(() -> {
+                    decorView.getViewTreeObserver().removeOnDrawListener(this);
+                    executors.uiLoad().execute(task);
+                });
+            }
+        };
+        decorView.getViewTreeObserver().addOnDrawListener(listener);
+    }
+
+    /**
+     * Plant nach dem ersten Frame die periodischen Jobs ein und öffnet die Datenbank, falls das noch nicht
+     * geschehen ist.
+     */
+    public static void onFirstFrame(@NonNull Activity activity) {
+        Context appContext = activity.getApplicationContext();
+        afterFirstFrame(activity, () -> {
+            schedulePeriodicWork(appContext);
+            MusicRepositoryInitializer.get(appContext);
+        });
+    }
+
+    /**
+     * Plant den periodischen Scan (alle 15 Minuten) und die Datenbankwartung (alle 24 Stunden, im Leerlauf beim
+     * Laden) ein.
+     */
+    static void schedulePeriodicWork(@NonNull Context context) {
+        if (!workScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        MusicComponents.get(context).musicScanScheduler().schedulePeriodic();
+        WorkManager workManager = WorkManager.getInstance(context);
+        workManager.cancelUniqueWork(WORK_CLEANUP);
+        workManager.enqueueUniquePeriodicWork(WORK_MAINTENANCE, ExistingPeriodicWorkPolicy.KEEP,
+                DatabaseMaintenanceWorker.periodicRequest());
+        AppLog.d(TAG, "Periodische Jobs eingeplant (KEEP)");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.myapplication;
+
+import android.os.Bundle;
+import android.text.format.DateFormat;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * DiagnosticsActivity zeigt die von {@link FrameMetricsRecorder} gesammelten Frame-Zeiten je Bildschirm und
+ * Zustand an (Anzahl, Ruckler, Perzentile in ms) und exportiert sie als CSV, um Regressionen auf echten Geräten
+ * vergleichen zu können. Es folgen Warteschlangen und Wartezeiten der Thread-Pools (siehe {@link AppExecutors}),
+ * die Trefferquote des {@link QueryCache}, die Berichte der letzten Bibliotheksscans (siehe {@link ScanReport})
+ * und der letzten Datenbankwartungen (siehe {@link MaintenanceReport}).
+ */
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private TextView tvFrameStats;
+    private TextView tvScanReports;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+
+        tvFrameStats = findViewById(R.id.tvFrameStats);
+        tvScanReports = findViewById(R.id.tvScanReports);
+        Button btnExport = findViewById(R.id.btnExportDiagnostics);
+        btnExport.setOnClickListener(v -> exportStats());
+        Button btnReset = findViewById(R.id.btnResetDiagnostics);
+        btnReset.setOnClickListener(v -> {
+            FrameMetricsRecorder.reset();
+            for (MonitoredExecutor executor : AppExecutors.getInstance(this).all()) {
+                executor.resetStats();
+            }
+            MusicRepository.getInstance(getApplicationContext()).getQueryCache().resetStats();
+            showStats();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showStats();
+        loadScanReports();
+    }
+
+    private void loadScanReports() {
+        AppExecutors.getInstance(this).uiLoad().execute(() -> {
+            List<ScanReport> reports = MusicRepository.getInstance(getApplicationContext()).getScanReports();
+            StringBuilder text = new StringBuilder("Scans (neueste zuerst)\n");
+            if (reports.isEmpty()) {
+                text.append("Noch kein Scan abgeschlossen.\n");
+            }
+            for (ScanReport report : reports) {
+                text.append(DateFormat.format("dd.MM. HH:mm", report.getStartedAt()))
+                        .append("  ").append(report.getFiles()).append(" Dateien in ")
+                        .append(report.getDurationMs() / 1000.0).append(" s (")
+                        .append(Math.round(report.getFilesPerSecond())).append("/s), ")
+                        .append(report.getBytes() / (1024 * 1024)).append(" MB\n")
+                        .append("  neu ").append(report.getInserted())
+                        .append(", vorhanden ").append(report.getSkipped())
+                        .append(", Fehler ").append(report.getErrors()).append('\n')
+                        .append("  Metadaten p50 ").append(report.getMetadataP50Us() / 1000.0)
+                        .append(" ms, p99 ").append(report.getMetadataP99Us() / 1000.0).append(" ms\n")
+                        .append("  Phasen (ms): Auflisten ").append(report.getListMs())
+                        .append(", Metadaten ").append(report.getMetadataMs())
+                        .append(", Schreiben ").append(report.getDbWriteMs())
+                        .append(", Commit ").append(report.getCommitMs()).append('\n');
+            }
+            appendMaintenanceReports(text);
+            runOnUiThread(() -> tvScanReports.setText(text));
+        });
+    }
+
+    /**
+     * Größe und Fragmentierung der Datenbank vor und nach jeder Wartung.
+     */
+    private void appendMaintenanceReports(StringBuilder text) {
+        List<MaintenanceReport> reports = MusicRepository.getInstance(getApplicationContext()).getMaintenanceReports();
+        text.append("\nWartung (neueste zuerst)\n");
+        if (reports.isEmpty()) {
+            text.append("Noch keine Wartung gelaufen.\n");
+        }
+        for (MaintenanceReport report : reports) {
+            DatabaseStats before = report.getBefore();
+            DatabaseStats after = report.getAfter();
+            text.append(DateFormat.format("dd.MM. HH:mm", report.getStartedAt()))
+                    .append("  ").append(report.getDurationMs() / 1000.0).append(" s")
+                    .append(report.isComplete() ? "" : " (Budget erschöpft)").append('\n')
+                    .append("  Datei ").append(before.getFileBytes() / 1024).append(" → ")
+                    .append(after.getFileBytes() / 1024).append(" KB, frei ")
+                    .append(Math.round(before.getFragmentation() * 100)).append(" → ")
+                    .append(Math.round(after.getFragmentation() * 100)).append(" %, WAL ")
+                    .append(before.getWalBytes() / 1024).append(" → ")
+                    .append(after.getWalBytes() / 1024).append(" KB\n")
+                    .append("  entfernt ").append(report.getPurged())
+                    .append(" Tracks, ").append(report.getVacuumedPages()).append(" Seiten freigegeben\n");
+        }
+    }
+
+    private void showStats() {
+        List<String> rows = FrameMetricsRecorder.formatRows("  ");
+        StringBuilder text = new StringBuilder();
+        if (rows.isEmpty()) {
+            text.append("Noch keine Frames gemessen.\n");
+        } else {
+            text.append("Bildschirm  Zustand  Frames  Ruckler  p50  p90  p99  max (ms)\n");
+            for (String row : rows) {
+                text.append(row).append('\n');
+            }
+        }
+        // Wartezeiten der Thread-Pools: UiLoad und DbReader dürfen nicht hinter dem Scan anstehen
+        text.append("\nThreads\n");
+        for (MonitoredExecutor executor : AppExecutors.getInstance(this).all()) {
+            text.append("  ").append(executor.formatStats()).append('\n');
+        }
+        text.append("\nAbfrage-Cache\n  ")
+                .append(MusicRepository.getInstance(getApplicationContext()).getQueryCache().formatStats())
+                .append('\n');
+        tvFrameStats.setText(text);
+    }
+
+    private void exportStats() {
+        AppExecutors.getInstance(this).uiLoad().execute(() -> {
+            File file = FrameMetricsRecorder.export(getApplicationContext());
+            runOnUiThread(() -> Toast.makeText(this,
+                    file != null ? "Exportiert nach " + file.getAbsolutePath() : "Export fehlgeschlagen",
+                    Toast.LENGTH_LONG).show());
+        });
+    }
+}
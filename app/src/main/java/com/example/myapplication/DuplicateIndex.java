@@ -0,0 +1,163 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DuplicateIndex fasst Tracks zu Dublettengruppen zusammen. Gleicher Inhalts-Hash ({@link ContentHasher}) gilt
+ * als sicheres Duplikat; akustische Fingerabdrücke ({@link ChromaFingerprinter}) gelten als Duplikat, wenn sie sich
+ * in höchstens {@link #MAX_DISTANCE} Bits unterscheiden.
+ * <p>
+ * Kandidatenpaare liefert ein LSH-Index: Jeder Fingerabdruck wird in Bänder zu {@link #BAND_BITS} Bits zerlegt, und
+ * nur Tracks, die in mindestens einem Band exakt übereinstimmen, werden verglichen. Zwei Abdrücke mit wenigen
+ * abweichenden Bits teilen fast immer ein Band, zufällige Paare fast nie; die Kosten wachsen daher linear mit der
+ * Bibliothek statt quadratisch. Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public final class DuplicateIndex {
+
+    static final int BAND_BITS = 16;
+    static final int MAX_DISTANCE = 24;
+    // Übervolle Buckets (z. B. Stille, Rauschen) sind nicht aussagekräftig und würden quadratisch viele Vergleiche erzeugen.
+    static final int MAX_BUCKET_SIZE = 64;
+
+    private final Map<String, Integer> firstByHash = new HashMap<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+    private final Map<Integer, long[]> fingerprints = new HashMap<>();
+    private final Map<Integer, Integer> parent = new HashMap<>();
+    private int comparisons = 0;
+
+    /**
+     * Nimmt einen Track auf und verknüpft ihn sofort mit allen bereits bekannten Duplikaten.
+     *
+     * @param contentHash Inhalts-Hash oder {@code null}.
+     * @param fingerprint Akustischer Fingerabdruck oder {@code null}.
+     */
+    public void add(int id, String contentHash, long[] fingerprint) {
+        if (contentHash != null) {
+            Integer first = firstByHash.putIfAbsent(contentHash, id);
+            if (first != null) {
+                union(first, id);
+            }
+        }
+        if (fingerprint == null) {
+            return;
+        }
+        fingerprints.put(id, fingerprint);
+        int bands = fingerprint.length * 64 / BAND_BITS;
+        for (int band = 0; band < bands; band++) {
+            int bit = band * BAND_BITS;
+            long value = (fingerprint[bit / 64] >>> (bit % 64)) & ((1L << BAND_BITS) - 1);
+            long key = ((long) band << BAND_BITS) | value;
+            List<Integer> bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                buckets.put(key, bucket);
+            } else if (bucket.size() >= MAX_BUCKET_SIZE) {
+                continue;
+            }
+            for (int other : bucket) {
+                if (find(other) != find(id)) {
+                    comparisons++;
+                    if (hammingDistance(fingerprint, fingerprints.get(other)) <= MAX_DISTANCE) {
+                        union(other, id);
+                    }
+                }
+            }
+            bucket.add(id);
+        }
+    }
+
+    /**
+     * @return Für jeden Track, der nicht Repräsentant seiner Gruppe ist, die ID des Repräsentanten (kleinste ID
+     * der Gruppe, also der zuerst gefundene Track). Tracks ohne Duplikat fehlen.
+     */
+    public Map<Integer, Integer> representatives() {
+        Map<Integer, Integer> minByRoot = new HashMap<>();
+        for (int id : parent.keySet()) {
+            minByRoot.merge(find(id), id, Math::min);
+        }
+        Map<Integer, Integer> result = new HashMap<>();
+        for (int id : parent.keySet()) {
+            int representative = minByRoot.get(find(id));
+            if (representative != id) {
+                result.put(id, representative);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Anzahl der bisher durchgeführten Fingerabdruck-Vergleiche.
+     */
+    int getComparisons() {
+        return comparisons;
+    }
+
+    static int hammingDistance(long[] a, long[] b) {
+        int distance = 0;
+        int words = Math.min(a.length, b.length);
+        for (int i = 0; i < words; i++) {
+            distance += Long.bitCount(a[i] ^ b[i]);
+        }
+        return distance + 64 * Math.abs(a.length - b.length);
+    }
+
+    private int find(int id) {
+        Integer p = parent.get(id);
+        if (p == null) {
+            return id;
+        }
+        int root = p;
+        while (true) {
+            Integer next = parent.get(root);
+            if (next == null || next == root) {
+                break;
+            }
+            root = next;
+        }
+        // Pfadkompression
+        int current = id;
+        while (current != root) {
+            int next = parent.get(current);
+            parent.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        parent.putIfAbsent(rootA, rootA);
+        parent.putIfAbsent(rootB, rootB);
+        parent.putIfAbsent(a, rootA);
+        parent.putIfAbsent(b, rootB);
+        if (rootA != rootB) {
+            parent.put(Math.max(rootA, rootB), Math.min(rootA, rootB));
+        }
+    }
+
+    /**
+     * Wandelt einen Fingerabdruck in das Speicherformat (Little Endian, 8 Bytes je Wort) um.
+     */
+    public static byte[] toBytes(long[] fingerprint) {
+        byte[] bytes = new byte[fingerprint.length * 8];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (fingerprint[i / 8] >>> (8 * (i % 8)));
+        }
+        return bytes;
+    }
+
+    public static long[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes.length % 8 != 0) {
+            return null;
+        }
+        long[] fingerprint = new long[bytes.length / 8];
+        for (int i = 0; i < bytes.length; i++) {
+            fingerprint[i / 8] |= (bytes[i] & 0xFFL) << (8 * (i % 8));
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.myapplication;
+
+/**
+ * DurationFormatter formatiert Dauern erst beim Anzeigen und ohne {@code String.format}: Jeder Formatierer besitzt
+ * einen eigenen Puffer, der bei jedem Aufruf wiederverwendet wird (z. B. einer je ViewHolder).
+ * Das Ergebnis ist nur bis zum nächsten Aufruf gültig; {@code TextView.setText} kopiert es.
+ * Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public final class DurationFormatter {
+
+    private final StringBuilder buffer = new StringBuilder(16);
+
+    /**
+     * @return Die Dauer als "m:ss" bzw. "h:mm:ss" ab einer Stunde; leer bei unbekannter Dauer (0).
+     */
+    public CharSequence format(long durationMs) {
+        buffer.setLength(0);
+        appendTo(buffer, durationMs);
+        return buffer;
+    }
+
+    /**
+     * Hängt die Dauer an einen bestehenden Puffer an, z. B. hinter den Interpreten.
+     */
+    public static void appendTo(StringBuilder sb, long durationMs) {
+        long seconds = durationMs / 1000;
+        if (seconds <= 0) {
+            return;
+        }
+        long hours = seconds / 3600;
+        long minutes = (seconds / 60) % 60;
+        if (hours > 0) {
+            sb.append(hours).append(':');
+            appendTwoDigits(sb, minutes);
+        } else {
+            sb.append(minutes);
+        }
+        sb.append(':');
+        appendTwoDigits(sb, seconds % 60);
+    }
+
+    private static void appendTwoDigits(StringBuilder sb, long value) {
+        if (value < 10) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.myapplication;
+
+import android.os.Bundle;
+import android.view.Gravity;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.Locale;
+
+import Controller.EqualizerManager;
+import Controller.EqualizerProfile;
+
+/**
+ * Die EqualizerActivity zeigt das Profil des aktuellen Ausgabegeräts an: Ein/Aus, Preset-Auswahl und
+ * einen Regler je Band. Alle Änderungen gehen direkt an den {@link EqualizerManager} und wirken sofort
+ * auf die laufende Wiedergabe.
+ */
+public class EqualizerActivity extends AppCompatActivity {
+
+    // Regler in 0,5-dB-Schritten
+    private static final float STEP_DB = 0.5f;
+
+    private EqualizerManager equalizerManager;
+    private TextView lblDevice;
+    private Button btnEnabled;
+    private Button btnPreset;
+    private final SeekBar[] bandSliders = new SeekBar[EqualizerProfile.BAND_COUNT];
+    private final TextView[] bandValues = new TextView[EqualizerProfile.BAND_COUNT];
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_equalizer);
+
+        equalizerManager = EqualizerManager.getInstance(this);
+        lblDevice = findViewById(R.id.lblEqualizerDevice);
+        btnEnabled = findViewById(R.id.btnEqualizerEnabled);
+        btnPreset = findViewById(R.id.btnEqualizerPreset);
+
+        btnEnabled.setOnClickListener(v -> {
+            equalizerManager.setEnabled(!equalizerManager.isEnabled());
+            updateHeader();
+        });
+        btnPreset.setOnClickListener(v -> selectNextPreset());
+
+        createBandRows(findViewById(R.id.equalizerBands));
+        showProfile();
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Beim Wechsel des Ausgabegeräts das dazugehörige Profil anzeigen.
+        equalizerManager.setOnProfileChangedListener((deviceKey, profile) -> showProfile());
+    }
+
+    @Override
+    protected void onStop() {
+        equalizerManager.setOnProfileChangedListener(null);
+        super.onStop();
+    }
+
+    private void createBandRows(LinearLayout container) {
+        int steps = Math.round((EqualizerProfile.MAX_GAIN_DB - EqualizerProfile.MIN_GAIN_DB) / STEP_DB);
+        for (int band = 0; band < EqualizerProfile.BAND_COUNT; band++) {
+            LinearLayout row = new LinearLayout(this);
+            row.setOrientation(LinearLayout.HORIZONTAL);
+            row.setGravity(Gravity.CENTER_VERTICAL);
+
+            TextView label = new TextView(this);
+            label.setText(formatFrequency(EqualizerProfile.BAND_FREQUENCIES[band]));
+            label.setTextColor(0xFFFFFFFF);
+            row.addView(label, new LinearLayout.LayoutParams(dp(64), LinearLayout.LayoutParams.WRAP_CONTENT));
+
+            SeekBar slider = new SeekBar(this);
+            slider.setMax(steps);
+            row.addView(slider, new LinearLayout.LayoutParams(0, LinearLayout.LayoutParams.WRAP_CONTENT, 1f));
+
+            TextView value = new TextView(this);
+            value.setTextColor(0xFFAAAAAA);
+            value.setGravity(Gravity.END);
+            row.addView(value, new LinearLayout.LayoutParams(dp(64), LinearLayout.LayoutParams.WRAP_CONTENT));
+
+            final int bandIndex = band;
+            slider.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+                @Override
+                public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                    float gain = progressToGain(progress);
+                    bandValues[bandIndex].setText(formatGain(gain));
+                    if (fromUser) {
+                        equalizerManager.setBandGain(bandIndex, gain);
+                        updateHeader();
+                    }
+                }
+
+                @Override
+                public void onStartTrackingTouch(SeekBar seekBar) {
+                }
+
+                @Override
+                public void onStopTrackingTouch(SeekBar seekBar) {
+                }
+            });
+
+            bandSliders[band] = slider;
+            bandValues[band] = value;
+            container.addView(row);
+        }
+    }
+
+    /**
+     * Schaltet reihum auf das nächste eingebaute Preset.
+     */
+    private void selectNextPreset() {
+        String current = equalizerManager.getProfile().getName();
+        int next = 0;
+        for (int i = 0; i < EqualizerProfile.PRESETS.length; i++) {
+            if (EqualizerProfile.PRESETS[i].getName().equals(current)) {
+                next = (i + 1) % EqualizerProfile.PRESETS.length;
+                break;
+            }
+        }
+        equalizerManager.setProfile(EqualizerProfile.PRESETS[next]);
+        showProfile();
+    }
+
+    private void showProfile() {
+        EqualizerProfile profile = equalizerManager.getProfile();
+        for (int band = 0; band < EqualizerProfile.BAND_COUNT; band++) {
+            bandSliders[band].setProgress(gainToProgress(profile.getGain(band)));
+            bandValues[band].setText(formatGain(profile.getGain(band)));
+        }
+        updateHeader();
+    }
+
+    private void updateHeader() {
+        lblDevice.setText("Profil für: " + deviceLabel(equalizerManager.getDeviceKey()));
+        btnEnabled.setText(equalizerManager.isEnabled() ? "Equalizer: An" : "Equalizer: Aus");
+        btnPreset.setText("Preset: " + equalizerManager.getProfile().getName());
+    }
+
+    private static String deviceLabel(String deviceKey) {
+        switch (deviceKey) {
+            case EqualizerManager.DEVICE_BLUETOOTH:
+                return "Bluetooth";
+            case EqualizerManager.DEVICE_USB:
+                return "USB-Audio";
+            case EqualizerManager.DEVICE_WIRED:
+                return "Kopfhörer";
+            default:
+                return "Lautsprecher";
+        }
+    }
+
+    private static float progressToGain(int progress) {
+        return EqualizerProfile.MIN_GAIN_DB + progress * STEP_DB;
+    }
+
+    private static int gainToProgress(float gain) {
+        return Math.round((gain - EqualizerProfile.MIN_GAIN_DB) / STEP_DB);
+    }
+
+    private static String formatFrequency(float hz) {
+        return hz >= 1000 ? String.format(Locale.ROOT, "%.0f kHz", hz / 1000) : String.format(Locale.ROOT, "%.0f Hz", hz);
+    }
+
+    private static String formatGain(float gain) {
+        return String.format(Locale.GERMANY, "%+.1f dB", gain);
+    }
+
+    private int dp(int value) {
+        return Math.round(value * getResources().getDisplayMetrics().density);
+    }
+}
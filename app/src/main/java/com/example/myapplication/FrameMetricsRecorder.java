@@ -0,0 +1,186 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.util.Log;
+import android.view.FrameMetrics;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * FrameMetricsRecorder misst die Dauer jedes gezeichneten Frames der Listen-Bildschirme über
+ * {@link Window.OnFrameMetricsAvailableListener} und zählt sie je Bildschirm und Zustand (z. B. "scrolling",
+ * "scan") in einem {@link LatencyHistogram}. Als Ruckler zählt ein Frame, der seine Deadline verpasst hat.
+ * <p>
+ * Die Auswertung läuft auf dem gemeinsamen Callback-Thread ({@link AppExecutors#callbackHandler()}) und kostet
+ * den Main-Thread nichts; die Ergebnisse zeigt die {@link DiagnosticsActivity} an und exportiert sie als CSV.
+ */
+public final class FrameMetricsRecorder {
+
+    private static final String TAG = "FrameMetricsRecorder";
+
+    // Zustände, nach denen Frames getrennt ausgewertet werden
+    public static final String STATE_SCROLLING = "scrolling";
+    public static final String STATE_SCAN = "scan";
+    private static final String STATE_IDLE = "idle";
+
+    private static final String EXPORT_FILE = "frame_stats.csv";
+
+    private static final Object LOCK = new Object();
+    private static final TreeSet<String> activeStates = new TreeSet<>();
+    private static volatile String stateLabel = STATE_IDLE;
+    // Schlüssel "Bildschirm|Zustand", sortiert für eine stabile Anzeige
+    private static final Map<String, Stats> stats = new TreeMap<>();
+
+    /**
+     * Messwerte eines Bildschirms in einem Zustand.
+     */
+    public static final class Stats {
+        private final LatencyHistogram frameTimesUs = new LatencyHistogram();
+        private long jankyFrames = 0;
+
+        public LatencyHistogram getFrameTimesUs() {
+            return frameTimesUs;
+        }
+
+        public synchronized long getJankyFrames() {
+            return jankyFrames;
+        }
+
+        private synchronized void recordJank() {
+            jankyFrames++;
+        }
+    }
+
+    private FrameMetricsRecorder() {
+    }
+
+    /**
+     * Misst die Frames der Activity, solange sie im Vordergrund ist.
+     */
+    public static void track(@NonNull AppCompatActivity activity, @NonNull String screen) {
+        Window.OnFrameMetricsAvailableListener listener = (window, metrics, dropCount) -> record(screen, metrics);
+        activity.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onResume(@NonNull LifecycleOwner owner) {
+                activity.getWindow().addOnFrameMetricsAvailableListener(listener,
+                        AppExecutors.getInstance(activity).callbackHandler());
+            }
+
+            @Override
+            public void onPause(@NonNull LifecycleOwner owner) {
+                try {
+                    activity.getWindow().removeOnFrameMetricsAvailableListener(listener);
+                } catch (IllegalArgumentException e) {
+                    Log.w(TAG, "Listener war nicht registriert: " + screen, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Setzt oder löscht einen Zustand. Mehrere Zustände können gleichzeitig aktiv sein (z. B. "scan+scrolling").
+     */
+    public static void setState(@NonNull String state, boolean active) {
+        synchronized (LOCK) {
+            boolean changed = active ? activeStates.add(state) : activeStates.remove(state);
+            if (changed) {
+                stateLabel = activeStates.isEmpty() ? STATE_IDLE : String.join("+", activeStates);
+            }
+        }
+    }
+
+    private static void record(String screen, FrameMetrics metrics) {
+        // Der erste Frame eines Fensters enthält Inflate und Layout und wird nicht als Ruckler gewertet
+        if (metrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+            return;
+        }
+        long totalNs = metrics.getMetric(FrameMetrics.TOTAL_DURATION);
+        long deadlineNs = metrics.getMetric(FrameMetrics.DEADLINE);
+        Stats entry = statsFor(screen + "|" + stateLabel);
+        entry.frameTimesUs.record(totalNs / 1000);
+        if (deadlineNs > 0 && totalNs > deadlineNs) {
+            entry.recordJank();
+        }
+    }
+
+    private static Stats statsFor(String key) {
+        synchronized (stats) {
+            Stats entry = stats.get(key);
+            if (entry == null) {
+                entry = new Stats();
+                stats.put(key, entry);
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * @return Eine Momentaufnahme aller Schlüssel ("Bildschirm|Zustand") mit ihren Messwerten.
+     */
+    public static Map<String, Stats> snapshot() {
+        synchronized (stats) {
+            return new TreeMap<>(stats);
+        }
+    }
+
+    public static void reset() {
+        synchronized (stats) {
+            stats.clear();
+        }
+    }
+
+    /**
+     * Formatiert alle Messwerte als Tabellenzeilen (Bildschirm, Zustand, Frames, Ruckler, p50/p90/p99/max in ms).
+     */
+    public static List<String> formatRows(String separator) {
+        List<String> rows = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : snapshot().entrySet()) {
+            String[] key = entry.getKey().split("\\|", 2);
+            LatencyHistogram histogram = entry.getValue().getFrameTimesUs();
+            rows.add(key[0] + separator + key[1] + separator + histogram.getCount() + separator
+                    + entry.getValue().getJankyFrames() + separator + millis(histogram.valueAtPercentile(50))
+                    + separator + millis(histogram.valueAtPercentile(90)) + separator
+                    + millis(histogram.valueAtPercentile(99)) + separator + millis(histogram.getMax()));
+        }
+        return rows;
+    }
+
+    private static String millis(long micros) {
+        return (micros / 1000) + "." + (micros % 1000) / 100;
+    }
+
+    /**
+     * Schreibt die Messwerte als CSV in das App-Verzeichnis auf dem externen Speicher (per USB erreichbar).
+     *
+     * @return Die geschriebene Datei oder {@code null} bei einem Fehler.
+     */
+    public static File export(Context context) {
+        File dir = context.getExternalFilesDir(null);
+        File file = new File(dir != null ? dir : context.getFilesDir(), EXPORT_FILE);
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("screen,state,frames,janky,p50_ms,p90_ms,p99_ms,max_ms\n");
+            for (String row : formatRows(",")) {
+                writer.write(row);
+                writer.write('\n');
+            }
+            return file;
+        } catch (IOException e) {
+            Log.e(TAG, "Export fehlgeschlagen: " + file, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * InMemoryReportStore hält die Berichte nur im Speicher, mit denselben Obergrenzen wie {@link SqliteReportStore}.
+ * Gedacht für JVM-Tests zusammen mit dem {@link InMemoryTrackStore}.
+ */
+public class InMemoryReportStore implements ReportStore {
+
+    // Neueste zuerst
+    private final LinkedList<ScanReport> scanReports = new LinkedList<>();
+    private final LinkedList<MaintenanceReport> maintenanceReports = new LinkedList<>();
+
+    @Override
+    public synchronized void saveScanReport(ScanReport report) {
+        scanReports.addFirst(report);
+        while (scanReports.size() > MAX_SCAN_REPORTS) {
+            scanReports.removeLast();
+        }
+    }
+
+    @Override
+    public synchronized List<ScanReport> getScanReports() {
+        return new ArrayList<>(scanReports);
+    }
+
+    @Override
+    public synchronized void saveMaintenanceReport(MaintenanceReport report) {
+        maintenanceReports.addFirst(report);
+        while (maintenanceReports.size() > MAX_MAINTENANCE_REPORTS) {
+            maintenanceReports.removeLast();
+        }
+    }
+
+    @Override
+    public synchronized List<MaintenanceReport> getMaintenanceReports() {
+        return new ArrayList<>(maintenanceReports);
+    }
+}
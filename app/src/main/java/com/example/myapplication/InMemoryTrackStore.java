@@ -0,0 +1,914 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * InMemoryTrackStore hält die Bibliothek vollständig im Speicher und bildet die Semantik der SQLite-Engines
+ * ({@link SqliteTrackStore}, {@link SqlitePlaylistStore}, {@link SqliteTrackAnalysisStore}) nach: fortlaufende,
+ * nie wiederverwendete IDs, Generationen je Batch, weiche Löschung und Präfixvergleich der URIs ohne Beachtung
+ * der Groß-/Kleinschreibung (wie {@code LIKE}).
+ * <p>
+ * Gedacht für JVM-Tests und Benchmarks ohne Android-SQLite. Zusammenfassungen werden bei Bedarf aus den Zeilen
+ * berechnet statt gepflegt; Smart-Playlists werten ihre Regel über {@link PlaylistRule#matches} aus. Alle
+ * Methoden sind synchronisiert.
+ */
+public class InMemoryTrackStore implements TrackStore, PlaylistStore, TrackAnalysisStore {
+    private static final String TAG = "InMemoryTrackStore";
+
+    private static final Comparator<Row> TITLE_ORDER = (a, b) -> {
+        int c = a.sortKey.compareTo(b.sortKey);
+        return c != 0 ? c : Long.compare(a.track.getId(), b.track.getId());
+    };
+    private static final Comparator<Track> ALBUM_ORDER = Comparator
+            .comparingInt(Track::getTrackNumber)
+            .thenComparing(Track::getTitle, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+    private static final Comparator<Track> ARTIST_ORDER = Comparator
+            .comparing(Track::getAlbum, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(ALBUM_ORDER);
+    private static final Comparator<LibrarySummary> SUMMARY_ORDER = Comparator
+            .comparing(LibrarySummary::getSortKey)
+            .thenComparingLong(LibrarySummary::getId);
+    // Sektionen wie die Sortierschlüssel: # vor A..Z vor anderen Schriften
+    private static final Comparator<Character> SECTION_ORDER = Comparator
+            .comparingInt((Character c) -> c == SortKeys.SECTION_OTHER ? 0 : c >= 'A' && c <= 'Z' ? 1 : 2)
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final class Row {
+        Track track;
+        final String sortKey;
+        final long addedAt;
+        boolean deleted;
+        int playCount;
+        int skipCount;
+        long listenedMs;
+        long lastPlayedAt;
+        int loudnessState = TrackDatabaseHelper.LOUDNESS_PENDING;
+        double lufs = Double.NaN;
+        int loudnessBlocks;
+        int dedupState = TrackDatabaseHelper.DEDUP_PENDING;
+        String contentHash;
+        long[] fingerprint;
+        long duplicateOf;
+        SeekIndex seekIndex;
+
+        Row(Track track, long addedAt) {
+            this.track = track;
+            this.sortKey = SortKeys.sortKey(track.getTitle());
+            this.addedAt = addedAt;
+            // Vorhandene ReplayGain-Tags ersparen die spätere Lautheitsanalyse.
+            if (!Float.isNaN(track.getTrackGain())) {
+                lufs = LoudnessMeter.REFERENCE_LUFS - track.getTrackGain();
+                loudnessState = TrackDatabaseHelper.LOUDNESS_FROM_TAGS;
+            }
+        }
+
+        boolean isVisible() {
+            return !deleted && duplicateOf == 0;
+        }
+    }
+
+    private static final class PlaylistEntry {
+        final long id;
+        final String name;
+        final String rule;
+        final String systemKey;
+        // Manuelle Playlists in Einfügereihenfolge
+        final Set<Long> members = new LinkedHashSet<>();
+
+        PlaylistEntry(long id, String name, String rule, String systemKey) {
+            this.id = id;
+            this.name = name;
+            this.rule = rule;
+            this.systemKey = systemKey;
+        }
+    }
+
+    private static final class EventEntry {
+        final long id;
+        final PlayEvent event;
+
+        EventEntry(long id, PlayEvent event) {
+            this.id = id;
+            this.event = event;
+        }
+    }
+
+    // Alle Zeilen in ID-Reihenfolge, auch gelöschte bis zum nächsten purgeDeleted
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<Long, Row> byId = new HashMap<>();
+    // Nicht gelöschte Zeilen je Titel/Interpret/URI für die Dublettenprüfung beim Einfügen
+    private final Map<String, Row> liveByKey = new HashMap<>();
+    // Zeilen ohne bekannte Dauer je URI; nur sie kommen für backfillMetadata in Frage
+    private final Map<String, List<Row>> missingDuration = new HashMap<>();
+    // Nicht gelöschte Zeilen in Titelreihenfolge; null = nach einer Änderung neu zu sortieren
+    private List<Row> sorted;
+    private long nextId = 1;
+    private long generation = 0;
+    private long liveCount = 0;
+    // IDs der Zusammenfassungen je Name; bleiben wie die Zeilen der Tabellen stabil
+    private final Map<String, Long> artistIds = new HashMap<>();
+    private final Map<String, Long> albumIds = new HashMap<>();
+    private final Map<Long, PlaylistEntry> playlists = new LinkedHashMap<>();
+    private long nextPlaylistId = 1;
+    // Protokoll der Wiedergabe-Ereignisse; IDs wie AUTOINCREMENT nie wiederverwendet
+    private final List<EventEntry> events = new ArrayList<>();
+    private long nextEventId = 1;
+    private long rolledUpEventId = 0;
+    // Wie TrackDatabaseHelper.META_SMART_PLAYLIST_ID
+    private long smartPlaylistTrackId = 0;
+
+    public InMemoryTrackStore() {
+        // Wie TrackDatabaseHelper: "Neue Titel" ist beim Anlegen leer und wird beim Einfügen befüllt.
+        PlaylistEntry newTitles = new PlaylistEntry(nextPlaylistId++, "Neue Titel",
+                PlaylistRule.FIELD_ADDED_DAYS + " < 7", TrackDatabaseHelper.SYSTEM_KEY_NEW_TITLES);
+        playlists.put(newTitles.id, newTitles);
+    }
+
+    @Override
+    public void open() {
+        // Nichts zu öffnen
+    }
+
+    @Override
+    public synchronized List<Track> insertTracks(List<Track> tracks, ScanMetrics metrics, List<Track> backfilled) {
+        List<Track> inserted = new ArrayList<>();
+        if (tracks == null || tracks.isEmpty()) {
+            return inserted;
+        }
+        long writeStart = metrics.start();
+        long batchGeneration = ++generation;
+        long addedAt = System.currentTimeMillis();
+        int skipped = 0;
+        for (Track track : tracks) {
+            if (liveByKey.containsKey(keyOf(track))) {
+                skipped++;
+                backfillMetadata(track, batchGeneration, backfilled);
+                continue;
+            }
+            Row row = new Row(track.toBuilder().id(nextId++).generation(batchGeneration).build(), addedAt);
+            rows.add(row);
+            byId.put(row.track.getId(), row);
+            liveByKey.put(keyOf(row.track), row);
+            if (row.track.getDurationMs() == 0) {
+                missingDuration.computeIfAbsent(row.track.getUri(), uri -> new ArrayList<>()).add(row);
+            }
+            liveCount++;
+            inserted.add(row.track);
+        }
+        if (!inserted.isEmpty()) {
+            sorted = null;
+        }
+        metrics.stop(ScanMetrics.PHASE_DB_WRITE, writeStart);
+        metrics.add(ScanMetrics.INSERTED, inserted.size());
+        metrics.add(ScanMetrics.SKIPPED, skipped);
+        return inserted;
+    }
+
+    /**
+     * Ergänzt Dauer, Tracknummer und Album bei Zeilen derselben URI, deren Dauer noch unbekannt ist.
+     */
+    private void backfillMetadata(Track track, long batchGeneration, List<Track> backfilled) {
+        if (track.getDurationMs() <= 0) {
+            return;
+        }
+        List<Row> pending = missingDuration.remove(track.getUri());
+        if (pending != null) {
+            for (Row row : pending) {
+                row.track = row.track.toBuilder()
+                        .durationMs(track.getDurationMs())
+                        .trackNumber(track.getTrackNumber())
+                        .album(track.getAlbum())
+                        .generation(batchGeneration)
+                        .build();
+                if (row.isVisible()) {
+                    backfilled.add(row.track);
+                }
+                sorted = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Track> getVisibleTracks(QueryCancellation cancellation) {
+        List<Row> view = sortedRows();
+        List<Track> tracks = new ArrayList<>(view.size());
+        for (Row row : view) {
+            cancellation.throwIfCanceled();
+            if (row.duplicateOf == 0) {
+                tracks.add(row.track);
+            }
+        }
+        return tracks;
+    }
+
+    @Override
+    public synchronized List<Track> getTracksPage(int page, int pageSize, String folderUriFilter,
+                                                  QueryCancellation cancellation) {
+        List<Track> tracks = new ArrayList<>();
+        boolean filtered = folderUriFilter != null && !folderUriFilter.trim().isEmpty();
+        int skip = page * pageSize;
+        for (Row row : sortedRows()) {
+            cancellation.throwIfCanceled();
+            // Ohne Ordnerfilter wie die Gesamtliste; im Ordner selbst bleibt jede Kopie sichtbar.
+            if (filtered ? !startsWithIgnoreCase(row.track.getUri(), folderUriFilter) : row.duplicateOf != 0) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            tracks.add(row.track);
+            if (tracks.size() == pageSize) {
+                break;
+            }
+        }
+        return tracks;
+    }
+
+    @Override
+    public synchronized long getTrackCount() {
+        return liveCount;
+    }
+
+    @Override
+    public List<Track> getTracksForAlbum(String album, QueryCancellation cancellation) {
+        return liveTracksWhere(track -> album != null && album.equals(track.getAlbum()), ALBUM_ORDER, cancellation);
+    }
+
+    @Override
+    public List<Track> getTracksForArtist(String artist, QueryCancellation cancellation) {
+        return liveTracksWhere(track -> artist != null && artist.equals(track.getArtist()), ARTIST_ORDER,
+                cancellation);
+    }
+
+    private synchronized List<Track> liveTracksWhere(Predicate<Track> filter, Comparator<Track> order,
+                                                     QueryCancellation cancellation) {
+        List<Track> tracks = new ArrayList<>();
+        for (Row row : rows) {
+            cancellation.throwIfCanceled();
+            if (!row.deleted && filter.test(row.track)) {
+                tracks.add(row.track);
+            }
+        }
+        // Stabil sortiert: bei Gleichstand bleibt die ID-Reihenfolge erhalten
+        Collections.sort(tracks, order);
+        return tracks;
+    }
+
+    @Override
+    public synchronized SectionIndex getTitleSectionIndex() {
+        Map<Character, Integer> counts = new TreeMap<>(SECTION_ORDER);
+        for (Row row : rows) {
+            if (row.isVisible()) {
+                counts.merge(SortKeys.sectionOf(row.track.getTitle()), 1, Integer::sum);
+            }
+        }
+        char[] sectionChars = new char[counts.size()];
+        int[] sectionCounts = new int[counts.size()];
+        int i = 0;
+        for (Map.Entry<Character, Integer> entry : counts.entrySet()) {
+            sectionChars[i] = entry.getKey();
+            sectionCounts[i] = entry.getValue();
+            i++;
+        }
+        return new SectionIndex(sectionChars, sectionCounts);
+    }
+
+    @Override
+    public synchronized List<LibrarySummary> getArtistsPage(LibrarySummary after, int pageSize) {
+        return page(summaries(false), after, pageSize);
+    }
+
+    @Override
+    public synchronized List<LibrarySummary> getAlbumsPage(LibrarySummary after, int pageSize) {
+        return page(summaries(true), after, pageSize);
+    }
+
+    @Override
+    public synchronized long getArtistCount() {
+        return summaries(false).size();
+    }
+
+    @Override
+    public synchronized long getAlbumCount() {
+        return summaries(true).size();
+    }
+
+    /**
+     * Berechnet die Zusammenfassung aller nicht gelöschten Tracks wie die Tabellen "artists" bzw. "albums":
+     * Tracks ohne Interpret bzw. Album zählen nicht, ein Album mit mehreren Interpreten gehört
+     * {@link TrackDatabaseHelper#VARIOUS_ARTISTS}.
+     */
+    private List<LibrarySummary> summaries(boolean albums) {
+        Map<String, List<Track>> groups = new LinkedHashMap<>();
+        for (Row row : rows) {
+            String name = albums ? row.track.getAlbum() : row.track.getArtist();
+            if (!row.deleted && name != null && !name.isEmpty()) {
+                groups.computeIfAbsent(name, key -> new ArrayList<>()).add(row.track);
+            }
+        }
+        Map<String, Long> ids = albums ? albumIds : artistIds;
+        List<LibrarySummary> summaries = new ArrayList<>(groups.size());
+        for (Map.Entry<String, List<Track>> group : groups.entrySet()) {
+            String name = group.getKey();
+            List<Track> tracks = group.getValue();
+            Long id = ids.get(name);
+            if (id == null) {
+                id = (long) ids.size() + 1;
+                ids.put(name, id);
+            }
+            long duration = 0;
+            String artist = "";
+            for (int i = 0; i < tracks.size(); i++) {
+                Track track = tracks.get(i);
+                duration += track.getDurationMs();
+                String trackArtist = track.getArtist() != null ? track.getArtist() : "";
+                if (i == 0) {
+                    artist = trackArtist;
+                } else if (!artist.equals(trackArtist)) {
+                    artist = TrackDatabaseHelper.VARIOUS_ARTISTS;
+                }
+            }
+            // Das Cover stammt wie beim Einfügen vom ersten Track der Gruppe
+            summaries.add(new LibrarySummary(id, name, albums ? artist : "", SortKeys.sortKey(name),
+                    tracks.size(), duration, tracks.get(0).getUri()));
+        }
+        Collections.sort(summaries, SUMMARY_ORDER);
+        return summaries;
+    }
+
+    private static List<LibrarySummary> page(List<LibrarySummary> summaries, LibrarySummary after, int pageSize) {
+        List<LibrarySummary> page = new ArrayList<>();
+        for (LibrarySummary summary : summaries) {
+            if (after != null && SUMMARY_ORDER.compare(summary, after) <= 0) {
+                continue;
+            }
+            page.add(summary);
+            if (page.size() == pageSize) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized LibraryIndex loadLibraryIndex(QueryCancellation cancellation) {
+        LibraryIndex index = new LibraryIndex();
+        for (Row row : rows) {
+            cancellation.throwIfCanceled();
+            if (row.isVisible()) {
+                Track track = row.track;
+                index.add((int) track.getId(), track.getTitle(), track.getArtist(), track.getAlbum(),
+                        track.getDurationMs());
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public synchronized int deleteAllTracks() {
+        int count = rows.size();
+        rows.clear();
+        byId.clear();
+        liveByKey.clear();
+        missingDuration.clear();
+        for (PlaylistEntry playlist : playlists.values()) {
+            playlist.members.clear();
+        }
+        // Der Zeiger des Aufsummierens bleibt gültig, weil Ereignis-IDs nicht wiederverwendet werden
+        events.clear();
+        liveCount = 0;
+        sorted = null;
+        return count;
+    }
+
+    @Override
+    public synchronized int markDeletedInFolder(String folderUri) {
+        Set<Long> marked = new HashSet<>();
+        for (Row row : rows) {
+            if (!row.deleted && startsWithIgnoreCase(row.track.getUri(), folderUri)) {
+                markDeleted(row);
+                marked.add(row.track.getId());
+            }
+        }
+        releaseDuplicatesOf(marked);
+        return marked.size();
+    }
+
+    @Override
+    public synchronized int markDeletedOutside(List<String> validFolderUris) {
+        Set<Long> marked = new HashSet<>();
+        for (Row row : rows) {
+            if (!row.deleted && !inAnyFolder(row.track.getUri(), validFolderUris)) {
+                markDeleted(row);
+                marked.add(row.track.getId());
+            }
+        }
+        releaseDuplicatesOf(marked);
+        return marked.size();
+    }
+
+    @Override
+    public synchronized int purgeDeleted(int minCount) {
+        Set<Long> deleted = new HashSet<>();
+        for (Row row : rows) {
+            if (row.deleted) {
+                deleted.add(row.track.getId());
+            }
+        }
+        if (deleted.isEmpty() || deleted.size() < minCount) {
+            return 0;
+        }
+        rows.removeIf(row -> row.deleted);
+        for (List<Row> pending : missingDuration.values()) {
+            pending.removeIf(row -> row.deleted);
+        }
+        missingDuration.values().removeIf(List::isEmpty);
+        removeDependents(deleted);
+        return deleted.size();
+    }
+
+    @Override
+    public synchronized int purgeDeletedBatch(int limit) {
+        Set<Long> removed = new HashSet<>();
+        Iterator<Row> it = rows.iterator();
+        while (it.hasNext() && removed.size() < limit) {
+            Row row = it.next();
+            if (row.deleted) {
+                it.remove();
+                removed.add(row.track.getId());
+                List<Row> pending = missingDuration.get(row.track.getUri());
+                if (pending != null) {
+                    pending.remove(row);
+                    if (pending.isEmpty()) {
+                        missingDuration.remove(row.track.getUri());
+                    }
+                }
+            }
+        }
+        removeDependents(removed);
+        return removed.size();
+    }
+
+    /**
+     * Entfernt Playlist-Mitgliedschaften und Wiedergabe-Ereignisse endgültig entfernter Tracks.
+     */
+    private void removeDependents(Set<Long> trackIds) {
+        if (trackIds.isEmpty()) {
+            return;
+        }
+        byId.keySet().removeAll(trackIds);
+        for (PlaylistEntry playlist : playlists.values()) {
+            playlist.members.removeAll(trackIds);
+        }
+        events.removeIf(entry -> trackIds.contains(entry.event.getTrackId()));
+    }
+
+    @Override
+    public synchronized void logDebugInfo() {
+        AppLog.d(TAG, "=== In-Memory Debug ===");
+        AppLog.d(TAG, rows.size() + " Zeilen, davon " + liveCount + " nicht gelöscht; " + playlists.size()
+                + " Playlists, " + events.size() + " Wiedergabe-Ereignisse");
+    }
+
+    private void markDeleted(Row row) {
+        row.deleted = true;
+        liveByKey.remove(keyOf(row.track));
+        liveCount--;
+        sorted = null;
+    }
+
+    /**
+     * Verschwindet ein Repräsentant, werden seine Dubletten wieder sichtbar, bis der nächste Dublettenlauf
+     * einen neuen Repräsentanten bestimmt.
+     */
+    private void releaseDuplicatesOf(Set<Long> representatives) {
+        if (representatives.isEmpty()) {
+            return;
+        }
+        for (Row row : rows) {
+            if (row.duplicateOf != 0 && representatives.contains(row.duplicateOf)) {
+                row.duplicateOf = 0;
+            }
+        }
+    }
+
+    private List<Row> sortedRows() {
+        if (sorted == null) {
+            List<Row> view = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                if (!row.deleted) {
+                    view.add(row);
+                }
+            }
+            Collections.sort(view, TITLE_ORDER);
+            sorted = view;
+        }
+        return sorted;
+    }
+
+    // --- PlaylistStore ---
+
+    @Override
+    public synchronized List<Playlist> getPlaylists() {
+        pruneExpiredMembers();
+        List<PlaylistEntry> entries = new ArrayList<>(playlists.values());
+        // Vom System angelegte zuerst, dann nach Name
+        entries.sort(Comparator.comparing((PlaylistEntry entry) -> entry.systemKey == null)
+                .thenComparing(entry -> entry.name));
+        List<Playlist> result = new ArrayList<>(entries.size());
+        for (PlaylistEntry entry : entries) {
+            int count = 0;
+            for (long trackId : entry.members) {
+                Row row = byId.get(trackId);
+                if (row != null && !row.deleted) {
+                    count++;
+                }
+            }
+            result.add(new Playlist(entry.id, entry.name, entry.rule, entry.systemKey, count));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized long getSystemPlaylistId(String systemKey) {
+        for (PlaylistEntry entry : playlists.values()) {
+            if (systemKey.equals(entry.systemKey)) {
+                return entry.id;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public synchronized long createPlaylist(String name, PlaylistRule rule) {
+        PlaylistEntry entry = new PlaylistEntry(nextPlaylistId++, name, rule != null ? rule.toString() : null, null);
+        playlists.put(entry.id, entry);
+        if (rule != null) {
+            long now = System.currentTimeMillis();
+            for (Row row : rows) {
+                if (!row.deleted && rule.matches(row.track, row.addedAt, row.playCount, now)) {
+                    entry.members.add(row.track.getId());
+                }
+            }
+        }
+        return entry.id;
+    }
+
+    @Override
+    public synchronized void deletePlaylist(long playlistId) {
+        playlists.remove(playlistId);
+    }
+
+    @Override
+    public synchronized void addTrackToPlaylist(long playlistId, long trackId) {
+        PlaylistEntry entry = playlists.get(playlistId);
+        if (entry != null) {
+            entry.members.add(trackId);
+        }
+    }
+
+    @Override
+    public synchronized List<Track> getPlaylistTracks(long playlistId, QueryCancellation cancellation) {
+        PlaylistEntry entry = playlists.get(playlistId);
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        if (entry.rule != null) {
+            pruneExpiredMembers();
+        }
+        List<Row> members = new ArrayList<>();
+        for (long trackId : entry.members) {
+            cancellation.throwIfCanceled();
+            Row row = byId.get(trackId);
+            if (row != null && !row.deleted) {
+                members.add(row);
+            }
+        }
+        if (entry.rule != null) {
+            // Smart-Playlists: zuletzt hinzugefügte Titel zuerst
+            members.sort(Comparator.comparingLong((Row row) -> row.addedAt).reversed().thenComparing(TITLE_ORDER));
+        }
+        List<Track> tracks = new ArrayList<>(members.size());
+        for (Row row : members) {
+            tracks.add(row.track);
+        }
+        return tracks;
+    }
+
+    @Override
+    public synchronized void addNewTracksToSmartPlaylists() {
+        long firstId = smartPlaylistTrackId + 1;
+        long lastId = nextId - 1;
+        smartPlaylistTrackId = lastId;
+        long now = System.currentTimeMillis();
+        for (PlaylistEntry entry : playlists.values()) {
+            PlaylistRule rule = ruleOf(entry);
+            if (rule == null) {
+                continue;
+            }
+            for (long id = firstId; id <= lastId; id++) {
+                Row row = byId.get(id);
+                if (row != null && !row.deleted && rule.matches(row.track, row.addedAt, row.playCount, now)) {
+                    entry.members.add(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Entfernt aus zeitabhängigen Smart-Playlists die Mitglieder, deren Zeitraum abgelaufen ist.
+     */
+    private void pruneExpiredMembers() {
+        long now = System.currentTimeMillis();
+        for (PlaylistEntry entry : playlists.values()) {
+            PlaylistRule rule = ruleOf(entry);
+            if (rule != null && rule.isTimeRelative()) {
+                entry.members.removeIf(trackId -> {
+                    Row row = byId.get(trackId);
+                    return row == null || !rule.matches(row.track, row.addedAt, row.playCount, now);
+                });
+            }
+        }
+    }
+
+    /**
+     * @return Die Regel einer Smart-Playlist; {@code null} für manuelle Playlists und ungültige Regeln.
+     */
+    private static PlaylistRule ruleOf(PlaylistEntry entry) {
+        if (entry.rule == null) {
+            return null;
+        }
+        try {
+            return PlaylistRule.parse(entry.rule);
+        } catch (IllegalArgumentException e) {
+            AppLog.w(TAG, "Ungültige Regel in Playlist " + entry.name + ": " + entry.rule, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void insertPlayEvents(List<PlayEvent> newEvents) {
+        for (PlayEvent event : newEvents) {
+            events.add(new EventEntry(nextEventId++, event));
+        }
+    }
+
+    @Override
+    public synchronized void rollUpPlayEvents() {
+        Set<Row> touched = new LinkedHashSet<>();
+        long toId = rolledUpEventId;
+        for (EventEntry entry : events) {
+            if (entry.id <= rolledUpEventId) {
+                continue;
+            }
+            toId = Math.max(toId, entry.id);
+            Row row = byId.get(entry.event.getTrackId());
+            if (row == null) {
+                continue;
+            }
+            PlayEvent event = entry.event;
+            if (event.isSkipped()) {
+                row.skipCount++;
+            } else {
+                row.playCount++;
+            }
+            row.listenedMs += event.getListenedMs();
+            row.lastPlayedAt = Math.max(row.lastPlayedAt, event.getStartedAt());
+            touched.add(row);
+        }
+        rolledUpEventId = toId;
+        // Regeln wie "nie gespielt" hängen an play_count: nur die gerade gezählten Tracks neu bewerten.
+        long now = System.currentTimeMillis();
+        for (PlaylistEntry entry : playlists.values()) {
+            PlaylistRule rule = ruleOf(entry);
+            if (rule == null) {
+                continue;
+            }
+            for (Row row : touched) {
+                if (row.deleted) {
+                    continue;
+                }
+                if (rule.matches(row.track, row.addedAt, row.playCount, now)) {
+                    entry.members.add(row.track.getId());
+                } else {
+                    entry.members.remove(row.track.getId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Track> getRecentlyPlayed(int limit, QueryCancellation cancellation) {
+        return topRows(row -> row.lastPlayedAt > 0, Comparator.comparingLong((Row row) -> row.lastPlayedAt).reversed(),
+                limit, cancellation);
+    }
+
+    @Override
+    public synchronized List<Track> getMostPlayed(int limit, QueryCancellation cancellation) {
+        return topRows(row -> row.playCount > 0, Comparator.comparingInt((Row row) -> row.playCount).reversed(),
+                limit, cancellation);
+    }
+
+    private List<Track> topRows(Predicate<Row> filter, Comparator<Row> order, int limit,
+                                QueryCancellation cancellation) {
+        List<Row> matching = new ArrayList<>();
+        for (Row row : rows) {
+            cancellation.throwIfCanceled();
+            if (!row.deleted && filter.test(row)) {
+                matching.add(row);
+            }
+        }
+        matching.sort(order);
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < matching.size() && i < limit; i++) {
+            tracks.add(matching.get(i).track);
+        }
+        return tracks;
+    }
+
+    // --- TrackAnalysisStore ---
+
+    @Override
+    public synchronized SeekIndex getSeekIndex(long trackId) {
+        Row row = byId.get(trackId);
+        return row != null ? row.seekIndex : null;
+    }
+
+    @Override
+    public synchronized void saveSeekIndex(long trackId, SeekIndex index) {
+        Row row = byId.get(trackId);
+        if (row != null) {
+            row.seekIndex = index;
+        }
+    }
+
+    @Override
+    public synchronized List<Track> getTracksPendingLoudness(int limit) {
+        return pendingRows(row -> row.loudnessState == TrackDatabaseHelper.LOUDNESS_PENDING, limit);
+    }
+
+    @Override
+    public synchronized boolean saveLoudness(long trackId, double lufs, int blocks, double truePeak) {
+        Row row = byId.get(trackId);
+        if (row == null) {
+            return false;
+        }
+        Track track = row.track;
+        row.lufs = lufs;
+        row.loudnessBlocks = blocks;
+        row.loudnessState = TrackDatabaseHelper.LOUDNESS_ANALYZED;
+        row.track = track.toBuilder()
+                .replayGain((float) LoudnessMeter.gainForLoudness(lufs), (float) truePeak,
+                        track.getAlbumGain(), track.getAlbumPeak())
+                .build();
+        return true;
+    }
+
+    @Override
+    public synchronized boolean markLoudnessFailed(long trackId) {
+        Row row = byId.get(trackId);
+        if (row == null) {
+            return false;
+        }
+        row.loudnessState = TrackDatabaseHelper.LOUDNESS_FAILED;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean updateAlbumGain(String artist, String album) {
+        List<Row> albumRows = new ArrayList<>();
+        for (Row row : rows) {
+            if (!row.deleted && album.equals(row.track.getAlbum()) && artist.equals(row.track.getArtist())) {
+                if (row.loudnessState == TrackDatabaseHelper.LOUDNESS_PENDING) {
+                    return false; // Album noch nicht vollständig analysiert
+                }
+                albumRows.add(row);
+            }
+        }
+        double[] lufs = new double[albumRows.size()];
+        int[] blocks = new int[albumRows.size()];
+        double albumPeak = 0;
+        for (int i = 0; i < albumRows.size(); i++) {
+            Row row = albumRows.get(i);
+            lufs[i] = row.lufs;
+            blocks[i] = row.loudnessBlocks;
+            if (!Float.isNaN(row.track.getTrackPeak())) {
+                albumPeak = Math.max(albumPeak, row.track.getTrackPeak());
+            }
+        }
+        double albumLufs = LoudnessMeter.combineLoudness(lufs, blocks);
+        if (Double.isInfinite(albumLufs)) {
+            return false;
+        }
+        float albumGain = (float) LoudnessMeter.gainForLoudness(albumLufs);
+        boolean updated = false;
+        for (Row row : albumRows) {
+            Track track = row.track;
+            if (row.loudnessState == TrackDatabaseHelper.LOUDNESS_FROM_TAGS && !Float.isNaN(track.getAlbumGain())) {
+                continue; // Album-Gain aus Tags bleibt erhalten
+            }
+            row.track = track.toBuilder()
+                    .replayGain(track.getTrackGain(), track.getTrackPeak(), albumGain, (float) albumPeak)
+                    .build();
+            updated = true;
+        }
+        return updated;
+    }
+
+    @Override
+    public synchronized List<Track> getTracksPendingDedup(int limit, boolean withAcoustic) {
+        return pendingRows(row -> row.dedupState == TrackDatabaseHelper.DEDUP_PENDING
+                || withAcoustic && row.dedupState == TrackDatabaseHelper.DEDUP_HASHED, limit);
+    }
+
+    @Override
+    public synchronized boolean saveDedupData(long trackId, String contentHash, long[] fingerprint,
+                                              boolean acousticAttempted) {
+        Row row = byId.get(trackId);
+        if (row == null) {
+            return false;
+        }
+        row.contentHash = contentHash;
+        if (fingerprint != null) {
+            row.fingerprint = fingerprint;
+        }
+        row.dedupState = acousticAttempted ? TrackDatabaseHelper.DEDUP_FINGERPRINTED : TrackDatabaseHelper.DEDUP_HASHED;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean markDedupFailed(long trackId) {
+        Row row = byId.get(trackId);
+        if (row == null) {
+            return false;
+        }
+        row.dedupState = TrackDatabaseHelper.DEDUP_FAILED;
+        return true;
+    }
+
+    @Override
+    public synchronized int updateDuplicateGroups(List<Long> changedIds) {
+        DuplicateIndex index = new DuplicateIndex();
+        List<Row> candidates = new ArrayList<>();
+        for (Row row : rows) {
+            if (!row.deleted && (row.dedupState == TrackDatabaseHelper.DEDUP_HASHED
+                    || row.dedupState == TrackDatabaseHelper.DEDUP_FINGERPRINTED)) {
+                index.add((int) row.track.getId(), row.contentHash, row.fingerprint);
+                candidates.add(row);
+            }
+        }
+        Map<Integer, Integer> representatives = index.representatives();
+        for (Row row : candidates) {
+            Integer representative = representatives.get((int) row.track.getId());
+            long duplicateOf = representative != null ? representative : 0;
+            if (row.duplicateOf != duplicateOf) {
+                row.duplicateOf = duplicateOf;
+                changedIds.add(row.track.getId());
+            }
+        }
+        return representatives.size();
+    }
+
+    private List<Track> pendingRows(Predicate<Row> filter, int limit) {
+        List<Track> tracks = new ArrayList<>();
+        for (Row row : rows) {
+            if (tracks.size() == limit) {
+                break;
+            }
+            if (!row.deleted && filter.test(row)) {
+                tracks.add(row.track);
+            }
+        }
+        return tracks;
+    }
+
+    private static boolean inAnyFolder(String uri, List<String> folderUris) {
+        for (String folder : folderUris) {
+            if (startsWithIgnoreCase(uri, folder.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWithIgnoreCase(String value, String prefix) {
+        return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private static String keyOf(Track track) {
+        return track.getTitle() + '\u0000' + track.getArtist() + '\u0000' + track.getUri();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram zählt Messwerte (z. B. Frame- oder Verarbeitungszeiten in Mikrosekunden) in logarithmisch
+ * gestuften Buckets nach dem Vorbild von HdrHistogram: Werte unter {@link #LINEAR_LIMIT} werden exakt gezählt,
+ * darüber teilt jede Zweierpotenz ihren Bereich in {@link #SUB_BUCKETS} gleich breite Buckets. Der relative
+ * Fehler eines Perzentils liegt damit unter 1/{@value #SUB_BUCKETS}, bei festen ~15 KB Speicher und ohne
+ * Allokation je Messwert.
+ * <p>
+ * Alle Methoden sind synchronisiert; die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKETS = 32;
+    static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+    // Bits unterhalb der Zweierpotenz, die das Sub-Bucket bestimmen
+    private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+    private static final int FIRST_LOG_MAGNITUDE = SUB_BUCKET_BITS + 1;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - FIRST_LOG_MAGNITUDE) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+
+    /**
+     * Zählt einen Messwert; negative Werte werden als 0 gezählt.
+     */
+    public synchronized void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Addiert alle Messwerte eines anderen Histogramms, z. B. um Zustände zusammenzufassen.
+     */
+    public void add(LatencyHistogram other) {
+        long[] otherCounts;
+        long otherCount;
+        long otherSum;
+        long otherMax;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherCount = other.count;
+            otherSum = other.sum;
+            otherMax = other.max;
+        }
+        synchronized (this) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += otherCounts[i];
+            }
+            count += otherCount;
+            sum += otherSum;
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    public synchronized double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Anzahl der Messwerte oberhalb von {@code threshold} (auf Bucket-Genauigkeit).
+     */
+    public synchronized long getCountAbove(long threshold) {
+        long above = 0;
+        for (int i = counts.length - 1; i >= 0 && lowerBound(i) > threshold; i--) {
+            above += counts[i];
+        }
+        return above;
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return Die Obergrenze des Buckets, in dem das Perzentil liegt (höchstens der größte Messwert);
+     * 0 ohne Messwerte.
+     */
+    public synchronized long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100.0 * count);
+        rank = Math.max(1, rank);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (magnitude - FIRST_LOG_MAGNITUDE) * SUB_BUCKETS + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int offset = bucket - LINEAR_LIMIT;
+        int magnitude = FIRST_LOG_MAGNITUDE + offset / SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return (long) (SUB_BUCKETS + offset % SUB_BUCKETS) << shift;
+    }
+
+    static long upperBound(int bucket) {
+        return bucket + 1 < BUCKET_COUNT ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,568 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * LibraryIndex hält die gesamte Bibliothek spaltenweise in primitiven Arrays im Speicher:
+ * IDs, Dauer, dictionary-kodierte Interpreten und Alben sowie alle Titel in einem gemeinsamen char-Pool.
+ * Sortieren, Gruppieren und Zählen laufen direkt auf diesen Arrays und erzeugen keine Objekte pro Zeile.
+ *
+ * Zeilennummern bleiben gültig, solange sich {@link #getVersion()} nicht ändert. Entfernte Tracks werden
+ * zunächst nur markiert; erst wenn mehr als die Hälfte der Zeilen entfernt ist, wird kompaktiert.
+ * Die Klasse ist frei von Android-Abhängigkeiten und threadsicher.
+ */
+public class LibraryIndex {
+
+    public static final int SORT_TITLE = 0;
+    public static final int SORT_ARTIST = 1;
+    public static final int SORT_DURATION = 2;
+    public static final int SORT_ALBUM = 3;
+
+    public static final int GROUP_ARTIST = 0;
+    public static final int GROUP_ALBUM = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Unterhalb dieser Länge sortiert Insertion Sort die Teilbereiche vor dem Mergen.
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StringDictionary artists = new StringDictionary();
+    private final StringDictionary albums = new StringDictionary();
+
+    private int rowCount = 0;     // belegte Zeilen inklusive entfernter
+    private int removedCount = 0;
+    private int version = 0;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] artistCodes = new int[INITIAL_CAPACITY];
+    private int[] albumCodes = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private int[] titleStart = new int[INITIAL_CAPACITY];
+    private int[] titleLength = new int[INITIAL_CAPACITY];
+    // Die ersten vier Zeichen des Titels (kleingeschrieben) als vorzeichenloser Sortierschlüssel
+    private long[] titlePrefix = new long[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private char[] titlePool = new char[INITIAL_CAPACITY * 24];
+    private int titlePoolSize = 0;
+    // rowById[id] = Zeile oder -1; Track-IDs stammen aus AUTOINCREMENT und sind daher dicht.
+    private int[] rowById = new int[0];
+
+    // Zuletzt berechnete aufsteigende Sortierung je SORT_*-Konstante, gültig für cachedOrderVersion
+    private final int[][] cachedOrder = new int[4][];
+    private int cachedOrderVersion = -1;
+
+    /**
+     * Vergleicht zwei Zeilen; wird von den Sortierfunktionen genutzt.
+     */
+    interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    /**
+     * Ergebnis einer Gruppierung: Gruppen in alphabetischer Reihenfolge, die Zeilen jeder Gruppe liegen
+     * zusammenhängend in {@link #rows} zwischen {@code offsets[g]} und {@code offsets[g + 1]}.
+     */
+    public static final class Groups {
+        private final StringDictionary dictionary;
+        public final int[] codes;
+        public final int[] offsets;
+        public final int[] rows;
+
+        Groups(StringDictionary dictionary, int[] codes, int[] offsets, int[] rows) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+            this.offsets = offsets;
+            this.rows = rows;
+        }
+
+        public int size() {
+            return codes.length;
+        }
+
+        public String getName(int group) {
+            return dictionary.decode(codes[group]);
+        }
+
+        public int getCount(int group) {
+            return offsets[group + 1] - offsets[group];
+        }
+    }
+
+    // ---------------------------------------------------------------- Änderungen
+
+    public void add(int id, String title, String artist, String album, long durationMs) {
+        String safeTitle = title != null ? title : "";
+        char[] chars = safeTitle.toCharArray();
+        add(id, chars, chars.length, artist, album, durationMs);
+    }
+
+    /**
+     * Fügt einen Track hinzu oder ersetzt einen vorhandenen Eintrag mit derselben ID.
+     * Der Titel wird aus {@code title[0..titleLen)} in den Pool kopiert, damit ein wiederverwendeter
+     * Puffer (z. B. CharArrayBuffer beim Laden aus dem Cursor) übergeben werden kann.
+     */
+    public void add(int id, char[] title, int titleLen, String artist, String album, long durationMs) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            ensureCapacity(rowCount + 1);
+            ensurePoolCapacity(titlePoolSize + titleLen);
+            int row = rowCount++;
+            ids[row] = id;
+            artistCodes[row] = artists.encode(artist);
+            albumCodes[row] = albums.encode(album);
+            durations[row] = (int) Math.min(Integer.MAX_VALUE, Math.max(0, durationMs));
+            titleStart[row] = titlePoolSize;
+            titleLength[row] = titleLen;
+            titlePrefix[row] = prefixKey(title, titleLen);
+            removed[row] = false;
+            System.arraycopy(title, 0, titlePool, titlePoolSize, titleLen);
+            titlePoolSize += titleLen;
+            setRowForId(id, row);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            boolean result = removeInternal(id);
+            if (result) {
+                version++;
+                if (removedCount > rowCount / 2) {
+                    compact();
+                }
+            }
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            rowCount = 0;
+            removedCount = 0;
+            titlePoolSize = 0;
+            Arrays.fill(rowById, -1);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- Zugriff
+
+    /**
+     * @return Anzahl der enthaltenen (nicht entfernten) Tracks.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowCount - removedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Die Zeile des Tracks oder -1.
+     */
+    public int rowOf(int id) {
+        lock.readLock().lock();
+        try {
+            return id >= 0 && id < rowById.length ? rowById[id] : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getId(int row) {
+        lock.readLock().lock();
+        try {
+            return ids[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Erzeugt den Titel als String; nur für tatsächlich angezeigte Zeilen gedacht.
+     */
+    public String getTitle(int row) {
+        lock.readLock().lock();
+        try {
+            return new String(titlePool, titleStart[row], titleLength[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getArtist(int row) {
+        lock.readLock().lock();
+        try {
+            return artists.decode(artistCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getAlbum(int row) {
+        lock.readLock().lock();
+        try {
+            return albums.decode(albumCodes[row]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDurationMs(int row) {
+        lock.readLock().lock();
+        try {
+            return durations[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- Abfragen
+
+    /**
+     * Liefert alle enthaltenen Zeilen in der gewünschten Reihenfolge (stabil sortiert).
+     * Die Sortierung wird bis zur nächsten Änderung gecacht, wiederholte Abfragen kopieren nur das Ergebnis.
+     *
+     * @param sortBy    Eine der SORT_*-Konstanten.
+     * @param ascending Aufsteigend oder absteigend.
+     */
+    public int[] sortedRows(int sortBy, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            int key = sortBy >= 0 && sortBy < cachedOrder.length ? sortBy : SORT_TITLE;
+            int[] order;
+            synchronized (cachedOrder) {
+                if (cachedOrderVersion != version) {
+                    Arrays.fill(cachedOrder, null);
+                    cachedOrderVersion = version;
+                }
+                order = cachedOrder[key];
+                if (order == null) {
+                    order = computeOrder(key);
+                    cachedOrder[key] = order;
+                }
+            }
+            int n = order.length;
+            int[] rows = new int[n];
+            if (ascending) {
+                System.arraycopy(order, 0, rows, 0, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    rows[i] = order[n - 1 - i];
+                }
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] computeOrder(int sortBy) {
+        int[] rows = liveRows();
+        RowComparator comparator;
+        switch (sortBy) {
+            case SORT_ARTIST: {
+                final int[] rank = artists.ranks();
+                comparator = (a, b) -> {
+                    int c = Integer.compare(rank[artistCodes[a]], rank[artistCodes[b]]);
+                    return c != 0 ? c : compareTitles(a, b);
+                };
+                break;
+            }
+            case SORT_ALBUM: {
+                final int[] rank = albums.ranks();
+                comparator = (a, b) -> {
+                    int c = Integer.compare(rank[albumCodes[a]], rank[albumCodes[b]]);
+                    return c != 0 ? c : compareTitles(a, b);
+                };
+                break;
+            }
+            case SORT_DURATION:
+                comparator = (a, b) -> Integer.compare(durations[a], durations[b]);
+                break;
+            default:
+                comparator = this::compareTitles;
+                break;
+        }
+        sort(rows, comparator);
+        return rows;
+    }
+
+    /**
+     * Gruppiert alle Tracks nach Interpret oder Album (Counting Sort über die Codes, O(n)).
+     * Innerhalb einer Gruppe bleibt die Einfügereihenfolge erhalten.
+     *
+     * @param groupBy {@link #GROUP_ARTIST} oder {@link #GROUP_ALBUM}.
+     */
+    public Groups groupBy(int groupBy) {
+        lock.readLock().lock();
+        try {
+            StringDictionary dictionary = groupBy == GROUP_ALBUM ? albums : artists;
+            int[] keys = groupBy == GROUP_ALBUM ? albumCodes : artistCodes;
+            // Mehrere Leser dürfen die Ränge gleichzeitig anfordern; das Wörterbuch berechnet sie synchronisiert
+            int[] rank = dictionary.ranks();
+            int dictSize = dictionary.size();
+
+            // Zählen je Rang (nicht je Code), damit die Gruppen gleich alphabetisch liegen.
+            int[] countByRank = new int[dictSize + 1];
+            for (int row = 0; row < rowCount; row++) {
+                if (!removed[row]) {
+                    countByRank[rank[keys[row]] + 1]++;
+                }
+            }
+            int groupCount = 0;
+            for (int r = 1; r <= dictSize; r++) {
+                if (countByRank[r] > 0) {
+                    groupCount++;
+                }
+                countByRank[r] += countByRank[r - 1];
+            }
+            int[] rows = new int[rowCount - removedCount];
+            int[] next = Arrays.copyOf(countByRank, dictSize);
+            for (int row = 0; row < rowCount; row++) {
+                if (!removed[row]) {
+                    rows[next[rank[keys[row]]]++] = row;
+                }
+            }
+            int[] codeByRank = new int[dictSize];
+            for (int code = 0; code < dictSize; code++) {
+                codeByRank[rank[code]] = code;
+            }
+            int[] codes = new int[groupCount];
+            int[] offsets = new int[groupCount + 1];
+            int g = 0;
+            for (int r = 0; r < dictSize; r++) {
+                if (countByRank[r + 1] > countByRank[r]) {
+                    codes[g] = codeByRank[r];
+                    offsets[g] = countByRank[r];
+                    g++;
+                }
+            }
+            offsets[groupCount] = rows.length;
+            return new Groups(dictionary, codes, offsets, rows);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countByArtist(String artist) {
+        return count(GROUP_ARTIST, artist);
+    }
+
+    public int countByAlbum(String album) {
+        return count(GROUP_ALBUM, album);
+    }
+
+    private int count(int groupBy, String value) {
+        lock.readLock().lock();
+        try {
+            int code = (groupBy == GROUP_ALBUM ? albums : artists).lookup(value);
+            if (code < 0) {
+                return 0;
+            }
+            int[] keys = groupBy == GROUP_ALBUM ? albumCodes : artistCodes;
+            int count = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (keys[row] == code && !removed[row]) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------- Interna
+
+    private int[] liveRows() {
+        int[] rows = new int[rowCount - removedCount];
+        int n = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!removed[row]) {
+                rows[n++] = row;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Vergleicht zwei Titel direkt im Pool, ohne Beachtung der Groß-/Kleinschreibung.
+     */
+    private int compareTitles(int a, int b) {
+        int prefix = Long.compareUnsigned(titlePrefix[a], titlePrefix[b]);
+        if (prefix != 0) {
+            return prefix;
+        }
+        int startA = titleStart[a];
+        int startB = titleStart[b];
+        int lenA = titleLength[a];
+        int lenB = titleLength[b];
+        int n = Math.min(lenA, lenB);
+        for (int i = 0; i < n; i++) {
+            char ca = titlePool[startA + i];
+            char cb = titlePool[startB + i];
+            if (ca != cb) {
+                ca = Character.toLowerCase(ca);
+                cb = Character.toLowerCase(cb);
+                if (ca != cb) {
+                    return ca - cb;
+                }
+            }
+        }
+        return lenA - lenB;
+    }
+
+    /**
+     * Stabiler Mergesort auf einem int-Array, ohne Boxing.
+     */
+    static void sort(int[] rows, RowComparator comparator) {
+        int n = rows.length;
+        for (int start = 0; start < n; start += INSERTION_SORT_THRESHOLD) {
+            int end = Math.min(n, start + INSERTION_SORT_THRESHOLD);
+            for (int i = start + 1; i < end; i++) {
+                int value = rows[i];
+                int j = i - 1;
+                while (j >= start && comparator.compare(rows[j], value) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = value;
+            }
+        }
+        if (n <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+        int[] src = rows;
+        int[] dst = new int[n];
+        for (int width = INSERTION_SORT_THRESHOLD; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(n, lo + width);
+                int hi = Math.min(n, lo + 2 * width);
+                int i = lo;
+                int j = mid;
+                int k = lo;
+                while (i < mid && j < hi) {
+                    dst[k++] = comparator.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+                }
+                while (i < mid) {
+                    dst[k++] = src[i++];
+                }
+                while (j < hi) {
+                    dst[k++] = src[j++];
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != rows) {
+            System.arraycopy(src, 0, rows, 0, n);
+        }
+    }
+
+    private static long prefixKey(char[] title, int length) {
+        long key = 0;
+        for (int i = 0; i < 4; i++) {
+            key <<= 16;
+            if (i < length) {
+                key |= Character.toLowerCase(title[i]);
+            }
+        }
+        return key;
+    }
+
+    private boolean removeInternal(int id) {
+        int row = id >= 0 && id < rowById.length ? rowById[id] : -1;
+        if (row < 0) {
+            return false;
+        }
+        removed[row] = true;
+        removedCount++;
+        rowById[id] = -1;
+        return true;
+    }
+
+    /**
+     * Entfernt markierte Zeilen und verdichtet den Titel-Pool.
+     */
+    private void compact() {
+        char[] newPool = new char[Math.max(INITIAL_CAPACITY, titlePoolSize)];
+        int poolSize = 0;
+        int target = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (removed[row]) {
+                continue;
+            }
+            int len = titleLength[row];
+            System.arraycopy(titlePool, titleStart[row], newPool, poolSize, len);
+            ids[target] = ids[row];
+            artistCodes[target] = artistCodes[row];
+            albumCodes[target] = albumCodes[row];
+            durations[target] = durations[row];
+            titleStart[target] = poolSize;
+            titleLength[target] = len;
+            titlePrefix[target] = titlePrefix[row];
+            removed[target] = false;
+            rowById[ids[target]] = target;
+            poolSize += len;
+            target++;
+        }
+        titlePool = newPool;
+        titlePoolSize = poolSize;
+        rowCount = target;
+        removedCount = 0;
+        version++;
+    }
+
+    private void setRowForId(int id, int row) {
+        if (id >= rowById.length) {
+            int oldLength = rowById.length;
+            rowById = Arrays.copyOf(rowById, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(rowById, oldLength, rowById.length, -1);
+        }
+        rowById[id] = row;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        artistCodes = Arrays.copyOf(artistCodes, newCapacity);
+        albumCodes = Arrays.copyOf(albumCodes, newCapacity);
+        durations = Arrays.copyOf(durations, newCapacity);
+        titleStart = Arrays.copyOf(titleStart, newCapacity);
+        titleLength = Arrays.copyOf(titleLength, newCapacity);
+        titlePrefix = Arrays.copyOf(titlePrefix, newCapacity);
+        removed = Arrays.copyOf(removed, newCapacity);
+    }
+
+    private void ensurePoolCapacity(int capacity) {
+        if (capacity > titlePool.length) {
+            titlePool = Arrays.copyOf(titlePool, Math.max(capacity, titlePool.length * 2));
+        }
+    }
+}
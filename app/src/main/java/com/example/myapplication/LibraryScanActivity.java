@@ -7,15 +7,12 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.work.Data;
-import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.ExistingWorkPolicy;
 import androidx.work.OneTimeWorkRequest;
-import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import Controller.LibraryScanController;
 
@@ -40,8 +37,8 @@ public class LibraryScanActivity extends AppCompatActivity {
             return;
         }
 
-        // Starte den periodischen Scan für den ausgewählten Ordner
-        schedulePeriodicMusicScan();
+        // Der periodische Scan deckt alle konfigurierten Ordner ab; einen eigenen je Ordner gibt es nicht mehr
+        MusicComponents.get(this).musicScanScheduler().schedulePeriodic();
 
         initViews();
 
@@ -81,26 +78,6 @@ public class LibraryScanActivity extends AppCompatActivity {
         adapter.notifyDataSetChanged();
     }
 
-    /**
-     * Plant einen periodischen Scan, der alle 15 Minuten den Inhalt des ausgewählten Ordners einliest.
-     */
-    private void schedulePeriodicMusicScan() {
-        PeriodicWorkRequest scanRequest =
-                new PeriodicWorkRequest.Builder(MusicLoaderWorker.class, 15, TimeUnit.MINUTES)
-                        .setInputData(
-                                new Data.Builder()
-                                        .putString("folder_uris", selectedFolderUri)
-                                        .putInt("page_size", 50)
-                                        .build()
-                        )
-                        .build();
-
-        WorkManager.getInstance(getApplicationContext())
-                .enqueueUniquePeriodicWork("PeriodicMusicScanSingleFolder",
-                        ExistingPeriodicWorkPolicy.REPLACE,
-                        scanRequest);
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
@@ -0,0 +1,82 @@
+package com.example.myapplication;
+
+import java.util.Objects;
+
+/**
+ * Die LibrarySummary-Klasse repräsentiert eine Zeile der vorberechneten Zusammenfassungen für Interpreten
+ * und Alben: Name, Anzahl Titel, Gesamtdauer und einen Track, dessen Cover stellvertretend angezeigt wird.
+ * Das Model-Objekt ist unveränderlich; Sortierschlüssel und ID dienen als Cursor für das seitenweise Laden.
+ */
+public class LibrarySummary {
+    private final long id;
+    private final String name;
+    private final String artist; // nur bei Alben gesetzt, sonst ""
+    private final String sortKey;
+    private final int trackCount;
+    private final long totalDurationMs;
+    private final String artworkKey;
+
+    public LibrarySummary(long id, String name, String artist, String sortKey, int trackCount,
+                          long totalDurationMs, String artworkKey) {
+        this.id = id;
+        this.name = name;
+        this.artist = artist != null ? artist : "";
+        this.sortKey = sortKey;
+        this.trackCount = trackCount;
+        this.totalDurationMs = totalDurationMs;
+        this.artworkKey = artworkKey;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getArtist() {
+        return artist;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    public long getTotalDurationMs() {
+        return totalDurationMs;
+    }
+
+    /**
+     * @return URI eines Tracks dieser Gruppe, aus dem das Cover gelesen werden kann, oder {@code null}.
+     */
+    public String getArtworkKey() {
+        return artworkKey;
+    }
+
+    @Override
+    public String toString() {
+        return "LibrarySummary{" +
+                "name='" + name + '\'' +
+                ", trackCount=" + trackCount +
+                ", totalDurationMs=" + totalDurationMs +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LibrarySummary)) return false;
+        LibrarySummary that = (LibrarySummary) o;
+        return id == that.id && Objects.equals(name, that.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name);
+    }
+}
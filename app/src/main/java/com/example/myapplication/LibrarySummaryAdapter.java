@@ -0,0 +1,91 @@
+package com.example.myapplication;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.myapplication.databinding.ItemSummaryBinding;
+import java.util.Locale;
+
+/**
+ * LibrarySummaryAdapter stellt Interpreten- bzw. Album-Zusammenfassungen in einer RecyclerView dar.
+ * Alle angezeigten Werte stammen direkt aus der Zusammenfassung; es werden keine Tracks gelesen.
+ * Wie beim {@link TrackAdapter} läuft der Diff im UiLoad-Pool ({@link AppExecutors#uiLoad()}): eine nachgeladene
+ * Seite fügt nur ihre neuen Zeilen ein, statt die ganze Liste neu zu binden.
+ */
+public class LibrarySummaryAdapter extends ListAdapter<LibrarySummary, LibrarySummaryAdapter.SummaryViewHolder> {
+
+    /**
+     * Callback-Interface für Item-Clicks.
+     */
+    public interface OnSummaryClickListener {
+        void onSummaryClick(@NonNull LibrarySummary summary);
+    }
+
+    private final OnSummaryClickListener clickListener;
+
+    public LibrarySummaryAdapter(@NonNull AppExecutors executors, @NonNull OnSummaryClickListener clickListener) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(executors.uiLoad())
+                .build());
+        this.clickListener = clickListener;
+    }
+
+    private static final DiffUtil.ItemCallback<LibrarySummary> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<LibrarySummary>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull LibrarySummary oldItem, @NonNull LibrarySummary newItem) {
+                    return oldItem.equals(newItem);
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull LibrarySummary oldItem, @NonNull LibrarySummary newItem) {
+                    return oldItem.getTrackCount() == newItem.getTrackCount()
+                            && oldItem.getTotalDurationMs() == newItem.getTotalDurationMs()
+                            && oldItem.getArtist().equals(newItem.getArtist());
+                }
+            };
+
+    @NonNull
+    @Override
+    public SummaryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemSummaryBinding binding = ItemSummaryBinding.inflate(
+                LayoutInflater.from(parent.getContext()), parent, false);
+        return new SummaryViewHolder(binding);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull SummaryViewHolder holder, int position) {
+        holder.bind(getItem(position), clickListener);
+    }
+
+    static class SummaryViewHolder extends RecyclerView.ViewHolder {
+        private final ItemSummaryBinding binding;
+
+        SummaryViewHolder(@NonNull ItemSummaryBinding binding) {
+            super(binding.getRoot());
+            this.binding = binding;
+        }
+
+        void bind(@NonNull LibrarySummary summary, @NonNull OnSummaryClickListener listener) {
+            binding.summaryName.setText(summary.getName());
+            String details = summary.getTrackCount() + " Titel · " + formatDuration(summary.getTotalDurationMs());
+            if (!summary.getArtist().isEmpty()) {
+                details = summary.getArtist() + " · " + details;
+            }
+            binding.summaryDetails.setText(details);
+            binding.getRoot().setOnClickListener(v -> listener.onSummaryClick(summary));
+        }
+    }
+
+    private static String formatDuration(long durationMs) {
+        long totalMinutes = durationMs / 60000;
+        if (totalMinutes >= 60) {
+            return String.format(Locale.GERMANY, "%d Std. %d Min.", totalMinutes / 60, totalMinutes % 60);
+        }
+        return String.format(Locale.GERMANY, "%d:%02d", totalMinutes, (durationMs / 1000) % 60);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LoudnessAnalysisWorker misst die Lautheit aller Tracks, die weder ReplayGain-Tags besitzen noch
+ * bereits analysiert wurden. Die Tracks werden in kleinen Batches mit niedrigster Thread-Priorität
+ * dekodiert; jedes Ergebnis wird sofort gespeichert, sodass ein abgebrochener Lauf beim nächsten
+ * Mal an derselben Stelle weitermacht. Lässt sich ein Ergebnis nicht speichern, bleibt der Track
+ * ausstehend; er wird im selben Lauf nicht erneut dekodiert, und liefert ein Batch nur noch solche
+ * Tracks, endet der Lauf mit einem späteren Neuversuch.
+ */
+public class LoudnessAnalysisWorker extends Worker {
+
+    private static final String TAG = "LoudnessAnalysisWorker";
+    private static final String UNIQUE_WORK_NAME = "LOUDNESS_ANALYSIS";
+    private static final int BATCH_SIZE = 20;
+
+    public LoudnessAnalysisWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Plant die Analyse ein. Ein bereits laufender oder wartender Auftrag bleibt erhalten.
+     */
+    public static void enqueue(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(LoudnessAnalysisWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiresBatteryNotLow(true)
+                        .build())
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(UNIQUE_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_LOWEST);
+        MusicRepository repository = MusicRepository.getInstance(getApplicationContext());
+        // Alben als (Interpret, Albumname): gleichnamige Alben verschiedener Interpreten sind verschiedene Alben
+        Set<List<String>> touchedAlbums = new HashSet<>();
+        // Bereits bearbeitete Tracks: taucht einer wieder auf, ist sein Ergebnis nicht gespeichert worden
+        Set<Long> seen = new HashSet<>();
+        int analyzed = 0;
+        boolean stalled = false;
+        try {
+            List<Track> batch = repository.getTracksPendingLoudness(BATCH_SIZE);
+            while (!batch.isEmpty()) {
+                int progress = 0;
+                for (Track track : batch) {
+                    if (isStopped()) {
+                        Log.d(TAG, "Analyse unterbrochen nach " + analyzed + " Tracks.");
+                        return Result.retry();
+                    }
+                    if (!seen.add(track.getId())) {
+                        continue;
+                    }
+                    analyze(repository, track);
+                    touchedAlbums.add(Arrays.asList(track.getArtist(), track.getAlbum()));
+                    analyzed++;
+                    progress++;
+                }
+                // Gain-Werte des Batches auf einmal für zwischengespeicherte Listen sichtbar machen
+                repository.publishLoudnessResults();
+                if (progress == 0) {
+                    Log.w(TAG, "Kein Fortschritt: " + batch.size() + " Ergebnisse ließen sich nicht speichern.");
+                    stalled = true;
+                    break;
+                }
+                batch = repository.getTracksPendingLoudness(BATCH_SIZE);
+            }
+            for (List<String> album : touchedAlbums) {
+                repository.updateAlbumGain(album.get(0), album.get(1));
+            }
+            Log.d(TAG, "Lautheitsanalyse abgeschlossen: " + analyzed + " Tracks.");
+            return stalled ? Result.retry() : Result.success();
+        } catch (Exception e) {
+            Log.e(TAG, "Fehler bei der Lautheitsanalyse", e);
+            return Result.failure();
+        } finally {
+            // Auch nach Unterbrechung oder Fehler: bereits gespeicherte Werte nicht hinter dem Cache verstecken
+            repository.publishLoudnessResults();
+        }
+    }
+
+    private void analyze(MusicRepository repository, Track track) {
+        final LoudnessMeter[] meter = new LoudnessMeter[1];
+        try {
+            boolean decoded = PcmDecoder.decode(getApplicationContext(), Uri.parse(track.getUri()),
+                    new PcmDecoder.PcmSink() {
+                        @Override
+                        public void onFormat(int sampleRate, int channels) {
+                            // Bei einer Formatänderung beginnt die Messung neu.
+                            meter[0] = new LoudnessMeter(sampleRate, channels);
+                        }
+
+                        @Override
+                        public boolean onPcm(float[] samples, int frames) {
+                            meter[0].process(samples, frames);
+                            return !isStopped();
+                        }
+                    });
+            if (isStopped()) {
+                return; // Track bleibt ausstehend und wird beim nächsten Lauf erneut analysiert.
+            }
+            double lufs = meter[0] != null ? meter[0].getIntegratedLoudness() : Double.NEGATIVE_INFINITY;
+            boolean saved = !decoded || Double.isInfinite(lufs)
+                    ? repository.markLoudnessFailed(track.getId())
+                    : repository.saveLoudness(track.getId(), lufs, meter[0].getGatedBlockCount(), meter[0].getTruePeak());
+            if (!saved) {
+                Log.w(TAG, "Ergebnis für Track " + track.getId() + " nicht gespeichert.");
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Track konnte nicht analysiert werden: " + track.getUri(), e);
+            repository.markLoudnessFailed(track.getId());
+        }
+    }
+}
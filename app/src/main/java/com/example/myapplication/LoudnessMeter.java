@@ -0,0 +1,313 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+
+/**
+ * LoudnessMeter misst die integrierte Lautheit nach EBU R128 / ITU-R BS.1770-4 sowie den True Peak.
+ * Die Samples werden blockweise als interleavte Float-Werte (-1..1) übergeben, es wird nichts
+ * zwischengespeichert außer den Energien der 400-ms-Messblöcke. Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public class LoudnessMeter {
+
+    // ReplayGain 2.0 Referenzpegel
+    public static final double REFERENCE_LUFS = -18.0;
+
+    private static final double ABSOLUTE_GATE_LUFS = -70.0;
+    private static final double RELATIVE_GATE_LU = -10.0;
+    // Ein Messblock (400 ms) besteht aus vier 100-ms-Teilblöcken (75 % Überlappung).
+    private static final int SUB_BLOCKS_PER_BLOCK = 4;
+    // True-Peak: 4-fache Überabtastung mit einem Polyphasen-FIR aus 12 Taps je Phase
+    private static final int OVERSAMPLING = 4;
+    private static final int TAPS_PER_PHASE = 12;
+
+    private final int channels;
+    private final double[] channelWeights;
+    private final Biquad[] shelf;
+    private final Biquad[] highPass;
+    private final int subBlockFrames;
+
+    // Teilblock-Energien der letzten vier Teilblöcke (Ringpuffer)
+    private final double[] subBlockEnergy = new double[SUB_BLOCKS_PER_BLOCK];
+    private int subBlockCount = 0;
+    private double currentSubBlockSum = 0;
+    private int currentSubBlockFrames = 0;
+
+    private double[] blockEnergies = new double[1024];
+    private int blockCount = 0;
+
+    private final double[][] polyphase;
+    private final double[][] history;
+    private int historyPos = 0;
+    private final boolean oversample;
+    private double peak = 0;
+    private long framesProcessed = 0;
+
+    public LoudnessMeter(int sampleRate, int channels) {
+        if (sampleRate <= 0 || channels <= 0) {
+            throw new IllegalArgumentException("Ungültiges Format: " + sampleRate + " Hz, " + channels + " Kanäle");
+        }
+        this.channels = channels;
+        this.channelWeights = new double[channels];
+        this.shelf = new Biquad[channels];
+        this.highPass = new Biquad[channels];
+        for (int c = 0; c < channels; c++) {
+            channelWeights[c] = channelWeight(c, channels);
+            shelf[c] = Biquad.highShelf(sampleRate);
+            highPass[c] = Biquad.highPass(sampleRate);
+        }
+        this.subBlockFrames = Math.max(1, sampleRate / 10);
+        // Ab 96 kHz ist der Sample Peak bereits eine ausreichende Näherung des True Peak.
+        this.oversample = sampleRate < 96000;
+        this.polyphase = oversample ? buildPolyphase() : null;
+        this.history = oversample ? new double[channels][TAPS_PER_PHASE] : null;
+    }
+
+    /**
+     * Verarbeitet einen Block interleavter Samples.
+     *
+     * @param samples Interleavte Samples im Bereich -1..1.
+     * @param frames  Anzahl der Frames (Samples pro Kanal) im Block.
+     */
+    public void process(float[] samples, int frames) {
+        for (int f = 0; f < frames; f++) {
+            int base = f * channels;
+            double frameSum = 0;
+            for (int c = 0; c < channels; c++) {
+                double x = samples[base + c];
+                trackPeak(c, x);
+                if (channelWeights[c] == 0) {
+                    continue;
+                }
+                double y = highPass[c].process(shelf[c].process(x));
+                frameSum += channelWeights[c] * y * y;
+            }
+            if (oversample) {
+                historyPos = (historyPos + 1) % TAPS_PER_PHASE;
+            }
+            currentSubBlockSum += frameSum;
+            if (++currentSubBlockFrames == subBlockFrames) {
+                finishSubBlock();
+            }
+        }
+        framesProcessed += frames;
+    }
+
+    /**
+     * @return Die integrierte Lautheit in LUFS oder {@link Double#NEGATIVE_INFINITY} bei Stille.
+     */
+    public double getIntegratedLoudness() {
+        double mean = meanAboveAbsoluteGate();
+        if (mean == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double absoluteThreshold = lufsToEnergy(ABSOLUTE_GATE_LUFS);
+        double relativeThreshold = lufsToEnergy(energyToLufs(mean) + RELATIVE_GATE_LU);
+        double gatedSum = 0;
+        int gatedCount = 0;
+        for (int i = 0; i < blockCount; i++) {
+            if (blockEnergies[i] > absoluteThreshold && blockEnergies[i] > relativeThreshold) {
+                gatedSum += blockEnergies[i];
+                gatedCount++;
+            }
+        }
+        return gatedCount == 0 ? Double.NEGATIVE_INFINITY : energyToLufs(gatedSum / gatedCount);
+    }
+
+    /**
+     * @return Anzahl der Messblöcke, die beide Gates passiert haben (Gewicht für die Album-Lautheit).
+     */
+    public int getGatedBlockCount() {
+        double mean = meanAboveAbsoluteGate();
+        if (mean == 0) {
+            return 0;
+        }
+        double absoluteThreshold = lufsToEnergy(ABSOLUTE_GATE_LUFS);
+        double relativeThreshold = lufsToEnergy(energyToLufs(mean) + RELATIVE_GATE_LU);
+        int count = 0;
+        for (int i = 0; i < blockCount; i++) {
+            if (blockEnergies[i] > absoluteThreshold && blockEnergies[i] > relativeThreshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Der True Peak als linearer Wert (1.0 = 0 dBTP).
+     */
+    public double getTruePeak() {
+        return peak;
+    }
+
+    public long getFramesProcessed() {
+        return framesProcessed;
+    }
+
+    /**
+     * Berechnet den ReplayGain-Wert (dB) für eine gemessene Lautheit.
+     */
+    public static double gainForLoudness(double lufs) {
+        return REFERENCE_LUFS - lufs;
+    }
+
+    /**
+     * Fasst die Lautheit mehrerer Tracks zu einer Album-Lautheit zusammen, gewichtet nach den
+     * gegateten Messblöcken. Das relative Gate wird dabei pro Track und nicht albumweit angewendet.
+     * Werte ohne Messblöcke (z. B. aus ReplayGain-Tags zurückgerechnet) gehen nicht in den Mittelwert ein.
+     */
+    public static double combineLoudness(double[] lufs, int[] weights) {
+        double sum = 0;
+        long totalWeight = 0;
+        for (int i = 0; i < lufs.length; i++) {
+            if (Double.isInfinite(lufs[i]) || Double.isNaN(lufs[i]) || weights[i] <= 0) {
+                continue;
+            }
+            int weight = weights[i];
+            sum += weight * lufsToEnergy(lufs[i]);
+            totalWeight += weight;
+        }
+        return totalWeight == 0 ? Double.NEGATIVE_INFINITY : energyToLufs(sum / totalWeight);
+    }
+
+    private double meanAboveAbsoluteGate() {
+        double absoluteThreshold = lufsToEnergy(ABSOLUTE_GATE_LUFS);
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i < blockCount; i++) {
+            if (blockEnergies[i] > absoluteThreshold) {
+                sum += blockEnergies[i];
+                count++;
+            }
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    private void finishSubBlock() {
+        subBlockEnergy[subBlockCount % SUB_BLOCKS_PER_BLOCK] = currentSubBlockSum / subBlockFrames;
+        subBlockCount++;
+        currentSubBlockSum = 0;
+        currentSubBlockFrames = 0;
+        if (subBlockCount >= SUB_BLOCKS_PER_BLOCK) {
+            double energy = 0;
+            for (double e : subBlockEnergy) {
+                energy += e;
+            }
+            if (blockCount == blockEnergies.length) {
+                blockEnergies = Arrays.copyOf(blockEnergies, blockCount * 2);
+            }
+            blockEnergies[blockCount++] = energy / SUB_BLOCKS_PER_BLOCK;
+        }
+    }
+
+    private void trackPeak(int channel, double x) {
+        double abs = Math.abs(x);
+        if (abs > peak) {
+            peak = abs;
+        }
+        if (!oversample) {
+            return;
+        }
+        double[] h = history[channel];
+        h[historyPos] = x;
+        // Zwischenwerte der Überabtastung zwischen den Originalsamples
+        for (int phase = 0; phase < OVERSAMPLING; phase++) {
+            double[] coefficients = polyphase[phase];
+            double acc = 0;
+            for (int t = 0; t < TAPS_PER_PHASE; t++) {
+                int idx = historyPos - t;
+                if (idx < 0) {
+                    idx += TAPS_PER_PHASE;
+                }
+                acc += coefficients[t] * h[idx];
+            }
+            double a = Math.abs(acc);
+            if (a > peak) {
+                peak = a;
+            }
+        }
+    }
+
+    private static double[][] buildPolyphase() {
+        int length = OVERSAMPLING * TAPS_PER_PHASE;
+        double center = (length - 1) / 2.0;
+        double[][] phases = new double[OVERSAMPLING][TAPS_PER_PHASE];
+        for (int n = 0; n < length; n++) {
+            double x = (n - center) / OVERSAMPLING;
+            double sinc = x == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+            double window = 0.5 - 0.5 * Math.cos(2 * Math.PI * (n + 0.5) / length);
+            phases[n % OVERSAMPLING][n / OVERSAMPLING] = sinc * window;
+        }
+        return phases;
+    }
+
+    private static double channelWeight(int channel, int channels) {
+        if (channels == 6) {
+            // 5.1: L, R, C, LFE, Ls, Rs – LFE wird ignoriert, Surround-Kanäle mit +1,5 dB gewichtet.
+            if (channel == 3) {
+                return 0;
+            }
+            if (channel >= 4) {
+                return 1.41;
+            }
+        }
+        return 1.0;
+    }
+
+    private static double energyToLufs(double energy) {
+        return energy <= 0 ? Double.NEGATIVE_INFINITY : -0.691 + 10 * Math.log10(energy);
+    }
+
+    private static double lufsToEnergy(double lufs) {
+        return Math.pow(10, (lufs + 0.691) / 10);
+    }
+
+    /**
+     * Biquad-Filter (Direktform I) für die K-Bewertung.
+     * Die Koeffizienten werden wie in BS.1770 beschrieben für die jeweilige Samplerate hergeleitet.
+     */
+    private static final class Biquad {
+        private final double b0, b1, b2, a1, a2;
+        private double x1, x2, y1, y2;
+
+        private Biquad(double b0, double b1, double b2, double a1, double a2) {
+            this.b0 = b0;
+            this.b1 = b1;
+            this.b2 = b2;
+            this.a1 = a1;
+            this.a2 = a2;
+        }
+
+        static Biquad highShelf(int sampleRate) {
+            double f0 = 1681.974450955533;
+            double gainDb = 3.999843853973347;
+            double q = 0.7071752369554196;
+            double k = Math.tan(Math.PI * f0 / sampleRate);
+            double vh = Math.pow(10, gainDb / 20);
+            double vb = Math.pow(vh, 0.4996667741545416);
+            double a0 = 1 + k / q + k * k;
+            return new Biquad(
+                    (vh + vb * k / q + k * k) / a0,
+                    2 * (k * k - vh) / a0,
+                    (vh - vb * k / q + k * k) / a0,
+                    2 * (k * k - 1) / a0,
+                    (1 - k / q + k * k) / a0);
+        }
+
+        static Biquad highPass(int sampleRate) {
+            double f0 = 38.13547087602444;
+            double q = 0.5003270373238773;
+            double k = Math.tan(Math.PI * f0 / sampleRate);
+            double a0 = 1 + k / q + k * k;
+            return new Biquad(1, -2, 1, 2 * (k * k - 1) / a0, (1 - k / q + k * k) / a0);
+        }
+
+        double process(double x) {
+            double y = b0 * x + b1 * x1 + b2 * x2 - a1 * y1 - a2 * y2;
+            x2 = x1;
+            x1 = x;
+            y2 = y1;
+            y1 = y;
+            return y;
+        }
+    }
+}
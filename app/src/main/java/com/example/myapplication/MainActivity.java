@@ -23,6 +23,9 @@ public class MainActivity extends AppCompatActivity {
 
         // Initialisiere die Navigation (Button-Klick)
         initNavigation();
+
+        // Nach dem ersten Frame Jobs einplanen und die Datenbank öffnen, damit der Player sofort lesen kann
+        DeferredStartup.onFirstFrame(this);
     }
 
     /**
@@ -0,0 +1,75 @@
+package com.example.myapplication;
+
+/**
+ * Die MaintenanceReport-Klasse fasst einen Lauf der {@link DatabaseMaintenance} zusammen: Größe und Fragmentierung
+ * vor und nach dem Lauf, entfernte Tracks, freigegebene Seiten und ob alle Schritte im Zeitbudget lagen. Sie wird
+ * in der Tabelle "maintenance_reports" gespeichert und in der {@link DiagnosticsActivity} angezeigt.
+ * Das Model-Objekt ist unveränderlich.
+ */
+public class MaintenanceReport {
+    private final long startedAt; // ms seit Epoch
+    private final long durationMs;
+    private final DatabaseStats before;
+    private final DatabaseStats after;
+    private final long purged; // endgültig entfernte, als gelöscht markierte Tracks
+    private final long vacuumedPages; // an das Dateisystem zurückgegebene Seiten
+    private final boolean complete; // false, wenn Budget oder WorkManager den Lauf vorzeitig beendet haben
+
+    public MaintenanceReport(long startedAt, long durationMs, DatabaseStats before, DatabaseStats after,
+                             long purged, long vacuumedPages, boolean complete) {
+        this.startedAt = startedAt;
+        this.durationMs = durationMs;
+        this.before = before;
+        this.after = after;
+        this.purged = purged;
+        this.vacuumedPages = vacuumedPages;
+        this.complete = complete;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public DatabaseStats getBefore() {
+        return before;
+    }
+
+    public DatabaseStats getAfter() {
+        return after;
+    }
+
+    public long getPurged() {
+        return purged;
+    }
+
+    public long getVacuumedPages() {
+        return vacuumedPages;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return Eingesparte Bytes der Hauptdatei; negativ, falls sie gewachsen ist.
+     */
+    public long getReclaimedBytes() {
+        return before.getFileBytes() - after.getFileBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "MaintenanceReport{" +
+                "durationMs=" + durationMs +
+                ", before=" + before +
+                ", after=" + after +
+                ", purged=" + purged +
+                ", vacuumedPages=" + vacuumedPages +
+                ", complete=" + complete +
+                '}';
+    }
+}
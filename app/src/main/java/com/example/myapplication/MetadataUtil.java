@@ -5,43 +5,85 @@ import android.media.MediaMetadataRetriever;
 import android.net.Uri;
 import android.util.Log;
 
+import java.io.FileDescriptor;
+
 public class MetadataUtil {
     private static final String TAG = "MetadataUtil";
 
     /**
-     * Liest den Titel, den Interpret und die Dauer aus den Metadaten einer Audio-Datei aus.
+     * Liest den Titel, den Interpret, die Dauer, das Album und die Tracknummer aus den Metadaten einer Audio-Datei aus.
      *
      * @param context  Der Context.
      * @param audioUri Die URI der Audio-Datei.
-     * @return Ein Array mit drei Elementen: [0] = Titel, [1] = Interpret, [2] = Dauer in Millisekunden als String.
+     * @return Ein Array mit fünf Elementen: [0] = Titel, [1] = Interpret, [2] = Dauer in Millisekunden als String,
+     *         [3] = Album, [4] = Tracknummer als String ("0" = unbekannt).
      */
     public static String[] getFullMetadata(Context context, Uri audioUri) {
         MediaMetadataRetriever mmr = new MediaMetadataRetriever();
         try {
             mmr.setDataSource(context, audioUri);
-            String title = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_TITLE);
-            String artist = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ARTIST);
-            String duration = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
-
-            if (title == null || title.trim().isEmpty()) {
-                title = "Unbekannt";
-            }
-            if (artist == null) {
-                artist = "";
-            }
-            if (duration == null) {
-                duration = "0";
-            }
-            return new String[]{title, artist, duration};
+            return extract(mmr);
         } catch (Exception e) {
             Log.e(TAG, "Fehler beim Auslesen der Metadaten für: " + audioUri, e);
-            return new String[]{"Unbekannt", "", "0"};
+            return new String[]{"Unbekannt", "", "0", "", "0"};
         } finally {
-            try {
-                mmr.release();
-            } catch (Exception e) {
-                Log.e(TAG, "Fehler beim Freigeben von MediaMetadataRetriever", e);
-            }
+            release(mmr);
+        }
+    }
+
+    /**
+     * Wie {@link #getFullMetadata(Context, Uri)}, liest aber aus einem bereits geöffneten Dateideskriptor,
+     * z. B. wenn der Scanner dieselbe Datei auch für die ReplayGain-Tags geöffnet hat.
+     *
+     * @param audioUri Nur für Fehlermeldungen.
+     */
+    public static String[] getFullMetadata(FileDescriptor fd, Uri audioUri) {
+        MediaMetadataRetriever mmr = new MediaMetadataRetriever();
+        try {
+            mmr.setDataSource(fd);
+            return extract(mmr);
+        } catch (Exception e) {
+            Log.e(TAG, "Fehler beim Auslesen der Metadaten für: " + audioUri, e);
+            return new String[]{"Unbekannt", "", "0", "", "0"};
+        } finally {
+            release(mmr);
+        }
+    }
+
+    private static String[] extract(MediaMetadataRetriever mmr) {
+        String title = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_TITLE);
+        String artist = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ARTIST);
+        String duration = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+        String album = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ALBUM);
+        String trackNumber = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_CD_TRACK_NUMBER);
+
+        if (title == null || title.trim().isEmpty()) {
+            title = "Unbekannt";
+        }
+        if (artist == null) {
+            artist = "";
+        }
+        if (duration == null) {
+            duration = "0";
+        }
+        if (album == null) {
+            album = "";
+        }
+        // Tracknummern liegen oft als "3/12" vor
+        if (trackNumber != null && trackNumber.contains("/")) {
+            trackNumber = trackNumber.substring(0, trackNumber.indexOf('/'));
+        }
+        if (trackNumber == null || !trackNumber.trim().matches("\\d+")) {
+            trackNumber = "0";
+        }
+        return new String[]{title, artist, duration, album, trackNumber.trim()};
+    }
+
+    private static void release(MediaMetadataRetriever mmr) {
+        try {
+            mmr.release();
+        } catch (Exception e) {
+            Log.e(TAG, "Fehler beim Freigeben von MediaMetadataRetriever", e);
         }
     }
 }
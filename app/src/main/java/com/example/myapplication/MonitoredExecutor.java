@@ -0,0 +1,117 @@
+package com.example.myapplication;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * MonitoredExecutor ist ein Thread-Pool fester Größe, der misst, wie lange Aufgaben in der Warteschlange stehen
+ * und wie lange sie laufen (je ein {@link LatencyHistogram} in Mikrosekunden), sowie die aktuelle und die
+ * höchste Warteschlangenlänge. Damit lässt sich nachweisen, dass Vordergrund-Abfragen nicht hinter Hintergrundarbeit
+ * warten (siehe {@link AppExecutors}).
+ * <p>
+ * Die Klasse ist frei von Android-Abhängigkeiten; Namen und Priorität der Threads legt die {@link ThreadFactory} fest.
+ */
+public class MonitoredExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final LatencyHistogram waitUs = new LatencyHistogram();
+    private final LatencyHistogram runUs = new LatencyHistogram();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * Eine Aufgabe samt Zeitpunkt, zu dem sie eingereiht wurde.
+     */
+    private static final class TimedTask implements Runnable {
+        final Runnable task;
+        final long enqueuedNs = System.nanoTime();
+        long startedNs;
+
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    public MonitoredExecutor(String name, int threads, ThreadFactory threadFactory) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        this.name = name;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command));
+        maxQueueDepth.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        TimedTask timed = (TimedTask) runnable;
+        timed.startedNs = System.nanoTime();
+        waitUs.record((timed.startedNs - timed.enqueuedNs) / 1000);
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        super.afterExecute(runnable, throwable);
+        runUs.record((System.nanoTime() - ((TimedTask) runnable).startedNs) / 1000);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Anzahl der Aufgaben, die gerade auf einen freien Thread warten.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Wartezeit vom Einreihen bis zum Start, in Mikrosekunden.
+     */
+    public LatencyHistogram getWaitHistogram() {
+        return waitUs;
+    }
+
+    /**
+     * Laufzeit der Aufgaben, in Mikrosekunden.
+     */
+    public LatencyHistogram getRunHistogram() {
+        return runUs;
+    }
+
+    /**
+     * Eine Zeile für die Diagnose: Threads, Warteschlange (aktuell/max), Aufgaben und Wartezeit p50/p99/max in ms.
+     */
+    public String formatStats() {
+        return name + "  " + getMaximumPoolSize() + " Thr.  Queue " + getQueueDepth() + "/" + maxQueueDepth.get() +
+                "  " + waitUs.getCount() + " Aufg.  Wartezeit p50 " + millis(waitUs.valueAtPercentile(50)) +
+                " p99 " + millis(waitUs.valueAtPercentile(99)) + " max " + millis(waitUs.getMax()) + " ms";
+    }
+
+    /**
+     * Setzt Histogramme und höchste Warteschlangenlänge zurück.
+     */
+    public void resetStats() {
+        waitUs.reset();
+        runUs.reset();
+        maxQueueDepth.set(getQueueDepth());
+    }
+
+    private static String millis(long micros) {
+        return String.valueOf(Math.round(micros / 100.0) / 10.0);
+    }
+}
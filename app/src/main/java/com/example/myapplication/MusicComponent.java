@@ -1,4 +1,37 @@
 package com.example.myapplication;
 
+import android.content.Context;
+
+import javax.inject.Singleton;
+
+import dagger.BindsInstance;
+import dagger.Component;
+
+/**
+ * MusicComponent ist der prozessweite Dagger-Graph für Repository, Speicher-Engine, Scan-Planung und Wartung.
+ * Erzeugt und gehalten wird er von {@link MusicComponents}.
+ */
+@Singleton
+@Component(modules = {ConfigModule.class, StorageModule.class})
 public interface MusicComponent {
+
+    MusicRepository musicRepository();
+
+    MusicScanScheduler musicScanScheduler();
+
+    AppExecutors appExecutors();
+
+    DatabaseMaintenance databaseMaintenance();
+
+    FolderManager folderManager();
+
+    void inject(AllTracksActivity activity);
+
+    @Component.Factory
+    interface Factory {
+        /**
+         * @param context Der Application-Context; wird als {@link Context} in den Graphen gebunden.
+         */
+        MusicComponent create(@BindsInstance Context context);
+    }
 }
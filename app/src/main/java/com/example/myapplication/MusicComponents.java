@@ -0,0 +1,29 @@
+package com.example.myapplication;
+
+import android.content.Context;
+
+/**
+ * MusicComponents hält den einen {@link MusicComponent} des Prozesses. Er wird beim ersten Zugriff mit dem
+ * Application-Context erzeugt, sodass Activities, Worker und Services denselben Graphen nutzen.
+ */
+public final class MusicComponents {
+
+    private static volatile MusicComponent component;
+
+    private MusicComponents() {
+    }
+
+    public static MusicComponent get(Context context) {
+        MusicComponent current = component;
+        if (current == null) {
+            synchronized (MusicComponents.class) {
+                current = component;
+                if (current == null) {
+                    current = DaggerMusicComponent.factory().create(context.getApplicationContext());
+                    component = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.myapplication;
 
+import android.content.ContentResolver;
 import android.content.Context;
 import android.net.Uri;
-import android.util.Log;
+import android.os.ParcelFileDescriptor;
+import android.os.Trace;
 
 import androidx.annotation.NonNull;
 import androidx.documentfile.provider.DocumentFile;
@@ -12,12 +14,23 @@ import androidx.work.WorkerParameters;
 
 import org.json.JSONArray;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MusicLoaderWorker extends Worker {
 
     private static final String TAG = "MusicLoaderWorker";
+    // Nur jede n-te Datei erhält einen eigenen Trace-Abschnitt; das genügt für Systrace/Perfetto-Stichproben
+    private static final int TRACE_SAMPLE_INTERVAL = 64;
+
+    private final ScanMetrics metrics = new ScanMetrics();
+    private int filesSeen = 0;
 
     public MusicLoaderWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
         super(context, workerParams);
@@ -26,69 +39,119 @@ public class MusicLoaderWorker extends Worker {
     @NonNull
     @Override
     public Result doWork() {
+        // Frames, die während des Scans gezeichnet werden, getrennt auswerten (siehe FrameMetricsRecorder)
+        FrameMetricsRecorder.setState(FrameMetricsRecorder.STATE_SCAN, true);
         try {
-            // Lese die Input-Daten (sicherstellen, dass echte URIs übergeben werden)
-            String folderUrisInput = getInputData().getString("folder_uris");
-            int batchSize = getInputData().getInt("page_size", 50);
+            // Ohne "folder_uris" (periodischer Scan, Einstellungen) gelten die konfigurierten Musikordner
+            String folderUrisInput = resolveFolderUris();
+            int batchSize = getInputData().getInt("page_size", ConfigModule.DEFAULT_BATCH_SIZE);
 
-            Log.d(TAG, "=== MusicLoaderWorker gestartet ===");
-            Log.d(TAG, "Input folder_uris: " + folderUrisInput);
-            Log.d(TAG, "Batch-Größe (page_size): " + batchSize);
+            AppLog.d(TAG, "=== MusicLoaderWorker gestartet ===");
+            AppLog.d(TAG, "Ordner: " + folderUrisInput);
+            AppLog.d(TAG, "Batch-Größe (page_size): " + batchSize);
 
             MusicRepository repository = MusicRepository.getInstance(getApplicationContext());
 
-            // Wenn keine Folder-URIs übergeben wurden, lösche alle Tracks und gebe ein leeres Ergebnis zurück.
-            if (folderUrisInput == null || folderUrisInput.trim().isEmpty()) {
-                Log.d(TAG, "Keine Folder-URIs übergeben. Leere DB.");
-                repository.deleteAllTracks();
+            // Ohne Ordner gibt es nichts zu scannen. Die Bibliothek bleibt unverändert: entfernte Ordner markiert
+            // SettingsActivity selbst als gelöscht, und ein Leeren würde IDs, "Neue Titel" und Wiedergabezähler
+            // verwerfen.
+            if (folderUrisInput.isEmpty()) {
+                AppLog.d(TAG, "Keine Musikordner konfiguriert, Scan übersprungen.");
                 Data outputData = new Data.Builder().putString("tracks", "[]").build();
                 return Result.success(outputData);
             }
 
+            long startedAt = System.currentTimeMillis();
+            long scanStart = metrics.start();
+
             // Bereinige die DB: Lösche alle Tracks, die nicht zu den aktuell gültigen Foldern gehören.
             repository.cleanupTracks(folderUrisInput);
 
             String[] folderUris = folderUrisInput.split(",");
-            Log.d(TAG, "Anzahl zu scannender Ordner: " + folderUris.length);
+            AppLog.d(TAG, "Anzahl zu scannender Ordner: " + folderUris.length);
 
             List<String> allTrackTitles = new ArrayList<>();
 
             // Optionale Ausgabe: Anzahl der bestehenden Tracks vor dem Scan
-            List<Track> existingTracks = repository.getCachedTracks();
-            Log.d(TAG, "Tracks bereits in DB vor Scan: " + existingTracks.size());
+            // Die Zählabfrage läuft nur, wenn die Meldung auch ausgegeben wird
+            AppLog.d(TAG, () -> "Tracks bereits in DB vor Scan: " + repository.getTrackCount());
 
             // Iteriere über alle Folder-URIs und verarbeite jeden Ordner in Batches
             for (String folderUriString : folderUris) {
                 folderUriString = folderUriString.trim();
                 if (folderUriString.isEmpty()) continue;
 
-                Log.d(TAG, "Verarbeite Ordner (Batch): " + folderUriString);
+                AppLog.d(TAG, "Verarbeite Ordner (Batch): " + folderUriString);
                 Uri folderUri = Uri.parse(folderUriString);
                 processFolderInBatches(folderUri, getApplicationContext(), repository, batchSize);
             }
 
-            // Finale Überprüfung der DB: Alle gültigen (nicht gelöschten) Tracks abrufen.
-            List<Track> cachedTracks = repository.getCachedTracks();
-            Log.d(TAG, "=== Finale Anzahl Tracks in DB: " + cachedTracks.size() + " ===");
+            // Bericht mit Durchsatz und Phasenzeiten statt Einzel-Logs je Datei
+            ScanReport report = ScanReport.from(metrics, startedAt, (System.nanoTime() - scanStart) / 1_000_000);
+            repository.saveScanReport(report);
+            AppLog.i(TAG, "Scan abgeschlossen: " + report);
+            // Nach großen Scans das Write-Ahead-Log gleich zurückschreiben, statt es bis zur Wartung mitzuschleppen
+            if (report.getInserted() >= DatabaseMaintenance.CHECKPOINT_AFTER_INSERTS) {
+                DatabaseMaintenance.getInstance(getApplicationContext()).checkpoint();
+            }
 
-            for (Track track : cachedTracks) {
-                if (track.getTitle() != null) {
-                    allTrackTitles.add(track.getTitle().trim());
-                }
+            // Finale Überprüfung: Titel aller gültigen (nicht gelöschten) Tracks aus dem In-Memory-Index.
+            LibraryIndex index = repository.getLibraryIndex();
+            AppLog.d(TAG, "=== Finale Anzahl Tracks in DB: " + index.size() + " ===");
+
+            for (int row : index.sortedRows(LibraryIndex.SORT_TITLE, true)) {
+                allTrackTitles.add(index.getTitle(row).trim());
             }
 
+            // Lautheitsanalyse für neue Tracks ohne ReplayGain-Tags im Hintergrund nachholen
+            LoudnessAnalysisWorker.enqueue(getApplicationContext());
+            // Neue Tracks mit bereits vorhandenen abgleichen und Dubletten zusammenklappen
+            DeduplicationWorker.enqueue(getApplicationContext());
+
             JSONArray jsonArrayFinal = new JSONArray(allTrackTitles);
             String finalTracks = jsonArrayFinal.toString();
-            Log.d(TAG, "Zurückgegebene Track-Titel: " + finalTracks);
 
             Data outputData = new Data.Builder()
                     .putString("tracks", finalTracks)
                     .build();
             return Result.success(outputData);
         } catch (Exception e) {
-            Log.e(TAG, "FEHLER in doWork", e);
+            AppLog.e(TAG, "FEHLER in doWork", e);
             return Result.failure();
+        } finally {
+            FrameMetricsRecorder.setState(FrameMetricsRecorder.STATE_SCAN, false);
+        }
+    }
+
+    /**
+     * @return Die zu scannenden Ordner-URIs, kommagetrennt: aus "folder_uris" oder der Datei in "folder_list_file"
+     * (eine URI je Zeile, für Listen, die die 10 KB von Data sprengen würden), sonst die in {@link FolderManager}
+     * konfigurierten Musikordner; "" wenn es keine gibt.
+     */
+    private String resolveFolderUris() {
+        String input = getInputData().getString("folder_uris");
+        if (input != null && !input.trim().isEmpty()) {
+            return input.trim();
+        }
+        String listFile = getInputData().getString("folder_list_file");
+        if (listFile != null) {
+            try {
+                List<String> uris = new ArrayList<>();
+                for (String line : Files.readAllLines(new File(listFile).toPath(), StandardCharsets.UTF_8)) {
+                    if (!line.trim().isEmpty()) {
+                        uris.add(line.trim());
+                    }
+                }
+                return String.join(",", uris);
+            } catch (IOException e) {
+                AppLog.e(TAG, "Ordnerliste nicht lesbar: " + listFile, e);
+            }
         }
+        List<String> uris = new ArrayList<>();
+        for (FolderItem item : MusicComponents.get(getApplicationContext()).folderManager().getFolderItems()) {
+            uris.add(item.getUri());
+        }
+        return String.join(",", uris);
     }
 
     /**
@@ -100,18 +163,29 @@ public class MusicLoaderWorker extends Worker {
      * @param batchSize  Die maximale Batch-Größe (z. B. 50 Tracks pro Batch).
      */
     private void processFolderInBatches(Uri folderUri, Context context, MusicRepository repository, int batchSize) {
-        DocumentFile pickedDir = DocumentFile.fromTreeUri(context, folderUri);
+        // Lokale Ordner (file://, z. B. die Benchmark-Bibliothek) direkt, sonst über das Storage Access Framework
+        DocumentFile pickedDir = ContentResolver.SCHEME_FILE.equals(folderUri.getScheme())
+                ? DocumentFile.fromFile(new File(folderUri.getPath()))
+                : DocumentFile.fromTreeUri(context, folderUri);
         if (pickedDir == null || !pickedDir.exists() || !pickedDir.isDirectory()) {
-            Log.e(TAG, "Ungültiger Ordner: " + folderUri.toString());
+            AppLog.e(TAG, "Ungültiger Ordner: " + folderUri.toString());
             return;
         }
         // Lade alle unterstützten Audio-Dateien aus dem Ordner.
         // Hinweis: Hier wird idealerweise nur der Inhalt des ausgewählten Ordners verarbeitet.
         // Falls du eine Tiefensuche in Unterordnern (von der DB-Seite) wünschst,
         // sollte diese Logik im Repository oder über separate Mechanismen erfolgen.
-        List<DocumentFile> audioFiles = AudioFileFilter.loadSupportedAudioFiles(pickedDir);
+        long listStart = metrics.start();
+        Trace.beginSection("scan:list");
+        List<DocumentFile> audioFiles;
+        try {
+            audioFiles = AudioFileFilter.loadSupportedAudioFiles(pickedDir);
+        } finally {
+            Trace.endSection();
+            metrics.stop(ScanMetrics.PHASE_LIST, listStart);
+        }
         int totalFiles = audioFiles.size();
-        Log.d(TAG, "Ordner " + folderUri.toString() + " enthält " + totalFiles + " Audio-Dateien.");
+        AppLog.d(TAG, "Ordner " + folderUri.toString() + " enthält " + totalFiles + " Audio-Dateien.");
 
         int batchCount = 0;
         // Batchweise Verarbeitung
@@ -123,52 +197,98 @@ public class MusicLoaderWorker extends Worker {
                 DocumentFile audioFile = audioFiles.get(j);
                 if (audioFile == null || !audioFile.isFile() || audioFile.getName() == null) continue;
                 String fileName = audioFile.getName();
-                Log.d(TAG, "Batch-Datei: " + fileName);
 
                 // Lese die Metadaten aus der Audio-Datei: Titel, Artist und Dauer (in Millisekunden)
-                String[] meta = MetadataUtil.getFullMetadata(context, audioFile.getUri());
+                // sowie die ReplayGain-Tags über einen gemeinsam geöffneten Dateideskriptor.
+                String[] meta;
+                ReplayGainTags gain;
+                boolean traced = filesSeen++ % TRACE_SAMPLE_INTERVAL == 0 && Trace.isEnabled();
+                if (traced) {
+                    Trace.beginSection("scan:metadata");
+                }
+                long fileStart = metrics.start();
+                try (ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(audioFile.getUri(), "r")) {
+                    if (pfd == null) {
+                        metrics.increment(ScanMetrics.ERRORS);
+                        continue;
+                    }
+                    metrics.add(ScanMetrics.BYTES, Math.max(0, pfd.getStatSize()));
+                    meta = MetadataUtil.getFullMetadata(pfd.getFileDescriptor(), audioFile.getUri());
+                    gain = readReplayGain(pfd);
+                } catch (Exception e) {
+                    AppLog.w(TAG, "Datei nicht lesbar: " + audioFile.getUri(), e);
+                    metrics.increment(ScanMetrics.ERRORS);
+                    continue;
+                } finally {
+                    metrics.stop(ScanMetrics.PHASE_METADATA, fileStart);
+                    metrics.increment(ScanMetrics.FILES);
+                    if (traced) {
+                        Trace.endSection();
+                    }
+                }
                 String title = meta[0];
                 String artist = meta[1];
                 String rawDuration = meta[2];
+                String album = meta[3];
+                int trackNumber = parseIntOrZero(meta[4]);
 
                 // Falls der Titel unbrauchbar ist, verwende den Dateinamen ohne Erweiterung als Fallback.
                 if (title == null || title.trim().isEmpty() || "Unbekannt".equalsIgnoreCase(title)) {
                     int dotIndex = fileName.lastIndexOf('.');
                     title = (dotIndex != -1) ? fileName.substring(0, dotIndex).trim() : fileName;
                 }
-                // Konvertiere die Dauer in mm:ss
-                String durationFormatted = formatDuration(rawDuration);
-
-                // Erstelle das Track-Objekt und fülle es mit den ausgelesenen Werten.
-                Track track = new Track(title, audioFile.getUri().toString(), artist);
-                track.setDuration(durationFormatted);
+                // Erstelle das Track-Objekt mit den ausgelesenen Werten; die Dauer bleibt numerisch und wird
+                // erst beim Anzeigen formatiert.
+                Track track = new Track.Builder(title, audioFile.getUri().toString())
+                        .artist(artist)
+                        .album(album)
+                        .durationMs(parseLongOrZero(rawDuration))
+                        .trackNumber(trackNumber)
+                        .replayGain(gain.getTrackGain(), gain.getTrackPeak(), gain.getAlbumGain(), gain.getAlbumPeak())
+                        .build();
                 batchTracks.add(track);
             }
             // Füge den aktuellen Batch in die Datenbank ein.
             if (!batchTracks.isEmpty()) {
-                repository.insertTracks(batchTracks);
+                Trace.beginSection("scan:insertBatch");
+                try {
+                    repository.insertTracks(batchTracks, metrics);
+                } finally {
+                    Trace.endSection();
+                }
                 batchCount++;
-                Log.d(TAG, "Batch " + batchCount + " eingefügt: " + batchTracks.size() + " Tracks.");
             }
         }
-        Log.d(TAG, "Abschluss folder " + folderUri.toString() + ": " + batchCount + " Batches verarbeitet.");
+        AppLog.d(TAG, "Abschluss folder " + folderUri.toString() + ": " + batchCount + " Batches verarbeitet.");
     }
 
     /**
-     * Wandelt die Dauer (als String in Millisekunden) in ein mm:ss-Format um.
-     *
-     * @param durationMs Dauer in Millisekunden als String.
-     * @return Formatiert als "mm:ss", z. B. "03:45". Bei Fehlern wird "00:00" zurückgegeben.
+     * Liest die ReplayGain-Tags nur aus dem Header, die Audiodaten bleiben unberührt. Der Kanal liest
+     * positionsbasiert; der Deskriptor bleibt offen und wird vom Aufrufer geschlossen.
      */
-    private String formatDuration(String durationMs) {
+    private static ReplayGainTags readReplayGain(ParcelFileDescriptor pfd) {
+        try {
+            FileChannel channel = new FileInputStream(pfd.getFileDescriptor()).getChannel();
+            return ReplayGainTags.read(channel);
+        } catch (Exception e) {
+            AppLog.w(TAG, "ReplayGain-Tags nicht lesbar", e);
+            return ReplayGainTags.NONE;
+        }
+    }
+
+    private static long parseLongOrZero(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static int parseIntOrZero(String value) {
         try {
-            long ms = Long.parseLong(durationMs);
-            long seconds = ms / 1000;
-            long minutes = seconds / 60;
-            seconds = seconds % 60;
-            return String.format("%02d:%02d", minutes, seconds);
+            return Integer.parseInt(value);
         } catch (Exception e) {
-            return "00:00";
+            return 0;
         }
     }
 
@@ -9,11 +9,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.work.ExistingPeriodicWorkPolicy;
-import androidx.work.PeriodicWorkRequest;
-import androidx.work.WorkManager;
 
-import java.util.concurrent.TimeUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -26,6 +22,7 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
 
 
     private MusicPlayerController playerController;
+    private PlayEventRecorder playEventRecorder;
     private SeekBar seekBar;
     private TextView lblTrackTitle;
     private Button btnPlayPause;
@@ -37,14 +34,16 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
     private int currentPage = 0;
     private static final int PAGE_SIZE = 50;
     private boolean isTrackLoaded = false;
+    // Solange der Nutzer den SeekBar zieht, überschreiben Fortschritts-Updates die Anzeige nicht.
+    private boolean isUserSeeking = false;
     private String folderUriStr;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_music_player);
-        scheduleCleanupWorker();
-        schedulePeriodicMusicScan();
+        // Periodische Jobs erst nach dem ersten Frame einplanen
+        DeferredStartup.onFirstFrame(this);
 
         // Hole den Musikordner-URI
         initializeFolderUri();
@@ -53,6 +52,7 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
 
         // Initialisiere den MediaPlayer-Controller und registriere das Listener-Interface
         playerController = new MusicPlayerController(this);
+        playEventRecorder = PlayEventRecorder.getInstance(this);
 
         // Starte das Laden der Trackliste, sofern ein Musikordner festgelegt ist
         if (folderUriStr != null && !folderUriStr.isEmpty()) {
@@ -61,33 +61,10 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
             Toast.makeText(this,
                     "Kein Musikordner festgelegt! Bitte wähle in den Einstellungen einen Musikordner aus.",
                     Toast.LENGTH_LONG).show();
+            reportFullyDrawn();
         }
     }
 
-    private void schedulePeriodicMusicScan() {
-        PeriodicWorkRequest scanRequest =
-                new PeriodicWorkRequest.Builder(MusicLoaderWorker.class, 15, TimeUnit.MINUTES)
-                        // Optional: setAdditionalConstraints() hinzufügen, falls benötigt.
-                        .build();
-
-        WorkManager.getInstance(getApplicationContext())
-                .enqueueUniquePeriodicWork("PeriodicMusicScan",
-                        ExistingPeriodicWorkPolicy.REPLACE,
-                        scanRequest);
-    }
-
-    private void scheduleCleanupWorker() {
-        // Starte einen PeriodicWorkRequest, z.B. alle 24 Stunden.
-        PeriodicWorkRequest cleanupRequest =
-                new PeriodicWorkRequest.Builder(CleanupWorker.class, 24, TimeUnit.HOURS)
-                        .build();
-
-        WorkManager.getInstance(getApplicationContext())
-                .enqueueUniquePeriodicWork("CleanupWorker",
-                        ExistingPeriodicWorkPolicy.REPLACE,
-                        cleanupRequest);
-    }
-
     /**
      * Ermittelt den Musikordner-URI mithilfe des MusicFolderHelper.
      */
@@ -107,6 +84,12 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
         btnPlaylists = findViewById(R.id.btnPlaylists);
         btnNewTitles = findViewById(R.id.btnNewTitles);
         btnPlaybackList = findViewById(R.id.btnPlaybackList);
+        // Verlauf: kurzer Tipp "Zuletzt gespielt", langer Tipp "Meistgespielt"
+        btnPlaybackList.setOnClickListener(v -> openHistory(TrackListActivity.HISTORY_RECENT));
+        btnPlaybackList.setOnLongClickListener(v -> {
+            openHistory(TrackListActivity.HISTORY_MOST_PLAYED);
+            return true;
+        });
         btnEqualizer = findViewById(R.id.btnEqualizer);
 
         btnSettings.setOnClickListener(view -> {
@@ -118,9 +101,20 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
             Intent intent = new Intent(MusicPlayerActivity.this, AllTracksActivity.class);
             startActivity(intent);
         });
-        btnPlaylists.setOnClickListener(v -> Toast.makeText(MusicPlayerActivity.this,
-                "Playlists werden angezeigt", Toast.LENGTH_SHORT).show());
-        btnNewTitles.setOnClickListener(v -> Log.i(TAG, "Neue Titel-Button geklickt"));
+        btnPlaylists.setOnClickListener(v ->
+                startActivity(new Intent(MusicPlayerActivity.this, PlaylistsActivity.class)));
+        // "Neue Titel" ist eine Smart-Playlist mit gespeicherter Mitgliedschaft und öffnet ohne Auswertung.
+        btnNewTitles.setOnClickListener(v -> {
+            Intent intent = new Intent(MusicPlayerActivity.this, TrackListActivity.class);
+            intent.putExtra(TrackListActivity.EXTRA_SYSTEM_PLAYLIST, TrackDatabaseHelper.SYSTEM_KEY_NEW_TITLES);
+            startActivity(intent);
+        });
+        btnEqualizer.setOnClickListener(v ->
+                startActivity(new Intent(MusicPlayerActivity.this, EqualizerActivity.class)));
+        findViewById(R.id.btnLowerEqualizer).setOnClickListener(v ->
+                startActivity(new Intent(MusicPlayerActivity.this, EqualizerActivity.class)));
+        findViewById(R.id.btnLowerLibrary).setOnClickListener(v ->
+                startActivity(new Intent(MusicPlayerActivity.this, BrowseActivity.class)));
 
         btnPlayPause.setOnClickListener(v -> {
             if (!isTrackLoaded) {
@@ -135,9 +129,11 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
                 // Toggle Play/Pause – Pause oder Resume über den Controller
                 if (btnPlayPause.getText().toString().equals("⏸")) {
                     playerController.pause();
+                    playEventRecorder.paused();
                     btnPlayPause.setText("▶");
                 } else {
                     playerController.resume();
+                    playEventRecorder.resumed();
                     btnPlayPause.setText("⏸");
                 }
             }
@@ -146,10 +142,19 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
         seekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-                // Für das direkte Springen im Track könnte man eine Methode im Controller ergänzen
+                // Während des Ziehens wird nur die Anzeige bewegt, gesprungen wird beim Loslassen.
+            }
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+                isUserSeeking = true;
+            }
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+                isUserSeeking = false;
+                if (isTrackLoaded) {
+                    playerController.seekTo(seekBar.getProgress());
+                }
             }
-            @Override public void onStartTrackingTouch(SeekBar seekBar) {}
-            @Override public void onStopTrackingTouch(SeekBar seekBar) {}
         });
     }
 
@@ -161,8 +166,9 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
             return;
         }
         currentPage = 0;
-        new Thread(() -> {
-            MusicRepository repository = MusicRepository.getInstance(getApplicationContext());
+        AppExecutors.getInstance(this).uiLoad().execute(() -> {
+            // Öffnet beim ersten Aufruf im Prozess die Datenbank (App Startup, siehe MusicRepositoryInitializer)
+            MusicRepository repository = MusicRepositoryInitializer.get(getApplicationContext());
             ArrayList<Track> loadedTracks = new ArrayList<>(repository.getCachedTracksPage(currentPage, PAGE_SIZE, folderUriStr));
 
             runOnUiThread(() -> {
@@ -175,8 +181,10 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
                             Toast.LENGTH_SHORT).show();
                 }
                 Log.d(TAG, "Loaded tracks: " + trackList.size());
+                // Ende des Kaltstarts für Macrobenchmark (timeToFullDisplay): die erste Seite ist abspielbereit
+                reportFullyDrawn();
             });
-        }).start();
+        });
     }
 
     /**
@@ -187,7 +195,7 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
             Toast.makeText(MusicPlayerActivity.this, "Kein Musikordner ausgewählt!", Toast.LENGTH_SHORT).show();
             return;
         }
-        new Thread(() -> {
+        AppExecutors.getInstance(this).uiLoad().execute(() -> {
             MusicRepository repository = MusicRepository.getInstance(getApplicationContext());
             List<Track> newTracks = repository.getCachedTracksPage(currentPage, PAGE_SIZE, folderUriStr);
             runOnUiThread(() -> {
@@ -204,7 +212,13 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
                     Toast.makeText(MusicPlayerActivity.this, "Keine weiteren Titel vorhanden", Toast.LENGTH_SHORT).show();
                 }
             });
-        }).start();
+        });
+    }
+
+    private void openHistory(String history) {
+        Intent intent = new Intent(MusicPlayerActivity.this, TrackListActivity.class);
+        intent.putExtra(TrackListActivity.EXTRA_HISTORY, history);
+        startActivity(intent);
     }
 
     /**
@@ -216,6 +230,16 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
         }
         Track currentTrack = trackList.get(currentTrackIndex);
         playerController.playTrack(this, currentTrack);
+        playEventRecorder.trackStarted(currentTrack);
+        queueNextTrack();
+    }
+
+    /**
+     * Merkt den folgenden Track beim Controller vor, damit er überblenden oder lückenlos anschließen kann.
+     */
+    private void queueNextTrack() {
+        int nextIndex = currentTrackIndex + 1;
+        playerController.setNextTrack(nextIndex < trackList.size() ? trackList.get(nextIndex) : null);
     }
 
     private void playNextTrack() {
@@ -236,12 +260,32 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
         }
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Fortschrittsanzeige nur aktualisieren, solange die Activity sichtbar ist.
+        if (playerController != null) {
+            playerController.setProgressVisible(true);
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        if (playerController != null) {
+            playerController.setProgressVisible(false);
+        }
+        // Gepufferte Wiedergabe-Ereignisse schreiben, solange der Prozess sicher noch läuft.
+        playEventRecorder.flush();
+        super.onStop();
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if (playerController != null) {
             playerController.release();
         }
+        playEventRecorder.stop();
     }
 
     // --- Implementierung der MusicPlayerListener-Methoden ---
@@ -254,11 +298,23 @@ public class MusicPlayerActivity extends AppCompatActivity implements MusicPlaye
 
     @Override
     public void onProgressUpdated(int progress) {
-        seekBar.setProgress(progress);
+        if (!isUserSeeking) {
+            seekBar.setProgress(progress);
+        }
     }
 
     @Override
     public void onTrackCompleted() {
+        playEventRecorder.trackCompleted();
         playNextTrack();
     }
+
+    @Override
+    public void onTrackAdvanced(Track track) {
+        // Übergang per Überblendung oder lückenlos: der vorige Track gilt als zu Ende gehört.
+        playEventRecorder.trackCompleted();
+        playEventRecorder.trackStarted(track);
+        currentTrackIndex++;
+        queueNextTrack();
+    }
 }
@@ -1,48 +1,102 @@
 package com.example.myapplication;
 
-import android.content.ContentValues;
 import android.content.Context;
-import android.database.Cursor;
-import android.database.sqlite.SQLiteDatabase;
-import android.util.Log;
 
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
 
 /**
- * MusicRepository kapselt den Zugriff auf die native SQLite‑Datenbank über den TrackDatabaseHelper.
- * Es bietet sowohl synchrone Methoden als auch LiveData‑basierte Zugriffe.
- * Gleichzeitig wird ein Singleton-Muster in Verbindung mit einem ExecutorService genutzt,
- * um wiederholte Thread-Erstellungen zu vermeiden.
+ * MusicRepository ist der zentrale Zugriffspunkt auf die Bibliothek. Die Daten liegen in Speicher-Engines
+ * (SQLite in der App, im Speicher für Tests und Benchmarks): Tracks und Zusammenfassungen im {@link TrackStore},
+ * Playlists und Wiedergabezähler im {@link PlaylistStore}, Lautheit, Dubletten und Seek-Index im
+ * {@link TrackAnalysisStore}, Scan- und Wartungsberichte im {@link ReportStore}.
+ * Es bietet sowohl synchrone Methoden als auch LiveData‑basierte Zugriffe. Bildschirme laden über
+ * {@link #load(LifecycleOwner, String, SharedQueries.Query, Consumer, Consumer)}: die Abfrage wird beim
+ * Verlassen des Bildschirms abgebrochen und gleiche, gleichzeitig laufende Abfragen werden nur einmal ausgeführt.
+ * <p>
+ * Jeder Schreibzugriff läuft über den {@link DbWriter} auf dem einen Schreib-Thread; die Methoden bleiben für
+ * den Aufrufer synchron und warten, bis die Transaktion abgeschlossen ist.
+ * <p>
+ * Die Instanz wird über den {@link MusicComponent} erzeugt; {@link #getInstance(Context)} bleibt als Zugang
+ * für Klassen, die Dagger nicht selbst erzeugt (Activities, Worker, Services).
  */
+@Singleton
 public class MusicRepository {
     private static final String TAG = "MusicRepository";
-    private static MusicRepository instance;
-    // ExecutorService mit zwei Threads für Hintergrundaufgaben
-    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
-    private TrackDatabaseHelper dbHelper;
-    private final Object dbLock = new Object();
+    // Ab so vielen als gelöscht markierten Tracks lohnt die endgültige Bereinigung
+    private static final int PURGE_THRESHOLD = 10;
+    // Grenzen des Abfrage-Caches: Anzahl der Abfragen und Tracks insgesamt
+    private static final int QUERY_CACHE_ENTRIES = 64;
+    private static final int QUERY_CACHE_ROWS = 100_000;
+    private final TrackStore store;
+    private final PlaylistStore playlists;
+    private final TrackAnalysisStore analysis;
+    private final ReportStore reports;
+    // Leser-Pool für LiveData-Abfragen (AppExecutors.dbRead)
+    private final ExecutorService executor;
+    private final DbWriter writer;
+    // Abbrechbare, zusammengefasste Abfragen der Bildschirme
+    private final SharedQueries queries;
+    // Ergebnisse von Gesamtliste, Seiten, Album und Interpret; Commits auf gelesene Spalten machen sie ungültig
+    private final QueryCache queryCache = new QueryCache(QUERY_CACHE_ENTRIES, QUERY_CACHE_ROWS);
+    // Prozessweiter In-Memory-Index der Bibliothek; wird beim ersten Zugriff geladen, null = neu zu laden
+    private volatile LibraryIndex libraryIndex;
+    private final Object indexLock = new Object();
+    // Gespeicherte Lautheitswerte, die der Abfrage-Cache noch nicht gesehen hat
+    private final AtomicBoolean loudnessPending = new AtomicBoolean();
 
-    // Privater Konstruktor für das Singleton.
-    private MusicRepository(Context context) {
-        dbHelper = new TrackDatabaseHelper(context.getApplicationContext());
-        Log.d(TAG, "MusicRepository Instanz erstellt");
+    /**
+     * @param store     Die Speicher-Engine für Tracks und Zusammenfassungen.
+     * @param playlists Playlists und Wiedergabezähler; muss auf denselben Tracks arbeiten wie {@code store}.
+     * @param analysis  Ergebnisse der Hintergrundanalysen, ebenfalls zu {@code store} gehörend.
+     * @param reports   Scan- und Wartungsberichte.
+     * @param executor  Threads für {@link #getAllTracksLiveData()}.
+     * @param writer    Der Schreib-Thread, auf dem jede Änderung läuft.
+     * @param queries   Führt die Abfragen aus
+     *                  {@link #load(LifecycleOwner, String, SharedQueries.Query, Consumer, Consumer)} aus.
+     */
+    @Inject
+    public MusicRepository(TrackStore store, PlaylistStore playlists, TrackAnalysisStore analysis,
+                           ReportStore reports, @Named(ConfigModule.REPOSITORY_EXECUTOR) ExecutorService executor,
+                           DbWriter writer, SharedQueries queries) {
+        this.store = store;
+        this.playlists = playlists;
+        this.analysis = analysis;
+        this.reports = reports;
+        this.executor = executor;
+        this.writer = writer;
+        this.queries = queries;
+        AppLog.d(TAG, "MusicRepository Instanz erstellt");
     }
 
     public static MusicRepository getInstance(Context context) {
-        if (instance == null) {
-            synchronized (MusicRepository.class) {
-                if (instance == null) {
-                    instance = new MusicRepository(context);
-                }
-            }
-        }
-        return instance;
+        return MusicComponents.get(context).musicRepository();
+    }
+
+    /**
+     * Öffnet die Datenbank samt ausstehender Migrationen, damit die erste Abfrage auf dem UI-Pfad nicht darauf
+     * wartet. Nur im Hintergrund aufrufen (siehe {@link MusicRepositoryInitializer}).
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        store.open();
+        AppLog.d(TAG, () -> "Datenbank geöffnet in " + (System.nanoTime() - start) / 1_000_000 + " ms");
     }
 
     /**
@@ -63,82 +117,61 @@ public class MusicRepository {
     }
 
     /**
-     * Liest alle Tracks synchron aus der Datenbank.
+     * Führt {@code query} im Hintergrund aus und übergibt das Ergebnis auf dem Main-Thread an {@code onResult}.
+     * Wird {@code owner} zerstört, bevor das Ergebnis da ist, entfällt der Callback; wartet niemand sonst auf
+     * dieselbe Abfrage, bricht SQLite den Cursor ab. Läuft bereits eine Abfrage mit demselben {@code key}, wird
+     * deren Ergebnis mitbenutzt. Nur im Main-Thread aufrufen.
      *
-     * @return Eine Liste aller gespeicherten Tracks, die nicht als gelöscht markiert sind.
+     * @param key     Bezeichnet Abfrage und Parameter eindeutig, z. B. "album:" + Albumname.
+     * @param query   Reicht die {@link QueryCancellation} an die abbrechbaren Methoden des Repositorys weiter.
+     * @param onError Wird statt {@code onResult} auf dem Main-Thread aufgerufen, wenn die Abfrage scheitert; der
+     *                Fehler ist dann bereits protokolliert.
+     * @return Das Handle, um die Abfrage vorzeitig abzubrechen (z. B. bei einem erneuten Laden).
      */
-    public List<Track> getCachedTracks() {
-        Log.d(TAG, "=== getCachedTracks() gestartet ===");
-        List<Track> tracks = new ArrayList<>();
-        SQLiteDatabase db = null;
-        Cursor cursor = null;
+    public <T> SharedQueries.Handle load(LifecycleOwner owner, String key, SharedQueries.Query<T> query,
+                                         Consumer<T> onResult, Consumer<RuntimeException> onError) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            AppLog.d(TAG, () -> "Abfrage " + key + " nach dem Beenden des Bildschirms verworfen");
+            return SharedQueries.CANCELED;
+        }
+        CancelOnDestroy binding = new CancelOnDestroy();
+        SharedQueries.Handle handle = queries.submit(key, query, result -> {
+            lifecycle.removeObserver(binding);
+            onResult.accept(result);
+        }, error -> {
+            lifecycle.removeObserver(binding);
+            AppLog.e(TAG, "Abfrage " + key + " fehlgeschlagen", error);
+            onError.accept(error);
+        });
+        binding.handle = handle;
+        lifecycle.addObserver(binding);
+        return handle;
+    }
 
-        try {
-            db = dbHelper.getReadableDatabase();
-            Log.d(TAG, "Datenbank erfolgreich geöffnet");
-
-            String[] columns = {
-                    TrackDatabaseHelper.COLUMN_ID,
-                    TrackDatabaseHelper.COLUMN_TITLE,
-                    TrackDatabaseHelper.COLUMN_URI,
-                    TrackDatabaseHelper.COLUMN_ARTIST   // falls die Migration durchgeführt wurde
-            };
-
-            // Änderung: Nur Tracks laden, die nicht als gelöscht markiert sind (deleted = 0)
-            String selection = "deleted = ?";
-            String[] selectionArgs = new String[]{"0"};
-
-            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS, columns, selection, selectionArgs, null, null, null);
-
-            if (cursor != null) {
-                int trackCount = cursor.getCount();
-                Log.d(TAG, "Anzahl Tracks in DB: " + trackCount);
-
-                int index = 0;
-                while (cursor.moveToNext()) {
-                    try {
-                        int id = cursor.getInt(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_ID));
-                        String title = cursor.getString(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_TITLE));
-                        String uri = cursor.getString(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_URI));
-
-                        // Artist optional lesen
-                        String artist = null;
-                        try {
-                            int artistColumnIndex = cursor.getColumnIndex(TrackDatabaseHelper.COLUMN_ARTIST);
-                            if (artistColumnIndex != -1) {
-                                artist = cursor.getString(artistColumnIndex);
-                            }
-                        } catch (Exception e) {
-                            Log.w(TAG, "Artist-Spalte nicht verfügbar", e);
-                        }
-
-                        Track track = new Track(title, uri);
-                        track.setId(id);
-                        if (artist != null) {
-                            track.setArtist(artist); // Falls diese Methode existiert
-                        }
-                        tracks.add(track);
-                        index++;
-                    } catch (Exception e) {
-                        Log.e(TAG, "Fehler beim Lesen von Track " + index, e);
-                    }
-                }
-            } else {
-                Log.e(TAG, "Cursor ist NULL!");
-            }
+    /**
+     * Bricht die Abfrage ab, sobald der Bildschirm zerstört wird.
+     */
+    private static final class CancelOnDestroy implements DefaultLifecycleObserver {
+        SharedQueries.Handle handle;
 
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler beim Zugriff auf Datenbank", e);
-        } finally {
-            if (cursor != null) {
-                cursor.close();
-            }
-            if (db != null) {
-                db.close();
-            }
+        @Override
+        public void onDestroy(LifecycleOwner owner) {
+            handle.cancel();
         }
+    }
 
-        Log.d(TAG, "=== getCachedTracks() beendet - " + tracks.size() + " Tracks geladen ===");
+    /**
+     * Liest alle Tracks synchron aus der Datenbank.
+     *
+     * @return Eine unveränderliche Liste aller gespeicherten Tracks, die nicht als gelöscht markiert sind.
+     * Dubletten erscheinen nur einmal (über ihren Repräsentanten). Bis zum nächsten Schreibzugriff aus dem Cache.
+     */
+    public List<Track> getCachedTracks() {
+        AppLog.d(TAG, "=== getCachedTracks() gestartet ===");
+        List<Track> tracks = cached("all", QueryCancellation.NONE,
+                () -> store.getVisibleTracks(QueryCancellation.NONE));
+        AppLog.d(TAG, () -> "=== getCachedTracks() beendet - " + tracks.size() + " Tracks geladen ===");
         return tracks;
     }
 
@@ -150,60 +183,22 @@ public class MusicRepository {
      * @param page             Die zu ladende Seite (beginnend bei 0).
      * @param pageSize         Anzahl der Tracks pro Seite.
      * @param folderUriFilter  Optionale Filterung: Es werden nur Tracks geliefert, deren URI mit dem Filter beginnen.
-     * @return Eine Liste von Track-Objekten.
+     * @return Eine unveränderliche Liste von Track-Objekten.
      */
     public List<Track> getCachedTracksPage(int page, int pageSize, String folderUriFilter) {
-        Log.d(TAG, "getCachedTracksPage: page=" + page + ", pageSize=" + pageSize + ", filter=" + folderUriFilter);
-
-        List<Track> tracks = new ArrayList<>();
-        SQLiteDatabase db = null;
-        Cursor cursor = null;
-
-        try {
-            db = dbHelper.getReadableDatabase();
-
-            // Basis: Nur Tracks, die nicht als gelöscht markiert sind.
-            String selection = "deleted = 0";
-            String[] selectionArgs = null;
-
-            // Wenn ein Filter gesetzt ist, erweitern wir die WHERE-Klausel.
-            if (folderUriFilter != null && !folderUriFilter.trim().isEmpty()) {
-                selection += " AND " + TrackDatabaseHelper.COLUMN_URI + " LIKE ?";
-                selectionArgs = new String[]{ folderUriFilter + "%" };
-            }
-
-            String limitClause = pageSize + " OFFSET " + (page * pageSize);
-            String[] columns = {
-                    TrackDatabaseHelper.COLUMN_ID,
-                    TrackDatabaseHelper.COLUMN_TITLE,
-                    TrackDatabaseHelper.COLUMN_URI,
-                    TrackDatabaseHelper.COLUMN_ARTIST
-            };
-
-            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS, columns, selection, selectionArgs, null, null, null, limitClause);
-            if (cursor != null) {
-                while (cursor.moveToNext()){
-                    int id = cursor.getInt(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_ID));
-                    String title = cursor.getString(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_TITLE));
-                    String uri = cursor.getString(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_URI));
-                    String artist = cursor.getString(cursor.getColumnIndexOrThrow(TrackDatabaseHelper.COLUMN_ARTIST));
-                    Track track = new Track(title, uri, artist);
-                    track.setId(id);
-                    tracks.add(track);
-                }
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler in getCachedTracksPage", e);
-        } finally {
-            if (cursor != null) {
-                cursor.close();
-            }
-            if (db != null && db.isOpen()) {
-                db.close();
-            }
-        }
+        return getCachedTracksPage(page, pageSize, folderUriFilter, QueryCancellation.NONE);
+    }
 
-        Log.d(TAG, "getCachedTracksPage zurückgegeben: " + tracks.size() + " Tracks");
+    /**
+     * Wie {@link #getCachedTracksPage(int, int, String)}, abbrechbar über {@code cancellation}.
+     */
+    public List<Track> getCachedTracksPage(int page, int pageSize, String folderUriFilter,
+                                           QueryCancellation cancellation) {
+        // Wird beim Scrollen für jede Seite aufgerufen: Meldung nur in Debug-Builds aufbauen
+        AppLog.d(TAG, () -> "getCachedTracksPage: page=" + page + ", pageSize=" + pageSize + ", filter=" + folderUriFilter);
+        List<Track> tracks = cached("page:" + page + ":" + pageSize + ":" + folderUriFilter, cancellation,
+                () -> store.getTracksPage(page, pageSize, folderUriFilter, cancellation));
+        AppLog.d(TAG, () -> "getCachedTracksPage zurückgegeben: " + tracks.size() + " Tracks");
         return tracks;
     }
 
@@ -216,74 +211,324 @@ public class MusicRepository {
      * @param tracks Die Liste der neuen Track-Objekte.
      */
     public void insertTracks(List<Track> tracks) {
-        Log.d(TAG, "=== insertTracks() gestartet ===");
-        Log.d(TAG, "Einzufügende Tracks: " + tracks.size());
+        insertTracks(tracks, new ScanMetrics());
+    }
 
+    /**
+     * Wie {@link #insertTracks(List)}, zählt aber eingefügte, übersprungene und fehlerhafte Tracks sowie die Dauer
+     * von Schreiben und Commit in {@code metrics}, statt jeden Track einzeln zu loggen.
+     */
+    public void insertTracks(List<Track> tracks, ScanMetrics metrics) {
         if (tracks == null || tracks.isEmpty()) {
-            Log.w(TAG, "Keine Tracks zum Einfügen!");
+            AppLog.w(TAG, "Keine Tracks zum Einfügen!");
             return;
         }
+        writer.run(() -> insertOnWriter(tracks, metrics));
+    }
 
-        SQLiteDatabase db = null;
-        int successCount = 0;
-        int errorCount = 0;
+    private void insertOnWriter(List<Track> tracks, ScanMetrics metrics) {
+        List<Track> backfilled = new ArrayList<>();
+        List<Track> inserted = store.insertTracks(tracks, metrics, backfilled);
+        // Auch ohne neue Zeilen können vorhandene Tracks ergänzt worden sein (Dauer, Album)
+        onTracksChanged();
+        // Smart-Playlists nur für die seit der letzten Auswertung eingefügten Zeilen prüfen. Auch ohne neue Zeilen,
+        // damit ein zuvor gescheiterter Durchlauf nachgeholt wird; der Stand liegt in library_meta.
+        playlists.addNewTracksToSmartPlaylists();
+        // Den Index erst nach erfolgreicher Transaktion fortschreiben. Unter indexLock, damit ein gleichzeitig
+        // laufendes Laden erst abgeschlossen ist: hat es die Zeilen schon gelesen, ersetzt add sie nur.
+        synchronized (indexLock) {
+            LibraryIndex index = libraryIndex;
+            if (index != null) {
+                addToIndex(index, inserted);
+                addToIndex(index, backfilled);
+            }
+        }
+    }
 
+    private static void addToIndex(LibraryIndex index, List<Track> tracks) {
+        for (Track track : tracks) {
+            // Der Index adressiert Zeilen mit int-IDs; beide Engines vergeben sie fortlaufend ab 1.
+            index.add((int) track.getId(), track.getTitle(), track.getArtist(), track.getAlbum(), track.getDurationMs());
+        }
+    }
+
+    /**
+     * Zählt die nicht gelöschten Tracks direkt in der Datenbank, ohne Zeilen zu laden.
+     */
+    public long getTrackCount() {
+        return store.getTrackCount();
+    }
+
+    /**
+     * Speichert den Bericht eines abgeschlossenen Scans; ältere Berichte über {@link ReportStore#MAX_SCAN_REPORTS}
+     * hinaus werden verworfen.
+     */
+    public void saveScanReport(ScanReport report) {
+        writer.run(() -> reports.saveScanReport(report));
+    }
+
+    /**
+     * @return Die gespeicherten Scan-Berichte, neueste zuerst.
+     */
+    public List<ScanReport> getScanReports() {
+        return reports.getScanReports();
+    }
+
+    /**
+     * Speichert den Bericht eines Wartungslaufs; ältere Berichte über {@link ReportStore#MAX_MAINTENANCE_REPORTS}
+     * hinaus werden entfernt.
+     */
+    public void saveMaintenanceReport(MaintenanceReport report) {
+        writer.run(() -> reports.saveMaintenanceReport(report));
+    }
+
+    /**
+     * @return Die gespeicherten Wartungsberichte, neueste zuerst.
+     */
+    public List<MaintenanceReport> getMaintenanceReports() {
+        return reports.getMaintenanceReports();
+    }
+
+    /**
+     * Liefert den Sektionsindex (Anfangsbuchstabe → erste Position) für die alphabetische Titelliste.
+     * Gezählt wird über den Index auf (deleted, duplicate_of, title_section), ohne Zeilen der Tabelle zu lesen.
+     */
+    public SectionIndex getTitleSectionIndex() {
+        return store.getTitleSectionIndex();
+    }
+
+    /**
+     * Liest eine Seite der Interpreten-Zusammenfassung, alphabetisch nach Sortierschlüssel.
+     * Geblättert wird per Keyset: Die Kosten je Seite sind unabhängig von Position und Bibliotheksgröße.
+     *
+     * @param after    Letzter Eintrag der vorherigen Seite oder {@code null} für die erste Seite.
+     * @param pageSize Anzahl der Einträge pro Seite.
+     */
+    public List<LibrarySummary> getArtistsPage(LibrarySummary after, int pageSize) {
+        return store.getArtistsPage(after, pageSize);
+    }
+
+    /**
+     * Liest eine Seite der Album-Zusammenfassung, siehe {@link #getArtistsPage(LibrarySummary, int)}.
+     */
+    public List<LibrarySummary> getAlbumsPage(LibrarySummary after, int pageSize) {
+        return store.getAlbumsPage(after, pageSize);
+    }
+
+    public long getArtistCount() {
+        return store.getArtistCount();
+    }
+
+    public long getAlbumCount() {
+        return store.getAlbumCount();
+    }
+
+    /**
+     * Liefert alle Playlists mit der Anzahl ihrer (nicht gelöschten) Titel; vom System angelegte zuerst.
+     */
+    public List<Playlist> getPlaylists() {
+        return playlists.getPlaylists();
+    }
+
+    /**
+     * @return Die ID der vom System angelegten Playlist oder -1.
+     */
+    public long getSystemPlaylistId(String systemKey) {
+        return playlists.getSystemPlaylistId(systemKey);
+    }
+
+    /**
+     * Legt eine leere manuelle Playlist an.
+     *
+     * @return Die neue ID oder -1.
+     */
+    public long createPlaylist(String name) {
+        return writer.call(() -> playlists.createPlaylist(name, null));
+    }
+
+    /**
+     * Legt eine Smart-Playlist an und wertet ihre Regel einmalig über die ganze Bibliothek aus.
+     * Danach wird die Mitgliedschaft nur noch inkrementell gepflegt.
+     *
+     * @return Die neue ID oder -1.
+     */
+    public long createSmartPlaylist(String name, PlaylistRule rule) {
+        return writer.call(() -> playlists.createPlaylist(name, rule));
+    }
+
+    public void deletePlaylist(long playlistId) {
+        writer.run(() -> playlists.deletePlaylist(playlistId));
+    }
+
+    /**
+     * Hängt einen Track an das Ende einer manuellen Playlist an; ist er bereits enthalten, passiert nichts.
+     */
+    public void addTrackToPlaylist(long playlistId, long trackId) {
+        writer.run(() -> playlists.addTrackToPlaylist(playlistId, trackId));
+    }
+
+    /**
+     * Liefert die Titel einer Playlist. Manuelle Playlists in ihrer Reihenfolge, Smart-Playlists mit den zuletzt
+     * hinzugefügten Titeln zuerst. Die Mitgliedschaft ist gespeichert; es wird keine Regel über die Bibliothek ausgewertet.
+     */
+    public List<Track> getPlaylistTracks(long playlistId) {
+        return getPlaylistTracks(playlistId, QueryCancellation.NONE);
+    }
+
+    /**
+     * Wie {@link #getPlaylistTracks(long)}, abbrechbar über {@code cancellation}.
+     */
+    public List<Track> getPlaylistTracks(long playlistId, QueryCancellation cancellation) {
+        return playlists.getPlaylistTracks(playlistId, cancellation);
+    }
+
+    /**
+     * Hängt Wiedergabe-Ereignisse in einer Transaktion an das Protokoll an. Wird vom Schreib-Thread des
+     * {@link PlayEventRecorder} aufgerufen, nie vom Wiedergabe-Thread.
+     */
+    public void insertPlayEvents(List<PlayEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        writer.run(() -> playlists.insertPlayEvents(events));
+    }
+
+    /**
+     * Übernimmt alle seit dem letzten Lauf protokollierten Ereignisse in die Zähler der Track-Tabelle
+     * (play_count, skip_count, last_played_at, listened_ms). Der Stand wird in library_meta gemerkt, sodass
+     * jedes Ereignis genau einmal gezählt wird. Smart-Playlists werden nur für die betroffenen Tracks neu geprüft.
+     */
+    public void rollUpPlayEvents() {
+        writer.run(playlists::rollUpPlayEvents);
+    }
+
+    /**
+     * Zuletzt gespielte Titel, neueste zuerst. Liest über den Index (deleted, last_played_at).
+     */
+    public List<Track> getRecentlyPlayed(int limit) {
+        return getRecentlyPlayed(limit, QueryCancellation.NONE);
+    }
+
+    public List<Track> getRecentlyPlayed(int limit, QueryCancellation cancellation) {
+        return playlists.getRecentlyPlayed(limit, cancellation);
+    }
+
+    /**
+     * Meistgespielte Titel, häufigste zuerst. Liest über den Index auf play_count.
+     */
+    public List<Track> getMostPlayed(int limit) {
+        return getMostPlayed(limit, QueryCancellation.NONE);
+    }
+
+    public List<Track> getMostPlayed(int limit, QueryCancellation cancellation) {
+        return playlists.getMostPlayed(limit, cancellation);
+    }
+
+    /**
+     * Liefert die Titel eines Albums in Albumreihenfolge (Tracknummer, dann Titel).
+     */
+    public List<Track> getTracksForAlbum(String album) {
+        return getTracksForAlbum(album, QueryCancellation.NONE);
+    }
+
+    public List<Track> getTracksForAlbum(String album, QueryCancellation cancellation) {
+        return cached("album:" + album, cancellation, () -> store.getTracksForAlbum(album, cancellation));
+    }
+
+    /**
+     * Liefert die Titel eines Interpreten, gruppiert nach Album.
+     */
+    public List<Track> getTracksForArtist(String artist) {
+        return getTracksForArtist(artist, QueryCancellation.NONE);
+    }
+
+    public List<Track> getTracksForArtist(String artist, QueryCancellation cancellation) {
+        return cached("artist:" + artist, cancellation, () -> store.getTracksForArtist(artist, cancellation));
+    }
+
+    /**
+     * Liefert das Ergebnis aus dem {@link QueryCache} oder führt {@code query} aus und legt es dort ab.
+     * Abgebrochene Abfragen werden nicht abgelegt. Scheitert die Abfrage an der Engine, gibt es eine leere Liste,
+     * die ebenfalls nicht abgelegt wird: der nächste Aufruf fragt erneut.
+     */
+    private List<Track> cached(String key, QueryCancellation cancellation, Supplier<List<Track>> query) {
+        long generation = queryCache.generation();
+        List<Track> hit = queryCache.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        List<Track> tracks;
         try {
-            db = dbHelper.getWritableDatabase();
-            db.beginTransaction();
-            Log.d(TAG, "Transaktion gestartet");
-
-            for (int i = 0; i < tracks.size(); i++) {
-                Track track = tracks.get(i);
-                try {
-                    // Prüfe, ob der Track bereits existiert (exakte Übereinstimmung mit Titel, Artist und URI, deleted = 0)
-                    if (trackExists(db, track)) {
-                        Log.d(TAG, "Track bereits vorhanden (überspringe): " + track.getTitle());
-                        continue;
-                    }
-                    ContentValues values = new ContentValues();
-                    values.put(TrackDatabaseHelper.COLUMN_TITLE, track.getTitle());
-                    values.put(TrackDatabaseHelper.COLUMN_URI, track.getUri());
-                    values.put(TrackDatabaseHelper.COLUMN_ARTIST, track.getArtist());
-                    // Neuen Track als nicht gelöscht markieren (deleted = 0)
-                    values.put(TrackDatabaseHelper.COLUMN_DELETED, 0);
-
-                    long result = db.insert(TrackDatabaseHelper.TABLE_TRACKS, null, values);
-                    if (result != -1) {
-                        successCount++;
-                        Log.d(TAG, "Track " + (i + 1) + " eingefügt: " + track.getTitle());
-                    } else {
-                        errorCount++;
-                        Log.e(TAG, "Fehler beim Einfügen von Track " + (i + 1) + ": " + track.getTitle());
-                    }
-                } catch (Exception e) {
-                    errorCount++;
-                    Log.e(TAG, "Exception beim Einfügen von Track " + (i + 1), e);
-                }
+            tracks = query.get();
+        } catch (RuntimeException e) {
+            if (cancellation.isCanceled()) {
+                throw e;
             }
+            AppLog.e(TAG, "Fehler beim Laden der Tracks (" + key + ")", e);
+            return Collections.emptyList();
+        }
+        if (cancellation.isCanceled()) {
+            return tracks;
+        }
+        return queryCache.put(key, generation, tracks);
+    }
 
-            db.setTransactionSuccessful();
-            Log.d(TAG, "Transaktion erfolgreich abgeschlossen");
-        } catch (Exception e) {
-            Log.e(TAG, "Kritischer Fehler in insertTracks", e);
-        } finally {
-            if (db != null) {
-                try {
-                    db.endTransaction();
-                    db.close();
-                } catch (Exception e) {
-                    Log.e(TAG, "Fehler beim Schließen der DB", e);
-                }
+    /**
+     * Nach jedem Commit, der sichtbare Tracks oder ihre Spalten ändert: macht die zwischengespeicherten
+     * Abfrageergebnisse ungültig.
+     */
+    private void onTracksChanged() {
+        queryCache.invalidate();
+    }
+
+    /**
+     * Für die Diagnose: Trefferquote und Größe des Abfrage-Caches.
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Liefert den prozessweiten In-Memory-Index der sichtbaren Tracks. Beim ersten Aufruf wird er einmalig aus der
+     * Datenbank geladen (nicht im UI-Thread aufrufen), danach vom Scanner inkrementell fortgeschrieben.
+     */
+    public LibraryIndex getLibraryIndex() {
+        return getLibraryIndex(QueryCancellation.NONE);
+    }
+
+    /**
+     * Wie {@link #getLibraryIndex()}; ein abgebrochenes Laden hinterlässt keinen Index, der nächste Zugriff lädt neu.
+     */
+    public LibraryIndex getLibraryIndex(QueryCancellation cancellation) {
+        LibraryIndex index = libraryIndex;
+        if (index != null) {
+            return index;
+        }
+        synchronized (indexLock) {
+            if (libraryIndex == null) {
+                libraryIndex = loadLibraryIndex(cancellation);
             }
+            return libraryIndex;
         }
+    }
 
-        Log.d(TAG, "=== insertTracks() beendet ===");
-        Log.d(TAG, "Erfolgreich eingefügt: " + successCount);
-        Log.d(TAG, "Fehler: " + errorCount);
+    /**
+     * Verwirft den Index nach Massenänderungen (Ordner entfernt, Bereinigung, neue Dublettengruppen); er wird beim
+     * nächsten Zugriff neu geladen.
+     */
+    private void invalidateLibraryIndex() {
+        // Wartet ein laufendes Laden ab, das die Änderung womöglich nicht mehr gesehen hat
+        synchronized (indexLock) {
+            libraryIndex = null;
+        }
+    }
 
-        // Verifikation: Prüfe, ob die Gesamtzahl in der Datenbank stimmt.
-        List<Track> allTracks = getCachedTracks();
-        Log.d(TAG, "Verifikation: Insgesamt " + allTracks.size() + " Tracks in DB");
+    private LibraryIndex loadLibraryIndex(QueryCancellation cancellation) {
+        long start = System.currentTimeMillis();
+        LibraryIndex index = store.loadLibraryIndex(cancellation);
+        AppLog.d(TAG, "Bibliotheksindex geladen: " + index.size() + " Tracks in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return index;
     }
 
 
@@ -292,87 +537,170 @@ public class MusicRepository {
      * Löscht alle Einträge in der Track-Tabelle.
      */
     public void deleteAllTracks() {
-        Log.d(TAG, "=== deleteAllTracks() gestartet ===");
-        synchronized (dbLock) {
-            SQLiteDatabase db = null;
-            try {
-                db = dbHelper.getWritableDatabase();
-                int deletedRows = db.delete(TrackDatabaseHelper.TABLE_TRACKS, null, null);
-                Log.d(TAG, "Gelöschte Tracks: " + deletedRows);
-            } catch (Exception e) {
-                Log.e(TAG, "Fehler beim Löschen aller Tracks", e);
-            } finally {
-                if (db != null && db.isOpen()) {
-                    db.close();
+        AppLog.d(TAG, "=== deleteAllTracks() gestartet ===");
+        writer.run(() -> {
+            int deletedRows = store.deleteAllTracks();
+            onTracksChanged();
+            AppLog.d(TAG, "Gelöschte Tracks: " + deletedRows);
+            synchronized (indexLock) {
+                LibraryIndex index = libraryIndex;
+                if (index != null) {
+                    index.clear();
                 }
             }
+        });
+        AppLog.d(TAG, "=== deleteAllTracks() beendet ===");
+    }
+
+    /**
+     * Liest den gecachten Seek-Index eines Tracks.
+     *
+     * @param trackId Die ID des Tracks.
+     * @return Der Index oder null, falls noch keiner gespeichert wurde.
+     */
+    public SeekIndex getSeekIndex(long trackId) {
+        return analysis.getSeekIndex(trackId);
+    }
+
+    /**
+     * Speichert den Seek-Index eines Tracks neben der Track-Zeile.
+     *
+     * @param trackId Die ID des Tracks.
+     * @param index   Der zu speichernde Index.
+     */
+    public void saveSeekIndex(long trackId, SeekIndex index) {
+        if (index == null) {
+            return;
         }
-        Log.d(TAG, "=== deleteAllTracks() beendet ===");
+        writer.run(() -> analysis.saveSeekIndex(trackId, index));
     }
 
-    private boolean trackExists(SQLiteDatabase db, Track track) {
-        String query = "SELECT COUNT(*) FROM " + TrackDatabaseHelper.TABLE_TRACKS +
-                " WHERE " + TrackDatabaseHelper.COLUMN_TITLE + " = ? AND " +
-                TrackDatabaseHelper.COLUMN_ARTIST + " = ? AND " +
-                TrackDatabaseHelper.COLUMN_URI + " = ? AND deleted = 0";
-        Cursor cursor = null;
-        try {
-            cursor = db.rawQuery(query, new String[]{track.getTitle(), track.getArtist(), track.getUri()});
-            if (cursor != null && cursor.moveToFirst() && cursor.getInt(0) > 0) {
-                return true;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler beim Überprüfen, ob Track existiert", e);
-        } finally {
-            if (cursor != null) {
-                cursor.close();
-            }
+    /**
+     * Liefert Tracks, deren Lautheit noch nicht bestimmt wurde (weder per Tag noch per Analyse).
+     *
+     * @param limit Maximale Anzahl.
+     */
+    public List<Track> getTracksPendingLoudness(int limit) {
+        return analysis.getTracksPendingLoudness(limit);
+    }
+
+    /**
+     * Speichert das Ergebnis der Lautheitsanalyse eines Tracks.
+     *
+     * @param trackId  Die ID des Tracks.
+     * @param lufs     Integrierte Lautheit in LUFS.
+     * @param blocks   Anzahl der gegateten Messblöcke (Gewicht für die Album-Lautheit).
+     * @param truePeak True Peak, linear.
+     * @return false, wenn das Ergebnis nicht gespeichert werden konnte.
+     */
+    public boolean saveLoudness(long trackId, double lufs, int blocks, double truePeak) {
+        boolean saved = writer.call(() -> analysis.saveLoudness(trackId, lufs, blocks, truePeak));
+        if (saved) {
+            // Erst publishLoudnessResults() macht die neuen Gain-Werte in zwischengespeicherten Listen sichtbar
+            loudnessPending.set(true);
         }
-        return false;
+        return saved;
     }
 
+    /**
+     * Nach einem Batch von {@link #saveLoudness}: macht zwischengespeicherte Abfrageergebnisse einmal ungültig,
+     * wenn seit dem letzten Aufruf Lautheitswerte gespeichert wurden.
+     */
+    public void publishLoudnessResults() {
+        if (loudnessPending.getAndSet(false)) {
+            onTracksChanged();
+        }
+    }
 
-    public void markTracksDeletedByFolder(String folderUri) {
-        Log.d(TAG, "Markiere Tracks als gelöscht für Ordner: " + folderUri);
-        SQLiteDatabase db = null;
-        try {
-            db = dbHelper.getWritableDatabase();
-            // Aktualisiert alle Einträge, deren URI mit folderUri beginnt.
-            db.execSQL("UPDATE " + TrackDatabaseHelper.TABLE_TRACKS +
-                            " SET deleted = 1 WHERE " + TrackDatabaseHelper.COLUMN_URI + " LIKE ?",
-                    new String[]{folderUri + "%"});
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler beim Markieren gelöschter Tracks", e);
-        } finally {
-            if (db != null) db.close();
+    /**
+     * Markiert einen Track als nicht analysierbar, damit er nicht bei jedem Lauf erneut dekodiert wird.
+     *
+     * @return false, wenn die Markierung nicht gespeichert werden konnte.
+     */
+    public boolean markLoudnessFailed(long trackId) {
+        // Ändert nur den Analysestatus, keine Spalte eines gelesenen Tracks: der Cache bleibt gültig
+        return writer.call(() -> analysis.markLoudnessFailed(trackId));
+    }
+
+    /**
+     * Berechnet Album-Gain und Album-Peak für ein Album aus den Lautheitswerten seiner Tracks.
+     * Alben, deren Tracks noch nicht vollständig analysiert sind, bleiben unverändert.
+     *
+     * @param artist Der Interpret der Tracks.
+     * @param album  Der Albumname (leere Namen werden ignoriert).
+     */
+    public void updateAlbumGain(String artist, String album) {
+        if (album == null || album.trim().isEmpty()) {
+            return;
+        }
+        String albumArtist = artist != null ? artist : "";
+        if (writer.call(() -> analysis.updateAlbumGain(albumArtist, album))) {
+            onTracksChanged();
+        }
+    }
+
+    /**
+     * Liefert Tracks, für die noch kein Dublettenabgleich stattgefunden hat.
+     *
+     * @param limit         Maximale Anzahl.
+     * @param withAcoustic  {@code true}, wenn auch bereits gehashte Tracks ohne akustischen Fingerabdruck
+     *                      geliefert werden sollen (nach dem Einschalten der akustischen Erkennung).
+     */
+    public List<Track> getTracksPendingDedup(int limit, boolean withAcoustic) {
+        return analysis.getTracksPendingDedup(limit, withAcoustic);
+    }
+
+    /**
+     * Speichert Inhalts-Hash und (optional) akustischen Fingerabdruck eines Tracks.
+     *
+     * @param fingerprint       Fingerabdruck oder {@code null} (zu kurz, stumm oder nicht berechnet).
+     * @param acousticAttempted {@code true}, wenn der akustische Schritt gelaufen ist; der Track wird dann auch
+     *                          ohne Fingerabdruck nicht erneut dekodiert.
+     * @return false, wenn die Daten nicht gespeichert werden konnten.
+     */
+    public boolean saveDedupData(long trackId, String contentHash, long[] fingerprint, boolean acousticAttempted) {
+        // Hash und Fingerabdruck sind nicht Teil eines gelesenen Tracks; sichtbar wird erst updateDuplicateGroups()
+        return writer.call(() -> analysis.saveDedupData(trackId, contentHash, fingerprint, acousticAttempted));
+    }
+
+    /**
+     * Markiert einen Track als nicht abgleichbar (z. B. Datei nicht lesbar).
+     *
+     * @return false, wenn die Markierung nicht gespeichert werden konnte.
+     */
+    public boolean markDedupFailed(long trackId) {
+        return writer.call(() -> analysis.markDedupFailed(trackId));
+    }
+
+    /**
+     * Bildet die Dublettengruppen aller abgeglichenen Tracks neu und schreibt nur geänderte Zuordnungen zurück.
+     * Hashes und Fingerabdrücke werden einmal gelesen; Kandidatenpaare liefert {@link DuplicateIndex} per LSH.
+     *
+     * @return Anzahl der zusammengeklappten Dubletten.
+     */
+    public int updateDuplicateGroups() {
+        List<Long> changed = new ArrayList<>();
+        int duplicates = writer.call(() -> analysis.updateDuplicateGroups(changed));
+        if (!changed.isEmpty()) {
+            onTracksChanged();
+            // Der Index enthält nur sichtbare Tracks; neu zusammengeklappte oder wieder sichtbare Zeilen ändern ihn
+            invalidateLibraryIndex();
         }
+        return duplicates;
+    }
+
+    public void markTracksDeletedByFolder(String folderUri) {
+        AppLog.d(TAG, "Markiere Tracks als gelöscht für Ordner: " + folderUri);
+        writer.run(() -> {
+            store.markDeletedInFolder(folderUri);
+            onTracksChanged();
+            invalidateLibraryIndex();
+        });
     }
 
     public void cleanupDeletedTracks() {
-        SQLiteDatabase db = null;
-        try {
-            db = dbHelper.getWritableDatabase();
-            // Zähle gelöschte Tracks
-            Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TrackDatabaseHelper.TABLE_TRACKS +
-                    " WHERE deleted = 1", null);
-            int count = 0;
-            if (cursor != null) {
-                if (cursor.moveToFirst()) {
-                    count = cursor.getInt(0);
-                }
-                cursor.close();
-            }
-            Log.d(TAG, "Anzahl gelöschter Tracks: " + count);
-            if (count >= 10) {
-                // Lösche endgültig die als gelöscht markierten Einträge
-                db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_TRACKS +
-                        " WHERE deleted = 1");
-                Log.d(TAG, "Bereinigung der gelöschten Tracks durchgeführt.");
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler bei der Bereinigung gelöschter Tracks", e);
-        } finally {
-            if (db != null) db.close();
+        if (writer.call(() -> store.purgeDeleted(PURGE_THRESHOLD)) > 0) {
+            AppLog.d(TAG, "Bereinigung der gelöschten Tracks durchgeführt.");
         }
     }
 
@@ -382,82 +710,27 @@ public class MusicRepository {
      * @param validFolderUris Kommagetrennte gültige Ordner-URIs.
      */
     public void cleanupTracks(String validFolderUris) {
-        Log.d(TAG, "=== cleanupTracks() gestartet ===");
-        synchronized (dbLock) {
-            SQLiteDatabase db = null;
-            try {
-                db = dbHelper.getWritableDatabase();
-                if (validFolderUris == null || validFolderUris.trim().isEmpty()) {
-                    ContentValues cvAll = new ContentValues();
-                    cvAll.put("deleted", 1);
-                    int countAll = db.update(TrackDatabaseHelper.TABLE_TRACKS, cvAll, "deleted = 0", null);
-                    Log.d(TAG, "Keine gültigen Ordner. Alle Tracks als gelöscht markiert: " + countAll);
-                    return;
-                }
-                String[] validFolders = validFolderUris.split(",");
-                StringBuilder conditionBuilder = new StringBuilder();
-                conditionBuilder.append("deleted = 0 AND NOT (");
-                for (int i = 0; i < validFolders.length; i++) {
-                    String folder = validFolders[i].trim();
-                    if (i > 0) {
-                        conditionBuilder.append(" OR ");
-                    }
-                    conditionBuilder.append(TrackDatabaseHelper.COLUMN_URI)
-                            .append(" LIKE '")
-                            .append(folder)
-                            .append("%'");
-                }
-                conditionBuilder.append(")");
-                String condition = conditionBuilder.toString();
-                Log.d(TAG, "cleanupTracks WHERE-Bedingung: " + condition);
-                ContentValues cv = new ContentValues();
-                cv.put("deleted", 1);
-                int updatedRows = db.update(TrackDatabaseHelper.TABLE_TRACKS, cv, condition, null);
-                Log.d(TAG, "Bereinigung durchgeführt, aktualisierte Zeilen: " + updatedRows);
-            } catch (Exception e) {
-                Log.e(TAG, "Fehler bei cleanupTracks", e);
-            } finally {
-                if (db != null && db.isOpen()) {
-                    db.close();
-                }
+        AppLog.d(TAG, "=== cleanupTracks() gestartet ===");
+        writer.run(() -> {
+            if (validFolderUris == null || validFolderUris.trim().isEmpty()) {
+                int countAll = store.markDeletedOutside(Collections.emptyList());
+                onTracksChanged();
+                AppLog.d(TAG, "Keine gültigen Ordner. Alle Tracks als gelöscht markiert: " + countAll);
+                invalidateLibraryIndex();
+                return;
             }
-        }
-        Log.d(TAG, "=== cleanupTracks() beendet ===");
+            int updatedRows = store.markDeletedOutside(Arrays.asList(validFolderUris.split(",")));
+            AppLog.d(TAG, "Bereinigung durchgeführt, aktualisierte Zeilen: " + updatedRows);
+            if (updatedRows > 0) {
+                onTracksChanged();
+                invalidateLibraryIndex();
+            }
+        });
+        AppLog.d(TAG, "=== cleanupTracks() beendet ===");
     }
 
 
     public void debugDatabase() {
-        Log.d(TAG, "=== Database Debug ===");
-        SQLiteDatabase db = null;
-
-        try {
-            db = dbHelper.getReadableDatabase();
-
-            // Prüfen ob Tabelle existiert
-            Cursor tableCursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='" + TrackDatabaseHelper.TABLE_TRACKS + "'", null);
-            if (tableCursor.moveToFirst()) {
-                Log.d(TAG, "Tabelle '" + TrackDatabaseHelper.TABLE_TRACKS + "' existiert");
-            } else {
-                Log.e(TAG, "Tabelle '" + TrackDatabaseHelper.TABLE_TRACKS + "' existiert NICHT!");
-            }
-            tableCursor.close();
-
-            // Spalten der Tabelle anzeigen
-            Cursor columnCursor = db.rawQuery("PRAGMA table_info(" + TrackDatabaseHelper.TABLE_TRACKS + ")", null);
-            Log.d(TAG, "Spalten in der Tabelle:");
-            while (columnCursor.moveToNext()) {
-                String columnName = columnCursor.getString(1);
-                String columnType = columnCursor.getString(2);
-                Log.d(TAG, "  - " + columnName + " (" + columnType + ")");
-            }
-            columnCursor.close();
-
-        } catch (Exception e) {
-            Log.e(TAG, "Fehler beim Database Debug", e);
-        } finally {
-            if (db != null) {
-                db.close();
-            }
-        }
+        store.logDebugInfo();
     }
 }
\ No newline at end of file
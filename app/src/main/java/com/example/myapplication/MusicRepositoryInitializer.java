@@ -0,0 +1,42 @@
+package com.example.myapplication;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.AppInitializer;
+import androidx.startup.Initializer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * MusicRepositoryInitializer erzeugt das {@link MusicRepository} über App Startup und öffnet dabei die Datenbank.
+ * <p>
+ * Der Initializer ist bewusst nicht im Manifest eingetragen: Er läuft nicht beim Prozessstart, sondern erst beim
+ * ersten Aufruf von {@link #get(Context)}, und zwar genau einmal je Prozess. Aufrufer sind Hintergrund-Threads
+ * (erste Seite im Player, Vorwärmen nach dem ersten Frame), nie der Main-Thread.
+ */
+public class MusicRepositoryInitializer implements Initializer<MusicRepository> {
+
+    @NonNull
+    @Override
+    public MusicRepository create(@NonNull Context context) {
+        MusicRepository repository = MusicRepository.getInstance(context);
+        repository.warmUp();
+        return repository;
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return Das initialisierte Repository; blockiert beim ersten Aufruf, bis die Datenbank geöffnet ist.
+     */
+    public static MusicRepository get(@NonNull Context context) {
+        return AppInitializer.getInstance(context.getApplicationContext())
+                .initializeComponent(MusicRepositoryInitializer.class);
+    }
+}
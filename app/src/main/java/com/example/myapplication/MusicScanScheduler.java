@@ -13,8 +13,19 @@ import com.example.myapplication.MusicLoaderWorker;
 
 import java.util.concurrent.TimeUnit;
 
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * MusicScanScheduler plant die Scans des {@link MusicLoaderWorker}. Es gibt genau einen periodischen Scan; er trägt
+ * keine Ordner in seinen Eingabedaten, der Worker liest bei jedem Lauf die aktuell konfigurierten Musikordner.
+ */
 @Singleton
 public class MusicScanScheduler {
+    static final String WORK_PERIODIC_SCAN = "PeriodicMusicScan";
+    // Frühere Namen periodischer Scans; sie werden abbestellt, damit nicht mehrere Scans eingeplant bleiben
+    private static final String[] LEGACY_PERIODIC_SCANS = {"PERIODIC_SCAN", "PeriodicMusicScanSingleFolder"};
     private static final String TAG_PERIODIC = "PERIODIC_SCAN";
     private static final String TAG_ON_RESUME = "ON_RESUME_SCAN";
 
@@ -22,8 +33,8 @@ public class MusicScanScheduler {
     private final int pageSize;
 
     @Inject
-    public MusicScanScheduler(@ApplicationContext Context ctx,
-                              @Named("batch_size") int pageSize) {
+    public MusicScanScheduler(Context ctx,
+                              @Named(ConfigModule.BATCH_SIZE) int pageSize) {
         this.wm = WorkManager.getInstance(ctx);
         this.pageSize = pageSize;
     }
@@ -37,8 +48,12 @@ public class MusicScanScheduler {
                         .build())
                 .build();
 
+        // KEEP: ein bereits geplanter Scan behält sein Intervall, statt bei jedem Aufruf neu zu beginnen
         wm.enqueueUniquePeriodicWork(
-                TAG_PERIODIC, ExistingPeriodicWorkPolicy.REPLACE, req);
+                WORK_PERIODIC_SCAN, ExistingPeriodicWorkPolicy.KEEP, req);
+        for (String legacy : LEGACY_PERIODIC_SCANS) {
+            wm.cancelUniqueWork(legacy);
+        }
     }
 
     public void triggerOneTime(String foldersCsv) {
@@ -0,0 +1,163 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.media.AudioFormat;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * PcmDecoder dekodiert eine Audiodatei über MediaExtractor/MediaCodec und reicht die Samples
+ * als interleavte Float-Werte (-1..1) an einen {@link PcmSink} weiter. Der Sample-Puffer wird
+ * für alle Blöcke wiederverwendet.
+ */
+public final class PcmDecoder {
+    private static final String TAG = "PcmDecoder";
+    private static final long TIMEOUT_US = 10_000;
+
+    /**
+     * Empfänger der dekodierten Samples.
+     */
+    public interface PcmSink {
+        /**
+         * Wird vor dem ersten Block und bei jeder Formatänderung aufgerufen.
+         */
+        void onFormat(int sampleRate, int channels);
+
+        /**
+         * @param samples Interleavte Samples; der Puffer wird nach dem Aufruf wiederverwendet.
+         * @param frames  Anzahl gültiger Frames im Puffer.
+         * @return false, um das Dekodieren vorzeitig zu beenden.
+         */
+        boolean onPcm(float[] samples, int frames);
+    }
+
+    // Privater Konstruktor verhindert Instanziierung
+    private PcmDecoder() {}
+
+    /**
+     * Dekodiert die gesamte Datei.
+     */
+    public static boolean decode(Context context, Uri audioUri, PcmSink sink) throws IOException {
+        return decode(context, audioUri, 0, Long.MAX_VALUE, sink);
+    }
+
+    /**
+     * Dekodiert einen Ausschnitt der Datei.
+     *
+     * @param startUs       Startposition in Mikrosekunden (es wird zum vorherigen Sync-Frame gesprungen).
+     * @param maxDurationUs Maximale Länge des Ausschnitts in Mikrosekunden.
+     * @return true, wenn mindestens ein Block dekodiert wurde.
+     */
+    public static boolean decode(Context context, Uri audioUri, long startUs, long maxDurationUs,
+                                 PcmSink sink) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(context, audioUri, null);
+            int trackIndex = -1;
+            MediaFormat format = null;
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat candidate = extractor.getTrackFormat(i);
+                String mime = candidate.getString(MediaFormat.KEY_MIME);
+                if (mime != null && mime.startsWith("audio/")) {
+                    trackIndex = i;
+                    format = candidate;
+                    break;
+                }
+            }
+            if (trackIndex < 0) {
+                Log.w(TAG, "Keine Audiospur gefunden: " + audioUri);
+                return false;
+            }
+            extractor.selectTrack(trackIndex);
+            if (startUs > 0) {
+                extractor.seekTo(startUs, MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+            }
+            long endUs = maxDurationUs == Long.MAX_VALUE ? Long.MAX_VALUE : startUs + maxDurationUs;
+
+            codec = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            codec.configure(format, null, null, 0);
+            codec.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean decodedAny = false;
+            int channels = format.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            int encoding = AudioFormat.ENCODING_PCM_16BIT;
+            float[] samples = new float[0];
+            sink.onFormat(format.getInteger(MediaFormat.KEY_SAMPLE_RATE), channels);
+
+            while (true) {
+                if (!inputDone) {
+                    int inIndex = codec.dequeueInputBuffer(TIMEOUT_US);
+                    if (inIndex >= 0) {
+                        ByteBuffer input = codec.getInputBuffer(inIndex);
+                        int size = input != null ? extractor.readSampleData(input, 0) : -1;
+                        if (size < 0 || extractor.getSampleTime() > endUs) {
+                            codec.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            codec.queueInputBuffer(inIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outIndex = codec.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    MediaFormat outFormat = codec.getOutputFormat();
+                    channels = outFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    if (outFormat.containsKey(MediaFormat.KEY_PCM_ENCODING)) {
+                        encoding = outFormat.getInteger(MediaFormat.KEY_PCM_ENCODING);
+                    }
+                    sink.onFormat(outFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE), channels);
+                } else if (outIndex >= 0) {
+                    ByteBuffer output = codec.getOutputBuffer(outIndex);
+                    if (output != null && info.size > 0 && info.presentationTimeUs >= startUs) {
+                        output.position(info.offset);
+                        output.limit(info.offset + info.size);
+                        output.order(ByteOrder.nativeOrder());
+                        int sampleCount = encoding == AudioFormat.ENCODING_PCM_FLOAT ? info.size / 4 : info.size / 2;
+                        if (samples.length < sampleCount) {
+                            samples = new float[sampleCount];
+                        }
+                        if (encoding == AudioFormat.ENCODING_PCM_FLOAT) {
+                            output.asFloatBuffer().get(samples, 0, sampleCount);
+                        } else {
+                            for (int i = 0; i < sampleCount; i++) {
+                                samples[i] = output.getShort() / 32768f;
+                            }
+                        }
+                        decodedAny = true;
+                        if (!sink.onPcm(samples, sampleCount / channels)) {
+                            codec.releaseOutputBuffer(outIndex, false);
+                            break;
+                        }
+                    }
+                    codec.releaseOutputBuffer(outIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        break;
+                    }
+                }
+            }
+            return decodedAny;
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Codec bereits gestoppt", e);
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.myapplication;
+
+/**
+ * Ein Eintrag im Wiedergabeprotokoll: welcher Track wann begonnen, wie lange gehört und ob er übersprungen wurde.
+ * Dieses reine Model-Objekt ist unveränderlich.
+ */
+public class PlayEvent {
+    private final long trackId;
+    private final long startedAt; // ms seit Epoch
+    private final long listenedMs;
+    private final boolean skipped;
+
+    public PlayEvent(long trackId, long startedAt, long listenedMs, boolean skipped) {
+        this.trackId = trackId;
+        this.startedAt = startedAt;
+        this.listenedMs = listenedMs;
+        this.skipped = skipped;
+    }
+
+    public long getTrackId() {
+        return trackId;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getListenedMs() {
+        return listenedMs;
+    }
+
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    @Override
+    public String toString() {
+        return "PlayEvent{" +
+                "trackId=" + trackId +
+                ", startedAt=" + startedAt +
+                ", listenedMs=" + listenedMs +
+                ", skipped=" + skipped +
+                '}';
+    }
+}
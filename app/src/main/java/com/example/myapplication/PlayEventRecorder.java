@@ -0,0 +1,186 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * PlayEventRecorder erfasst aus den Callbacks des Players, was gehört wird, und puffert die Ereignisse im Speicher.
+ * Geschrieben wird gesammelt in einer Transaktion auf dem Schreib-Thread ({@link AppExecutors#dbWrite()}), sobald
+ * {@link #FLUSH_BATCH} Ereignisse vorliegen, spätestens nach {@link #FLUSH_DELAY_MS} oder beim expliziten
+ * {@link #flush()}. Die Callbacks selbst greifen nie auf die Datenbank zu.
+ * <p>
+ * Nach einem Schreibvorgang werden die neuen Ereignisse höchstens alle {@link #ROLLUP_INTERVAL_MS} in die
+ * Zähler der Track-Tabelle übernommen.
+ */
+public class PlayEventRecorder {
+    private static final String TAG = "PlayEventRecorder";
+
+    static final int FLUSH_BATCH = 20;
+    static final long FLUSH_DELAY_MS = 60_000;
+    static final long ROLLUP_INTERVAL_MS = 15 * 60_000;
+    // Ohne bekannte Dauer gilt ein Abbruch vor 30 Sekunden als übersprungen.
+    static final long SKIP_THRESHOLD_UNKNOWN_MS = 30_000;
+
+    /**
+     * Ziel der gepufferten Ereignisse. Beide Methoden laufen auf dem Schreib-Thread.
+     */
+    public interface Sink {
+        void write(List<PlayEvent> events);
+
+        void rollUp();
+    }
+
+    private static PlayEventRecorder instance;
+
+    private final Sink sink;
+    private final Executor writer;
+    // Plant nur das verzögerte Schreiben ein; geschrieben wird immer auf writer
+    private final ScheduledExecutorService timer;
+    private final LongSupplier clock;
+
+    private final List<PlayEvent> buffer = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+    private long lastRollUp;
+
+    // Zustand des laufenden Tracks; currentTrackId = -1, wenn nichts läuft
+    private long currentTrackId = -1;
+    private long currentDurationMs;
+    private long startedAt;
+    private long listenedMs;
+    private long playingSince = -1;
+
+    PlayEventRecorder(Sink sink, Executor writer, ScheduledExecutorService timer, LongSupplier clock) {
+        this.sink = sink;
+        this.writer = writer;
+        this.timer = timer;
+        this.clock = clock;
+        this.lastRollUp = clock.getAsLong();
+    }
+
+    public static synchronized PlayEventRecorder getInstance(Context context) {
+        if (instance == null) {
+            MusicRepository repository = MusicRepository.getInstance(context.getApplicationContext());
+            AppExecutors executors = AppExecutors.getInstance(context.getApplicationContext());
+            instance = new PlayEventRecorder(new Sink() {
+                @Override
+                public void write(List<PlayEvent> events) {
+                    repository.insertPlayEvents(events);
+                }
+
+                @Override
+                public void rollUp() {
+                    repository.rollUpPlayEvents();
+                }
+            }, executors.dbWrite(), executors.timer(), System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * Ein Track beginnt. Ein noch laufender Track gilt damit als abgebrochen.
+     */
+    public synchronized void trackStarted(Track track) {
+        endCurrent(false);
+        if (track == null || track.getId() <= 0) {
+            return;
+        }
+        currentTrackId = track.getId();
+        currentDurationMs = track.getDurationMs();
+        startedAt = clock.getAsLong();
+        listenedMs = 0;
+        playingSince = startedAt;
+    }
+
+    public synchronized void paused() {
+        if (currentTrackId != -1 && playingSince >= 0) {
+            listenedMs += clock.getAsLong() - playingSince;
+            playingSince = -1;
+        }
+    }
+
+    public synchronized void resumed() {
+        if (currentTrackId != -1 && playingSince < 0) {
+            playingSince = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Der laufende Track wurde bis zum Ende (oder bis in die Überblendung) gespielt.
+     */
+    public synchronized void trackCompleted() {
+        endCurrent(true);
+    }
+
+    /**
+     * Die Wiedergabe endet (z. B. beim Beenden der Activity): laufenden Track abschließen, sofort schreiben
+     * und die Zähler fortschreiben.
+     */
+    public synchronized void stop() {
+        endCurrent(false);
+        flush(true);
+    }
+
+    private void endCurrent(boolean completed) {
+        if (currentTrackId == -1) {
+            return;
+        }
+        paused();
+        boolean skipped = !completed && isSkip(listenedMs, currentDurationMs);
+        buffer.add(new PlayEvent(currentTrackId, startedAt, listenedMs, skipped));
+        currentTrackId = -1;
+        if (buffer.size() >= FLUSH_BATCH) {
+            flush(false);
+        } else if (pendingFlush == null) {
+            pendingFlush = timer.schedule(() -> flush(), FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Ein vorzeitig beendeter Track gilt als übersprungen, wenn weniger als die Hälfte gehört wurde.
+     */
+    static boolean isSkip(long listenedMs, long durationMs) {
+        long threshold = durationMs > 0 ? durationMs / 2 : SKIP_THRESHOLD_UNKNOWN_MS;
+        return listenedMs < threshold;
+    }
+
+    /**
+     * Übergibt alle gepufferten Ereignisse an den Schreib-Thread.
+     */
+    public synchronized void flush() {
+        flush(false);
+    }
+
+    private void flush(boolean forceRollUp) {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        if (buffer.isEmpty() && !forceRollUp) {
+            return;
+        }
+        final List<PlayEvent> batch = new ArrayList<>(buffer);
+        buffer.clear();
+        writer.execute(() -> {
+            try {
+                if (!batch.isEmpty()) {
+                    sink.write(batch);
+                }
+                long now = clock.getAsLong();
+                if (forceRollUp || now - lastRollUp >= ROLLUP_INTERVAL_MS) {
+                    lastRollUp = now;
+                    sink.rollUp();
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Fehler beim Schreiben von " + batch.size() + " Wiedergabe-Ereignissen", e);
+            }
+        });
+    }
+}
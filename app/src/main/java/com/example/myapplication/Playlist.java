@@ -0,0 +1,70 @@
+package com.example.myapplication;
+
+import java.util.Objects;
+
+/**
+ * Die Playlist-Klasse repräsentiert eine gespeicherte Playlist. Manuelle Playlists haben keine Regel;
+ * Smart-Playlists tragen ihre Regel in Textform (siehe {@link PlaylistRule}).
+ * Dieses reine Model-Objekt ist unveränderlich.
+ */
+public class Playlist {
+    private final long id;
+    private final String name;
+    private final String rule; // null = manuelle Playlist
+    private final String systemKey; // null = vom Nutzer angelegt
+    private final int trackCount;
+
+    public Playlist(long id, String name, String rule, String systemKey, int trackCount) {
+        this.id = id;
+        this.name = name;
+        this.rule = rule;
+        this.systemKey = systemKey;
+        this.trackCount = trackCount;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRule() {
+        return rule;
+    }
+
+    public String getSystemKey() {
+        return systemKey;
+    }
+
+    public int getTrackCount() {
+        return trackCount;
+    }
+
+    public boolean isSmart() {
+        return rule != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Playlist{" +
+                "name='" + name + '\'' +
+                ", rule='" + rule + '\'' +
+                ", trackCount=" + trackCount +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Playlist)) return false;
+        Playlist that = (Playlist) o;
+        return id == that.id && Objects.equals(name, that.name) && Objects.equals(rule, that.rule);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, rule);
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PlaylistRule beschreibt die Regel einer Smart-Playlist als UND-Verknüpfung einfacher Bedingungen,
+ * z. B. {@code artist = Queen; duration_min > 5} oder {@code added_days < 7}. Die Textform dient zugleich
+ * als Speicherformat und als Eingabe im Dialog.
+ * <p>
+ * {@link #compile(long)} übersetzt die Regel in eine WHERE-Klausel über die Track-Tabelle. Spaltennamen stammen
+ * ausschließlich aus einer festen Zuordnung, Werte werden immer als Parameter gebunden. {@link #matches} wertet
+ * dieselbe Regel ohne Datenbank aus (für den {@link InMemoryTrackStore}).
+ */
+public final class PlaylistRule {
+
+    public static final String FIELD_TITLE = "title";
+    public static final String FIELD_ARTIST = "artist";
+    public static final String FIELD_ALBUM = "album";
+    public static final String FIELD_DURATION_MIN = "duration_min";
+    // Tage seit dem Hinzufügen; "added_days < 7" = in den letzten 7 Tagen hinzugefügt
+    public static final String FIELD_ADDED_DAYS = "added_days";
+    public static final String FIELD_PLAY_COUNT = "play_count";
+
+    private static final String[] OPERATORS = {"!=", "=", ">", "<", "~"};
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Eine einzelne Bedingung "Feld Operator Wert".
+     */
+    private static final class Condition {
+        final String field;
+        final String operator;
+        final String value;
+
+        Condition(String field, String operator, String value) {
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Ergebnis von {@link #compile(long)}: WHERE-Klausel (ohne "WHERE") und die zu bindenden Werte.
+     */
+    public static final class Sql {
+        public final String where;
+        public final String[] args;
+
+        Sql(String where, String[] args) {
+            this.where = where;
+            this.args = args;
+        }
+    }
+
+    private final List<Condition> conditions;
+
+    private PlaylistRule(List<Condition> conditions) {
+        this.conditions = Collections.unmodifiableList(conditions);
+    }
+
+    /**
+     * Liest eine Regel in Textform. Bedingungen werden durch ";" getrennt.
+     *
+     * @throws IllegalArgumentException bei unbekanntem Feld, fehlendem Operator oder ungültiger Zahl.
+     */
+    public static PlaylistRule parse(String text) {
+        List<Condition> conditions = new ArrayList<>();
+        if (text != null) {
+            for (String part : text.split(";")) {
+                String trimmed = part.trim();
+                if (!trimmed.isEmpty()) {
+                    conditions.add(parseCondition(trimmed));
+                }
+            }
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Regel ohne Bedingung");
+        }
+        return new PlaylistRule(conditions);
+    }
+
+    private static Condition parseCondition(String text) {
+        // Der am weitesten links stehende Operator trennt Feld und Wert; der Wert darf selbst Operatorzeichen enthalten.
+        String operator = null;
+        int at = -1;
+        for (String candidate : OPERATORS) {
+            int index = text.indexOf(candidate);
+            if (index > 0 && (at < 0 || index < at)) {
+                operator = candidate;
+                at = index;
+            }
+        }
+        if (operator == null) {
+            throw new IllegalArgumentException("Kein Operator in Bedingung: " + text);
+        }
+        String field = text.substring(0, at).trim().toLowerCase(Locale.ROOT);
+        String value = text.substring(at + operator.length()).trim();
+        column(field); // prüft das Feld
+        if (isNumeric(field)) {
+            if (operator.equals("~")) {
+                throw new IllegalArgumentException("'~' nur für Textfelder: " + text);
+            }
+            // Ein Alter von genau N Tagen trifft als Zeitpunkt praktisch nie zu
+            if (FIELD_ADDED_DAYS.equals(field) && (operator.equals("=") || operator.equals("!="))) {
+                throw new IllegalArgumentException("'" + FIELD_ADDED_DAYS + "' nur mit '<' oder '>': " + text);
+            }
+            parseNumber(value);
+        }
+        return new Condition(field, operator, value);
+    }
+
+    private static boolean isNumeric(String field) {
+        return FIELD_DURATION_MIN.equals(field) || FIELD_ADDED_DAYS.equals(field) || FIELD_PLAY_COUNT.equals(field);
+    }
+
+    private static String column(String field) {
+        switch (field) {
+            case FIELD_TITLE:
+                return TrackDatabaseHelper.COLUMN_TITLE;
+            case FIELD_ARTIST:
+                return TrackDatabaseHelper.COLUMN_ARTIST;
+            case FIELD_ALBUM:
+                return TrackDatabaseHelper.COLUMN_ALBUM;
+            case FIELD_DURATION_MIN:
+                return TrackDatabaseHelper.COLUMN_DURATION_MS;
+            case FIELD_ADDED_DAYS:
+                return TrackDatabaseHelper.COLUMN_ADDED_AT;
+            case FIELD_PLAY_COUNT:
+                return TrackDatabaseHelper.COLUMN_PLAY_COUNT;
+            default:
+                throw new IllegalArgumentException("Unbekanntes Feld: " + field);
+        }
+    }
+
+    /**
+     * @return {@code true}, wenn die Regel vom aktuellen Zeitpunkt abhängt. Solche Playlists verlieren Mitglieder
+     * allein durch Zeitablauf und werden beim Öffnen nachgeprüft.
+     */
+    public boolean isTimeRelative() {
+        for (Condition condition : conditions) {
+            if (FIELD_ADDED_DAYS.equals(condition.field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true}, wenn die Regel die Wiedergabezahl abfragt und daher nach dem Abspielen neu zu prüfen ist.
+     */
+    public boolean dependsOnPlayCount() {
+        for (Condition condition : conditions) {
+            if (FIELD_PLAY_COUNT.equals(condition.field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Übersetzt die Regel in SQL. Jede Bedingung vergleicht eine Spalte direkt mit einem Parameter,
+     * sodass SQLite vorhandene Indizes (artist, album, added_at, play_count) nutzen kann.
+     *
+     * @param nowMs Bezugszeitpunkt für {@link #FIELD_ADDED_DAYS}.
+     */
+    public Sql compile(long nowMs) {
+        StringBuilder where = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        for (Condition condition : conditions) {
+            if (where.length() > 0) {
+                where.append(" AND ");
+            }
+            String column = column(condition.field);
+            if (FIELD_ADDED_DAYS.equals(condition.field)) {
+                // "Vor weniger als N Tagen" heißt "hinzugefügt nach jetzt - N Tage": Operator kehrt sich um.
+                long cutoff = nowMs - Math.round(parseNumber(condition.value) * DAY_MS);
+                where.append(column).append(' ').append(invert(condition.operator)).append(" ?");
+                args.add(String.valueOf(cutoff));
+            } else if (FIELD_DURATION_MIN.equals(condition.field)) {
+                where.append(column).append(' ').append(condition.operator).append(" ?");
+                args.add(String.valueOf(Math.round(parseNumber(condition.value) * 60_000)));
+            } else if (FIELD_PLAY_COUNT.equals(condition.field)) {
+                where.append(column).append(' ').append(condition.operator).append(" ?");
+                args.add(String.valueOf(Math.round(parseNumber(condition.value))));
+            } else if ("~".equals(condition.operator)) {
+                where.append(column).append(" LIKE ? ESCAPE '\\'");
+                args.add("%" + escapeLike(condition.value) + "%");
+            } else {
+                where.append(column).append(' ').append(condition.operator).append(" ?");
+                args.add(condition.value);
+            }
+        }
+        return new Sql(where.toString(), args.toArray(new String[0]));
+    }
+
+    /**
+     * Prüft einen einzelnen Track gegen die Regel, mit derselben Bedeutung wie {@link #compile(long)}: Textfelder
+     * werden binär verglichen, "~" wie LIKE ohne Beachtung der Groß-/Kleinschreibung nur bei ASCII-Buchstaben
+     * ("ä" passt nicht zu "Ä"), fehlende Werte erfüllen keine Bedingung.
+     *
+     * @param addedAt   Zeitpunkt des Hinzufügens (added_at).
+     * @param playCount Wiedergabezahl (play_count).
+     * @param nowMs     Bezugszeitpunkt für {@link #FIELD_ADDED_DAYS}.
+     */
+    public boolean matches(Track track, long addedAt, int playCount, long nowMs) {
+        for (Condition condition : conditions) {
+            boolean holds;
+            if (FIELD_ADDED_DAYS.equals(condition.field)) {
+                long cutoff = nowMs - Math.round(parseNumber(condition.value) * DAY_MS);
+                holds = holds(Long.compare(addedAt, cutoff), invert(condition.operator));
+            } else if (FIELD_DURATION_MIN.equals(condition.field)) {
+                holds = holds(Long.compare(track.getDurationMs(), Math.round(parseNumber(condition.value) * 60_000)),
+                        condition.operator);
+            } else if (FIELD_PLAY_COUNT.equals(condition.field)) {
+                holds = holds(Long.compare(playCount, Math.round(parseNumber(condition.value))), condition.operator);
+            } else {
+                String value = text(track, condition.field);
+                if (value == null) {
+                    holds = false;
+                } else if ("~".equals(condition.operator)) {
+                    holds = containsIgnoreAsciiCase(value, condition.value);
+                } else {
+                    holds = holds(value.compareTo(condition.value), condition.operator);
+                }
+            }
+            if (!holds) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(Track track, String field) {
+        switch (field) {
+            case FIELD_TITLE:
+                return track.getTitle();
+            case FIELD_ARTIST:
+                return track.getArtist();
+            default:
+                return track.getAlbum();
+        }
+    }
+
+    private static boolean holds(int comparison, String operator) {
+        switch (operator) {
+            case "=":
+                return comparison == 0;
+            case "!=":
+                return comparison != 0;
+            case ">":
+                return comparison > 0;
+            case "<":
+                return comparison < 0;
+            default:
+                return comparison >= 0;
+        }
+    }
+
+    private static String invert(String operator) {
+        switch (operator) {
+            case ">":
+                return "<";
+            case "<":
+                return ">";
+            default:
+                // parseCondition lässt für added_days nur '<' und '>' zu
+                throw new IllegalArgumentException("Operator für " + FIELD_ADDED_DAYS + ": " + operator);
+        }
+    }
+
+    /**
+     * Teilstring-Suche mit der Faltung von SQLite-LIKE: nur A-Z und a-z gelten als gleich.
+     */
+    private static boolean containsIgnoreAsciiCase(String value, String part) {
+        for (int start = 0; start + part.length() <= value.length(); start++) {
+            int i = 0;
+            while (i < part.length() && asciiLower(value.charAt(start + i)) == asciiLower(part.charAt(i))) {
+                i++;
+            }
+            if (i == part.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char asciiLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static double parseNumber(String value) {
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Condition condition : conditions) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(condition.field).append(' ').append(condition.operator).append(' ').append(condition.value);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.myapplication;
+
+import java.util.List;
+
+/**
+ * PlaylistStore speichert Playlists und den Wiedergabeverlauf neben einem {@link TrackStore}. Beides gehört
+ * zusammen, weil Smart-Playlists an den Wiedergabezählern hängen: {@link #rollUpPlayEvents()} prüft die Regeln der
+ * betroffenen Tracks in derselben Transaktion neu.
+ * <p>
+ * Implementierungen: {@link SqlitePlaylistStore} für die App, {@link InMemoryTrackStore} für JVM-Tests. Lesende
+ * Abfragen brechen über ihre {@link QueryCancellation} mit einer Ausnahme ab.
+ */
+public interface PlaylistStore {
+
+    /**
+     * @return Alle Playlists mit der Anzahl ihrer nicht gelöschten Titel; vom System angelegte zuerst, dann nach Name.
+     */
+    List<Playlist> getPlaylists();
+
+    /**
+     * @return Die ID der vom System angelegten Playlist oder -1.
+     */
+    long getSystemPlaylistId(String systemKey);
+
+    /**
+     * Legt eine Playlist an. Eine Smart-Playlist wird einmalig über die ganze Bibliothek ausgewertet, danach nur
+     * noch inkrementell gepflegt.
+     *
+     * @param rule Regel der Smart-Playlist oder {@code null} für eine manuelle Playlist.
+     * @return Die neue ID oder -1.
+     */
+    long createPlaylist(String name, PlaylistRule rule);
+
+    void deletePlaylist(long playlistId);
+
+    /**
+     * Hängt einen Track an das Ende einer manuellen Playlist an; ist er bereits enthalten, passiert nichts.
+     */
+    void addTrackToPlaylist(long playlistId, long trackId);
+
+    /**
+     * @return Die Titel einer Playlist: manuelle in ihrer Reihenfolge, Smart-Playlists mit den zuletzt
+     * hinzugefügten Titeln zuerst.
+     */
+    List<Track> getPlaylistTracks(long playlistId, QueryCancellation cancellation);
+
+    /**
+     * Nimmt alle Tracks, die seit dem letzten erfolgreichen Aufruf eingefügt wurden, in die Smart-Playlists auf,
+     * deren Regel sie erfüllen. Bis zu welcher Track-ID das geschehen ist, merkt sich die Engine in derselben
+     * Transaktion; scheitert ein Aufruf, holt der nächste die Tracks nach.
+     */
+    void addNewTracksToSmartPlaylists();
+
+    /**
+     * Hängt Wiedergabe-Ereignisse in einer Transaktion an das Protokoll an.
+     */
+    void insertPlayEvents(List<PlayEvent> events);
+
+    /**
+     * Übernimmt alle seit dem letzten Lauf protokollierten Ereignisse genau einmal in die Zähler der Tracks
+     * (play_count, skip_count, last_played_at, listened_ms) und prüft die Smart-Playlists der betroffenen Tracks.
+     */
+    void rollUpPlayEvents();
+
+    /**
+     * @return Zuletzt gespielte Titel, neueste zuerst.
+     */
+    List<Track> getRecentlyPlayed(int limit, QueryCancellation cancellation);
+
+    /**
+     * @return Meistgespielte Titel, häufigste zuerst.
+     */
+    List<Track> getMostPlayed(int limit, QueryCancellation cancellation);
+}
@@ -0,0 +1,131 @@
+package com.example.myapplication;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.widget.ArrayAdapter;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die PlaylistsActivity zeigt alle manuellen und Smart-Playlists an und erlaubt das Anlegen und Löschen.
+ * Smart-Playlists werden mit einer Regel in Textform angelegt, z. B. {@code artist = Queen; duration_min > 5}.
+ */
+public class PlaylistsActivity extends AppCompatActivity {
+
+    private MusicRepository repository;
+    private AppExecutors executors;
+    private ArrayAdapter<String> adapter;
+    private final List<Playlist> playlists = new ArrayList<>();
+    private final List<String> labels = new ArrayList<>();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_playlists);
+
+        repository = MusicRepository.getInstance(getApplicationContext());
+        executors = AppExecutors.getInstance(getApplicationContext());
+        ListView listView = findViewById(R.id.listViewPlaylists);
+        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, labels);
+        listView.setAdapter(adapter);
+
+        listView.setOnItemClickListener((parent, view, position, id) -> {
+            Intent intent = new Intent(PlaylistsActivity.this, TrackListActivity.class);
+            intent.putExtra(TrackListActivity.EXTRA_PLAYLIST_ID, playlists.get(position).getId());
+            startActivity(intent);
+        });
+        listView.setOnItemLongClickListener((parent, view, position, id) -> {
+            confirmDelete(playlists.get(position));
+            return true;
+        });
+
+        findViewById(R.id.btnNewPlaylist).setOnClickListener(v -> showCreateDialog(false));
+        findViewById(R.id.btnNewSmartPlaylist).setOnClickListener(v -> showCreateDialog(true));
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        loadPlaylists();
+    }
+
+    private void loadPlaylists() {
+        executors.uiLoad().execute(() -> {
+            List<Playlist> loaded = repository.getPlaylists();
+            runOnUiThread(() -> {
+                playlists.clear();
+                playlists.addAll(loaded);
+                labels.clear();
+                for (Playlist playlist : loaded) {
+                    labels.add((playlist.isSmart() ? "⚙ " : "") + playlist.getName()
+                            + " (" + playlist.getTrackCount() + " Titel)");
+                }
+                adapter.notifyDataSetChanged();
+            });
+        });
+    }
+
+    private void showCreateDialog(boolean smart) {
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        EditText name = new EditText(this);
+        name.setHint("Name");
+        form.addView(name);
+        EditText rule = new EditText(this);
+        if (smart) {
+            rule.setHint("z. B. artist = Queen; duration_min > 5");
+            form.addView(rule);
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(smart ? "Neue Smart-Playlist" : "Neue Playlist")
+                .setView(form)
+                .setPositiveButton("Anlegen", (dialog, which) -> {
+                    String playlistName = name.getText().toString().trim();
+                    if (playlistName.isEmpty()) {
+                        return;
+                    }
+                    PlaylistRule parsed = null;
+                    if (smart) {
+                        try {
+                            parsed = PlaylistRule.parse(rule.getText().toString());
+                        } catch (IllegalArgumentException e) {
+                            Toast.makeText(this, "Ungültige Regel: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                            return;
+                        }
+                    }
+                    final PlaylistRule finalRule = parsed;
+                    executors.dbWrite().execute(() -> {
+                        if (finalRule != null) {
+                            repository.createSmartPlaylist(playlistName, finalRule);
+                        } else {
+                            repository.createPlaylist(playlistName);
+                        }
+                        runOnUiThread(this::loadPlaylists);
+                    });
+                })
+                .setNegativeButton("Abbrechen", null)
+                .show();
+    }
+
+    private void confirmDelete(Playlist playlist) {
+        if (playlist.getSystemKey() != null) {
+            Toast.makeText(this, "Diese Playlist kann nicht gelöscht werden.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Playlist löschen?")
+                .setMessage(playlist.getName())
+                .setPositiveButton("Löschen", (dialog, which) -> executors.dbWrite().execute(() -> {
+                    repository.deletePlaylist(playlist.getId());
+                    runOnUiThread(this::loadPlaylists);
+                }))
+                .setNegativeButton("Abbrechen", null)
+                .show();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * QueryCache hält die Ergebnisse wiederholter Track-Abfragen des {@link MusicRepository} (Gesamtliste, Seiten,
+ * Album, Interpret), damit ein erneutes Lesen zwischen zwei Scans nur ein Map-Zugriff ist.
+ * <p>
+ * Gültigkeit über eine Schreib-Generation: Jeder Commit, der Tracks ändert, ruft {@link #invalidate()} auf und
+ * erhöht sie. Ein Eintrag gilt nur, solange er zur aktuellen Generation gehört. Ein Ergebnis wird mit der Generation
+ * abgelegt, die <em>vor</em> der Abfrage galt; lief währenddessen ein Commit, wird es verworfen statt veraltet
+ * zwischengespeichert.
+ * <p>
+ * Die Einträge sind unveränderliche Schnappschüsse (exakt dimensioniertes Array, {@link Track} selbst ist
+ * unveränderlich). Begrenzt ist der Cache nach Einträgen und nach der Summe der Zeilen; verdrängt wird der am
+ * längsten nicht gelesene Eintrag. Die Klasse ist frei von Android-Abhängigkeiten und threadsicher.
+ */
+public class QueryCache {
+
+    private static final class Entry {
+        final long generation;
+        final List<Track> tracks;
+
+        Entry(long generation, List<Track> tracks) {
+            this.generation = generation;
+            this.tracks = tracks;
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxRows;
+    // Zugriffsreihenfolge: der älteste Eintrag steht vorn
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0;
+    private int rows = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxEntries Höchstzahl der Abfragen im Cache.
+     * @param maxRows    Höchstzahl der Tracks über alle Einträge; größere Ergebnisse werden nicht abgelegt.
+     */
+    public QueryCache(int maxEntries, int maxRows) {
+        this.maxEntries = maxEntries;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * @return Die aktuelle Schreib-Generation; vor der Abfrage lesen und an {@link #put} übergeben.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * @return Das Ergebnis für {@code key} aus der aktuellen Generation, sonst null.
+     */
+    public synchronized List<Track> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.generation != generation) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.tracks;
+    }
+
+    /**
+     * Legt ein Ergebnis ab, sofern seit {@code generationBefore} nichts geschrieben wurde.
+     *
+     * @return Der unveränderliche Schnappschuss von {@code tracks}; ihn statt {@code tracks} zurückgeben, damit
+     * Treffer und Fehlschläge dieselbe Art Liste liefern.
+     */
+    public List<Track> put(String key, long generationBefore, List<Track> tracks) {
+        List<Track> snapshot = Collections.unmodifiableList(Arrays.asList(tracks.toArray(new Track[0])));
+        synchronized (this) {
+            if (generationBefore != generation || snapshot.size() > maxRows) {
+                return snapshot;
+            }
+            Entry previous = entries.put(key, new Entry(generationBefore, snapshot));
+            if (previous != null) {
+                rows -= previous.tracks.size();
+            }
+            rows += snapshot.size();
+            trim();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Erhöht die Generation nach einem Commit und gibt alle Einträge frei.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        entries.clear();
+        rows = 0;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || rows > maxRows) && it.hasNext()) {
+            rows -= it.next().getValue().tracks.size();
+            it.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Eine Zeile für die Diagnose: Einträge, Zeilen, Treffer/Fehlschläge und Generation.
+     */
+    public synchronized String formatStats() {
+        long total = hits + misses;
+        return entries.size() + " Einträge, " + rows + " Zeilen  Treffer " + hits + "/" + total +
+                (total > 0 ? " (" + Math.round(hits * 100.0 / total) + " %)" : "") + "  Generation " + generation;
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QueryCancellation bricht eine laufende Abfrage ab. Die SQLite-Engine reicht den Abbruch als
+ * {@code CancellationSignal} an den Cursor weiter, die In-Memory-Engine prüft ihn zwischen den Zeilen.
+ * Eine abgebrochene Abfrage endet mit einer Ausnahme; ihr Ergebnis darf nie verwendet werden.
+ * <p>
+ * Die Klasse ist frei von Android-Abhängigkeiten und threadsicher.
+ */
+public final class QueryCancellation {
+
+    /**
+     * Für synchrone Aufrufe ohne Abbruch; {@link #cancel()} bleibt wirkungslos.
+     */
+    public static final QueryCancellation NONE = new QueryCancellation(false);
+
+    /**
+     * Wird geworfen, wenn eine Abfrage wegen {@link #cancel()} endet.
+     */
+    public static final class CanceledException extends RuntimeException {
+        public CanceledException() {
+            super("Abfrage abgebrochen");
+        }
+    }
+
+    private final boolean cancellable;
+    private final List<Runnable> listeners = new ArrayList<>();
+    private volatile boolean canceled = false;
+
+    public QueryCancellation() {
+        this(true);
+    }
+
+    private QueryCancellation(boolean cancellable) {
+        this.cancellable = cancellable;
+    }
+
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (!cancellable || canceled) {
+                return;
+            }
+            canceled = true;
+            toRun = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toRun) {
+            listener.run();
+        }
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * @return false für {@link #NONE}; dann muss kein Abbruchsignal eingerichtet werden.
+     */
+    public boolean isCancellable() {
+        return cancellable;
+    }
+
+    /**
+     * Ruft {@code listener} beim Abbruch auf, sofort, falls bereits abgebrochen wurde.
+     */
+    public void addListener(Runnable listener) {
+        synchronized (this) {
+            if (!canceled) {
+                if (cancellable) {
+                    listeners.add(listener);
+                }
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    public void throwIfCanceled() {
+        if (canceled) {
+            throw new CanceledException();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * ReplayGainTags enthält die in einer Audiodatei bereits vorhandenen ReplayGain-Werte.
+ * Gelesen werden ID3v2.3/2.4-TXXX-Frames (MP3) und VORBIS_COMMENT-Blöcke (FLAC), ohne die Audiodaten
+ * anzufassen. Fehlende Werte sind {@link Float#NaN}. Dateien mit Tags müssen nicht dekodiert werden.
+ */
+public final class ReplayGainTags {
+    private static final String TAG = "ReplayGainTags";
+
+    // Größere Frames (z. B. eingebettete Cover) werden nur übersprungen, nie gelesen.
+    private static final int MAX_TEXT_FRAME_SIZE = 4096;
+
+    public static final ReplayGainTags NONE = new ReplayGainTags(Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+
+    private final float trackGain;
+    private final float trackPeak;
+    private final float albumGain;
+    private final float albumPeak;
+
+    public ReplayGainTags(float trackGain, float trackPeak, float albumGain, float albumPeak) {
+        this.trackGain = trackGain;
+        this.trackPeak = trackPeak;
+        this.albumGain = albumGain;
+        this.albumPeak = albumPeak;
+    }
+
+    public float getTrackGain() {
+        return trackGain;
+    }
+
+    public float getTrackPeak() {
+        return trackPeak;
+    }
+
+    public float getAlbumGain() {
+        return albumGain;
+    }
+
+    public float getAlbumPeak() {
+        return albumPeak;
+    }
+
+    public boolean hasTrackGain() {
+        return !Float.isNaN(trackGain);
+    }
+
+    /**
+     * Liest die ReplayGain-Tags einer Datei über den ContentResolver.
+     *
+     * @return Die gefundenen Werte oder {@link #NONE}.
+     */
+    public static ReplayGainTags read(Context context, Uri audioUri) {
+        try (ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(audioUri, "r")) {
+            if (pfd == null) {
+                return NONE;
+            }
+            try (FileInputStream in = new FileInputStream(pfd.getFileDescriptor())) {
+                return read(in.getChannel());
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "ReplayGain-Tags nicht lesbar: " + audioUri, e);
+            return NONE;
+        }
+    }
+
+    /**
+     * Liest die ReplayGain-Tags aus einem geöffneten FileChannel.
+     */
+    public static ReplayGainTags read(FileChannel channel) throws IOException {
+        ByteBuffer head = readAt(channel, 0, 10);
+        if (head.remaining() < 4) {
+            return NONE;
+        }
+        if (head.get(0) == 'I' && head.get(1) == 'D' && head.get(2) == '3') {
+            return readId3v2(channel, head);
+        }
+        if (head.get(0) == 'f' && head.get(1) == 'L' && head.get(2) == 'a' && head.get(3) == 'C') {
+            return readFlac(channel);
+        }
+        return NONE;
+    }
+
+    private static ReplayGainTags readId3v2(FileChannel channel, ByteBuffer head) throws IOException {
+        int version = head.get(3);
+        if (head.remaining() < 10 || (version != 3 && version != 4)) {
+            return NONE;
+        }
+        int flags = head.get(5) & 0xFF;
+        long tagEnd = 10 + syncSafe(head.getInt(6));
+        long pos = 10;
+        if ((flags & 0x40) != 0) {
+            // Erweiterter Header: v2.3 ohne, v2.4 inklusive der eigenen Größenangabe
+            int extSize = readAt(channel, pos, 4).getInt(0);
+            pos += version == 4 ? syncSafe(extSize) : extSize + 4;
+        }
+        Builder builder = new Builder();
+        while (pos + 10 <= tagEnd) {
+            ByteBuffer frameHeader = readAt(channel, pos, 10);
+            if (frameHeader.remaining() < 10 || frameHeader.get(0) == 0) {
+                break; // Padding erreicht
+            }
+            String id = new String(frameHeader.array(), 0, 4, StandardCharsets.ISO_8859_1);
+            int rawSize = frameHeader.getInt(4);
+            long size = version == 4 ? syncSafe(rawSize) : rawSize & 0xFFFFFFFFL;
+            long body = pos + 10;
+            if ("TXXX".equals(id) && size > 1 && size <= MAX_TEXT_FRAME_SIZE) {
+                parseTxxx(readAt(channel, body, (int) size), builder);
+            }
+            pos = body + size;
+        }
+        return builder.build();
+    }
+
+    private static void parseTxxx(ByteBuffer frame, Builder builder) {
+        byte[] data = frame.array();
+        int length = frame.remaining();
+        int encoding = data[0];
+        Charset charset;
+        int terminatorWidth = 1;
+        switch (encoding) {
+            case 1:
+                charset = StandardCharsets.UTF_16;
+                terminatorWidth = 2;
+                break;
+            case 2:
+                charset = StandardCharsets.UTF_16BE;
+                terminatorWidth = 2;
+                break;
+            case 3:
+                charset = StandardCharsets.UTF_8;
+                break;
+            default:
+                charset = StandardCharsets.ISO_8859_1;
+        }
+        int descEnd = findTerminator(data, 1, length, terminatorWidth);
+        if (descEnd < 0) {
+            return;
+        }
+        String description = new String(data, 1, descEnd - 1, charset);
+        int valueStart = descEnd + terminatorWidth;
+        int valueEnd = findTerminator(data, valueStart, length, terminatorWidth);
+        if (valueEnd < 0) {
+            valueEnd = length;
+        }
+        String value = new String(data, valueStart, Math.max(0, valueEnd - valueStart), charset);
+        builder.put(description, value);
+    }
+
+    private static ReplayGainTags readFlac(FileChannel channel) throws IOException {
+        long pos = 4;
+        boolean last = false;
+        while (!last && pos + 4 <= channel.size()) {
+            ByteBuffer header = readAt(channel, pos, 4);
+            int type = header.get(0) & 0x7F;
+            last = (header.get(0) & 0x80) != 0;
+            int length = ((header.get(1) & 0xFF) << 16) | ((header.get(2) & 0xFF) << 8) | (header.get(3) & 0xFF);
+            if (type == 4) {
+                return parseVorbisComment(readAt(channel, pos + 4, length));
+            }
+            pos += 4 + length;
+        }
+        return NONE;
+    }
+
+    private static ReplayGainTags parseVorbisComment(ByteBuffer block) {
+        block.order(ByteOrder.LITTLE_ENDIAN);
+        Builder builder = new Builder();
+        try {
+            int vendorLength = block.getInt();
+            block.position(block.position() + vendorLength);
+            int count = block.getInt();
+            for (int i = 0; i < count && block.remaining() >= 4; i++) {
+                int length = block.getInt();
+                if (length < 0 || length > block.remaining()) {
+                    break;
+                }
+                String comment = new String(block.array(), block.position(), length, StandardCharsets.UTF_8);
+                block.position(block.position() + length);
+                int eq = comment.indexOf('=');
+                if (eq > 0) {
+                    builder.put(comment.substring(0, eq), comment.substring(eq + 1));
+                }
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Defekter VORBIS_COMMENT-Block", e);
+        }
+        return builder.build();
+    }
+
+    private static int findTerminator(byte[] data, int from, int length, int width) {
+        for (int i = from; i + width <= length; i += width) {
+            if (data[i] == 0 && (width == 1 || data[i + 1] == 0)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long syncSafe(int value) {
+        return ((value >> 24) & 0x7F) << 21 | ((value >> 16) & 0x7F) << 14 | ((value >> 8) & 0x7F) << 7 | (value & 0x7F);
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(0, length));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) <= 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Sammelt die Werte unabhängig von Groß-/Kleinschreibung der Schlüssel.
+     */
+    private static final class Builder {
+        float trackGain = Float.NaN;
+        float trackPeak = Float.NaN;
+        float albumGain = Float.NaN;
+        float albumPeak = Float.NaN;
+
+        void put(String key, String value) {
+            switch (key.trim().toUpperCase(Locale.ROOT)) {
+                case "REPLAYGAIN_TRACK_GAIN":
+                    trackGain = parse(value);
+                    break;
+                case "REPLAYGAIN_TRACK_PEAK":
+                    trackPeak = parse(value);
+                    break;
+                case "REPLAYGAIN_ALBUM_GAIN":
+                    albumGain = parse(value);
+                    break;
+                case "REPLAYGAIN_ALBUM_PEAK":
+                    albumPeak = parse(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        ReplayGainTags build() {
+            if (Float.isNaN(trackGain) && Float.isNaN(albumGain)) {
+                return NONE;
+            }
+            return new ReplayGainTags(trackGain, trackPeak, albumGain, albumPeak);
+        }
+
+        private static float parse(String value) {
+            try {
+                // z. B. "-6.54 dB" oder "+1.20 dB"
+                String number = value.trim().replace(',', '.');
+                int space = number.indexOf(' ');
+                if (space > 0) {
+                    number = number.substring(0, space);
+                }
+                return Float.parseFloat(number);
+            } catch (NumberFormatException e) {
+                return Float.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.myapplication;
+
+import java.util.List;
+
+/**
+ * ReportStore bewahrt die letzten Scan- und Wartungsberichte für die {@link DiagnosticsActivity} auf.
+ * Implementierungen: {@link SqliteReportStore} für die App, {@link InMemoryReportStore} für JVM-Tests.
+ */
+public interface ReportStore {
+
+    // So viele Scan-Berichte bleiben für die Diagnose erhalten
+    int MAX_SCAN_REPORTS = 20;
+    // So viele Wartungsberichte bleiben für die Diagnose erhalten
+    int MAX_MAINTENANCE_REPORTS = 10;
+
+    /**
+     * Speichert einen Scan-Bericht; ältere Berichte über {@link #MAX_SCAN_REPORTS} hinaus werden verworfen.
+     */
+    void saveScanReport(ScanReport report);
+
+    /**
+     * @return Die gespeicherten Scan-Berichte, neueste zuerst.
+     */
+    List<ScanReport> getScanReports();
+
+    /**
+     * Speichert einen Wartungsbericht; ältere über {@link #MAX_MAINTENANCE_REPORTS} hinaus werden verworfen.
+     */
+    void saveMaintenanceReport(MaintenanceReport report);
+
+    /**
+     * @return Die gespeicherten Wartungsberichte, neueste zuerst.
+     */
+    List<MaintenanceReport> getMaintenanceReports();
+}
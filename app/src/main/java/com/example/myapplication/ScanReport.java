@@ -0,0 +1,139 @@
+package com.example.myapplication;
+
+/**
+ * Die ScanReport-Klasse fasst einen abgeschlossenen Bibliotheksscan zusammen: Dauer, Durchsatz, Zähler und die
+ * Zeit je Phase. Sie wird in der Tabelle "scan_reports" gespeichert und in der {@link DiagnosticsActivity}
+ * angezeigt. Das Model-Objekt ist unveränderlich.
+ */
+public class ScanReport {
+    private final long startedAt; // ms seit Epoch
+    private final long durationMs;
+    private final long files;
+    private final long bytes; // Gesamtgröße der gelesenen Dateien
+    private final long inserted;
+    private final long skipped;
+    private final long errors;
+    // Summierte Dauer je Phase in ms
+    private final long listMs;
+    private final long metadataMs;
+    private final long dbWriteMs;
+    private final long commitMs;
+    // Verteilung der Metadaten-Extraktion je Datei in µs
+    private final long metadataP50Us;
+    private final long metadataP99Us;
+
+    public ScanReport(long startedAt, long durationMs, long files, long bytes, long inserted, long skipped,
+                      long errors, long listMs, long metadataMs, long dbWriteMs, long commitMs,
+                      long metadataP50Us, long metadataP99Us) {
+        this.startedAt = startedAt;
+        this.durationMs = durationMs;
+        this.files = files;
+        this.bytes = bytes;
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.errors = errors;
+        this.listMs = listMs;
+        this.metadataMs = metadataMs;
+        this.dbWriteMs = dbWriteMs;
+        this.commitMs = commitMs;
+        this.metadataP50Us = metadataP50Us;
+        this.metadataP99Us = metadataP99Us;
+    }
+
+    /**
+     * Erstellt den Bericht aus den Messwerten eines Scans.
+     */
+    public static ScanReport from(ScanMetrics metrics, long startedAt, long durationMs) {
+        LatencyHistogram metadata = metrics.phase(ScanMetrics.PHASE_METADATA);
+        return new ScanReport(startedAt, durationMs,
+                metrics.get(ScanMetrics.FILES),
+                metrics.get(ScanMetrics.BYTES),
+                metrics.get(ScanMetrics.INSERTED),
+                metrics.get(ScanMetrics.SKIPPED),
+                metrics.get(ScanMetrics.ERRORS),
+                metrics.phase(ScanMetrics.PHASE_LIST).getSum() / 1000,
+                metadata.getSum() / 1000,
+                metrics.phase(ScanMetrics.PHASE_DB_WRITE).getSum() / 1000,
+                metrics.phase(ScanMetrics.PHASE_COMMIT).getSum() / 1000,
+                metadata.valueAtPercentile(50),
+                metadata.valueAtPercentile(99));
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getListMs() {
+        return listMs;
+    }
+
+    public long getMetadataMs() {
+        return metadataMs;
+    }
+
+    public long getDbWriteMs() {
+        return dbWriteMs;
+    }
+
+    public long getCommitMs() {
+        return commitMs;
+    }
+
+    public long getMetadataP50Us() {
+        return metadataP50Us;
+    }
+
+    public long getMetadataP99Us() {
+        return metadataP99Us;
+    }
+
+    /**
+     * @return Verarbeitete Dateien je Sekunde, 0 bei unbekannter Dauer.
+     */
+    public double getFilesPerSecond() {
+        return durationMs > 0 ? files * 1000.0 / durationMs : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanReport{" +
+                "files=" + files +
+                ", durationMs=" + durationMs +
+                ", filesPerSecond=" + Math.round(getFilesPerSecond()) +
+                ", bytes=" + bytes +
+                ", inserted=" + inserted +
+                ", skipped=" + skipped +
+                ", errors=" + errors +
+                ", listMs=" + listMs +
+                ", metadataMs=" + metadataMs +
+                ", dbWriteMs=" + dbWriteMs +
+                ", commitMs=" + commitMs +
+                ", metadataP50Us=" + metadataP50Us +
+                ", metadataP99Us=" + metadataP99Us +
+                '}';
+    }
+}
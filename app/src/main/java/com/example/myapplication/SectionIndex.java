@@ -0,0 +1,63 @@
+package com.example.myapplication;
+
+import java.util.Arrays;
+
+/**
+ * SectionIndex ordnet jedem Anfangsbuchstaben einer sortierten Liste die Position seiner ersten Zeile zu.
+ * Er wird aus den Zeilenzahlen je Sektion aufgebaut (eine GROUP-BY-Abfrage) und erlaubt einem Schnellscroller
+ * den Sprung zu einem Buchstaben in O(1) bzw. die Zuordnung einer Position zur Sektion per Binärsuche.
+ * Die Methoden entsprechen {@link android.widget.SectionIndexer}.
+ */
+public class SectionIndex {
+
+    public static final SectionIndex EMPTY = new SectionIndex(new char[0], new int[0]);
+
+    private final String[] sections;
+    // offsets[i] = Position der ersten Zeile von Sektion i; aufsteigend
+    private final int[] offsets;
+
+    /**
+     * @param sectionChars Sektionen in Sortierreihenfolge (# vor A..Z vor anderen Schriften).
+     * @param counts       Anzahl Zeilen je Sektion.
+     */
+    public SectionIndex(char[] sectionChars, int[] counts) {
+        sections = new String[sectionChars.length];
+        offsets = new int[sectionChars.length];
+        int position = 0;
+        for (int i = 0; i < sectionChars.length; i++) {
+            sections[i] = String.valueOf(sectionChars[i]);
+            offsets[i] = position;
+            position += counts[i];
+        }
+    }
+
+    public String[] getSections() {
+        return sections;
+    }
+
+    /**
+     * @return Position der ersten Zeile der Sektion; außerhalb des Bereichs wird auf die Grenzen gekappt.
+     */
+    public int getPositionForSection(int sectionIndex) {
+        if (offsets.length == 0) {
+            return 0;
+        }
+        return offsets[Math.max(0, Math.min(sectionIndex, offsets.length - 1))];
+    }
+
+    public int getSectionForPosition(int position) {
+        if (offsets.length == 0) {
+            return 0;
+        }
+        int found = Arrays.binarySearch(offsets, position);
+        if (found < 0) {
+            found = -found - 2; // Sektion, in der die Position liegt
+        } else {
+            // Bei leeren Sektionen gleicher Startposition die letzte nehmen
+            while (found + 1 < offsets.length && offsets[found + 1] == position) {
+                found++;
+            }
+        }
+        return Math.max(0, found);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.myapplication;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * SeekIndex ordnet Zeitpunkten eines Tracks Byte-Offsets in der Audiodatei zu.
+ * Der Index stammt entweder aus der Datei selbst (Xing-/VBRI-TOC bei MP3, SEEKTABLE bei FLAC)
+ * oder wurde durch einmaliges Durchlaufen der MP3-Frames erzeugt. Er wird als BLOB neben der
+ * Track-Zeile gespeichert, damit ein Seek in konstanter Zeit (Binärsuche) aufgelöst werden kann.
+ */
+public final class SeekIndex {
+
+    /** Kein Index nötig oder möglich (anderes Format, FLAC ohne SEEKTABLE); wird gespeichert, damit nicht erneut gescannt wird. */
+    public static final int SOURCE_NONE = 0;
+    /** Konstante Bitrate – der Player kann die Position exakt selbst berechnen. */
+    public static final int SOURCE_CBR = 1;
+    /** Xing-/Info-Header mit 100-Punkte-TOC. */
+    public static final int SOURCE_XING = 2;
+    /** VBRI-Header (Fraunhofer). */
+    public static final int SOURCE_VBRI = 3;
+    /** FLAC SEEKTABLE-Metadatenblock. */
+    public static final int SOURCE_FLAC_SEEKTABLE = 4;
+    /** Aus den MP3-Frame-Headern erzeugter Index (VBR ohne Tabelle). */
+    public static final int SOURCE_GENERATED = 5;
+
+    // Format-Version des serialisierten BLOBs
+    private static final byte BLOB_VERSION = 1;
+
+    private final int source;
+    private final long durationMs;
+    private final long fileLength;
+    private final int[] timesMs;
+    private final long[] byteOffsets;
+
+    public SeekIndex(int source, long durationMs, long fileLength, int[] timesMs, long[] byteOffsets) {
+        if (timesMs.length != byteOffsets.length) {
+            throw new IllegalArgumentException("timesMs und byteOffsets müssen gleich lang sein");
+        }
+        this.source = source;
+        this.durationMs = durationMs;
+        this.fileLength = fileLength;
+        this.timesMs = timesMs;
+        this.byteOffsets = byteOffsets;
+    }
+
+    /**
+     * Markierung für Dateien, für die es keinen Index gibt. Sie wird wie ein Index gespeichert, damit der Player
+     * die Datei beim nächsten Abspielen nicht erneut durchsucht; Seeks gehen direkt an den Extractor.
+     */
+    public static SeekIndex notIndexable(long fileLength) {
+        return new SeekIndex(SOURCE_NONE, 0, fileLength, new int[0], new long[0]);
+    }
+
+    public int getSource() {
+        return source;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getFileLength() {
+        return fileLength;
+    }
+
+    public int size() {
+        return timesMs.length;
+    }
+
+    public int getTimeMs(int point) {
+        return timesMs[point];
+    }
+
+    public long getByteOffset(int point) {
+        return byteOffsets[point];
+    }
+
+    /**
+     * Gibt an, ob der Plattform-Extractor für diese Datei selbst genau und ohne Dateiscan springen kann.
+     * Nur bei erzeugten Indizes (VBR-MP3 ohne Tabelle) muss der Player den Byte-Offset direkt verwenden.
+     */
+    public boolean isNativelySeekable() {
+        return source != SOURCE_GENERATED;
+    }
+
+    /**
+     * Liefert den letzten Indexpunkt, dessen Zeit kleiner oder gleich der gewünschten Position ist.
+     *
+     * @param positionMs Die Zielposition in Millisekunden.
+     * @return Der Index des Punktes oder -1, wenn der Index leer ist.
+     */
+    public int findPoint(long positionMs) {
+        if (timesMs.length == 0) {
+            return -1;
+        }
+        int pos = Arrays.binarySearch(timesMs, (int) Math.min(Integer.MAX_VALUE, Math.max(0, positionMs)));
+        if (pos >= 0) {
+            return pos;
+        }
+        return Math.max(0, -pos - 2);
+    }
+
+    /**
+     * Serialisiert den Index kompakt für die Speicherung als BLOB.
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 1 + 8 + 8 + 4 + timesMs.length * 12);
+        buffer.put(BLOB_VERSION);
+        buffer.put((byte) source);
+        buffer.putLong(durationMs);
+        buffer.putLong(fileLength);
+        buffer.putInt(timesMs.length);
+        for (int i = 0; i < timesMs.length; i++) {
+            buffer.putInt(timesMs[i]);
+            buffer.putLong(byteOffsets[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Liest einen mit {@link #toBytes()} serialisierten Index.
+     *
+     * @return Der Index oder null, falls der BLOB leer oder in einem unbekannten Format ist.
+     */
+    public static SeekIndex fromBytes(byte[] blob) {
+        if (blob == null || blob.length < 22 || blob[0] != BLOB_VERSION) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(blob);
+        buffer.get();
+        int source = buffer.get();
+        long durationMs = buffer.getLong();
+        long fileLength = buffer.getLong();
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() < count * 12) {
+            return null;
+        }
+        int[] times = new int[count];
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = buffer.getInt();
+            offsets[i] = buffer.getLong();
+        }
+        return new SeekIndex(source, durationMs, fileLength, times, offsets);
+    }
+
+    @Override
+    public String toString() {
+        return "SeekIndex{" +
+                "source=" + source +
+                ", durationMs=" + durationMs +
+                ", points=" + timesMs.length +
+                '}';
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * SeekIndexBuilder erzeugt einen {@link SeekIndex} für eine Audiodatei.
+ * Unterstützt werden MP3 (Xing-/Info- und VBRI-Header, sonst Frame-Scan) und FLAC (SEEKTABLE).
+ * Für alle anderen Formate wird {@link SeekIndex#notIndexable(long)} geliefert – deren Extractor springt bereits
+ * selbst genau, und die gespeicherte Markierung erspart das erneute Öffnen der Datei.
+ */
+public final class SeekIndexBuilder {
+    private static final String TAG = "SeekIndexBuilder";
+
+    // Abstand der Punkte in einem erzeugten Index
+    private static final int GENERATED_POINT_INTERVAL_MS = 1000;
+    // So weit wird nach dem ersten Frame-Sync gesucht, bevor aufgegeben wird
+    private static final int MAX_SYNC_SEARCH_BYTES = 128 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int[] BITRATES_MPEG1_L3 = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, -1};
+    private static final int[] BITRATES_MPEG2_L3 = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, -1};
+    private static final int[] SAMPLE_RATES_MPEG1 = {44100, 48000, 32000};
+
+    // Privater Konstruktor verhindert Instanziierung
+    private SeekIndexBuilder() {}
+
+    /**
+     * Öffnet die Datei über den ContentResolver und erzeugt den Index.
+     *
+     * @return Der Index, {@link SeekIndex#notIndexable(long)} für Formate ohne Index oder null, wenn die Datei
+     *         nicht lesbar ist (dann wird es beim nächsten Abspielen erneut versucht).
+     */
+    public static SeekIndex build(Context context, Uri audioUri) {
+        try (ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(audioUri, "r")) {
+            if (pfd == null) {
+                return null;
+            }
+            try (FileInputStream in = new FileInputStream(pfd.getFileDescriptor())) {
+                return build(in.getChannel());
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Seek-Index konnte nicht erstellt werden: " + audioUri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Erzeugt den Index aus einem bereits geöffneten FileChannel. Nach MP3-Frames wird nur gesucht, wenn die Datei
+     * mit einem ID3v2-Tag oder einem Frame-Sync beginnt; AAC, Ogg, WAV usw. werden nicht durchsucht.
+     */
+    public static SeekIndex build(FileChannel channel) throws IOException {
+        ChunkReader reader = new ChunkReader(channel);
+        SeekIndex index = null;
+        if (reader.length() >= 4) {
+            if (reader.getByte(0) == 'f' && reader.getByte(1) == 'L'
+                    && reader.getByte(2) == 'a' && reader.getByte(3) == 'C') {
+                index = buildFlac(reader);
+            } else if (isMp3(reader)) {
+                index = buildMp3(reader);
+            }
+        }
+        return index != null ? index : SeekIndex.notIndexable(reader.length());
+    }
+
+    private static boolean isMp3(ChunkReader reader) throws IOException {
+        if (reader.getByte(0) == 'I' && reader.getByte(1) == 'D' && reader.getByte(2) == '3') {
+            return true;
+        }
+        return Mp3Frame.parse(reader.getInt(0)) != null;
+    }
+
+    // ---------------------------------------------------------------- MP3
+
+    private static SeekIndex buildMp3(ChunkReader reader) throws IOException {
+        long length = reader.length();
+        long frameOffset = findFrameSync(reader, skipId3v2(reader));
+        if (frameOffset < 0) {
+            return null;
+        }
+        Mp3Frame first = Mp3Frame.parse(reader.getInt(frameOffset));
+
+        // Xing-/Info-Header liegt direkt hinter der Side-Information des ersten Frames.
+        long xingOffset = frameOffset + 4 + first.sideInfoSize();
+        int tag = reader.getInt(xingOffset);
+        if (tag == 0x58696E67 /* "Xing" */ || tag == 0x496E666F /* "Info" */) {
+            SeekIndex index = parseXing(reader, first, frameOffset, xingOffset, tag == 0x496E666F);
+            if (index != null) {
+                return index;
+            }
+        }
+        // VBRI-Header liegt immer 32 Bytes hinter dem Frame-Header.
+        if (reader.getInt(frameOffset + 36) == 0x56425249 /* "VBRI" */) {
+            SeekIndex index = parseVbri(reader, first, frameOffset);
+            if (index != null) {
+                return index;
+            }
+        }
+        return scanFrames(reader, frameOffset, length);
+    }
+
+    private static SeekIndex parseXing(ChunkReader reader, Mp3Frame first, long frameOffset,
+                                       long xingOffset, boolean isInfo) throws IOException {
+        int flags = reader.getInt(xingOffset + 4);
+        long pos = xingOffset + 8;
+        long frames = -1;
+        long bytes = reader.length() - frameOffset;
+        if ((flags & 0x1) != 0) {
+            frames = reader.getInt(pos) & 0xFFFFFFFFL;
+            pos += 4;
+        }
+        if ((flags & 0x2) != 0) {
+            bytes = reader.getInt(pos) & 0xFFFFFFFFL;
+            pos += 4;
+        }
+        if (frames <= 0) {
+            return null;
+        }
+        long durationMs = frames * first.samplesPerFrame * 1000L / first.sampleRate;
+        long audioStart = frameOffset + first.frameLength;
+        if (isInfo) {
+            // "Info" kennzeichnet CBR-Dateien – der Player rechnet die Position exakt selbst aus.
+            return new SeekIndex(SeekIndex.SOURCE_CBR, durationMs, reader.length(),
+                    new int[]{0}, new long[]{audioStart});
+        }
+        if ((flags & 0x4) == 0) {
+            return null;
+        }
+        int[] times = new int[100];
+        long[] offsets = new long[100];
+        for (int i = 0; i < 100; i++) {
+            int toc = reader.getByte(pos + i) & 0xFF;
+            times[i] = (int) (durationMs * i / 100);
+            offsets[i] = frameOffset + toc * bytes / 256;
+        }
+        offsets[0] = audioStart;
+        return new SeekIndex(SeekIndex.SOURCE_XING, durationMs, reader.length(), times, offsets);
+    }
+
+    private static SeekIndex parseVbri(ChunkReader reader, Mp3Frame first, long frameOffset) throws IOException {
+        long pos = frameOffset + 36 + 10;
+        long frames = reader.getInt(pos + 4) & 0xFFFFFFFFL;
+        int entries = reader.getShort(pos + 8);
+        int scale = reader.getShort(pos + 10);
+        int entrySize = reader.getShort(pos + 12);
+        int framesPerEntry = reader.getShort(pos + 14);
+        if (frames <= 0 || entries <= 0 || entrySize < 1 || entrySize > 4) {
+            return null;
+        }
+        long durationMs = frames * first.samplesPerFrame * 1000L / first.sampleRate;
+        long entryDurationMs = (long) framesPerEntry * first.samplesPerFrame * 1000L / first.sampleRate;
+        int[] times = new int[entries];
+        long[] offsets = new long[entries];
+        long offset = frameOffset + first.frameLength;
+        long entryPos = pos + 16;
+        for (int i = 0; i < entries; i++) {
+            times[i] = (int) Math.min(durationMs, i * entryDurationMs);
+            offsets[i] = offset;
+            long segment = 0;
+            for (int b = 0; b < entrySize; b++) {
+                segment = (segment << 8) | (reader.getByte(entryPos++) & 0xFF);
+            }
+            offset += segment * scale;
+        }
+        return new SeekIndex(SeekIndex.SOURCE_VBRI, durationMs, reader.length(), times, offsets);
+    }
+
+    /**
+     * Durchläuft alle Frame-Header der Datei (ohne die Nutzdaten zu lesen) und merkt sich
+     * etwa einmal pro Sekunde den Byte-Offset des Frames.
+     */
+    private static SeekIndex scanFrames(ChunkReader reader, long frameOffset, long length) throws IOException {
+        int capacity = 256;
+        int[] times = new int[capacity];
+        long[] offsets = new long[capacity];
+        int count = 0;
+
+        long samples = 0;
+        int sampleRate = 0;
+        int firstBitrate = -1;
+        boolean constantBitrate = true;
+        long nextPointMs = 0;
+        long pos = frameOffset;
+
+        while (pos + 4 <= length) {
+            Mp3Frame frame = Mp3Frame.parse(reader.getInt(pos));
+            if (frame == null || (sampleRate != 0 && frame.sampleRate != sampleRate)) {
+                // Synchronisation verloren (z. B. ID3v1-Tag am Ende oder defekte Daten)
+                long resync = findFrameSync(reader, pos + 1);
+                if (resync < 0) {
+                    break;
+                }
+                pos = resync;
+                continue;
+            }
+            sampleRate = frame.sampleRate;
+            if (firstBitrate < 0) {
+                firstBitrate = frame.bitrateKbps;
+            } else if (frame.bitrateKbps != firstBitrate) {
+                constantBitrate = false;
+            }
+            long timeMs = samples * 1000L / sampleRate;
+            if (timeMs >= nextPointMs) {
+                if (count == capacity) {
+                    capacity *= 2;
+                    times = Arrays.copyOf(times, capacity);
+                    offsets = Arrays.copyOf(offsets, capacity);
+                }
+                times[count] = (int) timeMs;
+                offsets[count] = pos;
+                count++;
+                nextPointMs = timeMs + GENERATED_POINT_INTERVAL_MS;
+            }
+            samples += frame.samplesPerFrame;
+            pos += frame.frameLength;
+        }
+
+        if (count == 0 || sampleRate == 0) {
+            return null;
+        }
+        long durationMs = samples * 1000L / sampleRate;
+        if (constantBitrate) {
+            return new SeekIndex(SeekIndex.SOURCE_CBR, durationMs, length,
+                    new int[]{0}, new long[]{offsets[0]});
+        }
+        return new SeekIndex(SeekIndex.SOURCE_GENERATED, durationMs, length,
+                Arrays.copyOf(times, count), Arrays.copyOf(offsets, count));
+    }
+
+    private static long skipId3v2(ChunkReader reader) throws IOException {
+        if (reader.length() < 10 || reader.getByte(0) != 'I' || reader.getByte(1) != 'D' || reader.getByte(2) != '3') {
+            return 0;
+        }
+        int flags = reader.getByte(5) & 0xFF;
+        long size = ((reader.getByte(6) & 0x7F) << 21) | ((reader.getByte(7) & 0x7F) << 14)
+                | ((reader.getByte(8) & 0x7F) << 7) | (reader.getByte(9) & 0x7F);
+        long end = 10 + size;
+        if ((flags & 0x10) != 0) {
+            end += 10; // Footer
+        }
+        return end;
+    }
+
+    private static long findFrameSync(ChunkReader reader, long from) throws IOException {
+        long limit = Math.min(reader.length() - 4, from + MAX_SYNC_SEARCH_BYTES);
+        for (long pos = from; pos <= limit; pos++) {
+            if ((reader.getByte(pos) & 0xFF) != 0xFF) {
+                continue;
+            }
+            Mp3Frame frame = Mp3Frame.parse(reader.getInt(pos));
+            if (frame == null) {
+                continue;
+            }
+            // Zur Absicherung gegen Zufallstreffer muss auch der Folge-Frame gültig sein.
+            long next = pos + frame.frameLength;
+            if (next + 4 > reader.length() || Mp3Frame.parse(reader.getInt(next)) != null) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Die für den Index relevanten Felder eines MPEG-Audio-Layer-III-Frame-Headers.
+     */
+    private static final class Mp3Frame {
+        final boolean mpeg1;
+        final boolean mono;
+        final int bitrateKbps;
+        final int sampleRate;
+        final int samplesPerFrame;
+        final int frameLength;
+
+        private Mp3Frame(boolean mpeg1, boolean mono, int bitrateKbps, int sampleRate, int frameLength) {
+            this.mpeg1 = mpeg1;
+            this.mono = mono;
+            this.bitrateKbps = bitrateKbps;
+            this.sampleRate = sampleRate;
+            this.samplesPerFrame = mpeg1 ? 1152 : 576;
+            this.frameLength = frameLength;
+        }
+
+        int sideInfoSize() {
+            if (mpeg1) {
+                return mono ? 17 : 32;
+            }
+            return mono ? 9 : 17;
+        }
+
+        static Mp3Frame parse(int header) {
+            if ((header & 0xFFE00000) != 0xFFE00000) {
+                return null;
+            }
+            int version = (header >>> 19) & 0x3;      // 3 = MPEG1, 2 = MPEG2, 0 = MPEG2.5
+            int layer = (header >>> 17) & 0x3;        // 1 = Layer III
+            int bitrateIndex = (header >>> 12) & 0xF;
+            int sampleRateIndex = (header >>> 10) & 0x3;
+            int padding = (header >>> 9) & 0x1;
+            int channelMode = (header >>> 6) & 0x3;
+            if (version == 1 || layer != 1 || bitrateIndex == 0 || bitrateIndex == 15 || sampleRateIndex == 3) {
+                return null;
+            }
+            boolean mpeg1 = version == 3;
+            int bitrate = mpeg1 ? BITRATES_MPEG1_L3[bitrateIndex] : BITRATES_MPEG2_L3[bitrateIndex];
+            int sampleRate = SAMPLE_RATES_MPEG1[sampleRateIndex];
+            if (version == 2) {
+                sampleRate /= 2;
+            } else if (version == 0) {
+                sampleRate /= 4;
+            }
+            int frameLength = (mpeg1 ? 144 : 72) * bitrate * 1000 / sampleRate + padding;
+            return new Mp3Frame(mpeg1, channelMode == 3, bitrate, sampleRate, frameLength);
+        }
+    }
+
+    // ---------------------------------------------------------------- FLAC
+
+    private static SeekIndex buildFlac(ChunkReader reader) throws IOException {
+        long pos = 4;
+        int sampleRate = 0;
+        long totalSamples = 0;
+        long seekTablePos = -1;
+        int seekTableLength = 0;
+        boolean last = false;
+        while (!last && pos + 4 <= reader.length()) {
+            int header = reader.getByte(pos) & 0xFF;
+            last = (header & 0x80) != 0;
+            int type = header & 0x7F;
+            int blockLength = ((reader.getByte(pos + 1) & 0xFF) << 16)
+                    | ((reader.getByte(pos + 2) & 0xFF) << 8)
+                    | (reader.getByte(pos + 3) & 0xFF);
+            long body = pos + 4;
+            if (type == 0) {
+                // STREAMINFO: 20 Bit Samplerate, 36 Bit Gesamtanzahl Samples
+                sampleRate = ((reader.getByte(body + 10) & 0xFF) << 12)
+                        | ((reader.getByte(body + 11) & 0xFF) << 4)
+                        | ((reader.getByte(body + 12) & 0xFF) >> 4);
+                totalSamples = ((long) (reader.getByte(body + 13) & 0x0F) << 32)
+                        | (reader.getInt(body + 14) & 0xFFFFFFFFL);
+            } else if (type == 3) {
+                seekTablePos = body;
+                seekTableLength = blockLength;
+            }
+            pos = body + blockLength;
+        }
+        if (seekTablePos < 0 || sampleRate == 0) {
+            // Ohne SEEKTABLE springt der FLAC-Extractor per Binärsuche über die Frame-Header.
+            return null;
+        }
+        long firstFrameOffset = pos;
+        int pointCount = seekTableLength / 18;
+        int[] times = new int[pointCount];
+        long[] offsets = new long[pointCount];
+        int count = 0;
+        for (int i = 0; i < pointCount; i++) {
+            long point = seekTablePos + i * 18L;
+            long sample = reader.getLong(point);
+            if (sample == -1L) {
+                continue; // Platzhalter
+            }
+            times[count] = (int) (sample * 1000L / sampleRate);
+            offsets[count] = firstFrameOffset + reader.getLong(point + 8);
+            count++;
+        }
+        long durationMs = totalSamples * 1000L / sampleRate;
+        return new SeekIndex(SeekIndex.SOURCE_FLAC_SEEKTABLE, durationMs, reader.length(),
+                Arrays.copyOf(times, count), Arrays.copyOf(offsets, count));
+    }
+
+    // ---------------------------------------------------------------- Lesen
+
+    /**
+     * Liest die Datei in 64-KB-Blöcken, damit der Frame-Scan nicht für jeden Header einen Syscall auslöst.
+     */
+    private static final class ChunkReader {
+        private final FileChannel channel;
+        private final long length;
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        private long chunkStart = -1;
+        private int chunkLength = 0;
+
+        ChunkReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.length = channel.size();
+        }
+
+        long length() {
+            return length;
+        }
+
+        byte getByte(long pos) throws IOException {
+            if (pos < 0 || pos >= length) {
+                return 0;
+            }
+            if (pos < chunkStart || pos >= chunkStart + chunkLength) {
+                load(pos);
+            }
+            return chunk.get((int) (pos - chunkStart));
+        }
+
+        int getShort(long pos) throws IOException {
+            return ((getByte(pos) & 0xFF) << 8) | (getByte(pos + 1) & 0xFF);
+        }
+
+        int getInt(long pos) throws IOException {
+            return ((getByte(pos) & 0xFF) << 24) | ((getByte(pos + 1) & 0xFF) << 16)
+                    | ((getByte(pos + 2) & 0xFF) << 8) | (getByte(pos + 3) & 0xFF);
+        }
+
+        long getLong(long pos) throws IOException {
+            return ((long) getInt(pos) << 32) | (getInt(pos + 4) & 0xFFFFFFFFL);
+        }
+
+        private void load(long pos) throws IOException {
+            chunk.clear();
+            int total = 0;
+            while (chunk.hasRemaining()) {
+                int read = channel.read(chunk, pos + total);
+                if (read <= 0) {
+                    break;
+                }
+                total += read;
+            }
+            chunkStart = pos;
+            chunkLength = total;
+        }
+    }
+}
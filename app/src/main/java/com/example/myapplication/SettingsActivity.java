@@ -25,6 +25,9 @@ import android.widget.Button;
 import android.widget.ListView;
 import android.widget.Toast;
 
+import Controller.MusicPlayerController;
+import Controller.ReplayGainProcessor;
+
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -40,6 +43,12 @@ public class SettingsActivity extends AppCompatActivity {
 
     private static final int REQUEST_CODE_OPEN_DOCUMENT_TREE = 42;
     private Button btnSelectMusicFolder;
+    private Button btnReplayGainMode;
+    private Button btnCrossfade;
+    private Button btnAcousticDedup;
+
+    // Wählbare Überblenddauern in Sekunden, 0 = aus
+    private static final int[] CROSSFADE_STEPS = {0, 2, 4, 6, 8, 12};
     private SharedPreferences prefs;
     private ListView listViewFolders;
     private List<FolderItem> folderItemList;
@@ -61,6 +70,21 @@ public class SettingsActivity extends AppCompatActivity {
         btnSelectMusicFolder = findViewById(R.id.btnSelectMusicFolder);
         btnSelectMusicFolder.setOnClickListener(v -> openFolderPicker());
 
+        btnReplayGainMode = findViewById(R.id.btnReplayGainMode);
+        btnReplayGainMode.setOnClickListener(v -> cycleReplayGainMode());
+        updateReplayGainButton();
+
+        btnCrossfade = findViewById(R.id.btnCrossfade);
+        btnCrossfade.setOnClickListener(v -> cycleCrossfade());
+        updateCrossfadeButton();
+
+        btnAcousticDedup = findViewById(R.id.btnAcousticDedup);
+        btnAcousticDedup.setOnClickListener(v -> toggleAcousticDedup());
+        updateAcousticDedupButton();
+
+        Button btnDiagnostics = findViewById(R.id.btnDiagnostics);
+        btnDiagnostics.setOnClickListener(v -> startActivity(new Intent(this, DiagnosticsActivity.class)));
+
         listViewFolders = findViewById(R.id.listViewFolders);
         folderItemList = new ArrayList<>();
 
@@ -158,8 +182,9 @@ public class SettingsActivity extends AppCompatActivity {
         if (folderSet.remove(entry)) {
             prefs.edit().putStringSet("music_folders", folderSet).apply();
             Toast.makeText(this, "Ordner " + item.getName() + " entfernt", Toast.LENGTH_SHORT).show();
-            // Markiere alle Tracks des entfernten Ordners als gelöscht
-            MusicRepository.getInstance(this).markTracksDeletedByFolder(item.getUri());
+            // Markiere alle Tracks des entfernten Ordners als gelöscht (im Hintergrund über den DB-Writer)
+            MusicRepository repository = MusicRepository.getInstance(this);
+            AppExecutors.getInstance(this).dbWrite().execute(() -> repository.markTracksDeletedByFolder(item.getUri()));
             displayFolderList();
             // Optional: Hier könntest du einen CleanupWorker enqueuen, um die DB von als gelöscht markierten Tracks zu bereinigen.
         } else {
@@ -167,6 +192,81 @@ public class SettingsActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * Schaltet den ReplayGain-Modus reihum weiter: Track → Album → Aus.
+     * Der neue Modus gilt ab dem nächsten gestarteten Track.
+     */
+    private void cycleReplayGainMode() {
+        String mode = prefs.getString(ReplayGainProcessor.PREF_MODE, ReplayGainProcessor.MODE_TRACK);
+        String next;
+        if (ReplayGainProcessor.MODE_TRACK.equals(mode)) {
+            next = ReplayGainProcessor.MODE_ALBUM;
+        } else if (ReplayGainProcessor.MODE_ALBUM.equals(mode)) {
+            next = ReplayGainProcessor.MODE_OFF;
+        } else {
+            next = ReplayGainProcessor.MODE_TRACK;
+        }
+        prefs.edit().putString(ReplayGainProcessor.PREF_MODE, next).apply();
+        updateReplayGainButton();
+
+        btnCrossfade = findViewById(R.id.btnCrossfade);
+        btnCrossfade.setOnClickListener(v -> cycleCrossfade());
+        updateCrossfadeButton();
+    }
+
+    private void updateReplayGainButton() {
+        String mode = prefs.getString(ReplayGainProcessor.PREF_MODE, ReplayGainProcessor.MODE_TRACK);
+        String label;
+        if (ReplayGainProcessor.MODE_ALBUM.equals(mode)) {
+            label = "Album";
+        } else if (ReplayGainProcessor.MODE_OFF.equals(mode)) {
+            label = "Aus";
+        } else {
+            label = "Track";
+        }
+        btnReplayGainMode.setText("Lautstärkeangleichung: " + label);
+    }
+
+    /**
+     * Schaltet die Überblenddauer reihum weiter. Alben mit fortlaufenden Tracknummern werden
+     * unabhängig davon immer lückenlos abgespielt.
+     */
+    private void cycleCrossfade() {
+        int current = prefs.getInt(MusicPlayerController.PREF_CROSSFADE_SECONDS, 0);
+        int next = CROSSFADE_STEPS[0];
+        for (int i = 0; i < CROSSFADE_STEPS.length; i++) {
+            if (CROSSFADE_STEPS[i] == current) {
+                next = CROSSFADE_STEPS[(i + 1) % CROSSFADE_STEPS.length];
+                break;
+            }
+        }
+        prefs.edit().putInt(MusicPlayerController.PREF_CROSSFADE_SECONDS, next).apply();
+        updateCrossfadeButton();
+    }
+
+    private void updateCrossfadeButton() {
+        int seconds = prefs.getInt(MusicPlayerController.PREF_CROSSFADE_SECONDS, 0);
+        btnCrossfade.setText(seconds == 0 ? "Überblenden: Aus" : "Überblenden: " + seconds + " s");
+    }
+
+    /**
+     * Schaltet die akustische Dublettenerkennung um. Beim Einschalten werden bereits gehashte Tracks
+     * im Hintergrund nachträglich mit Fingerabdruck versehen.
+     */
+    private void toggleAcousticDedup() {
+        boolean enabled = !prefs.getBoolean(DeduplicationWorker.PREF_ACOUSTIC, false);
+        prefs.edit().putBoolean(DeduplicationWorker.PREF_ACOUSTIC, enabled).apply();
+        updateAcousticDedupButton();
+        if (enabled) {
+            DeduplicationWorker.enqueue(getApplicationContext());
+        }
+    }
+
+    private void updateAcousticDedupButton() {
+        boolean enabled = prefs.getBoolean(DeduplicationWorker.PREF_ACOUSTIC, false);
+        btnAcousticDedup.setText(enabled ? "Akustische Dublettenerkennung: An" : "Akustische Dublettenerkennung: Aus");
+    }
+
     /**
      * Triggert einen OneTimeWorkRequest für den MusicLoaderWorker, um einen sofortigen Scan zu starten.
      */
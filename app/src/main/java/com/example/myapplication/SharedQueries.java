@@ -0,0 +1,243 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * SharedQueries führt Abfragen für Bildschirme asynchron und abbrechbar aus. Anfragen mit demselben Schlüssel,
+ * die eintreffen, während eine Ausführung läuft, hängen sich an diese an, statt die Datenbank erneut zu lesen.
+ * <p>
+ * Jeder Aufrufer erhält einen eigenen {@link Handle}. Bricht der letzte Aufrufer ab, wird die Ausführung über
+ * ihre {@link QueryCancellation} beendet (bei SQLite bricht der Cursor ab). Ergebnisse werden über den
+ * Zustellungs-Executor (in der App der Main-Thread) nur an Aufrufer übergeben, die bis dahin nicht abgebrochen
+ * haben; das Ergebnis einer abgebrochenen Ausführung wird verworfen. Scheitert eine Abfrage, erhalten die Aufrufer
+ * die Ausnahme auf demselben Weg über ihren Fehler-Callback; der Worker-Thread läuft weiter.
+ * <p>
+ * Die Klasse ist frei von Android-Abhängigkeiten.
+ */
+public class SharedQueries {
+
+    /**
+     * Eine Abfrage, die {@code cancellation} an die Engine weiterreicht.
+     */
+    public interface Query<T> {
+        T run(QueryCancellation cancellation);
+    }
+
+    /**
+     * Die Anmeldung eines Aufrufers an einer Ausführung.
+     */
+    public interface Handle {
+        /**
+         * Meldet den Aufrufer ab; sein Callback wird danach nicht mehr aufgerufen. Idempotent.
+         * Muss auf dem Thread des Zustellungs-Executors aufgerufen werden, damit kein Ergebnis mehr durchrutscht.
+         */
+        void cancel();
+
+        boolean isCanceled();
+    }
+
+    /**
+     * Ein Handle ohne Ausführung, z. B. für Abfragen eines bereits beendeten Bildschirms.
+     */
+    public static final Handle CANCELED = new Handle() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return true;
+        }
+    };
+
+    private final Executor worker;
+    private final Executor delivery;
+    // Laufende Ausführungen je Schlüssel
+    private final Map<String, Execution<?>> inFlight = new HashMap<>();
+    private long executions = 0;
+    private long deduplicated = 0;
+    private long canceled = 0;
+    private long failed = 0;
+
+    private final class Execution<T> {
+        final String key;
+        final QueryCancellation cancellation = new QueryCancellation();
+        final List<Subscriber<T>> subscribers = new ArrayList<>();
+        boolean done = false;
+
+        Execution(String key) {
+            this.key = key;
+        }
+    }
+
+    private final class Subscriber<T> implements Handle {
+        final Execution<T> execution;
+        final Consumer<T> callback;
+        final Consumer<RuntimeException> onError;
+        volatile boolean canceledByCaller = false;
+
+        Subscriber(Execution<T> execution, Consumer<T> callback, Consumer<RuntimeException> onError) {
+            this.execution = execution;
+            this.callback = callback;
+            this.onError = onError;
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (SharedQueries.this) {
+                if (canceledByCaller) {
+                    return;
+                }
+                canceledByCaller = true;
+                execution.subscribers.remove(this);
+                if (!execution.done && execution.subscribers.isEmpty()) {
+                    // Niemand wartet mehr: Ausführung abbrechen und den Schlüssel für neue Anfragen freigeben
+                    execution.done = true;
+                    inFlight.remove(execution.key, execution);
+                    canceled++;
+                } else {
+                    return;
+                }
+            }
+            execution.cancellation.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceledByCaller;
+        }
+    }
+
+    /**
+     * @param worker   Führt die Abfragen aus.
+     * @param delivery Stellt die Ergebnisse zu, in der App der Main-Thread.
+     */
+    public SharedQueries(Executor worker, Executor delivery) {
+        this.worker = worker;
+        this.delivery = delivery;
+    }
+
+    /**
+     * Wie {@link #submit(String, Query, Consumer, Consumer)}; scheitert die Abfrage, entfällt der Callback und der
+     * Fehler wird nur gezählt.
+     */
+    public <T> Handle submit(String key, Query<T> query, Consumer<T> callback) {
+        return submit(key, query, callback, error -> {
+        });
+    }
+
+    /**
+     * Führt {@code query} aus oder hängt sich an eine laufende Ausführung mit demselben Schlüssel an.
+     *
+     * @param key      Bezeichnet Abfrage und Parameter eindeutig, z. B. "album:" + Albumname.
+     * @param callback Erhält das Ergebnis auf dem Zustellungs-Executor, sofern nicht vorher abgebrochen.
+     * @param onError  Erhält statt des Ergebnisses die Ausnahme, falls die Abfrage scheitert.
+     */
+    public <T> Handle submit(String key, Query<T> query, Consumer<T> callback, Consumer<RuntimeException> onError) {
+        Execution<T> execution;
+        boolean start = false;
+        Subscriber<T> subscriber;
+        synchronized (this) {
+            @SuppressWarnings("unchecked")
+            Execution<T> running = (Execution<T>) inFlight.get(key);
+            if (running != null) {
+                execution = running;
+                deduplicated++;
+            } else {
+                execution = new Execution<>(key);
+                inFlight.put(key, execution);
+                executions++;
+                start = true;
+            }
+            subscriber = new Subscriber<>(execution, callback, onError);
+            execution.subscribers.add(subscriber);
+        }
+        if (start) {
+            final Execution<T> toRun = execution;
+            worker.execute(() -> run(toRun, query));
+        }
+        return subscriber;
+    }
+
+    private <T> void run(Execution<T> execution, Query<T> query) {
+        if (execution.cancellation.isCanceled()) {
+            return;
+        }
+        T result;
+        try {
+            result = query.run(execution.cancellation);
+        } catch (RuntimeException e) {
+            List<Subscriber<T>> subscribers = finish(execution);
+            if (execution.cancellation.isCanceled()) {
+                // Erwartetes Ende eines abgebrochenen Cursors
+                return;
+            }
+            synchronized (this) {
+                failed++;
+            }
+            delivery.execute(() -> {
+                for (Subscriber<T> subscriber : subscribers) {
+                    if (!subscriber.canceledByCaller) {
+                        subscriber.onError.accept(e);
+                    }
+                }
+            });
+            return;
+        }
+        List<Subscriber<T>> subscribers = finish(execution);
+        if (subscribers.isEmpty() || execution.cancellation.isCanceled()) {
+            return;
+        }
+        delivery.execute(() -> {
+            for (Subscriber<T> subscriber : subscribers) {
+                if (!subscriber.canceledByCaller) {
+                    subscriber.callback.accept(result);
+                }
+            }
+        });
+    }
+
+    /**
+     * Beendet die Ausführung und gibt den Schlüssel frei.
+     *
+     * @return Die bis hierher angemeldeten Aufrufer.
+     */
+    private synchronized <T> List<Subscriber<T>> finish(Execution<T> execution) {
+        execution.done = true;
+        inFlight.remove(execution.key, execution);
+        return new ArrayList<>(execution.subscribers);
+    }
+
+    /**
+     * @return Anzahl der tatsächlich gestarteten Ausführungen.
+     */
+    public synchronized long getExecutionCount() {
+        return executions;
+    }
+
+    /**
+     * @return Anzahl der Anfragen, die sich an eine laufende Ausführung angehängt haben.
+     */
+    public synchronized long getDeduplicatedCount() {
+        return deduplicated;
+    }
+
+    /**
+     * @return Anzahl der Ausführungen, die abgebrochen wurden, weil kein Aufrufer mehr wartete.
+     */
+    public synchronized long getCanceledCount() {
+        return canceled;
+    }
+
+    /**
+     * @return Anzahl der Ausführungen, die mit einer Ausnahme endeten.
+     */
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+}
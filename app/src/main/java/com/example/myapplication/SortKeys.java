@@ -0,0 +1,140 @@
+package com.example.myapplication;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * SortKeys berechnet die Sortierschlüssel, die der Scanner zusammen mit jedem Track speichert. Abfragen können
+ * dann mit einem einfachen {@code ORDER BY} über einen Index sortieren, statt zur Laufzeit einen Collator zu bemühen.
+ * <p>
+ * Schritte: führende Artikel entfernen ("Die Ärzte" → "Ärzte"), Umlaute und Akzente falten ("Ärzte" → "Arzte"),
+ * dann den deutschen Collation-Key (Primärstärke) als Hex-String kodieren. Hex erhält die Byte-Reihenfolge, sodass
+ * SQLite mit der Standard-Kollation BINARY genau in Collator-Reihenfolge sortiert.
+ */
+public final class SortKeys {
+
+    // Sektion für Titel, die mit Ziffern oder Sonderzeichen beginnen (vor A)
+    public static final char SECTION_OTHER = '#';
+    // Sektion für nicht-lateinische Schriften (nach Z)
+    public static final char SECTION_NON_LATIN = '…';
+
+    // Bei jeder Änderung an normalize, fold oder sortKey erhöhen: gespeicherte Schlüssel werden dann neu berechnet
+    // (siehe TrackDatabaseHelper.META_COLLATION_VERSION)
+    public static final int VERSION = 2;
+
+    private static final String[] ARTICLES = {"the ", "a ", "an ", "der ", "die ", "das ", "ein ", "eine "};
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // Collator-Instanzen sind nicht threadsicher
+    private static final ThreadLocal<Collator> COLLATOR = ThreadLocal.withInitial(() -> {
+        Collator collator = Collator.getInstance(Locale.GERMAN);
+        collator.setStrength(Collator.PRIMARY);
+        return collator;
+    });
+
+    private SortKeys() {}
+
+    /**
+     * Normalisiert einen Titel oder Namen für die Sortierung: ohne führenden Artikel, ohne Umlaute/Akzente,
+     * in Kleinbuchstaben. {@code null} ergibt "".
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String result = value.trim().toLowerCase(Locale.GERMAN);
+        for (String article : ARTICLES) {
+            // Nur abschneiden, wenn danach noch etwas übrig bleibt ("The The" → "The", "A" bleibt "A")
+            if (result.startsWith(article) && result.length() > article.length()) {
+                result = result.substring(article.length()).trim();
+                break;
+            }
+        }
+        return fold(result);
+    }
+
+    /**
+     * Faltet Umlaute und Akzente auf den Grundbuchstaben; ß wird zu "ss". Buchstaben, die NFD nicht zerlegt
+     * (ø, æ, œ, ł, đ, ð, þ), werden ausdrücklich abgebildet, damit Sortierschlüssel und Sektion nicht vom
+     * Collator der Plattform abhängen ("Øresund" → "oresund", "Þingvellir" → "thingvellir").
+     */
+    static String fold(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            switch (c) {
+                case 'ß':
+                    sb.append("ss");
+                    break;
+                case 'ø':
+                case 'Ø':
+                    sb.append(c == 'ø' ? "o" : "O");
+                    break;
+                case 'æ':
+                case 'Æ':
+                    sb.append(c == 'æ' ? "ae" : "AE");
+                    break;
+                case 'œ':
+                case 'Œ':
+                    sb.append(c == 'œ' ? "oe" : "OE");
+                    break;
+                case 'ł':
+                case 'Ł':
+                    sb.append(c == 'ł' ? "l" : "L");
+                    break;
+                case 'đ':
+                case 'Đ':
+                case 'ð':
+                case 'Ð':
+                    sb.append(c == 'đ' || c == 'ð' ? "d" : "D");
+                    break;
+                case 'þ':
+                case 'Þ':
+                    sb.append(c == 'þ' ? "th" : "TH");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Persistierbarer Sortierschlüssel: Hex-kodierter Collation-Key des normalisierten Wertes.
+     */
+    public static String sortKey(String value) {
+        CollationKey key = COLLATOR.get().getCollationKey(normalize(value));
+        byte[] bytes = key.toByteArray();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Sektion für den Schnellsprung: 'A'..'Z', {@link #SECTION_OTHER} für Ziffern und Zeichen,
+     * {@link #SECTION_NON_LATIN} für andere Schriften. Die Reihenfolge der Sektionen entspricht der
+     * Reihenfolge der Sortierschlüssel.
+     */
+    public static char sectionOf(String value) {
+        String normalized = normalize(value);
+        if (normalized.isEmpty()) {
+            return SECTION_OTHER;
+        }
+        char c = normalized.charAt(0);
+        if (c >= 'a' && c <= 'z') {
+            return Character.toUpperCase(c);
+        }
+        // Satzzeichen und Ziffern sortiert der Collator vor alle Buchstaben.
+        return Character.isLetter(c) ? SECTION_NON_LATIN : SECTION_OTHER;
+    }
+}
@@ -0,0 +1,399 @@
+package com.example.myapplication;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.OperationCanceledException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SqlitePlaylistStore ist der {@link PlaylistStore} der App über den {@link TrackDatabaseHelper}.
+ * Die Mitgliedschaft in Smart-Playlists ist in "playlist_tracks" gespeichert und wird inkrementell gepflegt:
+ * beim Einfügen für die neuen IDs, beim Aufsummieren der Wiedergabe-Ereignisse für die gespielten Tracks.
+ */
+public class SqlitePlaylistStore implements PlaylistStore {
+    private static final String TAG = "SqlitePlaylistStore";
+
+    private final TrackDatabaseHelper dbHelper;
+    // Smart-Playlists mit Regeln; werden bei jedem Scan-Batch ausgewertet, null = neu zu laden
+    private volatile List<Playlist> smartPlaylists;
+
+    public SqlitePlaylistStore(TrackDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    @Override
+    public List<Playlist> getPlaylists() {
+        List<Playlist> playlists = new ArrayList<>();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            pruneExpiredMembers(db);
+            cursor = db.rawQuery("SELECT p." + TrackDatabaseHelper.COLUMN_ID + ", p." + TrackDatabaseHelper.COLUMN_NAME +
+                    ", p." + TrackDatabaseHelper.COLUMN_RULE + ", p." + TrackDatabaseHelper.COLUMN_SYSTEM_KEY +
+                    ", (SELECT COUNT(*) FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " pt JOIN " +
+                    TrackDatabaseHelper.TABLE_TRACKS + " t ON t." + TrackDatabaseHelper.COLUMN_ID + " = pt." +
+                    TrackDatabaseHelper.COLUMN_TRACK_ID + " WHERE pt." + TrackDatabaseHelper.COLUMN_PLAYLIST_ID +
+                    " = p." + TrackDatabaseHelper.COLUMN_ID + " AND t.deleted = 0) FROM " +
+                    TrackDatabaseHelper.TABLE_PLAYLISTS + " p ORDER BY p." + TrackDatabaseHelper.COLUMN_SYSTEM_KEY +
+                    " IS NULL, p." + TrackDatabaseHelper.COLUMN_NAME, null);
+            while (cursor.moveToNext()) {
+                playlists.add(new Playlist(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getInt(4)));
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der Playlists", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return playlists;
+    }
+
+    @Override
+    public long getSystemPlaylistId(String systemKey) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            return DatabaseUtils.longForQuery(db, "SELECT " + TrackDatabaseHelper.COLUMN_ID + " FROM " +
+                    TrackDatabaseHelper.TABLE_PLAYLISTS + " WHERE " + TrackDatabaseHelper.COLUMN_SYSTEM_KEY + " = ?",
+                    new String[]{systemKey});
+        } catch (Exception e) {
+            AppLog.e(TAG, "System-Playlist nicht gefunden: " + systemKey, e);
+            return -1;
+        }
+    }
+
+    @Override
+    public long createPlaylist(String name, PlaylistRule rule) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_NAME, name);
+            if (rule != null) {
+                values.put(TrackDatabaseHelper.COLUMN_RULE, rule.toString());
+            }
+            values.put(TrackDatabaseHelper.COLUMN_CREATED_AT, System.currentTimeMillis());
+            long id = db.insert(TrackDatabaseHelper.TABLE_PLAYLISTS, null, values);
+            if (id != -1 && rule != null) {
+                evaluatePlaylist(db, id, rule, "deleted = 0", null, false);
+            }
+            db.setTransactionSuccessful();
+            smartPlaylists = null;
+            return id;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Anlegen der Playlist " + name, e);
+            return -1;
+        } finally {
+            if (db != null) {
+                db.endTransaction();
+            }
+        }
+    }
+
+    @Override
+    public void deletePlaylist(long playlistId) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            String[] args = {String.valueOf(playlistId)};
+            db.delete(TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS, TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = ?", args);
+            db.delete(TrackDatabaseHelper.TABLE_PLAYLISTS, TrackDatabaseHelper.COLUMN_ID + " = ?", args);
+            smartPlaylists = null;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Löschen der Playlist " + playlistId, e);
+        }
+    }
+
+    @Override
+    public void addTrackToPlaylist(long playlistId, long trackId) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.execSQL("INSERT OR IGNORE INTO " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " (" +
+                            TrackDatabaseHelper.COLUMN_PLAYLIST_ID + ", " + TrackDatabaseHelper.COLUMN_TRACK_ID + ", " +
+                            TrackDatabaseHelper.COLUMN_POSITION + ") SELECT ?, ?, COALESCE(MAX(" +
+                            TrackDatabaseHelper.COLUMN_POSITION + "), 0) + 1 FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS +
+                            " WHERE " + TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = ?",
+                    new Object[]{playlistId, trackId, playlistId});
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Hinzufügen zu Playlist " + playlistId, e);
+        }
+    }
+
+    @Override
+    public List<Track> getPlaylistTracks(long playlistId, QueryCancellation cancellation) {
+        Playlist smart = findSmartPlaylist(playlistId);
+        if (smart != null) {
+            SQLiteDatabase db = null;
+            try {
+                // Gespeicherte Regeln aus älteren Versionen können inzwischen ungültig sein (z. B. "added_days = 3")
+                if (PlaylistRule.parse(smart.getRule()).isTimeRelative()) {
+                    db = dbHelper.getWritableDatabase();
+                    pruneExpiredMembers(db);
+                }
+            } catch (Exception e) {
+                AppLog.e(TAG, "Fehler beim Nachprüfen der Playlist " + playlistId, e);
+            }
+        }
+        // Die Mitgliedschaft ist gespeichert; es wird keine Regel über die Bibliothek ausgewertet.
+        String members = TrackDatabaseHelper.COLUMN_ID + " IN (SELECT " + TrackDatabaseHelper.COLUMN_TRACK_ID + " FROM " +
+                TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " WHERE " + TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = ?)";
+        String orderBy = smart != null
+                ? TrackDatabaseHelper.COLUMN_ADDED_AT + " DESC, " + SqliteTrackStore.TITLE_ORDER
+                : "(SELECT " + TrackDatabaseHelper.COLUMN_POSITION + " FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS +
+                " WHERE " + TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = " + playlistId + " AND " +
+                TrackDatabaseHelper.COLUMN_TRACK_ID + " = " + TrackDatabaseHelper.TABLE_TRACKS + "." +
+                TrackDatabaseHelper.COLUMN_ID + ")";
+        return queryTracks(members + " AND deleted = 0", new String[]{String.valueOf(playlistId)}, orderBy, null,
+                cancellation);
+    }
+
+    @Override
+    public void addNewTracksToSmartPlaylists() {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                long evaluated = SqliteTrackStore.readMetaLong(db, TrackDatabaseHelper.META_SMART_PLAYLIST_ID);
+                long maxId = DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX(" + TrackDatabaseHelper.COLUMN_ID +
+                        "), 0) FROM " + TrackDatabaseHelper.TABLE_TRACKS, null);
+                if (maxId <= evaluated) {
+                    return;
+                }
+                updateSmartPlaylists(db, TrackDatabaseHelper.COLUMN_ID + " > ? AND " +
+                                TrackDatabaseHelper.COLUMN_ID + " <= ?",
+                        new String[]{String.valueOf(evaluated), String.valueOf(maxId)}, false);
+                SqliteTrackStore.writeMeta(db, TrackDatabaseHelper.META_SMART_PLAYLIST_ID, String.valueOf(maxId));
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Auswerten der Smart-Playlists", e);
+        }
+    }
+
+    private Playlist findSmartPlaylist(long playlistId) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            for (Playlist playlist : loadSmartPlaylists(db)) {
+                if (playlist.getId() == playlistId) {
+                    return playlist;
+                }
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der Smart-Playlists", e);
+        }
+        return null;
+    }
+
+    private List<Playlist> loadSmartPlaylists(SQLiteDatabase db) {
+        List<Playlist> cached = smartPlaylists;
+        if (cached != null) {
+            return cached;
+        }
+        List<Playlist> loaded = new ArrayList<>();
+        try (Cursor cursor = db.query(TrackDatabaseHelper.TABLE_PLAYLISTS,
+                new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_NAME,
+                        TrackDatabaseHelper.COLUMN_RULE, TrackDatabaseHelper.COLUMN_SYSTEM_KEY},
+                TrackDatabaseHelper.COLUMN_RULE + " IS NOT NULL", null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                loaded.add(new Playlist(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), 0));
+            }
+        }
+        smartPlaylists = loaded;
+        return loaded;
+    }
+
+    /**
+     * Wertet alle Smart-Playlists nur für die Tracks aus, die {@code scope} erfüllen, z. B. die IDs eines
+     * gerade eingefügten Batches. Passende Tracks werden aufgenommen; mit {@code removeNonMatching} werden
+     * Tracks im Bereich, die nicht mehr passen, entfernt (nach Änderungen an vorhandenen Tracks).
+     */
+    private void updateSmartPlaylists(SQLiteDatabase db, String scope, String[] scopeArgs, boolean removeNonMatching) {
+        for (Playlist playlist : loadSmartPlaylists(db)) {
+            try {
+                evaluatePlaylist(db, playlist.getId(), PlaylistRule.parse(playlist.getRule()),
+                        "deleted = 0 AND " + scope, scopeArgs, removeNonMatching);
+            } catch (IllegalArgumentException e) {
+                AppLog.w(TAG, "Ungültige Regel in Playlist " + playlist.getName() + ": " + playlist.getRule(), e);
+            }
+        }
+    }
+
+    private static void evaluatePlaylist(SQLiteDatabase db, long playlistId, PlaylistRule rule, String scope,
+                                         String[] scopeArgs, boolean removeNonMatching) {
+        PlaylistRule.Sql sql = rule.compile(System.currentTimeMillis());
+        List<Object> args = new ArrayList<>();
+        args.add(playlistId);
+        if (scopeArgs != null) {
+            Collections.addAll(args, (Object[]) scopeArgs);
+        }
+        Collections.addAll(args, (Object[]) sql.args);
+        db.execSQL("INSERT OR IGNORE INTO " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " (" +
+                TrackDatabaseHelper.COLUMN_PLAYLIST_ID + ", " + TrackDatabaseHelper.COLUMN_TRACK_ID + ") " +
+                "SELECT ?, " + TrackDatabaseHelper.COLUMN_ID + " FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                " WHERE " + scope + " AND (" + sql.where + ")", args.toArray());
+        if (removeNonMatching) {
+            db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " WHERE " +
+                    TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = ? AND " + TrackDatabaseHelper.COLUMN_TRACK_ID +
+                    " IN (SELECT " + TrackDatabaseHelper.COLUMN_ID + " FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                    " WHERE " + scope + " AND NOT (" + sql.where + "))", args.toArray());
+        }
+    }
+
+    /**
+     * Entfernt aus zeitabhängigen Smart-Playlists ("in den letzten 7 Tagen") die Mitglieder, deren Zeitraum
+     * abgelaufen ist. Geprüft werden nur die bisherigen Mitglieder, nicht die ganze Bibliothek.
+     */
+    private void pruneExpiredMembers(SQLiteDatabase db) {
+        for (Playlist playlist : loadSmartPlaylists(db)) {
+            try {
+                PlaylistRule rule = PlaylistRule.parse(playlist.getRule());
+                if (rule.isTimeRelative()) {
+                    evaluatePlaylist(db, playlist.getId(), rule, TrackDatabaseHelper.COLUMN_ID + " IN (SELECT " +
+                            TrackDatabaseHelper.COLUMN_TRACK_ID + " FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS +
+                            " WHERE " + TrackDatabaseHelper.COLUMN_PLAYLIST_ID + " = " + playlist.getId() + ")",
+                            null, true);
+                }
+            } catch (IllegalArgumentException e) {
+                AppLog.w(TAG, "Ungültige Regel in Playlist " + playlist.getName(), e);
+            }
+        }
+    }
+
+    @Override
+    public void insertPlayEvents(List<PlayEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        SQLiteDatabase db = null;
+        SQLiteStatement insert = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            insert = db.compileStatement("INSERT INTO " + TrackDatabaseHelper.TABLE_PLAY_EVENTS + " (" +
+                    TrackDatabaseHelper.COLUMN_TRACK_ID + ", " + TrackDatabaseHelper.COLUMN_STARTED_AT + ", " +
+                    TrackDatabaseHelper.COLUMN_LISTENED_MS + ", " + TrackDatabaseHelper.COLUMN_SKIPPED + ") VALUES (?, ?, ?, ?)");
+            for (PlayEvent event : events) {
+                insert.bindLong(1, event.getTrackId());
+                insert.bindLong(2, event.getStartedAt());
+                insert.bindLong(3, event.getListenedMs());
+                insert.bindLong(4, event.isSkipped() ? 1 : 0);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+            AppLog.d(TAG, events.size() + " Wiedergabe-Ereignisse gespeichert");
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Speichern der Wiedergabe-Ereignisse", e);
+        } finally {
+            if (insert != null) {
+                insert.close();
+            }
+            if (db != null) {
+                db.endTransaction();
+            }
+        }
+    }
+
+    /**
+     * Der Stand wird in library_meta gemerkt, sodass jedes Ereignis genau einmal gezählt wird; play_events
+     * vergibt seine IDs per AUTOINCREMENT, der Zeiger bleibt also auch nach dem Löschen gültig.
+     */
+    @Override
+    public void rollUpPlayEvents() {
+        SQLiteDatabase db = null;
+        SQLiteStatement update = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            long fromId = SqliteTrackStore.readMetaLong(db, TrackDatabaseHelper.META_PLAY_ROLLUP_ID);
+            long toId = DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX(" + TrackDatabaseHelper.COLUMN_ID +
+                    "), 0) FROM " + TrackDatabaseHelper.TABLE_PLAY_EVENTS, null);
+            if (toId <= fromId) {
+                db.setTransactionSuccessful();
+                return;
+            }
+            String[] range = {String.valueOf(fromId), String.valueOf(toId)};
+            update = db.compileStatement("UPDATE " + TrackDatabaseHelper.TABLE_TRACKS + " SET " +
+                    TrackDatabaseHelper.COLUMN_PLAY_COUNT + " = " + TrackDatabaseHelper.COLUMN_PLAY_COUNT + " + ?, " +
+                    TrackDatabaseHelper.COLUMN_SKIP_COUNT + " = " + TrackDatabaseHelper.COLUMN_SKIP_COUNT + " + ?, " +
+                    TrackDatabaseHelper.COLUMN_LISTENED_MS + " = " + TrackDatabaseHelper.COLUMN_LISTENED_MS + " + ?, " +
+                    TrackDatabaseHelper.COLUMN_LAST_PLAYED_AT + " = MAX(" + TrackDatabaseHelper.COLUMN_LAST_PLAYED_AT +
+                    ", ?) WHERE " + TrackDatabaseHelper.COLUMN_ID + " = ?");
+            int tracks = 0;
+            try (Cursor cursor = db.rawQuery("SELECT " + TrackDatabaseHelper.COLUMN_TRACK_ID +
+                    ", SUM(1 - " + TrackDatabaseHelper.COLUMN_SKIPPED + "), SUM(" + TrackDatabaseHelper.COLUMN_SKIPPED +
+                    "), SUM(" + TrackDatabaseHelper.COLUMN_LISTENED_MS + "), MAX(" + TrackDatabaseHelper.COLUMN_STARTED_AT +
+                    ") FROM " + TrackDatabaseHelper.TABLE_PLAY_EVENTS + " WHERE " + TrackDatabaseHelper.COLUMN_ID +
+                    " > ? AND " + TrackDatabaseHelper.COLUMN_ID + " <= ? GROUP BY " + TrackDatabaseHelper.COLUMN_TRACK_ID, range)) {
+                while (cursor.moveToNext()) {
+                    update.bindLong(1, cursor.getLong(1));
+                    update.bindLong(2, cursor.getLong(2));
+                    update.bindLong(3, cursor.getLong(3));
+                    update.bindLong(4, cursor.getLong(4));
+                    update.bindLong(5, cursor.getLong(0));
+                    update.executeUpdateDelete();
+                    tracks++;
+                }
+            }
+            // Regeln wie "nie gespielt" hängen an play_count: nur die gerade gezählten Tracks neu bewerten.
+            updateSmartPlaylists(db, TrackDatabaseHelper.COLUMN_ID + " IN (SELECT " + TrackDatabaseHelper.COLUMN_TRACK_ID +
+                    " FROM " + TrackDatabaseHelper.TABLE_PLAY_EVENTS + " WHERE " + TrackDatabaseHelper.COLUMN_ID +
+                    " > ? AND " + TrackDatabaseHelper.COLUMN_ID + " <= ?)", range, true);
+            SqliteTrackStore.writeMeta(db, TrackDatabaseHelper.META_PLAY_ROLLUP_ID, String.valueOf(toId));
+            db.setTransactionSuccessful();
+            AppLog.d(TAG, "Wiedergabezähler fortgeschrieben: " + (toId - fromId) + " Ereignisse, " + tracks + " Tracks");
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Aufsummieren der Wiedergabe-Ereignisse", e);
+        } finally {
+            if (update != null) {
+                update.close();
+            }
+            if (db != null) {
+                db.endTransaction();
+            }
+        }
+    }
+
+    @Override
+    public List<Track> getRecentlyPlayed(int limit, QueryCancellation cancellation) {
+        // Liest über den Index (deleted, last_played_at)
+        return queryTracks("deleted = 0 AND " + TrackDatabaseHelper.COLUMN_LAST_PLAYED_AT + " > 0", null,
+                TrackDatabaseHelper.COLUMN_LAST_PLAYED_AT + " DESC", String.valueOf(limit), cancellation);
+    }
+
+    @Override
+    public List<Track> getMostPlayed(int limit, QueryCancellation cancellation) {
+        // Liest über den Index auf play_count
+        return queryTracks("deleted = 0 AND " + TrackDatabaseHelper.COLUMN_PLAY_COUNT + " > 0", null,
+                TrackDatabaseHelper.COLUMN_PLAY_COUNT + " DESC", String.valueOf(limit), cancellation);
+    }
+
+    private List<Track> queryTracks(String selection, String[] selectionArgs, String orderBy, String limit,
+                                    QueryCancellation cancellation) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            return SqliteTrackStore.queryTracks(db, selection, selectionArgs, orderBy, limit, cancellation);
+        } catch (OperationCanceledException e) {
+            throw e;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der Tracks", e);
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.myapplication;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SqliteReportStore ist der {@link ReportStore} der App über die Tabellen "scan_reports" und
+ * "maintenance_reports".
+ */
+public class SqliteReportStore implements ReportStore {
+    private static final String TAG = "SqliteReportStore";
+
+    private final TrackDatabaseHelper dbHelper;
+
+    public SqliteReportStore(TrackDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    @Override
+    public void saveScanReport(ScanReport report) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_STARTED_AT, report.getStartedAt());
+            values.put(TrackDatabaseHelper.COLUMN_DURATION_MS, report.getDurationMs());
+            values.put(TrackDatabaseHelper.COLUMN_FILES, report.getFiles());
+            values.put(TrackDatabaseHelper.COLUMN_BYTES, report.getBytes());
+            values.put(TrackDatabaseHelper.COLUMN_INSERTED, report.getInserted());
+            values.put(TrackDatabaseHelper.COLUMN_SKIPPED_FILES, report.getSkipped());
+            values.put(TrackDatabaseHelper.COLUMN_ERRORS, report.getErrors());
+            values.put(TrackDatabaseHelper.COLUMN_LIST_MS, report.getListMs());
+            values.put(TrackDatabaseHelper.COLUMN_METADATA_MS, report.getMetadataMs());
+            values.put(TrackDatabaseHelper.COLUMN_DB_WRITE_MS, report.getDbWriteMs());
+            values.put(TrackDatabaseHelper.COLUMN_COMMIT_MS, report.getCommitMs());
+            values.put(TrackDatabaseHelper.COLUMN_METADATA_P50_US, report.getMetadataP50Us());
+            values.put(TrackDatabaseHelper.COLUMN_METADATA_P99_US, report.getMetadataP99Us());
+            db.insert(TrackDatabaseHelper.TABLE_SCAN_REPORTS, null, values);
+            db.delete(TrackDatabaseHelper.TABLE_SCAN_REPORTS, TrackDatabaseHelper.COLUMN_ID + " NOT IN (SELECT " +
+                    TrackDatabaseHelper.COLUMN_ID + " FROM " + TrackDatabaseHelper.TABLE_SCAN_REPORTS +
+                    " ORDER BY " + TrackDatabaseHelper.COLUMN_ID + " DESC LIMIT " + MAX_SCAN_REPORTS + ")", null);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Speichern des Scan-Berichts", e);
+        } finally {
+            if (db != null) {
+                db.endTransaction();
+            }
+        }
+    }
+
+    @Override
+    public List<ScanReport> getScanReports() {
+        List<ScanReport> reports = new ArrayList<>();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            cursor = db.query(TrackDatabaseHelper.TABLE_SCAN_REPORTS, new String[]{
+                            TrackDatabaseHelper.COLUMN_STARTED_AT, TrackDatabaseHelper.COLUMN_DURATION_MS,
+                            TrackDatabaseHelper.COLUMN_FILES, TrackDatabaseHelper.COLUMN_BYTES,
+                            TrackDatabaseHelper.COLUMN_INSERTED, TrackDatabaseHelper.COLUMN_SKIPPED_FILES,
+                            TrackDatabaseHelper.COLUMN_ERRORS, TrackDatabaseHelper.COLUMN_LIST_MS,
+                            TrackDatabaseHelper.COLUMN_METADATA_MS, TrackDatabaseHelper.COLUMN_DB_WRITE_MS,
+                            TrackDatabaseHelper.COLUMN_COMMIT_MS, TrackDatabaseHelper.COLUMN_METADATA_P50_US,
+                            TrackDatabaseHelper.COLUMN_METADATA_P99_US},
+                    null, null, null, null, TrackDatabaseHelper.COLUMN_ID + " DESC");
+            while (cursor.moveToNext()) {
+                reports.add(new ScanReport(cursor.getLong(0), cursor.getLong(1), cursor.getLong(2),
+                        cursor.getLong(3), cursor.getLong(4), cursor.getLong(5), cursor.getLong(6),
+                        cursor.getLong(7), cursor.getLong(8), cursor.getLong(9), cursor.getLong(10),
+                        cursor.getLong(11), cursor.getLong(12)));
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Lesen der Scan-Berichte", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return reports;
+    }
+
+    @Override
+    public void saveMaintenanceReport(MaintenanceReport report) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_STARTED_AT, report.getStartedAt());
+            values.put(TrackDatabaseHelper.COLUMN_DURATION_MS, report.getDurationMs());
+            values.put(TrackDatabaseHelper.COLUMN_PAGE_SIZE, report.getBefore().getPageSize());
+            values.put(TrackDatabaseHelper.COLUMN_PAGES_BEFORE, report.getBefore().getPageCount());
+            values.put(TrackDatabaseHelper.COLUMN_FREE_PAGES_BEFORE, report.getBefore().getFreePages());
+            values.put(TrackDatabaseHelper.COLUMN_WAL_BYTES_BEFORE, report.getBefore().getWalBytes());
+            values.put(TrackDatabaseHelper.COLUMN_PAGES_AFTER, report.getAfter().getPageCount());
+            values.put(TrackDatabaseHelper.COLUMN_FREE_PAGES_AFTER, report.getAfter().getFreePages());
+            values.put(TrackDatabaseHelper.COLUMN_WAL_BYTES_AFTER, report.getAfter().getWalBytes());
+            values.put(TrackDatabaseHelper.COLUMN_PURGED, report.getPurged());
+            values.put(TrackDatabaseHelper.COLUMN_VACUUMED_PAGES, report.getVacuumedPages());
+            values.put(TrackDatabaseHelper.COLUMN_COMPLETE, report.isComplete() ? 1 : 0);
+            db.insert(TrackDatabaseHelper.TABLE_MAINTENANCE_REPORTS, null, values);
+            db.delete(TrackDatabaseHelper.TABLE_MAINTENANCE_REPORTS, TrackDatabaseHelper.COLUMN_ID + " NOT IN (SELECT " +
+                    TrackDatabaseHelper.COLUMN_ID + " FROM " + TrackDatabaseHelper.TABLE_MAINTENANCE_REPORTS +
+                    " ORDER BY " + TrackDatabaseHelper.COLUMN_ID + " DESC LIMIT " + MAX_MAINTENANCE_REPORTS + ")", null);
+            db.setTransactionSuccessful();
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Speichern des Wartungsberichts", e);
+        } finally {
+            if (db != null) {
+                db.endTransaction();
+            }
+        }
+    }
+
+    @Override
+    public List<MaintenanceReport> getMaintenanceReports() {
+        List<MaintenanceReport> reports = new ArrayList<>();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            cursor = db.query(TrackDatabaseHelper.TABLE_MAINTENANCE_REPORTS, new String[]{
+                            TrackDatabaseHelper.COLUMN_STARTED_AT, TrackDatabaseHelper.COLUMN_DURATION_MS,
+                            TrackDatabaseHelper.COLUMN_PAGE_SIZE, TrackDatabaseHelper.COLUMN_PAGES_BEFORE,
+                            TrackDatabaseHelper.COLUMN_FREE_PAGES_BEFORE, TrackDatabaseHelper.COLUMN_WAL_BYTES_BEFORE,
+                            TrackDatabaseHelper.COLUMN_PAGES_AFTER, TrackDatabaseHelper.COLUMN_FREE_PAGES_AFTER,
+                            TrackDatabaseHelper.COLUMN_WAL_BYTES_AFTER, TrackDatabaseHelper.COLUMN_PURGED,
+                            TrackDatabaseHelper.COLUMN_VACUUMED_PAGES, TrackDatabaseHelper.COLUMN_COMPLETE},
+                    null, null, null, null, TrackDatabaseHelper.COLUMN_ID + " DESC");
+            while (cursor.moveToNext()) {
+                long pageSize = cursor.getLong(2);
+                reports.add(new MaintenanceReport(cursor.getLong(0), cursor.getLong(1),
+                        new DatabaseStats(pageSize, cursor.getLong(3), cursor.getLong(4), cursor.getLong(5)),
+                        new DatabaseStats(pageSize, cursor.getLong(6), cursor.getLong(7), cursor.getLong(8)),
+                        cursor.getLong(9), cursor.getLong(10), cursor.getInt(11) != 0));
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Lesen der Wartungsberichte", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.myapplication;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SqliteTrackAnalysisStore ist der {@link TrackAnalysisStore} der App. Die Ergebnisse liegen in Spalten der
+ * Track-Tabelle (seek_index, loudness_*, track_gain, album_gain, content_hash, fingerprint, duplicate_of).
+ */
+public class SqliteTrackAnalysisStore implements TrackAnalysisStore {
+    private static final String TAG = "SqliteTrackAnalysis";
+
+    private final TrackDatabaseHelper dbHelper;
+
+    public SqliteTrackAnalysisStore(TrackDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    @Override
+    public SeekIndex getSeekIndex(long trackId) {
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_SEEK_INDEX},
+                    TrackDatabaseHelper.COLUMN_ID + " = ?", new String[]{String.valueOf(trackId)},
+                    null, null, null);
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return SeekIndex.fromBytes(cursor.getBlob(0));
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Lesen des Seek-Index für Track " + trackId, e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void saveSeekIndex(long trackId, SeekIndex index) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_SEEK_INDEX, index.toBytes());
+            db.update(TrackDatabaseHelper.TABLE_TRACKS, values,
+                    TrackDatabaseHelper.COLUMN_ID + " = ?", new String[]{String.valueOf(trackId)});
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Speichern des Seek-Index für Track " + trackId, e);
+        }
+    }
+
+    @Override
+    public List<Track> getTracksPendingLoudness(int limit) {
+        List<Track> tracks = new ArrayList<>();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_TITLE,
+                            TrackDatabaseHelper.COLUMN_URI, TrackDatabaseHelper.COLUMN_ALBUM,
+                            TrackDatabaseHelper.COLUMN_ARTIST},
+                    TrackDatabaseHelper.COLUMN_LOUDNESS_STATE + " = ? AND deleted = 0",
+                    new String[]{String.valueOf(TrackDatabaseHelper.LOUDNESS_PENDING)},
+                    null, null, TrackDatabaseHelper.COLUMN_ID, String.valueOf(limit));
+            while (cursor != null && cursor.moveToNext()) {
+                tracks.add(new Track.Builder(cursor.getString(1), cursor.getString(2))
+                        .id(cursor.getLong(0))
+                        .album(cursor.getString(3))
+                        .artist(cursor.isNull(4) ? "" : cursor.getString(4))
+                        .build());
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der noch nicht analysierten Tracks", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return tracks;
+    }
+
+    @Override
+    public boolean saveLoudness(long trackId, double lufs, int blocks, double truePeak) {
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_LUFS, lufs);
+        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_BLOCKS, blocks);
+        values.put(TrackDatabaseHelper.COLUMN_TRACK_GAIN, LoudnessMeter.gainForLoudness(lufs));
+        values.put(TrackDatabaseHelper.COLUMN_TRACK_PEAK, truePeak);
+        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_STATE, TrackDatabaseHelper.LOUDNESS_ANALYZED);
+        return updateTrack(trackId, values);
+    }
+
+    @Override
+    public boolean markLoudnessFailed(long trackId) {
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_STATE, TrackDatabaseHelper.LOUDNESS_FAILED);
+        return updateTrack(trackId, values);
+    }
+
+    @Override
+    public boolean updateAlbumGain(String artist, String album) {
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        String albumSelection = TrackDatabaseHelper.COLUMN_ARTIST + " = ? AND "
+                + TrackDatabaseHelper.COLUMN_ALBUM + " = ? AND deleted = 0";
+        String[] albumArgs = {artist, album};
+        try {
+            db = dbHelper.getWritableDatabase();
+            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_LOUDNESS_LUFS, TrackDatabaseHelper.COLUMN_LOUDNESS_BLOCKS,
+                            TrackDatabaseHelper.COLUMN_TRACK_PEAK, TrackDatabaseHelper.COLUMN_LOUDNESS_STATE},
+                    albumSelection, albumArgs, null, null, null);
+            int count = cursor.getCount();
+            double[] lufs = new double[count];
+            int[] blocks = new int[count];
+            double albumPeak = 0;
+            int i = 0;
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(3) == TrackDatabaseHelper.LOUDNESS_PENDING) {
+                    return false; // Album noch nicht vollständig analysiert
+                }
+                lufs[i] = cursor.isNull(0) ? Double.NaN : cursor.getDouble(0);
+                blocks[i] = cursor.getInt(1);
+                if (!cursor.isNull(2)) {
+                    albumPeak = Math.max(albumPeak, cursor.getDouble(2));
+                }
+                i++;
+            }
+            double albumLufs = LoudnessMeter.combineLoudness(lufs, blocks);
+            if (Double.isInfinite(albumLufs)) {
+                return false;
+            }
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_ALBUM_GAIN, LoudnessMeter.gainForLoudness(albumLufs));
+            values.put(TrackDatabaseHelper.COLUMN_ALBUM_PEAK, albumPeak);
+            // Album-Gains aus Tags bleiben erhalten; Tag-Tracks ohne Album-Gain erhalten den berechneten Wert
+            return db.update(TrackDatabaseHelper.TABLE_TRACKS, values, albumSelection + " AND NOT ("
+                    + TrackDatabaseHelper.COLUMN_LOUDNESS_STATE + " = " + TrackDatabaseHelper.LOUDNESS_FROM_TAGS
+                    + " AND " + TrackDatabaseHelper.COLUMN_ALBUM_GAIN + " IS NOT NULL)", albumArgs) > 0;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Berechnen des Album-Gains für " + artist + " – " + album, e);
+            return false;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Override
+    public List<Track> getTracksPendingDedup(int limit, boolean withAcoustic) {
+        List<Track> tracks = new ArrayList<>();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            String selection = withAcoustic
+                    ? TrackDatabaseHelper.COLUMN_DEDUP_STATE + " IN (?, ?) AND deleted = 0"
+                    : TrackDatabaseHelper.COLUMN_DEDUP_STATE + " = ? AND deleted = 0";
+            String[] selectionArgs = withAcoustic
+                    ? new String[]{String.valueOf(TrackDatabaseHelper.DEDUP_PENDING), String.valueOf(TrackDatabaseHelper.DEDUP_HASHED)}
+                    : new String[]{String.valueOf(TrackDatabaseHelper.DEDUP_PENDING)};
+            cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_TITLE,
+                            TrackDatabaseHelper.COLUMN_URI, TrackDatabaseHelper.COLUMN_DURATION_MS},
+                    selection, selectionArgs, null, null, TrackDatabaseHelper.COLUMN_ID, String.valueOf(limit));
+            while (cursor != null && cursor.moveToNext()) {
+                tracks.add(new Track.Builder(cursor.getString(1), cursor.getString(2))
+                        .id(cursor.getLong(0))
+                        .durationMs(cursor.getLong(3))
+                        .build());
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der noch nicht abgeglichenen Tracks", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return tracks;
+    }
+
+    @Override
+    public boolean saveDedupData(long trackId, String contentHash, long[] fingerprint, boolean acousticAttempted) {
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_CONTENT_HASH, contentHash);
+        if (fingerprint != null) {
+            values.put(TrackDatabaseHelper.COLUMN_FINGERPRINT, DuplicateIndex.toBytes(fingerprint));
+        }
+        values.put(TrackDatabaseHelper.COLUMN_DEDUP_STATE, acousticAttempted
+                ? TrackDatabaseHelper.DEDUP_FINGERPRINTED : TrackDatabaseHelper.DEDUP_HASHED);
+        return updateTrack(trackId, values);
+    }
+
+    @Override
+    public boolean markDedupFailed(long trackId) {
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_DEDUP_STATE, TrackDatabaseHelper.DEDUP_FAILED);
+        return updateTrack(trackId, values);
+    }
+
+    /**
+     * Hashes und Fingerabdrücke werden einmal gelesen; Kandidatenpaare liefert {@link DuplicateIndex} per LSH.
+     */
+    @Override
+    public int updateDuplicateGroups(List<Long> changedIds) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            DuplicateIndex index = new DuplicateIndex();
+            Map<Integer, Integer> current = new HashMap<>();
+            try (Cursor cursor = db.query(TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_CONTENT_HASH,
+                            TrackDatabaseHelper.COLUMN_FINGERPRINT, TrackDatabaseHelper.COLUMN_DUPLICATE_OF},
+                    "deleted = 0 AND " + TrackDatabaseHelper.COLUMN_DEDUP_STATE + " IN (?, ?)",
+                    new String[]{String.valueOf(TrackDatabaseHelper.DEDUP_HASHED),
+                            String.valueOf(TrackDatabaseHelper.DEDUP_FINGERPRINTED)},
+                    null, null, TrackDatabaseHelper.COLUMN_ID)) {
+                while (cursor.moveToNext()) {
+                    int id = cursor.getInt(0);
+                    index.add(id, cursor.getString(1), DuplicateIndex.fromBytes(cursor.getBlob(2)));
+                    int duplicateOf = cursor.getInt(3);
+                    if (duplicateOf != 0) {
+                        current.put(id, duplicateOf);
+                    }
+                }
+            }
+            Map<Integer, Integer> representatives = index.representatives();
+
+            List<Long> changed = new ArrayList<>();
+            db.beginTransaction();
+            SQLiteStatement assign = db.compileStatement("UPDATE " + TrackDatabaseHelper.TABLE_TRACKS + " SET " +
+                    TrackDatabaseHelper.COLUMN_DUPLICATE_OF + " = ? WHERE " + TrackDatabaseHelper.COLUMN_ID + " = ?");
+            try {
+                for (Map.Entry<Integer, Integer> entry : current.entrySet()) {
+                    if (!representatives.containsKey(entry.getKey())) {
+                        assign.bindLong(1, 0);
+                        assign.bindLong(2, entry.getKey());
+                        assign.executeUpdateDelete();
+                        changed.add((long) entry.getKey());
+                    }
+                }
+                for (Map.Entry<Integer, Integer> entry : representatives.entrySet()) {
+                    if (!entry.getValue().equals(current.get(entry.getKey()))) {
+                        assign.bindLong(1, entry.getValue());
+                        assign.bindLong(2, entry.getKey());
+                        assign.executeUpdateDelete();
+                        changed.add((long) entry.getKey());
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                assign.close();
+                db.endTransaction();
+            }
+            changedIds.addAll(changed);
+            AppLog.d(TAG, "Dublettengruppen aktualisiert: " + representatives.size() + " Dubletten, "
+                    + index.getComparisons() + " Fingerabdruck-Vergleiche");
+            return representatives.size();
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Bilden der Dublettengruppen", e);
+            return 0;
+        }
+    }
+
+    /**
+     * @return true, wenn die Zeile geändert wurde.
+     */
+    private boolean updateTrack(long trackId, ContentValues values) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            int updated = db.update(TrackDatabaseHelper.TABLE_TRACKS, values,
+                    TrackDatabaseHelper.COLUMN_ID + " = ?", new String[]{String.valueOf(trackId)});
+            return updated > 0;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Aktualisieren von Track " + trackId, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,810 @@
+package com.example.myapplication;
+
+import android.content.ContentValues;
+import android.database.CharArrayBuffer;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SqliteTrackStore ist die {@link TrackStore}-Engine der App über den {@link TrackDatabaseHelper}.
+ * Neben der Track-Tabelle pflegt sie in denselben Transaktionen die Zusammenfassungen "artists" und "albums"
+ * sowie die Generation in "library_meta".
+ * <p>
+ * Lesende Abfragen reichen ihre {@link QueryCancellation} als {@link CancellationSignal} an SQLite weiter; ein
+ * Abbruch beendet den Cursor beim nächsten Füllen des Fensters mit {@link OperationCanceledException}.
+ */
+public class SqliteTrackStore implements TrackStore {
+    private static final String TAG = "SqliteTrackStore";
+
+    static final String TITLE_ORDER =
+            TrackDatabaseHelper.COLUMN_TITLE_SORT + ", " + TrackDatabaseHelper.COLUMN_ID;
+    // Gesamtliste: gelöschte Tracks und zusammengeklappte Dubletten ausblenden
+    static final String VISIBLE_TRACKS =
+            "deleted = 0 AND " + TrackDatabaseHelper.COLUMN_DUPLICATE_OF + " = 0";
+    // Spalten, aus denen queryTracks einen Track aufbaut
+    static final String[] TRACK_COLUMNS = {
+            TrackDatabaseHelper.COLUMN_ID,
+            TrackDatabaseHelper.COLUMN_TITLE,
+            TrackDatabaseHelper.COLUMN_URI,
+            TrackDatabaseHelper.COLUMN_ARTIST,
+            TrackDatabaseHelper.COLUMN_ALBUM,
+            TrackDatabaseHelper.COLUMN_TRACK_GAIN,
+            TrackDatabaseHelper.COLUMN_TRACK_PEAK,
+            TrackDatabaseHelper.COLUMN_ALBUM_GAIN,
+            TrackDatabaseHelper.COLUMN_ALBUM_PEAK,
+            TrackDatabaseHelper.COLUMN_DURATION_MS,
+            TrackDatabaseHelper.COLUMN_TRACK_NUMBER,
+            TrackDatabaseHelper.COLUMN_GENERATION
+    };
+
+    // Zählt einen neuen Track in die Zusammenfassung seines Interpreten bzw. Albums ein (Upsert).
+    private static final String SQL_ARTIST_ADD =
+            "INSERT INTO " + TrackDatabaseHelper.TABLE_ARTISTS + " (" + TrackDatabaseHelper.COLUMN_NAME + ", " +
+                    TrackDatabaseHelper.COLUMN_SORT_KEY + ", " + TrackDatabaseHelper.COLUMN_TRACK_COUNT + ", " +
+                    TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + ", " + TrackDatabaseHelper.COLUMN_ARTWORK_KEY + ") " +
+                    "VALUES (?, ?, 1, ?, ?) ON CONFLICT(" + TrackDatabaseHelper.COLUMN_NAME + ") DO UPDATE SET " +
+                    TrackDatabaseHelper.COLUMN_TRACK_COUNT + " = " + TrackDatabaseHelper.COLUMN_TRACK_COUNT + " + 1, " +
+                    TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + " = " + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS +
+                    " + excluded." + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + ", " +
+                    TrackDatabaseHelper.COLUMN_ARTWORK_KEY + " = COALESCE(" + TrackDatabaseHelper.COLUMN_ARTWORK_KEY +
+                    ", excluded." + TrackDatabaseHelper.COLUMN_ARTWORK_KEY + ")";
+    private static final String SQL_ALBUM_ADD =
+            "INSERT INTO " + TrackDatabaseHelper.TABLE_ALBUMS + " (" + TrackDatabaseHelper.COLUMN_NAME + ", " +
+                    TrackDatabaseHelper.COLUMN_ARTIST + ", " + TrackDatabaseHelper.COLUMN_SORT_KEY + ", " +
+                    TrackDatabaseHelper.COLUMN_TRACK_COUNT + ", " + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + ", " +
+                    TrackDatabaseHelper.COLUMN_ARTWORK_KEY + ") " +
+                    "VALUES (?, ?, ?, 1, ?, ?) ON CONFLICT(" + TrackDatabaseHelper.COLUMN_NAME + ") DO UPDATE SET " +
+                    TrackDatabaseHelper.COLUMN_TRACK_COUNT + " = " + TrackDatabaseHelper.COLUMN_TRACK_COUNT + " + 1, " +
+                    TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + " = " + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS +
+                    " + excluded." + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + ", " +
+                    TrackDatabaseHelper.COLUMN_ARTWORK_KEY + " = COALESCE(" + TrackDatabaseHelper.COLUMN_ARTWORK_KEY +
+                    ", excluded." + TrackDatabaseHelper.COLUMN_ARTWORK_KEY + "), " +
+                    TrackDatabaseHelper.COLUMN_ARTIST + " = CASE WHEN " + TrackDatabaseHelper.COLUMN_ARTIST +
+                    " = excluded." + TrackDatabaseHelper.COLUMN_ARTIST + " THEN " + TrackDatabaseHelper.COLUMN_ARTIST +
+                    " ELSE '" + TrackDatabaseHelper.VARIOUS_ARTISTS + "' END";
+
+    private final TrackDatabaseHelper dbHelper;
+
+    public SqliteTrackStore(TrackDatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    @Override
+    public void open() {
+        dbHelper.getWritableDatabase();
+    }
+
+    @Override
+    public List<Track> insertTracks(List<Track> tracks, ScanMetrics metrics, List<Track> backfilled) {
+        List<Track> inserted = new ArrayList<>();
+        if (tracks == null || tracks.isEmpty()) {
+            return inserted;
+        }
+
+        List<Track> updated = new ArrayList<>();
+        SQLiteDatabase db = null;
+        int successCount = 0;
+        int errorCount = 0;
+        SQLiteStatement artistAdd = null;
+        SQLiteStatement albumAdd = null;
+        int skippedCount = 0;
+        boolean committed = false;
+        long writeStart = metrics.start();
+
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            // Die Upserts der Zusammenfassungen werden einmal kompiliert und für alle Tracks wiederverwendet.
+            artistAdd = db.compileStatement(SQL_ARTIST_ADD);
+            albumAdd = db.compileStatement(SQL_ALBUM_ADD);
+            long addedAt = System.currentTimeMillis();
+            // Alle in diesem Batch eingefügten oder ergänzten Zeilen erhalten dieselbe neue Generation.
+            long generation = readMetaLong(db, TrackDatabaseHelper.META_GENERATION) + 1;
+            writeMeta(db, TrackDatabaseHelper.META_GENERATION, String.valueOf(generation));
+
+            for (int i = 0; i < tracks.size(); i++) {
+                Track track = tracks.get(i);
+                try {
+                    // Prüfe, ob der Track bereits existiert (exakte Übereinstimmung mit Titel, Artist und URI, deleted = 0)
+                    if (trackExists(db, track)) {
+                        skippedCount++;
+                        backfillMetadata(db, track, generation, updated);
+                        continue;
+                    }
+                    ContentValues values = new ContentValues();
+                    values.put(TrackDatabaseHelper.COLUMN_TITLE, track.getTitle());
+                    values.put(TrackDatabaseHelper.COLUMN_URI, track.getUri());
+                    values.put(TrackDatabaseHelper.COLUMN_ARTIST, track.getArtist());
+                    values.put(TrackDatabaseHelper.COLUMN_ALBUM, track.getAlbum());
+                    values.put(TrackDatabaseHelper.COLUMN_DURATION_MS, track.getDurationMs());
+                    values.put(TrackDatabaseHelper.COLUMN_TRACK_NUMBER, track.getTrackNumber());
+                    values.put(TrackDatabaseHelper.COLUMN_TITLE_SORT, SortKeys.sortKey(track.getTitle()));
+                    values.put(TrackDatabaseHelper.COLUMN_TITLE_SECTION, String.valueOf(SortKeys.sectionOf(track.getTitle())));
+                    values.put(TrackDatabaseHelper.COLUMN_ADDED_AT, addedAt);
+                    values.put(TrackDatabaseHelper.COLUMN_GENERATION, generation);
+                    // Vorhandene ReplayGain-Tags ersparen die spätere Lautheitsanalyse.
+                    if (!Float.isNaN(track.getTrackGain())) {
+                        values.put(TrackDatabaseHelper.COLUMN_TRACK_GAIN, track.getTrackGain());
+                        putIfKnown(values, TrackDatabaseHelper.COLUMN_TRACK_PEAK, track.getTrackPeak());
+                        putIfKnown(values, TrackDatabaseHelper.COLUMN_ALBUM_GAIN, track.getAlbumGain());
+                        putIfKnown(values, TrackDatabaseHelper.COLUMN_ALBUM_PEAK, track.getAlbumPeak());
+                        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_LUFS,
+                                LoudnessMeter.REFERENCE_LUFS - track.getTrackGain());
+                        values.put(TrackDatabaseHelper.COLUMN_LOUDNESS_STATE, TrackDatabaseHelper.LOUDNESS_FROM_TAGS);
+                    }
+                    // Neuen Track als nicht gelöscht markieren (deleted = 0)
+                    values.put(TrackDatabaseHelper.COLUMN_DELETED, 0);
+
+                    long result = db.insert(TrackDatabaseHelper.TABLE_TRACKS, null, values);
+                    if (result != -1) {
+                        successCount++;
+                        track = track.toBuilder().id(result).generation(generation).build();
+                        inserted.add(track);
+                        addToSummaries(artistAdd, albumAdd, track);
+                    } else {
+                        errorCount++;
+                        AppLog.e(TAG, "Fehler beim Einfügen von Track " + (i + 1) + ": " + track.getTitle());
+                    }
+                } catch (Exception e) {
+                    errorCount++;
+                    AppLog.e(TAG, "Exception beim Einfügen von Track " + (i + 1), e);
+                }
+            }
+
+            db.setTransactionSuccessful();
+            committed = true;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Kritischer Fehler in insertTracks", e);
+        } finally {
+            if (artistAdd != null) {
+                artistAdd.close();
+            }
+            if (albumAdd != null) {
+                albumAdd.close();
+            }
+            metrics.stop(ScanMetrics.PHASE_DB_WRITE, writeStart);
+            if (db != null) {
+                long commitStart = metrics.start();
+                try {
+                    db.endTransaction();
+                } catch (Exception e) {
+                    AppLog.e(TAG, "Fehler beim Commit", e);
+                    committed = false;
+                }
+                metrics.stop(ScanMetrics.PHASE_COMMIT, commitStart);
+            }
+        }
+        metrics.add(ScanMetrics.INSERTED, successCount);
+        metrics.add(ScanMetrics.SKIPPED, skippedCount);
+        metrics.add(ScanMetrics.ERRORS, errorCount);
+        // Nach einem Rollback gibt es keine eingefügten oder ergänzten Zeilen, auf die sich Aufrufer beziehen dürften
+        if (!committed) {
+            return new ArrayList<>();
+        }
+        backfilled.addAll(updated);
+        return inserted;
+    }
+
+    @Override
+    public List<Track> getVisibleTracks(QueryCancellation cancellation) {
+        // Alphabetisch über den vorberechneten Sortierschlüssel (Index idx_tracks_title_sort)
+        return queryTracks(VISIBLE_TRACKS, null, TITLE_ORDER, null, cancellation);
+    }
+
+    @Override
+    public List<Track> getTracksPage(int page, int pageSize, String folderUriFilter,
+                                     QueryCancellation cancellation) {
+        // Basis: Nur Tracks, die nicht als gelöscht markiert sind.
+        String selection = "deleted = 0";
+        String[] selectionArgs = null;
+
+        // Wenn ein Filter gesetzt ist, erweitern wir die WHERE-Klausel.
+        if (folderUriFilter != null && !folderUriFilter.trim().isEmpty()) {
+            selection += " AND " + TrackDatabaseHelper.COLUMN_URI + " LIKE ?";
+            selectionArgs = new String[]{ folderUriFilter + "%" };
+        } else {
+            // Ohne Ordnerfilter wie die Gesamtliste; im Ordner selbst bleibt jede Kopie sichtbar.
+            selection = VISIBLE_TRACKS;
+        }
+        String limitClause = pageSize + " OFFSET " + (page * pageSize);
+        return queryTracks(selection, selectionArgs, TITLE_ORDER, limitClause, cancellation);
+    }
+
+    @Override
+    public long getTrackCount() {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            return DatabaseUtils.queryNumEntries(db, TrackDatabaseHelper.TABLE_TRACKS, "deleted = 0");
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Zählen der Tracks", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public List<Track> getTracksForAlbum(String album, QueryCancellation cancellation) {
+        return queryTracks(TrackDatabaseHelper.COLUMN_ALBUM + " = ? AND deleted = 0", new String[]{album},
+                TrackDatabaseHelper.COLUMN_TRACK_NUMBER + ", " + TrackDatabaseHelper.COLUMN_TITLE, null, cancellation);
+    }
+
+    @Override
+    public List<Track> getTracksForArtist(String artist, QueryCancellation cancellation) {
+        return queryTracks(TrackDatabaseHelper.COLUMN_ARTIST + " = ? AND deleted = 0", new String[]{artist},
+                TrackDatabaseHelper.COLUMN_ALBUM + ", " + TrackDatabaseHelper.COLUMN_TRACK_NUMBER + ", " +
+                        TrackDatabaseHelper.COLUMN_TITLE, null, cancellation);
+    }
+
+    @Override
+    public SectionIndex getTitleSectionIndex() {
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            String section = TrackDatabaseHelper.COLUMN_TITLE_SECTION;
+            // Gezählt wird über den Index auf (deleted, duplicate_of, title_section), ohne Zeilen der Tabelle zu lesen.
+            // Reihenfolge wie die Sortierschlüssel: # vor A..Z vor anderen Schriften
+            cursor = db.rawQuery("SELECT " + section + ", COUNT(*) FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                    " WHERE " + VISIBLE_TRACKS + " GROUP BY " + section +
+                    " ORDER BY CASE WHEN " + section + " = '" + SortKeys.SECTION_OTHER + "' THEN 0" +
+                    " WHEN " + section + " BETWEEN 'A' AND 'Z' THEN 1 ELSE 2 END, " + section, null);
+            char[] sectionChars = new char[cursor.getCount()];
+            int[] sectionCounts = new int[sectionChars.length];
+            int i = 0;
+            while (cursor.moveToNext()) {
+                String value = cursor.getString(0);
+                sectionChars[i] = value != null && !value.isEmpty() ? value.charAt(0) : SortKeys.SECTION_OTHER;
+                sectionCounts[i] = cursor.getInt(1);
+                i++;
+            }
+            return new SectionIndex(sectionChars, sectionCounts);
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden des Sektionsindex", e);
+            return SectionIndex.EMPTY;
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Override
+    public List<LibrarySummary> getArtistsPage(LibrarySummary after, int pageSize) {
+        return querySummaryPage(TrackDatabaseHelper.TABLE_ARTISTS, after, pageSize);
+    }
+
+    @Override
+    public List<LibrarySummary> getAlbumsPage(LibrarySummary after, int pageSize) {
+        return querySummaryPage(TrackDatabaseHelper.TABLE_ALBUMS, after, pageSize);
+    }
+
+    @Override
+    public long getArtistCount() {
+        return countRows(TrackDatabaseHelper.TABLE_ARTISTS);
+    }
+
+    @Override
+    public long getAlbumCount() {
+        return countRows(TrackDatabaseHelper.TABLE_ALBUMS);
+    }
+
+    private List<LibrarySummary> querySummaryPage(String table, LibrarySummary after, int pageSize) {
+        List<LibrarySummary> page = new ArrayList<>();
+        boolean albums = TrackDatabaseHelper.TABLE_ALBUMS.equals(table);
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            String selection = null;
+            String[] args = null;
+            if (after != null) {
+                selection = "(" + TrackDatabaseHelper.COLUMN_SORT_KEY + ", " + TrackDatabaseHelper.COLUMN_ID + ") > (?, ?)";
+                args = new String[]{after.getSortKey(), String.valueOf(after.getId())};
+            }
+            cursor = db.query(table,
+                    new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_NAME,
+                            albums ? TrackDatabaseHelper.COLUMN_ARTIST : "''", TrackDatabaseHelper.COLUMN_SORT_KEY,
+                            TrackDatabaseHelper.COLUMN_TRACK_COUNT, TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS,
+                            TrackDatabaseHelper.COLUMN_ARTWORK_KEY},
+                    selection, args, null, null,
+                    TrackDatabaseHelper.COLUMN_SORT_KEY + ", " + TrackDatabaseHelper.COLUMN_ID,
+                    String.valueOf(pageSize));
+            while (cursor.moveToNext()) {
+                page.add(new LibrarySummary(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getString(3), cursor.getInt(4), cursor.getLong(5), cursor.getString(6)));
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden der Zusammenfassung " + table, e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return page;
+    }
+
+    private long countRows(String table) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            return DatabaseUtils.queryNumEntries(db, table);
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Zählen von " + table, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public void logDebugInfo() {
+        AppLog.d(TAG, "=== Database Debug ===");
+        SQLiteDatabase db = null;
+
+        try {
+            db = dbHelper.getReadableDatabase();
+
+            // Prüfen ob Tabelle existiert
+            Cursor tableCursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type='table' AND name='" + TrackDatabaseHelper.TABLE_TRACKS + "'", null);
+            if (tableCursor.moveToFirst()) {
+                AppLog.d(TAG, "Tabelle '" + TrackDatabaseHelper.TABLE_TRACKS + "' existiert");
+            } else {
+                AppLog.e(TAG, "Tabelle '" + TrackDatabaseHelper.TABLE_TRACKS + "' existiert NICHT!");
+            }
+            tableCursor.close();
+
+            // Spalten der Tabelle anzeigen
+            Cursor columnCursor = db.rawQuery("PRAGMA table_info(" + TrackDatabaseHelper.TABLE_TRACKS + ")", null);
+            AppLog.d(TAG, "Spalten in der Tabelle:");
+            while (columnCursor.moveToNext()) {
+                String columnName = columnCursor.getString(1);
+                String columnType = columnCursor.getString(2);
+                AppLog.d(TAG, "  - " + columnName + " (" + columnType + ")");
+            }
+            columnCursor.close();
+
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Database Debug", e);
+        }
+    }
+
+    private List<Track> queryTracks(String selection, String[] selectionArgs, String orderBy, String limit,
+                                    QueryCancellation cancellation) {
+        // Fehler und Abbrüche gehen an den Aufrufer: eine leere Liste wäre von einer leeren Bibliothek nicht zu
+        // unterscheiden und landete im Abfrage-Cache des Repositorys.
+        return queryTracks(dbHelper.getReadableDatabase(), selection, selectionArgs, orderBy, limit, cancellation);
+    }
+
+    /**
+     * Liest Tracks mit allen Spalten aus {@link #TRACK_COLUMNS}; auch für die Abfragen von
+     * {@link SqlitePlaylistStore} auf Playlists und Wiedergabezähler.
+     */
+    static List<Track> queryTracks(SQLiteDatabase db, String selection, String[] selectionArgs, String orderBy,
+                                   String limit, QueryCancellation cancellation) {
+        List<Track> tracks = new ArrayList<>();
+        try (Cursor cursor = db.query(false, TrackDatabaseHelper.TABLE_TRACKS, TRACK_COLUMNS, selection,
+                selectionArgs, null, null, orderBy, limit, signalFor(cancellation))) {
+            // Spaltenindizes stehen durch TRACK_COLUMNS fest: 0 = ID, 1 = Titel, 2 = URI, 3 = Interpret
+            while (cursor.moveToNext()) {
+                Track.Builder builder = new Track.Builder(cursor.getString(1), cursor.getString(2))
+                        .id(cursor.getLong(0))
+                        .artist(cursor.getString(3));
+                readOptionalColumns(cursor, builder);
+                tracks.add(builder.build());
+            }
+        }
+        return tracks;
+    }
+
+    /**
+     * @return Ein Signal, das {@code cancellation} folgt; null für {@link QueryCancellation#NONE}.
+     */
+    static CancellationSignal signalFor(QueryCancellation cancellation) {
+        if (cancellation == null || !cancellation.isCancellable()) {
+            return null;
+        }
+        CancellationSignal signal = new CancellationSignal();
+        cancellation.addListener(signal::cancel);
+        return signal;
+    }
+
+    @Override
+    public LibraryIndex loadLibraryIndex(QueryCancellation cancellation) {
+        LibraryIndex index = new LibraryIndex();
+        SQLiteDatabase db = null;
+        Cursor cursor = null;
+        try {
+            db = dbHelper.getReadableDatabase();
+            cursor = db.query(false, TrackDatabaseHelper.TABLE_TRACKS,
+                    new String[]{TrackDatabaseHelper.COLUMN_ID, TrackDatabaseHelper.COLUMN_TITLE,
+                            TrackDatabaseHelper.COLUMN_ARTIST, TrackDatabaseHelper.COLUMN_ALBUM,
+                            TrackDatabaseHelper.COLUMN_DURATION_MS},
+                    VISIBLE_TRACKS, null, null, null, null, null, signalFor(cancellation));
+            // Der Titel wird über einen wiederverwendeten Puffer direkt in den Pool kopiert.
+            CharArrayBuffer titleBuffer = new CharArrayBuffer(128);
+            while (cursor.moveToNext()) {
+                cursor.copyStringToBuffer(1, titleBuffer);
+                index.add(cursor.getInt(0), titleBuffer.data, titleBuffer.sizeCopied,
+                        cursor.getString(2), cursor.getString(3), cursor.getLong(4));
+            }
+        } catch (OperationCanceledException e) {
+            // Ein halber Index darf nicht im Repository landen
+            throw e;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Laden des Bibliotheksindex", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int deleteAllTracks() {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            db.beginTransaction();
+            try {
+                // Wiedergabe-Ereignisse verweisen auf Track-IDs; AUTOINCREMENT vergibt ihre IDs nicht neu, der
+                // Stand des Aufsummierens in library_meta bleibt also gültig
+                db.delete(TrackDatabaseHelper.TABLE_PLAY_EVENTS, null, null);
+                db.delete(TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS, null, null);
+                int deletedRows = db.delete(TrackDatabaseHelper.TABLE_TRACKS, null, null);
+                db.delete(TrackDatabaseHelper.TABLE_ARTISTS, null, null);
+                db.delete(TrackDatabaseHelper.TABLE_ALBUMS, null, null);
+                db.setTransactionSuccessful();
+                return deletedRows;
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Löschen aller Tracks", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int markDeletedInFolder(String folderUri) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            // Aktualisiert alle Einträge, deren URI mit folderUri beginnt.
+            return markDeletedAndUpdateSummaries(db, "deleted = 0 AND " + TrackDatabaseHelper.COLUMN_URI + " LIKE ?",
+                    new String[]{folderUri + "%"});
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Markieren gelöschter Tracks", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int markDeletedOutside(List<String> validFolderUris) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            if (validFolderUris.isEmpty()) {
+                return markDeletedAndUpdateSummaries(db, "deleted = 0", null);
+            }
+            StringBuilder conditionBuilder = new StringBuilder();
+            conditionBuilder.append("deleted = 0 AND NOT (");
+            for (int i = 0; i < validFolderUris.size(); i++) {
+                String folder = validFolderUris.get(i).trim();
+                if (i > 0) {
+                    conditionBuilder.append(" OR ");
+                }
+                conditionBuilder.append(TrackDatabaseHelper.COLUMN_URI)
+                        .append(" LIKE '")
+                        .append(folder)
+                        .append("%'");
+            }
+            conditionBuilder.append(")");
+            String condition = conditionBuilder.toString();
+            AppLog.d(TAG, () -> "markDeletedOutside WHERE-Bedingung: " + condition);
+            return markDeletedAndUpdateSummaries(db, condition, null);
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler bei markDeletedOutside", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int purgeDeleted(int minCount) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            // Zähle gelöschte Tracks
+            int count = (int) DatabaseUtils.queryNumEntries(db, TrackDatabaseHelper.TABLE_TRACKS, "deleted = 1");
+            AppLog.d(TAG, "Anzahl gelöschter Tracks: " + count);
+            if (count == 0 || count < minCount) {
+                return 0;
+            }
+            // Lösche endgültig die als gelöscht markierten Einträge samt Playlist-Mitgliedschaften
+            db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " WHERE " +
+                    TrackDatabaseHelper.COLUMN_TRACK_ID + " IN (SELECT " + TrackDatabaseHelper.COLUMN_ID +
+                    " FROM " + TrackDatabaseHelper.TABLE_TRACKS + " WHERE deleted = 1)");
+            db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_PLAY_EVENTS + " WHERE " +
+                    TrackDatabaseHelper.COLUMN_TRACK_ID + " IN (SELECT " + TrackDatabaseHelper.COLUMN_ID +
+                    " FROM " + TrackDatabaseHelper.TABLE_TRACKS + " WHERE deleted = 1)");
+            db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                    " WHERE deleted = 1");
+            return count;
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler bei der Bereinigung gelöschter Tracks", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int purgeDeletedBatch(int limit) {
+        SQLiteDatabase db = null;
+        try {
+            db = dbHelper.getWritableDatabase();
+            String batch = "(SELECT " + TrackDatabaseHelper.COLUMN_ID + " FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                    " WHERE deleted = 1 ORDER BY " + TrackDatabaseHelper.COLUMN_ID + " LIMIT " + limit + ")";
+            db.beginTransaction();
+            try {
+                // Dieselbe Auswahl dreimal: innerhalb der Transaktion ändert sich die Menge nicht
+                db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_PLAYLIST_TRACKS + " WHERE " +
+                        TrackDatabaseHelper.COLUMN_TRACK_ID + " IN " + batch);
+                db.execSQL("DELETE FROM " + TrackDatabaseHelper.TABLE_PLAY_EVENTS + " WHERE " +
+                        TrackDatabaseHelper.COLUMN_TRACK_ID + " IN " + batch);
+                int removed = db.delete(TrackDatabaseHelper.TABLE_TRACKS,
+                        TrackDatabaseHelper.COLUMN_ID + " IN " + batch, null);
+                db.setTransactionSuccessful();
+                return removed;
+            } finally {
+                db.endTransaction();
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim schrittweisen Entfernen gelöschter Tracks", e);
+            return 0;
+        }
+    }
+
+    static long readMetaLong(SQLiteDatabase db, String key) {
+        try (Cursor cursor = db.query(TrackDatabaseHelper.TABLE_LIBRARY_META, new String[]{TrackDatabaseHelper.COLUMN_VALUE},
+                TrackDatabaseHelper.COLUMN_KEY + " = ?", new String[]{key}, null, null, null)) {
+            if (cursor.moveToFirst() && !cursor.isNull(0)) {
+                try {
+                    return Long.parseLong(cursor.getString(0));
+                } catch (NumberFormatException e) {
+                    AppLog.w(TAG, "Ungültiger Wert für " + key + ": " + cursor.getString(0));
+                }
+            }
+        }
+        return 0;
+    }
+
+    static void writeMeta(SQLiteDatabase db, String key, String value) {
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_KEY, key);
+        values.put(TrackDatabaseHelper.COLUMN_VALUE, value);
+        db.insertWithOnConflict(TrackDatabaseHelper.TABLE_LIBRARY_META, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Ergänzt Dauer, Tracknummer und Album bei Tracks, die vor Version 6 der Datenbank erfasst wurden.
+     */
+    private void backfillMetadata(SQLiteDatabase db, Track track, long generation, List<Track> updatedTracks) {
+        if (track.getDurationMs() <= 0) {
+            return;
+        }
+        ContentValues values = new ContentValues();
+        values.put(TrackDatabaseHelper.COLUMN_DURATION_MS, track.getDurationMs());
+        values.put(TrackDatabaseHelper.COLUMN_TRACK_NUMBER, track.getTrackNumber());
+        values.put(TrackDatabaseHelper.COLUMN_ALBUM, track.getAlbum());
+        values.put(TrackDatabaseHelper.COLUMN_GENERATION, generation);
+        int updated = db.update(TrackDatabaseHelper.TABLE_TRACKS, values,
+                TrackDatabaseHelper.COLUMN_URI + " = ? AND " + TrackDatabaseHelper.COLUMN_DURATION_MS + " = 0",
+                new String[]{track.getUri()});
+        if (updated > 0) {
+            // Dauer und Album waren bisher nicht gezählt: betroffene Zusammenfassungen exakt neu berechnen.
+            recomputeSummary(db, TrackDatabaseHelper.TABLE_ARTISTS, TrackDatabaseHelper.COLUMN_ARTIST, track.getArtist());
+            recomputeSummary(db, TrackDatabaseHelper.TABLE_ALBUMS, TrackDatabaseHelper.COLUMN_ALBUM, track.getAlbum());
+            // Neuer Stand der ergänzten Zeilen für den Bibliotheksindex; noch innerhalb der Transaktion gelesen
+            updatedTracks.addAll(queryTracks(db, TrackDatabaseHelper.COLUMN_URI + " = ? AND " +
+                            TrackDatabaseHelper.COLUMN_GENERATION + " = ? AND " + VISIBLE_TRACKS,
+                    new String[]{track.getUri(), String.valueOf(generation)}, null, null, QueryCancellation.NONE));
+        }
+    }
+
+    private static void addToSummaries(SQLiteStatement artistAdd, SQLiteStatement albumAdd, Track track) {
+        String artist = track.getArtist() != null ? track.getArtist() : "";
+        String album = track.getAlbum() != null ? track.getAlbum() : "";
+        if (!artist.isEmpty()) {
+            artistAdd.clearBindings();
+            artistAdd.bindString(1, artist);
+            artistAdd.bindString(2, TrackDatabaseHelper.sortKeyFor(artist));
+            artistAdd.bindLong(3, track.getDurationMs());
+            artistAdd.bindString(4, track.getUri());
+            artistAdd.executeInsert();
+        }
+        if (!album.isEmpty()) {
+            albumAdd.clearBindings();
+            albumAdd.bindString(1, album);
+            albumAdd.bindString(2, artist);
+            albumAdd.bindString(3, TrackDatabaseHelper.sortKeyFor(album));
+            albumAdd.bindLong(4, track.getDurationMs());
+            albumAdd.bindString(5, track.getUri());
+            albumAdd.executeInsert();
+        }
+    }
+
+    /**
+     * Berechnet eine einzelne Zeile einer Zusammenfassungstabelle aus den Tracks neu oder entfernt sie,
+     * wenn keine Tracks mehr dazu gehören.
+     */
+    private static void recomputeSummary(SQLiteDatabase db, String table, String trackColumn, String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        String[] args = {name};
+        try (Cursor cursor = db.rawQuery("SELECT COUNT(*), COALESCE(SUM(" + TrackDatabaseHelper.COLUMN_DURATION_MS + "), 0), " +
+                "MIN(" + TrackDatabaseHelper.COLUMN_URI + "), COUNT(DISTINCT " + TrackDatabaseHelper.COLUMN_ARTIST + "), " +
+                "MIN(" + TrackDatabaseHelper.COLUMN_ARTIST + ") FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                " WHERE " + trackColumn + " = ? AND deleted = 0", args)) {
+            if (!cursor.moveToFirst() || cursor.getInt(0) == 0) {
+                db.delete(table, TrackDatabaseHelper.COLUMN_NAME + " = ?", args);
+                return;
+            }
+            ContentValues values = new ContentValues();
+            values.put(TrackDatabaseHelper.COLUMN_NAME, name);
+            values.put(TrackDatabaseHelper.COLUMN_SORT_KEY, TrackDatabaseHelper.sortKeyFor(name));
+            values.put(TrackDatabaseHelper.COLUMN_TRACK_COUNT, cursor.getInt(0));
+            values.put(TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS, cursor.getLong(1));
+            values.put(TrackDatabaseHelper.COLUMN_ARTWORK_KEY, cursor.getString(2));
+            if (TrackDatabaseHelper.TABLE_ALBUMS.equals(table)) {
+                values.put(TrackDatabaseHelper.COLUMN_ARTIST,
+                        cursor.getInt(3) > 1 ? TrackDatabaseHelper.VARIOUS_ARTISTS : cursor.getString(4));
+            }
+            if (db.update(table, values, TrackDatabaseHelper.COLUMN_NAME + " = ?", args) == 0) {
+                db.insert(table, null, values);
+            }
+        }
+    }
+
+    /**
+     * Markiert alle Tracks, die {@code condition} erfüllen, als gelöscht und zieht sie in derselben Transaktion
+     * von den Zusammenfassungen ab. Der Aufwand hängt nur von der Zahl der betroffenen Interpreten und Alben ab.
+     *
+     * @return Anzahl der als gelöscht markierten Tracks.
+     */
+    private int markDeletedAndUpdateSummaries(SQLiteDatabase db, String condition, String[] args) {
+        db.beginTransaction();
+        try {
+            List<Object[]> artistGroups = queryRemovedGroups(db, TrackDatabaseHelper.COLUMN_ARTIST, condition, args);
+            List<Object[]> albumGroups = queryRemovedGroups(db, TrackDatabaseHelper.COLUMN_ALBUM, condition, args);
+            // Verschwindet ein Repräsentant, werden seine Dubletten wieder sichtbar, bis der nächste Dublettenlauf
+            // einen neuen Repräsentanten bestimmt.
+            db.execSQL("UPDATE " + TrackDatabaseHelper.TABLE_TRACKS + " SET " + TrackDatabaseHelper.COLUMN_DUPLICATE_OF +
+                    " = 0 WHERE " + TrackDatabaseHelper.COLUMN_DUPLICATE_OF + " IN (SELECT " + TrackDatabaseHelper.COLUMN_ID +
+                    " FROM " + TrackDatabaseHelper.TABLE_TRACKS + " WHERE " + condition + ")", args != null ? args : new String[0]);
+            ContentValues cv = new ContentValues();
+            cv.put(TrackDatabaseHelper.COLUMN_DELETED, 1);
+            int updated = db.update(TrackDatabaseHelper.TABLE_TRACKS, cv, condition, args);
+            subtractFromSummary(db, TrackDatabaseHelper.TABLE_ARTISTS, TrackDatabaseHelper.COLUMN_ARTIST, artistGroups);
+            subtractFromSummary(db, TrackDatabaseHelper.TABLE_ALBUMS, TrackDatabaseHelper.COLUMN_ALBUM, albumGroups);
+            db.setTransactionSuccessful();
+            return updated;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return Je betroffener Gruppe {Name, Anzahl, Gesamtdauer}.
+     */
+    private static List<Object[]> queryRemovedGroups(SQLiteDatabase db, String column, String condition, String[] args) {
+        List<Object[]> groups = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT " + column + ", COUNT(*), COALESCE(SUM(" +
+                TrackDatabaseHelper.COLUMN_DURATION_MS + "), 0) FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                " WHERE " + condition + " GROUP BY " + column, args)) {
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(0);
+                if (name != null && !name.isEmpty()) {
+                    groups.add(new Object[]{name, cursor.getLong(1), cursor.getLong(2)});
+                }
+            }
+        }
+        return groups;
+    }
+
+    private static void subtractFromSummary(SQLiteDatabase db, String table, String trackColumn, List<Object[]> groups) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        String name = TrackDatabaseHelper.COLUMN_NAME;
+        SQLiteStatement subtract = db.compileStatement("UPDATE " + table + " SET " +
+                TrackDatabaseHelper.COLUMN_TRACK_COUNT + " = " + TrackDatabaseHelper.COLUMN_TRACK_COUNT + " - ?, " +
+                TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + " = " + TrackDatabaseHelper.COLUMN_TOTAL_DURATION_MS + " - ? " +
+                "WHERE " + name + " = ?");
+        // Das Cover könnte zu einem der entfernten Tracks gehören: neuen Repräsentanten wählen.
+        SQLiteStatement artwork = db.compileStatement("UPDATE " + table + " SET " +
+                TrackDatabaseHelper.COLUMN_ARTWORK_KEY + " = (SELECT MIN(" + TrackDatabaseHelper.COLUMN_URI + ") FROM " +
+                TrackDatabaseHelper.TABLE_TRACKS + " WHERE " + trackColumn + " = " + table + "." + name +
+                " AND deleted = 0) WHERE " + name + " = ?");
+        try {
+            for (Object[] group : groups) {
+                subtract.bindLong(1, (Long) group[1]);
+                subtract.bindLong(2, (Long) group[2]);
+                subtract.bindString(3, (String) group[0]);
+                subtract.executeUpdateDelete();
+                artwork.bindString(1, (String) group[0]);
+                artwork.executeUpdateDelete();
+            }
+        } finally {
+            subtract.close();
+            artwork.close();
+        }
+        db.delete(table, TrackDatabaseHelper.COLUMN_TRACK_COUNT + " <= 0", null);
+    }
+
+    private boolean trackExists(SQLiteDatabase db, Track track) {
+        String query = "SELECT COUNT(*) FROM " + TrackDatabaseHelper.TABLE_TRACKS +
+                " WHERE " + TrackDatabaseHelper.COLUMN_TITLE + " = ? AND " +
+                TrackDatabaseHelper.COLUMN_ARTIST + " = ? AND " +
+                TrackDatabaseHelper.COLUMN_URI + " = ? AND deleted = 0";
+        Cursor cursor = null;
+        try {
+            cursor = db.rawQuery(query, new String[]{track.getTitle(), track.getArtist(), track.getUri()});
+            if (cursor != null && cursor.moveToFirst() && cursor.getInt(0) > 0) {
+                return true;
+            }
+        } catch (Exception e) {
+            AppLog.e(TAG, "Fehler beim Überprüfen, ob Track existiert", e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return false;
+    }
+
+    private static void putIfKnown(ContentValues values, String column, float value) {
+        if (!Float.isNaN(value)) {
+            values.put(column, value);
+        }
+    }
+
+    /**
+     * Liest Album, Dauer, Tracknummer und ReplayGain-Werte aus dem Cursor, sofern die Spalten abgefragt wurden.
+     */
+    private static void readOptionalColumns(Cursor cursor, Track.Builder builder) {
+        int albumIndex = cursor.getColumnIndex(TrackDatabaseHelper.COLUMN_ALBUM);
+        if (albumIndex != -1) {
+            builder.album(cursor.getString(albumIndex));
+        }
+        int durationIndex = cursor.getColumnIndex(TrackDatabaseHelper.COLUMN_DURATION_MS);
+        if (durationIndex != -1) {
+            builder.durationMs(cursor.getLong(durationIndex));
+        }
+        int trackNumberIndex = cursor.getColumnIndex(TrackDatabaseHelper.COLUMN_TRACK_NUMBER);
+        if (trackNumberIndex != -1) {
+            builder.trackNumber(cursor.getInt(trackNumberIndex));
+        }
+        int generationIndex = cursor.getColumnIndex(TrackDatabaseHelper.COLUMN_GENERATION);
+        if (generationIndex != -1) {
+            builder.generation(cursor.getLong(generationIndex));
+        }
+        builder.replayGain(
+                readFloat(cursor, TrackDatabaseHelper.COLUMN_TRACK_GAIN),
+                readFloat(cursor, TrackDatabaseHelper.COLUMN_TRACK_PEAK),
+                readFloat(cursor, TrackDatabaseHelper.COLUMN_ALBUM_GAIN),
+                readFloat(cursor, TrackDatabaseHelper.COLUMN_ALBUM_PEAK));
+    }
+
+    private static float readFloat(Cursor cursor, String column) {
+        int index = cursor.getColumnIndex(column);
+        if (index == -1 || cursor.isNull(index)) {
+            return Float.NaN;
+        }
+        return cursor.getFloat(index);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.myapplication;
+
+import android.content.Context;
+
+import javax.inject.Singleton;
+
+import dagger.Module;
+import dagger.Provides;
+
+/**
+ * StorageModule wählt die Speicher-Engine der Bibliothek. Die App nutzt SQLite; eine andere Engine (siehe
+ * {@link TrackStore}) wird nur hier eingesetzt, ohne dass sich Repository oder Aufrufer ändern. Die
+ * Geschwister-Schnittstellen {@link PlaylistStore} und {@link TrackAnalysisStore} müssen dabei zur selben Engine
+ * gehören wie der TrackStore, weil sie auf denselben Tracks arbeiten.
+ */
+@Module
+public class StorageModule {
+
+    @Provides
+    @Singleton
+    static TrackDatabaseHelper provideDatabaseHelper(Context context) {
+        return new TrackDatabaseHelper(context);
+    }
+
+    @Provides
+    @Singleton
+    static TrackStore provideTrackStore(TrackDatabaseHelper dbHelper) {
+        return new SqliteTrackStore(dbHelper);
+    }
+
+    @Provides
+    @Singleton
+    static PlaylistStore providePlaylistStore(TrackDatabaseHelper dbHelper) {
+        return new SqlitePlaylistStore(dbHelper);
+    }
+
+    @Provides
+    @Singleton
+    static TrackAnalysisStore provideTrackAnalysisStore(TrackDatabaseHelper dbHelper) {
+        return new SqliteTrackAnalysisStore(dbHelper);
+    }
+
+    @Provides
+    @Singleton
+    static ReportStore provideReportStore(TrackDatabaseHelper dbHelper) {
+        return new SqliteReportStore(dbHelper);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StringDictionary kodiert häufig wiederkehrende Strings (Interpreten, Alben) als fortlaufende int-Codes.
+ * Jeder Wert wird genau einmal gespeichert; Vergleiche und Gruppierungen arbeiten nur auf den Codes.
+ * Die Sortierreihenfolge der Codes wird bei Bedarf einmal berechnet und bis zur nächsten Änderung gecacht.
+ * <p>
+ * {@link LibraryIndex} ruft {@link #ranks()} unter seiner Lesesperre auf, also womöglich aus mehreren Threads
+ * gleichzeitig. Berechnen und Verwerfen des Caches sind deshalb synchronisiert; ein Aufrufer sieht nie ein
+ * halb gefülltes Array.
+ */
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    // Sortierschlüssel je Code (SortKeys.sortKey); wird in ranks() für neue Codes ergänzt
+    private final List<String> sortKeys = new ArrayList<>();
+    // rank[code] = Position des Wertes in alphabetischer Reihenfolge; null = neu zu berechnen
+    private int[] rank;
+
+    /**
+     * Liefert den Code für den Wert und legt ihn bei Bedarf an. {@code null} wird wie "" behandelt.
+     */
+    public synchronized int encode(String value) {
+        String key = value != null ? value : "";
+        Integer code = codes.get(key);
+        if (code != null) {
+            return code;
+        }
+        int newCode = values.size();
+        values.add(key);
+        codes.put(key, newCode);
+        rank = null;
+        return newCode;
+    }
+
+    /**
+     * @return Der Code des Wertes oder -1, wenn er nicht vorkommt.
+     */
+    public int lookup(String value) {
+        Integer code = codes.get(value != null ? value : "");
+        return code != null ? code : -1;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Rang jedes Codes in der Reihenfolge der gespeicherten Sortierschlüssel ({@link SortKeys#sortKey(String)}),
+     * also wie die Zusammenfassungen in der Datenbank: ohne führenden Artikel, Umlaute wie der Grundbuchstabe.
+     * Gleiche Schlüssel ordnet der Wert selbst. Das Array darf nicht verändert werden.
+     */
+    public synchronized int[] ranks() {
+        if (rank == null) {
+            // Schlüssel nur für seit dem letzten Aufruf neue Codes berechnen
+            for (int code = sortKeys.size(); code < values.size(); code++) {
+                sortKeys.add(SortKeys.sortKey(values.get(code)));
+            }
+            Integer[] order = new Integer[values.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int c = sortKeys.get(a).compareTo(sortKeys.get(b));
+                return c != 0 ? c : values.get(a).compareTo(values.get(b));
+            });
+            int[] result = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                result[order[i]] = i;
+            }
+            rank = result;
+        }
+        return rank;
+    }
+}
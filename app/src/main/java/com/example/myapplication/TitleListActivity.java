@@ -1,11 +1,10 @@
 package com.example.myapplication;
 
 import android.os.Bundle;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import java.util.ArrayList;
@@ -17,9 +16,8 @@ import java.util.List;
  */
 public class TitleListActivity extends AppCompatActivity {
 
-    private ListView listViewTitles;
-    private ArrayAdapter<String> adapter;
-    private ArrayList<String> titleDisplayList = new ArrayList<>();
+    private RecyclerView recyclerTitles;
+    private TrackAdapter adapter;
     private MusicRepository repository;
 
     private SwipeRefreshLayout swipeRefreshLayout;
@@ -28,12 +26,13 @@ public class TitleListActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_title_list);
+        FrameMetricsRecorder.track(this, "TitleList");
 
         // UI-Komponenten initialisieren
         swipeRefreshLayout = findViewById(R.id.swipeRefreshLayout);
-        listViewTitles = findViewById(R.id.listViewTitles);
-        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, titleDisplayList);
-        listViewTitles.setAdapter(adapter);
+        recyclerTitles = findViewById(R.id.recyclerTitles);
+        adapter = new TrackAdapter(AppExecutors.getInstance(getApplicationContext()));
+        TrackListPipeline.attach(this, recyclerTitles, adapter);
 
         // Repository instanziieren (Zugriff auf das Model)
         repository = MusicRepository.getInstance(this);
@@ -46,26 +45,37 @@ public class TitleListActivity extends AppCompatActivity {
     }
 
     /**
-     * Lädt asynchron die Trackliste aus der Datenbank und aktualisiert die ListView.
-     * Dabei wird im UI-Thread verhindert, dass die Anzeige blockiert wird.
+     * Lädt asynchron die Trackliste aus der Datenbank und aktualisiert die Liste.
+     * Beim Aktualisieren werden nur geänderte Zeilen neu gebunden; der Diff läuft im Hintergrund.
+     * Wird die Activity vorher verlassen, bricht das Laden ab; mehrfaches Aktualisieren liest nur einmal.
      */
     private void loadTrackTitles() {
-        new Thread(() -> {
-            // Lese alle in der DB gespeicherten Tracks (Model)
-            List<Track> tracks = repository.getCachedTracks();
-            runOnUiThread(() -> {
-                titleDisplayList.clear();
-                if (tracks != null && !tracks.isEmpty()) {
-                    for (Track track : tracks) {
-                        titleDisplayList.add(track.getTitle());
-                    }
-                } else {
-                    Toast.makeText(TitleListActivity.this, "Keine Titel gefunden", Toast.LENGTH_SHORT).show();
-                }
-                adapter.notifyDataSetChanged();
-                swipeRefreshLayout.setRefreshing(false);
-                Toast.makeText(TitleListActivity.this, "Aktualisiert", Toast.LENGTH_SHORT).show();
-            });
-        }).start();
+        repository.load(this, "titles", cancellation -> {
+            // Titel alphabetisch aus dem In-Memory-Index statt Track-Objekte aus der DB
+            LibraryIndex index = repository.getLibraryIndex(cancellation);
+            int[] rows = index.sortedRows(LibraryIndex.SORT_TITLE, true);
+            List<Track> tracks = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                cancellation.throwIfCanceled();
+                Track track = new Track.Builder(index.getTitle(row), "")
+                        .id(index.getId(row))
+                        .artist(index.getArtist(row))
+                        .album(index.getAlbum(row))
+                        .durationMs(index.getDurationMs(row))
+                        .build();
+                tracks.add(track);
+            }
+            return tracks;
+        }, tracks -> {
+            if (tracks.isEmpty()) {
+                Toast.makeText(TitleListActivity.this, "Keine Titel gefunden", Toast.LENGTH_SHORT).show();
+            }
+            adapter.submitList(tracks);
+            swipeRefreshLayout.setRefreshing(false);
+            Toast.makeText(TitleListActivity.this, "Aktualisiert", Toast.LENGTH_SHORT).show();
+        }, error -> {
+            swipeRefreshLayout.setRefreshing(false);
+            Toast.makeText(TitleListActivity.this, "Titel konnten nicht geladen werden", Toast.LENGTH_SHORT).show();
+        });
     }
 }
@@ -1,87 +1,134 @@
 package com.example.myapplication;
 
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Die Track-Klasse repräsentiert einen Musiktrack.
- * Sie gehört zum Model und enthält nur die Daten (ID, Titel, URI, Artist und Dauer) als POJO.
+ * Sie gehört zum Model und ist unveränderlich; neue Instanzen entstehen über den {@link Builder}.
+ * <p>
+ * Interpret und Album werden über ein gemeinsames Wörterbuch geteilt: 50.000 Tracks von 2.000 Alben halten nur
+ * 2.000 Album-Strings. Die Dauer liegt numerisch in Millisekunden vor und wird erst beim Anzeigen formatiert
+ * (siehe {@link DurationFormatter}).
  */
-public class Track {
-    private int id; // Auto-generierter Primärschlüssel
-    private String title;
-    private String uri;
-    private String artist;
-    private String duration; // Dauer im Format "mm:ss"
+public final class Track {
+
+    // Gemeinsames Wörterbuch für Interpreten- und Albumnamen; wächst nur mit der Zahl verschiedener Namen
+    private static final ConcurrentHashMap<String, String> NAMES = new ConcurrentHashMap<>();
+
+    private final long id; // Primärschlüssel, 0 = noch nicht gespeichert
+    private final String title;
+    private final String uri;
+    private final String artist; // "" = unbekannt
+    private final String album; // "" = unbekannt
+    private final long durationMs; // 0 = unbekannt
+    private final int trackNumber; // 0 = unbekannt
+    // ReplayGain in dB bzw. Peak linear; Float.NaN = unbekannt
+    private final float trackGain;
+    private final float trackPeak;
+    private final float albumGain;
+    private final float albumPeak;
+    // Inhaltsversion aus der Datenbank (siehe TrackDatabaseHelper.COLUMN_GENERATION); 0 = unbekannt
+    private final long generation;
+
+    private Track(Builder builder) {
+        this.id = builder.id;
+        this.title = builder.title;
+        this.uri = builder.uri;
+        this.artist = intern(builder.artist);
+        this.album = intern(builder.album);
+        this.durationMs = builder.durationMs;
+        this.trackNumber = builder.trackNumber;
+        this.trackGain = builder.trackGain;
+        this.trackPeak = builder.trackPeak;
+        this.albumGain = builder.albumGain;
+        this.albumPeak = builder.albumPeak;
+        this.generation = builder.generation;
+    }
+
+    private static String intern(String name) {
+        if (name == null || name.isEmpty()) {
+            return "";
+        }
+        String shared = NAMES.putIfAbsent(name, name);
+        return shared != null ? shared : name;
+    }
 
     /**
-     * Konstruktor ohne Dauer, setzt den Artist standardmäßig auf "Unbekannter Künstler" und die Dauer auf "00:00".
+     * @return Ein Builder mit allen Werten dieses Tracks, z. B. um nach dem Einfügen die ID zu ergänzen.
      */
-    public Track(String title, String uri) {
-        this.title = title;
-        this.uri = uri;
-        this.artist = "Unbekannter Künstler";
-        this.duration = "00:00";
+    public Builder toBuilder() {
+        return new Builder(title, uri)
+                .id(id)
+                .artist(artist)
+                .album(album)
+                .durationMs(durationMs)
+                .trackNumber(trackNumber)
+                .replayGain(trackGain, trackPeak, albumGain, albumPeak)
+                .generation(generation);
+    }
+
+    public long getId() {
+        return id;
     }
 
-    /**
-     * Konstruktor ohne Dauer, setzt den Artist (falls null auf "Unbekannter Künstler") und die Dauer auf "00:00".
-     */
-    public Track(String title, String uri, String artist) {
-        this.title = title;
-        this.uri = uri;
-        this.artist = artist != null ? artist : "Unbekannter Künstler";
-        this.duration = "00:00";
+    public String getTitle() {
+        return title;
     }
 
-    /**
-     * Konstruktor mit Dauer, setzt alle Parameter.
-     */
-    public Track(String title, String uri, String artist, String duration) {
-        this.title = title;
-        this.uri = uri;
-        this.artist = artist != null ? artist : "Unbekannter Künstler";
-        this.duration = duration != null ? duration : "00:00";
+    public String getUri() {
+        return uri;
     }
 
-    // Getter und Setter
-    public int getId() {
-        return id;
+    public String getArtist() {
+        return artist;
     }
 
-    public void setId(int id) {
-        this.id = id;
+    public String getAlbum() {
+        return album;
     }
 
-    public String getTitle() {
-        return title;
+    public long getDurationMs() {
+        return durationMs;
     }
 
-    public void setTitle(String title) {
-        this.title = title;
+    public int getTrackNumber() {
+        return trackNumber;
     }
 
-    public String getUri() {
-        return uri;
+    public float getTrackGain() {
+        return trackGain;
     }
 
-    public void setUri(String uri) {
-        this.uri = uri;
+    public float getTrackPeak() {
+        return trackPeak;
     }
 
-    public String getArtist() {
-        return artist;
+    public float getAlbumGain() {
+        return albumGain;
     }
 
-    public void setArtist(String artist) {
-        this.artist = artist;
+    public float getAlbumPeak() {
+        return albumPeak;
     }
 
-    public String getDuration() {
-        return duration;
+    public long getGeneration() {
+        return generation;
     }
 
-    public void setDuration(String duration) {
-        this.duration = duration;
+    /**
+     * Vergleicht die angezeigten Inhalte zweier Versionen desselben Tracks. Stammen beide aus der Datenbank,
+     * genügt der Vergleich der Generation; sonst werden die angezeigten Felder einzeln verglichen.
+     */
+    public boolean hasSameContent(Track other) {
+        if (generation != 0 && other.generation != 0) {
+            return generation == other.generation;
+        }
+        // Interpret und Album sind geteilte Instanzen: Referenzvergleich vor equals()
+        return durationMs == other.durationMs &&
+                Objects.equals(title, other.title) &&
+                (artist == other.artist || artist.equals(other.artist)) &&
+                (album == other.album || album.equals(other.album));
     }
 
     @Override
@@ -90,15 +137,16 @@ public class Track {
         if (!(o instanceof Track)) return false;
         Track track = (Track) o;
         return id == track.id &&
+                durationMs == track.durationMs &&
                 Objects.equals(title, track.title) &&
                 Objects.equals(uri, track.uri) &&
-                Objects.equals(artist, track.artist) &&
-                Objects.equals(duration, track.duration);
+                artist.equals(track.artist);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, uri, artist, duration);
+        // Die ID ist eindeutig; gleiche Tracks haben sie immer gemeinsam. Kein Hashen von Strings je Aufruf.
+        return Long.hashCode(id);
     }
 
     @Override
@@ -108,7 +156,75 @@ public class Track {
                 ", title='" + title + '\'' +
                 ", uri='" + uri + '\'' +
                 ", artist='" + artist + '\'' +
-                ", duration='" + duration + '\'' +
+                ", durationMs=" + durationMs +
                 '}';
     }
+
+    /**
+     * Baut einen Track schrittweise auf. Nicht gesetzte Werte gelten als unbekannt.
+     */
+    public static final class Builder {
+        private final String title;
+        private final String uri;
+        private long id = 0;
+        private String artist = "";
+        private String album = "";
+        private long durationMs = 0;
+        private int trackNumber = 0;
+        private float trackGain = Float.NaN;
+        private float trackPeak = Float.NaN;
+        private float albumGain = Float.NaN;
+        private float albumPeak = Float.NaN;
+        private long generation = 0;
+
+        public Builder(String title, String uri) {
+            this.title = title;
+            this.uri = uri;
+        }
+
+        public Builder id(long id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder artist(String artist) {
+            this.artist = artist;
+            return this;
+        }
+
+        public Builder album(String album) {
+            this.album = album;
+            return this;
+        }
+
+        public Builder durationMs(long durationMs) {
+            this.durationMs = Math.max(0, durationMs);
+            return this;
+        }
+
+        public Builder trackNumber(int trackNumber) {
+            this.trackNumber = Math.max(0, trackNumber);
+            return this;
+        }
+
+        /**
+         * Setzt die ReplayGain-Werte (dB bzw. linearer Peak, Float.NaN für unbekannt).
+         */
+        public Builder replayGain(float trackGain, float trackPeak, float albumGain, float albumPeak) {
+            this.trackGain = trackGain;
+            this.trackPeak = trackPeak;
+            this.albumGain = albumGain;
+            this.albumPeak = albumPeak;
+            return this;
+        }
+
+        public Builder generation(long generation) {
+            this.generation = generation;
+            return this;
+        }
+
+        public Track build() {
+            return new Track(this);
+        }
+    }
 }
@@ -2,23 +2,48 @@ package com.example.myapplication;
 
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
+import android.widget.SectionIndexer;
+import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.AsyncDifferConfig;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.myapplication.databinding.ItemTrackBinding;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 /**
  * TrackAdapter ist für die Darstellung einer Liste von {@link Track} Objekten in einer RecyclerView zuständig.
  * Nutzt ListAdapter + DiffUtil für performante, animierte Listenupdates und ViewBinding für Typsicherheit.
- * Setzt auf stabile IDs und bietet einen Click-Callback.
+ * Der Diff läuft für alle Listen im UiLoad-Pool ({@link AppExecutors#uiLoad()}); Inhalte werden über die
+ * Generation der Zeile verglichen ({@link Track#hasSameContent(Track)}), sodass auch Listen mit 50.000 Titeln
+ * den Main-Thread nicht blockieren. Setzt auf stabile IDs und bietet Click- und Long-Click-Callbacks.
+ * Als {@link SectionIndexer} liefert er die Startposition jedes Anfangsbuchstabens für den Schnellsprung;
+ * die Liste muss dafür nach {@link TrackDatabaseHelper#COLUMN_TITLE_SORT} sortiert sein.
+ * <p>
+ * Titel und Details werden als {@link PrecomputedTextCompat} im Pool {@link AppExecutors#textLayout()} gemessen.
+ * Zusammen mit dem Vorab-Binden aus {@link TrackListPipeline} liegt das Textlayout meist fertig vor, wenn die
+ * Zeile sichtbar wird; sonst wartet erst das Messen der Zeile darauf. Beim schnellen Scrollen werden Layouts für
+ * neu gebundene oder recycelte Zeilen verworfen, bevor sie den Pool belegen.
  */
 public class TrackAdapter
-        extends ListAdapter<Track, TrackAdapter.TrackViewHolder> {
+        extends ListAdapter<Track, TrackAdapter.TrackViewHolder> implements SectionIndexer {
+
+    // Alle Zeilen haben dasselbe Layout; der gemeinsame Pool in TrackListPipeline nutzt diesen Typ
+    static final int VIEW_TYPE_TRACK = R.layout.item_track;
 
     private final OnTrackClickListener clickListener;
+    private final Executor textExecutor;
+    private OnTrackLongClickListener longClickListener;
+    private SectionIndex sectionIndex = SectionIndex.EMPTY;
 
     /**
      * Callback-Interface für Item-Clicks.
@@ -27,13 +52,34 @@ public class TrackAdapter
         void onTrackClick(@NonNull Track track);
     }
 
-    public TrackAdapter(@NonNull OnTrackClickListener clickListener) {
-        super(DIFF_CALLBACK);
+    /**
+     * Callback-Interface für langes Tippen.
+     */
+    public interface OnTrackLongClickListener {
+        void onTrackLongClick(@NonNull Track track);
+    }
+
+    /**
+     * Adapter ohne Click-Callback, z. B. für reine Übersichtslisten.
+     */
+    public TrackAdapter(@NonNull AppExecutors executors) {
+        this(executors, null);
+    }
+
+    public TrackAdapter(@NonNull AppExecutors executors, @Nullable OnTrackClickListener clickListener) {
+        super(new AsyncDifferConfig.Builder<>(DIFF_CALLBACK)
+                .setBackgroundThreadExecutor(executors.uiLoad())
+                .build());
         this.clickListener = clickListener;
+        this.textExecutor = executors.textLayout();
         // Aktiviert stabile IDs für bessere Animationen
         setHasStableIds(true);
     }
 
+    public void setOnTrackLongClickListener(@Nullable OnTrackLongClickListener longClickListener) {
+        this.longClickListener = longClickListener;
+    }
+
     private static final DiffUtil.ItemCallback<Track> DIFF_CALLBACK =
             new DiffUtil.ItemCallback<Track>() {
                 @Override
@@ -43,9 +89,7 @@ public class TrackAdapter
 
                 @Override
                 public boolean areContentsTheSame(@NonNull Track oldItem, @NonNull Track newItem) {
-                    String oldTitle = oldItem.getTitle() != null ? oldItem.getTitle() : "";
-                    String newTitle = newItem.getTitle() != null ? newItem.getTitle() : "";
-                    return oldTitle.equals(newTitle);
+                    return oldItem.hasSameContent(newItem);
                 }
             };
 
@@ -54,13 +98,45 @@ public class TrackAdapter
     public TrackViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         ItemTrackBinding binding = ItemTrackBinding.inflate(
                 LayoutInflater.from(parent.getContext()), parent, false);
-        return new TrackViewHolder(binding);
+        return new TrackViewHolder(binding, textExecutor);
     }
 
     @Override
     public void onBindViewHolder(@NonNull TrackViewHolder holder, int position) {
         Track track = getItem(position);
-        holder.bind(track, clickListener);
+        holder.bind(track, clickListener, longClickListener);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull TrackViewHolder holder) {
+        holder.cancelTextLayout();
+    }
+
+    /**
+     * Setzt den zur aktuellen Liste passenden Sektionsindex (siehe {@link MusicRepository#getTitleSectionIndex()}).
+     */
+    public void setSectionIndex(@NonNull SectionIndex sectionIndex) {
+        this.sectionIndex = sectionIndex;
+    }
+
+    @Override
+    public Object[] getSections() {
+        return sectionIndex.getSections();
+    }
+
+    @Override
+    public int getPositionForSection(int sectionIndex) {
+        return Math.min(this.sectionIndex.getPositionForSection(sectionIndex), Math.max(0, getItemCount() - 1));
+    }
+
+    @Override
+    public int getSectionForPosition(int position) {
+        return sectionIndex.getSectionForPosition(position);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_TRACK;
     }
 
     @Override
@@ -71,19 +147,81 @@ public class TrackAdapter
 
     static class TrackViewHolder extends RecyclerView.ViewHolder {
         private final ItemTrackBinding binding;
+        // Je ViewHolder ein wiederverwendeter Puffer für den Aufbau der Detailzeile
+        private final StringBuilder details = new StringBuilder(64);
+        // Messparameter hängen nur vom Stil der TextViews ab und werden einmal je ViewHolder bestimmt
+        private final PrecomputedTextCompat.Params titleParams;
+        private final PrecomputedTextCompat.Params detailsParams;
+        private final Executor textExecutor;
+        // Ausstehende Textlayouts; beim erneuten Binden überholt und deshalb abgebrochen
+        private Future<PrecomputedTextCompat> titleFuture;
+        private Future<PrecomputedTextCompat> detailsFuture;
 
-        TrackViewHolder(@NonNull ItemTrackBinding binding) {
+        TrackViewHolder(@NonNull ItemTrackBinding binding, @NonNull Executor textExecutor) {
             super(binding.getRoot());
             this.binding = binding;
+            this.textExecutor = textExecutor;
+            this.titleParams = TextViewCompat.getTextMetricsParams(binding.trackTitle);
+            this.detailsParams = TextViewCompat.getTextMetricsParams(binding.trackDetails);
         }
 
-        void bind(@NonNull Track track, @NonNull OnTrackClickListener listener) {
+        void bind(@NonNull Track track, @Nullable OnTrackClickListener listener,
+                  @Nullable OnTrackLongClickListener longClickListener) {
             String title = track.getTitle();
-            binding.trackTitle.setText(
-                    (title != null && !title.isEmpty()) ? title : "Unbekannt"
-            );
+            cancelTextLayout();
+            titleFuture = setTextAsync(binding.trackTitle,
+                    (title != null && !title.isEmpty()) ? title : "Unbekannt", titleParams);
+            details.setLength(0);
+            details.append(track.getArtist());
+            if (track.getDurationMs() > 0) {
+                if (details.length() > 0) {
+                    details.append(" · ");
+                }
+                DurationFormatter.appendTo(details, track.getDurationMs());
+            }
+            // Der Hintergrund-Thread braucht eine unveränderliche Kopie; der Puffer wird beim nächsten Binden geleert
+            detailsFuture = setTextAsync(binding.trackDetails, details.toString(), detailsParams);
             // Klick-Listener registrieren
-            binding.getRoot().setOnClickListener(v -> listener.onTrackClick(track));
+            binding.getRoot().setOnClickListener(listener != null ? v -> listener.onTrackClick(track) : null);
+            binding.getRoot().setOnLongClickListener(longClickListener != null ? v -> {
+                longClickListener.onTrackLongClick(track);
+                return true;
+            } : null);
+        }
+
+        /**
+         * Bricht noch nicht begonnene Textlayouts ab; ihr Ergebnis würde ohnehin nicht mehr angezeigt.
+         */
+        void cancelTextLayout() {
+            cancel(binding.trackTitle, titleFuture);
+            cancel(binding.trackDetails, detailsFuture);
+            titleFuture = null;
+            detailsFuture = null;
+        }
+
+        private static void cancel(TextView view, @Nullable Future<PrecomputedTextCompat> future) {
+            if (future != null && future.cancel(false)) {
+                // Die TextView darf ein abgebrochenes Layout nicht mehr abholen: get() würde beim Messen werfen
+                ((AppCompatTextView) view).setTextFuture(null);
+            }
+        }
+
+        /**
+         * Übergibt das Textlayout an den Hintergrund-Thread. Eine AppCompatTextView (der Normalfall in einer
+         * AppCompatActivity) wartet erst beim Messen auf das Ergebnis.
+         *
+         * @return Das ausstehende Layout oder null, wenn der Text direkt gesetzt wurde.
+         */
+        @Nullable
+        private Future<PrecomputedTextCompat> setTextAsync(TextView view, String text,
+                                                           PrecomputedTextCompat.Params params) {
+            if (view instanceof AppCompatTextView) {
+                Future<PrecomputedTextCompat> future = PrecomputedTextCompat.getTextFuture(text, params, textExecutor);
+                ((AppCompatTextView) view).setTextFuture(future);
+                return future;
+            }
+            view.setText(text);
+            return null;
         }
     }
 }
\ No newline at end of file
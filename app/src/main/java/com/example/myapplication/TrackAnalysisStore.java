@@ -0,0 +1,77 @@
+package com.example.myapplication;
+
+import java.util.List;
+
+/**
+ * TrackAnalysisStore hält die Ergebnisse der Hintergrundanalysen je Track: Seek-Index, Lautheit
+ * ({@link LoudnessAnalysisWorker}) und Dublettenabgleich ({@link DeduplicationWorker}).
+ * <p>
+ * Implementierungen: {@link SqliteTrackAnalysisStore} für die App, {@link InMemoryTrackStore} für JVM-Tests.
+ * Schreibende Methoden melden, ob die Zeile tatsächlich geändert wurde, damit die Worker einen Track, dessen
+ * Ergebnis sich nicht speichern ließ, nicht endlos erneut bearbeiten.
+ */
+public interface TrackAnalysisStore {
+
+    /**
+     * @return Der gespeicherte Seek-Index oder {@code null}.
+     */
+    SeekIndex getSeekIndex(long trackId);
+
+    void saveSeekIndex(long trackId, SeekIndex index);
+
+    /**
+     * @return Bis zu {@code limit} nicht gelöschte Tracks ohne bekannte Lautheit, nach ID.
+     */
+    List<Track> getTracksPendingLoudness(int limit);
+
+    /**
+     * Speichert das Ergebnis der Lautheitsanalyse samt Track-Gain.
+     *
+     * @param blocks   Anzahl der gegateten Messblöcke (Gewicht für die Album-Lautheit).
+     * @param truePeak True Peak, linear.
+     * @return false, wenn das Ergebnis nicht gespeichert werden konnte.
+     */
+    boolean saveLoudness(long trackId, double lufs, int blocks, double truePeak);
+
+    /**
+     * @return false, wenn die Markierung nicht gespeichert werden konnte.
+     */
+    boolean markLoudnessFailed(long trackId);
+
+    /**
+     * Berechnet Album-Gain und Album-Peak aus den Lautheitswerten der Tracks eines Albums (Interpret und Albumname,
+     * damit gleichnamige Alben verschiedener Interpreten getrennt bleiben). Alben mit noch nicht analysierten Tracks
+     * bleiben unverändert; Album-Gains aus ReplayGain-Tags werden nicht überschrieben.
+     *
+     * @return true, wenn Tracks einen neuen Album-Gain erhalten haben.
+     */
+    boolean updateAlbumGain(String artist, String album);
+
+    /**
+     * @param withAcoustic {@code true}, wenn auch gehashte Tracks ohne akustischen Fingerabdruck geliefert werden
+     *                     sollen.
+     * @return Bis zu {@code limit} nicht gelöschte Tracks ohne Dublettenabgleich, nach ID.
+     */
+    List<Track> getTracksPendingDedup(int limit, boolean withAcoustic);
+
+    /**
+     * @param fingerprint       Fingerabdruck oder {@code null}.
+     * @param acousticAttempted {@code true}, wenn der akustische Schritt gelaufen ist.
+     * @return false, wenn die Daten nicht gespeichert werden konnten.
+     */
+    boolean saveDedupData(long trackId, String contentHash, long[] fingerprint, boolean acousticAttempted);
+
+    /**
+     * @return false, wenn die Markierung nicht gespeichert werden konnte.
+     */
+    boolean markDedupFailed(long trackId);
+
+    /**
+     * Bildet die Dublettengruppen aller abgeglichenen Tracks neu (siehe {@link DuplicateIndex}) und schreibt nur
+     * geänderte Zuordnungen zurück.
+     *
+     * @param changedIds Erhält nach dem Commit die IDs der Tracks, deren Zuordnung sich geändert hat.
+     * @return Anzahl der zusammengeklappten Dubletten.
+     */
+    int updateDuplicateGroups(List<Long> changedIds);
+}
@@ -1,17 +1,37 @@
 package com.example.myapplication;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.icu.text.Collator;
+
+import java.util.Locale;
 
 /**
  * TrackDatabaseHelper verwaltet die native SQLite‑Datenbank.
  * Bei einem Upgrade führen wir hier eine Migration durch, statt die Tabelle komplett neu zu erstellen.
+ * <p>
+ * Die Datenbank bleibt für die Lebensdauer des Prozesses geöffnet. Leser-Pool, UI-Loads und Worker teilen sich
+ * dasselbe {@link SQLiteDatabase}; ein {@code close()} nach einer Abfrage könnte die Verbindungen abbauen, während
+ * ein anderer Thread noch einen Cursor liest. Die Stores schließen deshalb nur Cursor und Statements.
  */
 public class TrackDatabaseHelper extends SQLiteOpenHelper {
+    private static final String TAG = "TrackDatabaseHelper";
     private static final String DATABASE_NAME = "tracks.db";
-    // Erhöhte Version auf 3, um die neue Spalte "deleted" zu integrieren.
-    private static final int DATABASE_VERSION = 3;
+    // Version 4: Spalte "seek_index" für den gecachten Seek-Index eines Tracks.
+    // Version 5: Album und ReplayGain-/Lautheitswerte.
+    // Version 6: Dauer in Millisekunden und Tracknummer (für Crossfade und lückenlose Alben).
+    // Version 7: Zusammenfassungstabellen "artists" und "albums" für die Browse-Ansichten.
+    // Version 8: Vorberechnete Sortierschlüssel und Sektion des Titels (siehe SortKeys).
+    // Version 9: Hinzufügedatum, Wiedergabezahl sowie Playlists (manuell und regelbasiert).
+    // Version 10: Wiedergabeprotokoll "play_events", aggregierte Zähler je Track und "library_meta".
+    // Version 11: Dublettenerkennung (Inhalts-Hash, Fingerabdruck, Repräsentant).
+    // Version 12: Inhaltsversion "generation" je Zeile.
+    // Version 13: Berichte der Bibliotheksscans "scan_reports".
+    // Version 14: Berichte der Datenbankwartung "maintenance_reports".
+    private static final int DATABASE_VERSION = 14;
 
     public static final String TABLE_TRACKS = "tracks";
     public static final String COLUMN_ID = "_id";
@@ -20,17 +40,288 @@ public class TrackDatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_ARTIST = "artist";
     // Neue Spalte, um den Löschstatus eines Tracks zu markieren
     public static final String COLUMN_DELETED = "deleted";
+    // Serialisierter SeekIndex (Xing-TOC, FLAC-SEEKTABLE oder erzeugter Frame-Index), NULL = noch nicht erstellt
+    public static final String COLUMN_SEEK_INDEX = "seek_index";
+    public static final String COLUMN_ALBUM = "album";
+    // ReplayGain in dB bzw. Peak linear (1.0 = 0 dBFS), NULL = unbekannt
+    public static final String COLUMN_TRACK_GAIN = "track_gain";
+    public static final String COLUMN_TRACK_PEAK = "track_peak";
+    public static final String COLUMN_ALBUM_GAIN = "album_gain";
+    public static final String COLUMN_ALBUM_PEAK = "album_peak";
+    // Gemessene integrierte Lautheit (LUFS) und Anzahl gegateter Messblöcke für die Album-Berechnung
+    public static final String COLUMN_LOUDNESS_LUFS = "loudness_lufs";
+    public static final String COLUMN_LOUDNESS_BLOCKS = "loudness_blocks";
+    // Status der Lautheitsanalyse, siehe LOUDNESS_*
+    public static final String COLUMN_LOUDNESS_STATE = "loudness_state";
+
+    // Dauer in Millisekunden, 0 = unbekannt
+    public static final String COLUMN_DURATION_MS = "duration_ms";
+    // Tracknummer innerhalb des Albums, 0 = unbekannt
+    public static final String COLUMN_TRACK_NUMBER = "track_number";
+    // Vom Scanner berechneter Collation-Key des Titels und dessen Anfangsbuchstabe für den Schnellsprung
+    public static final String COLUMN_TITLE_SORT = "title_sort";
+    public static final String COLUMN_TITLE_SECTION = "title_section";
+    // Zeitpunkt der Aufnahme in die Bibliothek (ms seit Epoch, 0 = vor Version 9) und Anzahl Wiedergaben
+    public static final String COLUMN_ADDED_AT = "added_at";
+    public static final String COLUMN_PLAY_COUNT = "play_count";
+
+    // Playlists: rule = null für manuelle Playlists, sonst Regeltext (siehe PlaylistRule)
+    public static final String TABLE_PLAYLISTS = "playlists";
+    public static final String COLUMN_RULE = "rule";
+    // Kennung vom System angelegter Playlists, z. B. "Neue Titel"
+    public static final String COLUMN_SYSTEM_KEY = "system_key";
+    public static final String COLUMN_CREATED_AT = "created_at";
+    // Mitgliedschaft; bei Smart-Playlists vom Scanner inkrementell gepflegt
+    public static final String TABLE_PLAYLIST_TRACKS = "playlist_tracks";
+    public static final String COLUMN_PLAYLIST_ID = "playlist_id";
+    public static final String COLUMN_TRACK_ID = "track_id";
+    public static final String COLUMN_POSITION = "position";
+    public static final String SYSTEM_KEY_NEW_TITLES = "new_titles";
+
+    // Aus dem Wiedergabeprotokoll aufsummierte Zähler (play_count zählt nur nicht übersprungene Wiedergaben)
+    public static final String COLUMN_SKIP_COUNT = "skip_count";
+    public static final String COLUMN_LAST_PLAYED_AT = "last_played_at";
+    public static final String COLUMN_LISTENED_MS = "listened_ms";
+    // Append-only-Protokoll der Wiedergaben
+    public static final String TABLE_PLAY_EVENTS = "play_events";
+    public static final String COLUMN_STARTED_AT = "started_at";
+    public static final String COLUMN_SKIPPED = "skipped";
+    // Schlüssel/Wert-Tabelle für interne Stände, z. B. bis zu welchem Ereignis aufsummiert wurde
+    public static final String TABLE_LIBRARY_META = "library_meta";
+    public static final String COLUMN_KEY = "key";
+    public static final String COLUMN_VALUE = "value";
+    public static final String META_PLAY_ROLLUP_ID = "play_rollup_event_id";
+    // Zuletzt vergebene Generation (siehe COLUMN_GENERATION)
+    public static final String META_GENERATION = "generation";
+    // Höchste Track-ID, die bereits gegen alle Smart-Playlists geprüft wurde (IDs werden per AUTOINCREMENT nie
+    // neu vergeben)
+    public static final String META_SMART_PLAYLIST_ID = "smart_playlist_track_id";
+    // Version von SortKeys und ICU-Collator, mit der title_sort und sort_key berechnet wurden
+    public static final String META_COLLATION_VERSION = "collation_version";
+    // Inhaltsversion einer Zeile: wird bei jeder Änderung angezeigter Felder auf eine neue Generation gesetzt,
+    // sodass Listen Inhalte über einen einzigen Zahlenvergleich abgleichen können
+    public static final String COLUMN_GENERATION = "generation";
+
+    // Dublettenerkennung: Inhalts-Hash, optionaler akustischer Fingerabdruck und Verweis auf den Repräsentanten
+    public static final String COLUMN_CONTENT_HASH = "content_hash";
+    public static final String COLUMN_FINGERPRINT = "fingerprint";
+    public static final String COLUMN_DEDUP_STATE = "dedup_state";
+    // 0 = eigenständig bzw. Repräsentant einer Gruppe, sonst die ID des Repräsentanten (wird zusammengeklappt)
+    public static final String COLUMN_DUPLICATE_OF = "duplicate_of";
+
+    // Ein Bericht je abgeschlossenem Scan (siehe ScanReport); Dauern in ms, Perzentile in µs
+    public static final String TABLE_SCAN_REPORTS = "scan_reports";
+    public static final String COLUMN_FILES = "files";
+    public static final String COLUMN_BYTES = "bytes";
+    public static final String COLUMN_INSERTED = "inserted";
+    public static final String COLUMN_SKIPPED_FILES = "skipped";
+    public static final String COLUMN_ERRORS = "errors";
+    public static final String COLUMN_LIST_MS = "list_ms";
+    public static final String COLUMN_METADATA_MS = "metadata_ms";
+    public static final String COLUMN_DB_WRITE_MS = "db_write_ms";
+    public static final String COLUMN_COMMIT_MS = "commit_ms";
+    public static final String COLUMN_METADATA_P50_US = "metadata_p50_us";
+    public static final String COLUMN_METADATA_P99_US = "metadata_p99_us";
+
+    // Ein Bericht je Wartungslauf (siehe MaintenanceReport); Seitenzahlen vor und nach dem Lauf, WAL in Bytes
+    public static final String TABLE_MAINTENANCE_REPORTS = "maintenance_reports";
+    public static final String COLUMN_PAGE_SIZE = "page_size";
+    public static final String COLUMN_PAGES_BEFORE = "pages_before";
+    public static final String COLUMN_FREE_PAGES_BEFORE = "free_pages_before";
+    public static final String COLUMN_WAL_BYTES_BEFORE = "wal_bytes_before";
+    public static final String COLUMN_PAGES_AFTER = "pages_after";
+    public static final String COLUMN_FREE_PAGES_AFTER = "free_pages_after";
+    public static final String COLUMN_WAL_BYTES_AFTER = "wal_bytes_after";
+    public static final String COLUMN_PURGED = "purged";
+    public static final String COLUMN_VACUUMED_PAGES = "vacuumed_pages";
+    public static final String COLUMN_COMPLETE = "complete";
+
+    // Zusammenfassungstabellen: eine Zeile je Interpret bzw. Album, vom Scanner inkrementell gepflegt
+    public static final String TABLE_ARTISTS = "artists";
+    public static final String TABLE_ALBUMS = "albums";
+    public static final String COLUMN_NAME = "name";
+    public static final String COLUMN_SORT_KEY = "sort_key";
+    public static final String COLUMN_TRACK_COUNT = "track_count";
+    public static final String COLUMN_TOTAL_DURATION_MS = "total_duration_ms";
+    // URI eines Tracks, aus dem das Cover gelesen werden kann
+    public static final String COLUMN_ARTWORK_KEY = "artwork_key";
+    // Anzeigename für Alben mit Titeln mehrerer Interpreten
+    public static final String VARIOUS_ARTISTS = "Verschiedene Interpreten";
+
+    public static final int LOUDNESS_PENDING = 0;
+    public static final int LOUDNESS_FROM_TAGS = 1;
+    public static final int LOUDNESS_ANALYZED = 2;
+    public static final int LOUDNESS_FAILED = 3;
+
+    public static final int DEDUP_PENDING = 0;
+    public static final int DEDUP_HASHED = 1;
+    // Akustischer Schritt durchlaufen (Fingerabdruck kann bei sehr kurzen oder stummen Tracks fehlen)
+    public static final int DEDUP_FINGERPRINTED = 2;
+    public static final int DEDUP_FAILED = 3;
 
-    // SQL-Befehl zum Erstellen der Tabelle in der Version 3
+    // SQL-Befehl zum Erstellen der Tabelle in der Version 12
     private static final String DATABASE_CREATE =
             "CREATE TABLE " + TABLE_TRACKS + " (" +
                     COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
                     COLUMN_TITLE + " TEXT NOT NULL, " +
                     COLUMN_URI + " TEXT NOT NULL, " +
                     COLUMN_ARTIST + " TEXT DEFAULT '', " +
-                    COLUMN_DELETED + " INTEGER DEFAULT 0" +
+                    COLUMN_DELETED + " INTEGER DEFAULT 0, " +
+                    COLUMN_SEEK_INDEX + " BLOB, " +
+                    COLUMN_ALBUM + " TEXT DEFAULT '', " +
+                    COLUMN_TRACK_GAIN + " REAL, " +
+                    COLUMN_TRACK_PEAK + " REAL, " +
+                    COLUMN_ALBUM_GAIN + " REAL, " +
+                    COLUMN_ALBUM_PEAK + " REAL, " +
+                    COLUMN_LOUDNESS_LUFS + " REAL, " +
+                    COLUMN_LOUDNESS_BLOCKS + " INTEGER DEFAULT 0, " +
+                    COLUMN_LOUDNESS_STATE + " INTEGER DEFAULT " + LOUDNESS_PENDING + ", " +
+                    COLUMN_DURATION_MS + " INTEGER DEFAULT 0, " +
+                    COLUMN_TRACK_NUMBER + " INTEGER DEFAULT 0, " +
+                    COLUMN_TITLE_SORT + " TEXT DEFAULT '', " +
+                    COLUMN_TITLE_SECTION + " TEXT DEFAULT '#', " +
+                    COLUMN_ADDED_AT + " INTEGER DEFAULT 0, " +
+                    COLUMN_PLAY_COUNT + " INTEGER DEFAULT 0, " +
+                    COLUMN_SKIP_COUNT + " INTEGER DEFAULT 0, " +
+                    COLUMN_LAST_PLAYED_AT + " INTEGER DEFAULT 0, " +
+                    COLUMN_LISTENED_MS + " INTEGER DEFAULT 0, " +
+                    COLUMN_CONTENT_HASH + " TEXT, " +
+                    COLUMN_FINGERPRINT + " BLOB, " +
+                    COLUMN_DEDUP_STATE + " INTEGER DEFAULT " + DEDUP_PENDING + ", " +
+                    COLUMN_DUPLICATE_OF + " INTEGER DEFAULT 0, " +
+                    COLUMN_GENERATION + " INTEGER DEFAULT 0" +
                     ");";
 
+    // Die Analyse sucht nur nach noch nicht analysierten Tracks.
+    private static final String INDEX_LOUDNESS_STATE =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_loudness_state ON " + TABLE_TRACKS +
+                    " (" + COLUMN_LOUDNESS_STATE + ", " + COLUMN_DELETED + ");";
+    private static final String INDEX_ALBUM =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_album ON " + TABLE_TRACKS + " (" + COLUMN_ALBUM + ");";
+    // Sortierte Listen lesen in Indexreihenfolge, der Sektionsindex zählt nur über den Index.
+    private static final String INDEX_TITLE_SORT =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_title_sort ON " + TABLE_TRACKS +
+                    " (" + COLUMN_DELETED + ", " + COLUMN_TITLE_SORT + ");";
+    // Enthält duplicate_of, damit der Sektionsindex auch ohne zusammengeklappte Dubletten nur über den Index zählt
+    private static final String INDEX_TITLE_SECTION =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_visible_section ON " + TABLE_TRACKS +
+                    " (" + COLUMN_DELETED + ", " + COLUMN_DUPLICATE_OF + ", " + COLUMN_TITLE_SECTION + ");";
+    // Der Dublettenlauf sucht nur nach noch nicht verarbeiteten Tracks.
+    private static final String INDEX_DEDUP_STATE =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_dedup_state ON " + TABLE_TRACKS +
+                    " (" + COLUMN_DEDUP_STATE + ", " + COLUMN_DELETED + ");";
+    private static final String INDEX_DUPLICATE_OF =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_duplicate_of ON " + TABLE_TRACKS + " (" + COLUMN_DUPLICATE_OF + ");";
+
+    // Indizes für die häufigsten Regelbedingungen der Smart-Playlists
+    private static final String INDEX_ADDED_AT =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_added_at ON " + TABLE_TRACKS +
+                    " (" + COLUMN_DELETED + ", " + COLUMN_ADDED_AT + ");";
+    private static final String INDEX_PLAY_COUNT =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_play_count ON " + TABLE_TRACKS + " (" + COLUMN_PLAY_COUNT + ");";
+
+    private static final String PLAYLISTS_CREATE =
+            "CREATE TABLE " + TABLE_PLAYLISTS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_NAME + " TEXT NOT NULL, " +
+                    COLUMN_RULE + " TEXT, " +
+                    COLUMN_SYSTEM_KEY + " TEXT UNIQUE, " +
+                    COLUMN_CREATED_AT + " INTEGER DEFAULT 0" +
+                    ");";
+    private static final String PLAYLIST_TRACKS_CREATE =
+            "CREATE TABLE " + TABLE_PLAYLIST_TRACKS + " (" +
+                    COLUMN_PLAYLIST_ID + " INTEGER NOT NULL, " +
+                    COLUMN_TRACK_ID + " INTEGER NOT NULL, " +
+                    COLUMN_POSITION + " INTEGER DEFAULT 0, " +
+                    "PRIMARY KEY (" + COLUMN_PLAYLIST_ID + ", " + COLUMN_TRACK_ID + ")" +
+                    ") WITHOUT ROWID;";
+    // Neuauswertung einzelner Tracks (z. B. nach dem Abspielen) findet ihre Mitgliedschaften über den Track
+    private static final String INDEX_PLAYLIST_TRACKS_TRACK =
+            "CREATE INDEX IF NOT EXISTS idx_playlist_tracks_track ON " + TABLE_PLAYLIST_TRACKS + " (" + COLUMN_TRACK_ID + ");";
+
+    private static final String PLAY_EVENTS_CREATE =
+            "CREATE TABLE " + TABLE_PLAY_EVENTS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_TRACK_ID + " INTEGER NOT NULL, " +
+                    COLUMN_STARTED_AT + " INTEGER NOT NULL, " +
+                    COLUMN_LISTENED_MS + " INTEGER NOT NULL, " +
+                    COLUMN_SKIPPED + " INTEGER NOT NULL DEFAULT 0" +
+                    ");";
+    private static final String LIBRARY_META_CREATE =
+            "CREATE TABLE " + TABLE_LIBRARY_META + " (" +
+                    COLUMN_KEY + " TEXT PRIMARY KEY, " +
+                    COLUMN_VALUE + " TEXT" +
+                    ");";
+    // "Zuletzt gespielt" liest direkt in Indexreihenfolge
+    private static final String INDEX_LAST_PLAYED =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_last_played ON " + TABLE_TRACKS +
+                    " (" + COLUMN_DELETED + ", " + COLUMN_LAST_PLAYED_AT + ");";
+
+    private static final String SCAN_REPORTS_CREATE =
+            "CREATE TABLE " + TABLE_SCAN_REPORTS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_STARTED_AT + " INTEGER NOT NULL, " +
+                    COLUMN_DURATION_MS + " INTEGER NOT NULL, " +
+                    COLUMN_FILES + " INTEGER NOT NULL, " +
+                    COLUMN_BYTES + " INTEGER NOT NULL, " +
+                    COLUMN_INSERTED + " INTEGER NOT NULL, " +
+                    COLUMN_SKIPPED_FILES + " INTEGER NOT NULL, " +
+                    COLUMN_ERRORS + " INTEGER NOT NULL, " +
+                    COLUMN_LIST_MS + " INTEGER NOT NULL, " +
+                    COLUMN_METADATA_MS + " INTEGER NOT NULL, " +
+                    COLUMN_DB_WRITE_MS + " INTEGER NOT NULL, " +
+                    COLUMN_COMMIT_MS + " INTEGER NOT NULL, " +
+                    COLUMN_METADATA_P50_US + " INTEGER NOT NULL, " +
+                    COLUMN_METADATA_P99_US + " INTEGER NOT NULL" +
+                    ");";
+
+    private static final String MAINTENANCE_REPORTS_CREATE =
+            "CREATE TABLE " + TABLE_MAINTENANCE_REPORTS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_STARTED_AT + " INTEGER NOT NULL, " +
+                    COLUMN_DURATION_MS + " INTEGER NOT NULL, " +
+                    COLUMN_PAGE_SIZE + " INTEGER NOT NULL, " +
+                    COLUMN_PAGES_BEFORE + " INTEGER NOT NULL, " +
+                    COLUMN_FREE_PAGES_BEFORE + " INTEGER NOT NULL, " +
+                    COLUMN_WAL_BYTES_BEFORE + " INTEGER NOT NULL, " +
+                    COLUMN_PAGES_AFTER + " INTEGER NOT NULL, " +
+                    COLUMN_FREE_PAGES_AFTER + " INTEGER NOT NULL, " +
+                    COLUMN_WAL_BYTES_AFTER + " INTEGER NOT NULL, " +
+                    COLUMN_PURGED + " INTEGER NOT NULL, " +
+                    COLUMN_VACUUMED_PAGES + " INTEGER NOT NULL, " +
+                    COLUMN_COMPLETE + " INTEGER NOT NULL" +
+                    ");";
+
+    private static final String ARTISTS_CREATE =
+            "CREATE TABLE " + TABLE_ARTISTS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_NAME + " TEXT NOT NULL UNIQUE, " +
+                    COLUMN_SORT_KEY + " TEXT NOT NULL, " +
+                    COLUMN_TRACK_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_TOTAL_DURATION_MS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ARTWORK_KEY + " TEXT" +
+                    ");";
+    private static final String ALBUMS_CREATE =
+            "CREATE TABLE " + TABLE_ALBUMS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_NAME + " TEXT NOT NULL UNIQUE, " +
+                    COLUMN_ARTIST + " TEXT DEFAULT '', " +
+                    COLUMN_SORT_KEY + " TEXT NOT NULL, " +
+                    COLUMN_TRACK_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_TOTAL_DURATION_MS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ARTWORK_KEY + " TEXT" +
+                    ");";
+    // Seitenweises Blättern per Keyset (sort_key, _id) statt OFFSET
+    private static final String INDEX_ARTISTS_SORT =
+            "CREATE INDEX IF NOT EXISTS idx_artists_sort ON " + TABLE_ARTISTS + " (" + COLUMN_SORT_KEY + ", " + COLUMN_ID + ");";
+    private static final String INDEX_ALBUMS_SORT =
+            "CREATE INDEX IF NOT EXISTS idx_albums_sort ON " + TABLE_ALBUMS + " (" + COLUMN_SORT_KEY + ", " + COLUMN_ID + ");";
+    private static final String INDEX_TRACKS_ARTIST =
+            "CREATE INDEX IF NOT EXISTS idx_tracks_artist ON " + TABLE_TRACKS + " (" + COLUMN_ARTIST + ");";
+
+    // Die Collator-Version wird nur beim ersten Öffnen im Prozess geprüft; sie ändert sich erst mit einem Update
+    private volatile boolean collationChecked;
+
     public TrackDatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
     }
@@ -40,11 +331,34 @@ public class TrackDatabaseHelper extends SQLiteOpenHelper {
     public void onConfigure(SQLiteDatabase db) {
         super.onConfigure(db);
         db.enableWriteAheadLogging();
+        // Wirkt nur, solange die Datei noch keine Tabellen hat (neue Installation). Bestehende Datenbanken stellt
+        // die DatabaseMaintenance einmalig per VACUUM um, weil VACUUM nicht in der Migrations-Transaktion laufen darf.
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
         db.execSQL(DATABASE_CREATE);
+        db.execSQL(INDEX_LOUDNESS_STATE);
+        db.execSQL(INDEX_ALBUM);
+        db.execSQL(INDEX_TITLE_SORT);
+        db.execSQL(INDEX_TITLE_SECTION);
+        db.execSQL(INDEX_DEDUP_STATE);
+        db.execSQL(INDEX_DUPLICATE_OF);
+        createSummaryTables(db);
+        createPlaylistTables(db);
+        createPlayHistoryTables(db);
+        db.execSQL(SCAN_REPORTS_CREATE);
+        db.execSQL(MAINTENANCE_REPORTS_CREATE);
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!collationChecked && !db.isReadOnly()) {
+            updateSortKeysIfCollationChanged(db);
+            collationChecked = true;
+        }
     }
 
     /**
@@ -63,6 +377,200 @@ public class TrackDatabaseHelper extends SQLiteOpenHelper {
             String alterTableDeleted = "ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_DELETED + " INTEGER DEFAULT 0;";
             db.execSQL(alterTableDeleted);
         }
-        
+        // Migration von Version 3 auf Version 4: Spalte "seek_index" hinzufügen
+        if (oldVersion < 4) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_SEEK_INDEX + " BLOB;");
+        }
+        // Migration von Version 4 auf Version 5: Album und ReplayGain-/Lautheitsspalten
+        if (oldVersion < 5) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_ALBUM + " TEXT DEFAULT '';");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_TRACK_GAIN + " REAL;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_TRACK_PEAK + " REAL;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_ALBUM_GAIN + " REAL;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_ALBUM_PEAK + " REAL;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_LOUDNESS_LUFS + " REAL;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_LOUDNESS_BLOCKS + " INTEGER DEFAULT 0;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_LOUDNESS_STATE + " INTEGER DEFAULT " + LOUDNESS_PENDING + ";");
+            db.execSQL(INDEX_LOUDNESS_STATE);
+            db.execSQL(INDEX_ALBUM);
+        }
+        // Migration von Version 5 auf Version 6: Dauer und Tracknummer
+        if (oldVersion < 6) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_DURATION_MS + " INTEGER DEFAULT 0;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_TRACK_NUMBER + " INTEGER DEFAULT 0;");
+        }
+        // Migration von Version 6 auf Version 7: Zusammenfassungstabellen anlegen und einmalig befüllen
+        if (oldVersion < 7) {
+            createSummaryTables(db);
+            rebuildSummaries(db);
+        }
+        // Migration von Version 7 auf Version 8: Sortierschlüssel einmalig für alle Tracks berechnen
+        if (oldVersion < 8) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_TITLE_SORT + " TEXT DEFAULT '';");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_TITLE_SECTION + " TEXT DEFAULT '#';");
+            updateTitleSortKeys(db);
+            db.execSQL(INDEX_TITLE_SORT);
+            // Die Zusammenfassungen hatten bisher nur kleingeschriebene Namen als Schlüssel.
+            if (oldVersion >= 7) {
+                updateSortKeys(db, TABLE_ARTISTS);
+                updateSortKeys(db, TABLE_ALBUMS);
+            }
+        }
+        // Migration von Version 8 auf Version 9: vorhandene Tracks gelten nicht als "neu" (added_at = 0)
+        if (oldVersion < 9) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_ADDED_AT + " INTEGER DEFAULT 0;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_PLAY_COUNT + " INTEGER DEFAULT 0;");
+            createPlaylistTables(db);
+        }
+        // Migration von Version 9 auf Version 10: Wiedergabeprotokoll und Zähler
+        if (oldVersion < 10) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_SKIP_COUNT + " INTEGER DEFAULT 0;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_LAST_PLAYED_AT + " INTEGER DEFAULT 0;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_LISTENED_MS + " INTEGER DEFAULT 0;");
+            createPlayHistoryTables(db);
+        }
+        // Migration von Version 10 auf Version 11: Dublettenerkennung; alle Tracks sind zunächst ausstehend
+        if (oldVersion < 11) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_CONTENT_HASH + " TEXT;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_FINGERPRINT + " BLOB;");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_DEDUP_STATE + " INTEGER DEFAULT " + DEDUP_PENDING + ";");
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_DUPLICATE_OF + " INTEGER DEFAULT 0;");
+            db.execSQL("DROP INDEX IF EXISTS idx_tracks_title_section;");
+            db.execSQL(INDEX_TITLE_SECTION);
+            db.execSQL(INDEX_DEDUP_STATE);
+            db.execSQL(INDEX_DUPLICATE_OF);
+        }
+        // Migration von Version 11 auf Version 12: vorhandene Zeilen gehören zur Generation 0
+        if (oldVersion < 12) {
+            db.execSQL("ALTER TABLE " + TABLE_TRACKS + " ADD COLUMN " + COLUMN_GENERATION + " INTEGER DEFAULT 0;");
+        }
+        // Migration von Version 12 auf Version 13: Scan-Berichte
+        if (oldVersion < 13) {
+            db.execSQL(SCAN_REPORTS_CREATE);
+        }
+        // Migration von Version 13 auf Version 14: Wartungsberichte
+        if (oldVersion < 14) {
+            db.execSQL(MAINTENANCE_REPORTS_CREATE);
+        }
+    }
+
+    private static void createPlayHistoryTables(SQLiteDatabase db) {
+        db.execSQL(PLAY_EVENTS_CREATE);
+        db.execSQL(LIBRARY_META_CREATE);
+        db.execSQL(INDEX_LAST_PLAYED);
+    }
+
+    private static void createPlaylistTables(SQLiteDatabase db) {
+        db.execSQL(INDEX_ADDED_AT);
+        db.execSQL(INDEX_PLAY_COUNT);
+        db.execSQL(PLAYLISTS_CREATE);
+        db.execSQL(PLAYLIST_TRACKS_CREATE);
+        db.execSQL(INDEX_PLAYLIST_TRACKS_TRACK);
+        // "Neue Titel" ist eine Smart-Playlist; sie ist beim Anlegen leer und wird vom Scanner befüllt.
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_NAME, "Neue Titel");
+        values.put(COLUMN_RULE, PlaylistRule.FIELD_ADDED_DAYS + " < 7");
+        values.put(COLUMN_SYSTEM_KEY, SYSTEM_KEY_NEW_TITLES);
+        values.put(COLUMN_CREATED_AT, System.currentTimeMillis());
+        db.insert(TABLE_PLAYLISTS, null, values);
+    }
+
+    private static void updateTitleSortKeys(SQLiteDatabase db) {
+        try (Cursor cursor = db.query(TABLE_TRACKS, new String[]{COLUMN_ID, COLUMN_TITLE}, null, null, null, null, null)) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                String title = cursor.getString(1);
+                values.put(COLUMN_TITLE_SORT, SortKeys.sortKey(title));
+                values.put(COLUMN_TITLE_SECTION, String.valueOf(SortKeys.sectionOf(title)));
+                db.update(TABLE_TRACKS, values, COLUMN_ID + " = ?", new String[]{String.valueOf(cursor.getLong(0))});
+            }
+        }
+    }
+
+    /**
+     * Gespeicherte Sortierschlüssel sind Collation-Keys der ICU-Version, mit der sie berechnet wurden. Bringt ein
+     * System-Update neue ICU-Daten oder ändert sich {@link SortKeys}, sortieren neue Schlüssel nicht mehr passend zu
+     * den alten; dann werden Titel-, Interpreten- und Albumschlüssel einmalig in einer Transaktion neu berechnet.
+     */
+    private static void updateSortKeysIfCollationChanged(SQLiteDatabase db) {
+        String version = collationVersion();
+        try (Cursor cursor = db.query(TABLE_LIBRARY_META, new String[]{COLUMN_VALUE}, COLUMN_KEY + " = ?",
+                new String[]{META_COLLATION_VERSION}, null, null, null)) {
+            if (cursor.moveToFirst() && version.equals(cursor.getString(0))) {
+                return;
+            }
+        }
+        long start = System.currentTimeMillis();
+        db.beginTransaction();
+        try {
+            updateTitleSortKeys(db);
+            updateSortKeys(db, TABLE_ARTISTS);
+            updateSortKeys(db, TABLE_ALBUMS);
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_KEY, META_COLLATION_VERSION);
+            values.put(COLUMN_VALUE, version);
+            db.insertWithOnConflict(TABLE_LIBRARY_META, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        AppLog.d(TAG, "Sortierschlüssel für " + version + " neu berechnet in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @return Version von {@link SortKeys} und des deutschen ICU-Collators, auf dem {@link java.text.Collator}
+     * unter Android aufsetzt, z. B. "sortkeys=1;icu=153.112.32.0".
+     */
+    static String collationVersion() {
+        return "sortkeys=" + SortKeys.VERSION + ";icu=" + Collator.getInstance(Locale.GERMAN).getVersion();
+    }
+
+    private static void createSummaryTables(SQLiteDatabase db) {
+        db.execSQL(ARTISTS_CREATE);
+        db.execSQL(ALBUMS_CREATE);
+        db.execSQL(INDEX_ARTISTS_SORT);
+        db.execSQL(INDEX_ALBUMS_SORT);
+        db.execSQL(INDEX_TRACKS_ARTIST);
+    }
+
+    /**
+     * Berechnet beide Zusammenfassungstabellen vollständig aus der Track-Tabelle neu.
+     * Wird nur bei der Migration benötigt; im Betrieb werden die Tabellen inkrementell gepflegt.
+     */
+    static void rebuildSummaries(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + TABLE_ARTISTS);
+        db.execSQL("DELETE FROM " + TABLE_ALBUMS);
+        db.execSQL("INSERT INTO " + TABLE_ARTISTS + " (" + COLUMN_NAME + ", " + COLUMN_SORT_KEY + ", " +
+                COLUMN_TRACK_COUNT + ", " + COLUMN_TOTAL_DURATION_MS + ", " + COLUMN_ARTWORK_KEY + ") " +
+                "SELECT " + COLUMN_ARTIST + ", " + COLUMN_ARTIST + ", COUNT(*), SUM(" + COLUMN_DURATION_MS + "), MIN(" + COLUMN_URI + ") " +
+                "FROM " + TABLE_TRACKS + " WHERE " + COLUMN_DELETED + " = 0 AND " + COLUMN_ARTIST + " != '' " +
+                "GROUP BY " + COLUMN_ARTIST);
+        db.execSQL("INSERT INTO " + TABLE_ALBUMS + " (" + COLUMN_NAME + ", " + COLUMN_ARTIST + ", " + COLUMN_SORT_KEY + ", " +
+                COLUMN_TRACK_COUNT + ", " + COLUMN_TOTAL_DURATION_MS + ", " + COLUMN_ARTWORK_KEY + ") " +
+                "SELECT " + COLUMN_ALBUM + ", CASE WHEN COUNT(DISTINCT " + COLUMN_ARTIST + ") > 1 THEN '" + VARIOUS_ARTISTS +
+                "' ELSE MIN(" + COLUMN_ARTIST + ") END, " + COLUMN_ALBUM + ", COUNT(*), SUM(" + COLUMN_DURATION_MS + "), MIN(" + COLUMN_URI + ") " +
+                "FROM " + TABLE_TRACKS + " WHERE " + COLUMN_DELETED + " = 0 AND " + COLUMN_ALBUM + " != '' " +
+                "GROUP BY " + COLUMN_ALBUM);
+        // Sortierschlüssel in Java berechnen, damit sie mit denen des Scanners übereinstimmen
+        updateSortKeys(db, TABLE_ARTISTS);
+        updateSortKeys(db, TABLE_ALBUMS);
+    }
+
+    private static void updateSortKeys(SQLiteDatabase db, String table) {
+        try (Cursor cursor = db.query(table, new String[]{COLUMN_ID, COLUMN_NAME}, null, null, null, null, null)) {
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                values.put(COLUMN_SORT_KEY, sortKeyFor(cursor.getString(1)));
+                db.update(table, values, COLUMN_ID + " = ?", new String[]{String.valueOf(cursor.getLong(0))});
+            }
+        }
+    }
+
+    /**
+     * Sortierschlüssel für Interpreten- und Albumnamen, siehe {@link SortKeys#sortKey(String)}.
+     */
+    public static String sortKeyFor(String name) {
+        return SortKeys.sortKey(name);
     }
 }
@@ -1,75 +1,186 @@
 package com.example.myapplication;
 
 import android.os.Bundle;
-import android.widget.AbsListView;
-import android.widget.ListView;
 import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
 import java.util.ArrayList;
 import java.util.List;
 
 public class TrackListActivity extends AppCompatActivity {
 
-    private ListView listViewTracks;
-    private TrackListAdapter adapter;
+    // Optional: statt aller Titel nur die eines Albums bzw. Interpreten anzeigen (aus der BrowseActivity)
+    public static final String EXTRA_ALBUM = "album";
+    public static final String EXTRA_ARTIST = "artist";
+    // Optional: Titel einer Playlist, per ID oder per Systemkennung (z. B. "Neue Titel")
+    public static final String EXTRA_PLAYLIST_ID = "playlist_id";
+    public static final String EXTRA_SYSTEM_PLAYLIST = "system_playlist";
+    // Optional: Wiedergabeverlauf aus den aufsummierten Zählern
+    public static final String EXTRA_HISTORY = "history";
+    public static final String HISTORY_RECENT = "recent";
+    public static final String HISTORY_MOST_PLAYED = "most_played";
+    private static final int HISTORY_LIMIT = 200;
+
+    private RecyclerView recyclerTracks;
+    private TrackAdapter adapter;
     private final List<Track> trackList = new ArrayList<>();
     private int currentPage = 0;
     private final int PAGE_SIZE = 50;
     private boolean isLoading = false;
+    private boolean endReached = false;
     // Beispielhafter Ordner-URI. Normalerweise wird dieser per Intent übergeben.
     private final String folderUriStr = "content://com.example.provider/your_folder_uri";
     private MusicRepository repository;
+    private AppExecutors executors;
+    private String albumFilter;
+    private String artistFilter;
+    private long playlistId = -1;
+    private String systemPlaylist;
+    private String history;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_track_list);
+        FrameMetricsRecorder.track(this, "TrackList");
 
         // Initialisiere das Repository (Model)
         repository = MusicRepository.getInstance(getApplicationContext());
-        listViewTracks = findViewById(R.id.listViewTracks);
-        adapter = new TrackListAdapter(this, trackList);
-        listViewTracks.setAdapter(adapter);
+        executors = AppExecutors.getInstance(getApplicationContext());
+        recyclerTracks = findViewById(R.id.recyclerTracks);
+        adapter = new TrackAdapter(executors);
+        TrackListPipeline.attach(this, recyclerTracks, adapter);
+        albumFilter = getIntent().getStringExtra(EXTRA_ALBUM);
+        artistFilter = getIntent().getStringExtra(EXTRA_ARTIST);
+        playlistId = getIntent().getLongExtra(EXTRA_PLAYLIST_ID, -1);
+        systemPlaylist = getIntent().getStringExtra(EXTRA_SYSTEM_PLAYLIST);
+        history = getIntent().getStringExtra(EXTRA_HISTORY);
+        // Lange tippen: Titel zu einer Playlist hinzufügen
+        adapter.setOnTrackLongClickListener(this::chooseManualPlaylist);
+        if (albumFilter != null || artistFilter != null || playlistId != -1 || systemPlaylist != null
+                || history != null) {
+            // Album, Interpret oder Playlist umfassen wenige Titel: auf einmal laden, kein Nachladen beim Scrollen.
+            if (albumFilter != null || artistFilter != null) {
+                setTitle(albumFilter != null ? albumFilter : artistFilter);
+            }
+            loadGroup();
+            return;
+        }
 
         // Lade die erste Seite von Tracks
         loadNextPage();
 
-        // Setze einen Scroll-Listener, um weitere Seiten zu laden, sobald der Benutzer nahe dem Ende der Liste scrollt.
-        listViewTracks.setOnScrollListener(new AbsListView.OnScrollListener() {
-            @Override
-            public void onScrollStateChanged(AbsListView view, int scrollState) {
-                // Hier ist keine weitere Aktion erforderlich
+        // Die nächste Seite wird schon eine Seite vor dem Listenende geladen, damit ein Fling nicht am Ende stockt.
+        TrackListPipeline.prefetchPages(recyclerTracks, PAGE_SIZE, () -> {
+            if (!isLoading && !endReached) {
+                loadNextPage();
+            }
+        });
+    }
+
+    /**
+     * Lädt die Gruppe auf einmal. Wird die Activity vorher verlassen, bricht die Abfrage ab.
+     */
+    private void loadGroup() {
+        isLoading = true;
+        final String album = albumFilter;
+        final String artist = artistFilter;
+        final String historyMode = history;
+        final long knownPlaylistId = playlistId;
+        final String systemKey = systemPlaylist;
+        repository.load(this, groupQueryKey(), cancellation -> {
+            if (album != null) {
+                return repository.getTracksForAlbum(album, cancellation);
+            } else if (artist != null) {
+                return repository.getTracksForArtist(artist, cancellation);
+            } else if (historyMode != null) {
+                return HISTORY_MOST_PLAYED.equals(historyMode)
+                        ? repository.getMostPlayed(HISTORY_LIMIT, cancellation)
+                        : repository.getRecentlyPlayed(HISTORY_LIMIT, cancellation);
             }
+            long id = knownPlaylistId != -1 ? knownPlaylistId : repository.getSystemPlaylistId(systemKey);
+            return repository.getPlaylistTracks(id, cancellation);
+        }, tracks -> {
+            trackList.addAll(tracks);
+            // Der Diff läuft im Hintergrund; submitList braucht je Änderung eine neue Liste.
+            adapter.submitList(new ArrayList<>(trackList));
+            isLoading = false;
+        }, this::onLoadFailed);
+    }
+
+    /**
+     * Gibt das Laden nach einem Fehler wieder frei; in der Gesamtliste versucht das nächste Scrollen die Seite erneut.
+     */
+    private void onLoadFailed(RuntimeException error) {
+        isLoading = false;
+        Toast.makeText(this, "Titel konnten nicht geladen werden.", Toast.LENGTH_SHORT).show();
+    }
 
-            @Override
-            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
-                // Wenn weniger als 5 Einträge nach dem aktuell sichtbaren Bereich vorhanden sind, lade die nächste Seite.
-                if (!isLoading && (totalItemCount - (firstVisibleItem + visibleItemCount)) <= 5) {
-                    loadNextPage();
+    /**
+     * Schlüssel, unter dem gleiche Gruppenabfragen zusammengefasst werden.
+     */
+    private String groupQueryKey() {
+        if (albumFilter != null) {
+            return "album:" + albumFilter;
+        } else if (artistFilter != null) {
+            return "artist:" + artistFilter;
+        } else if (history != null) {
+            return "history:" + history + ":" + HISTORY_LIMIT;
+        }
+        return playlistId != -1 ? "playlist:" + playlistId : "system_playlist:" + systemPlaylist;
+    }
+
+    /**
+     * Bietet die manuellen Playlists zur Auswahl an und hängt den Titel an die gewählte an.
+     */
+    private void chooseManualPlaylist(Track track) {
+        executors.uiLoad().execute(() -> {
+            List<Playlist> manual = new ArrayList<>();
+            for (Playlist playlist : repository.getPlaylists()) {
+                if (!playlist.isSmart()) {
+                    manual.add(playlist);
                 }
             }
+            runOnUiThread(() -> {
+                if (manual.isEmpty()) {
+                    Toast.makeText(this, "Keine eigene Playlist vorhanden.", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                String[] names = new String[manual.size()];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = manual.get(i).getName();
+                }
+                new AlertDialog.Builder(this)
+                        .setTitle("Zu Playlist hinzufügen")
+                        .setItems(names, (dialog, which) -> executors.dbWrite().execute(() ->
+                                repository.addTrackToPlaylist(manual.get(which).getId(), track.getId())))
+                        .show();
+            });
         });
     }
 
     /**
-     * Lädt asynchron die nächste Seite von Tracks aus der Datenbank und fügt diese der ListView hinzu.
+     * Lädt asynchron die nächste Seite von Tracks aus der Datenbank und fügt diese der Liste hinzu.
      * Bei Erfolg wird die neue Seite der bestehenden Liste hinzugefügt und der aktuelle Seitenzähler erhöht.
      * Wird keine weitere Seite gefunden, erfolgt eine kurze Rückmeldung an den Nutzer.
+     * Verlässt der Nutzer die Liste während des Ladens, bricht die Abfrage ab.
      */
     private void loadNextPage() {
         isLoading = true;
-        new Thread(() -> {
-            final List<Track> newTracks = repository.getCachedTracksPage(currentPage, PAGE_SIZE, "");
-            runOnUiThread(() -> {
-                if (newTracks != null && !newTracks.isEmpty()) {
-                    trackList.addAll(newTracks);
-                    adapter.notifyDataSetChanged();
-                    currentPage++;
-                } else {
-                    Toast.makeText(TrackListActivity.this, "Keine weiteren Titel gefunden.", Toast.LENGTH_SHORT).show();
-                }
-                isLoading = false;
-            });
-        }).start();
+        final int page = currentPage;
+        repository.load(this, "page:" + page + ":" + PAGE_SIZE,
+                cancellation -> repository.getCachedTracksPage(page, PAGE_SIZE, "", cancellation), newTracks -> {
+                    if (newTracks != null && !newTracks.isEmpty()) {
+                        trackList.addAll(newTracks);
+                        adapter.submitList(new ArrayList<>(trackList));
+                        currentPage++;
+                    } else {
+                        // Ohne weitere Seiten nicht bei jedem Scrollschritt erneut abfragen
+                        endReached = true;
+                        Toast.makeText(TrackListActivity.this, "Keine weiteren Titel gefunden.", Toast.LENGTH_SHORT).show();
+                    }
+                    isLoading = false;
+                }, this::onLoadFailed);
     }
 }
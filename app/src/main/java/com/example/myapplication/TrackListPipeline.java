@@ -0,0 +1,171 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TrackListPipeline richtet die Track-Listen (Alle Titel, Titelliste, Album-/Interpreten-/Playlist-Ansicht)
+ * einheitlich für schnelles Scrollen ein:
+ * <ul>
+ *     <li>ein gemeinsamer {@link RecyclerView.RecycledViewPool}, sodass ein neu geöffneter Bildschirm bereits
+ *     inflatete Zeilen vorfindet,</li>
+ *     <li>ein LayoutManager, der beim Fling so viele Zeilen vorab bindet, wie in den nächsten Frames sichtbar
+ *     werden (der GapWorker bindet sonst nur eine Zeile je Frame),</li>
+ *     <li>optional das Nachladen der nächsten Datenseite, bevor das Ende der geladenen Liste sichtbar wird.</li>
+ * </ul>
+ * Die Textlayouts der Zeilen berechnet {@link TrackAdapter} im Hintergrund.
+ */
+public final class TrackListPipeline {
+
+    // Zeilen je ViewType im gemeinsamen Pool; reicht für zwei bildschirmfüllende Listen im Back-Stack
+    private static final int POOL_SIZE = 30;
+    // Beim Fling werden die Zeilen der nächsten Frames vorab gebunden, höchstens jedoch so viele
+    private static final int FRAMES_AHEAD = 2;
+    private static final int MAX_PREFETCH_ROWS = 8;
+
+    private static final RecyclerView.RecycledViewPool SHARED_POOL = new RecyclerView.RecycledViewPool();
+
+    static {
+        SHARED_POOL.setMaxRecycledViews(TrackAdapter.VIEW_TYPE_TRACK, POOL_SIZE);
+    }
+
+    /**
+     * Callback zum Nachladen der nächsten Seite.
+     */
+    public interface PageLoader {
+        void loadNextPage();
+    }
+
+    private TrackListPipeline() {
+    }
+
+    /**
+     * Richtet die Liste ein. Beim Zerstören des Besitzers werden dessen Zeilen aus dem gemeinsamen Pool entfernt,
+     * damit der Pool keine beendete Activity festhält.
+     *
+     * @return Der eingesetzte LayoutManager.
+     */
+    public static LinearLayoutManager attach(@NonNull LifecycleOwner owner, @NonNull RecyclerView recyclerView,
+                                             @NonNull TrackAdapter adapter) {
+        Context context = recyclerView.getContext();
+        LinearLayoutManager layoutManager = new FlingPrefetchLayoutManager(context);
+        recyclerView.setLayoutManager(layoutManager);
+        // Alle Zeilen haben dieselbe Höhe; Änderungen am Inhalt ändern die Größe der Liste nicht
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setRecycledViewPool(SHARED_POOL);
+        recyclerView.setAdapter(adapter);
+        // Frames während des Scrollens getrennt auswerten (siehe FrameMetricsRecorder)
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView rv, int newState) {
+                FrameMetricsRecorder.setState(FrameMetricsRecorder.STATE_SCROLLING,
+                        newState != RecyclerView.SCROLL_STATE_IDLE);
+            }
+        });
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner source) {
+                FrameMetricsRecorder.setState(FrameMetricsRecorder.STATE_SCROLLING, false);
+                releasePool(context);
+            }
+        });
+        return layoutManager;
+    }
+
+    /**
+     * Lädt die nächste Seite, sobald weniger als {@code prefetchRows} geladene Zeilen unterhalb des sichtbaren
+     * Bereichs liegen. Der Loader ist selbst dafür verantwortlich, parallele Ladevorgänge zu verhindern.
+     */
+    public static void prefetchPages(@NonNull RecyclerView recyclerView, int prefetchRows,
+                                     @NonNull PageLoader loader) {
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                if (layoutManager == null || dy < 0) {
+                    return;
+                }
+                int remaining = layoutManager.getItemCount() - layoutManager.findLastVisibleItemPosition() - 1;
+                if (remaining < prefetchRows) {
+                    loader.loadNextPage();
+                }
+            }
+        });
+    }
+
+    /**
+     * Entfernt alle Zeilen aus dem Pool, die zu {@code context} gehören.
+     */
+    private static void releasePool(Context context) {
+        Context owner = unwrap(context);
+        List<RecyclerView.ViewHolder> keep = new ArrayList<>();
+        RecyclerView.ViewHolder holder;
+        while ((holder = SHARED_POOL.getRecycledView(TrackAdapter.VIEW_TYPE_TRACK)) != null) {
+            if (unwrap(holder.itemView.getContext()) != owner) {
+                keep.add(holder);
+            }
+        }
+        for (RecyclerView.ViewHolder kept : keep) {
+            SHARED_POOL.putRecycledView(kept);
+        }
+    }
+
+    private static Context unwrap(Context context) {
+        while (context instanceof ContextWrapper && !(context instanceof android.app.Activity)) {
+            Context base = ((ContextWrapper) context).getBaseContext();
+            if (base == null) {
+                break;
+            }
+            context = base;
+        }
+        return context;
+    }
+
+    /**
+     * Bindet beim schnellen Scrollen zusätzlich die Zeilen vorab, die laut aktueller Geschwindigkeit in den
+     * nächsten {@link #FRAMES_AHEAD} Frames sichtbar werden.
+     */
+    static class FlingPrefetchLayoutManager extends LinearLayoutManager {
+
+        FlingPrefetchLayoutManager(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void collectAdjacentPrefetchPositions(int dx, int dy, RecyclerView.State state,
+                                                     LayoutPrefetchRegistry registry) {
+            // Die direkt angrenzende Zeile trägt LinearLayoutManager selbst ein
+            super.collectAdjacentPrefetchPositions(dx, dy, state, registry);
+            int delta = getOrientation() == HORIZONTAL ? dx : dy;
+            if (delta == 0 || getChildCount() == 0) {
+                return;
+            }
+            int direction = delta > 0 ? 1 : -1;
+            View edge = getChildAt(direction > 0 ? getChildCount() - 1 : 0);
+            int rowSize = getOrientation() == HORIZONTAL ? edge.getWidth() : edge.getHeight();
+            if (rowSize <= 0) {
+                return;
+            }
+            int rows = Math.min(MAX_PREFETCH_ROWS, Math.abs(delta) * FRAMES_AHEAD / rowSize);
+            int edgePosition = getPosition(edge);
+            for (int i = 2; i <= rows + 1; i++) {
+                int position = edgePosition + direction * i;
+                if (position < 0 || position >= state.getItemCount()) {
+                    break;
+                }
+                // Abstand in Pixeln: weiter entfernte Zeilen haben niedrigere Priorität
+                registry.addPosition(position, rowSize * (i - 1));
+            }
+        }
+    }
+}
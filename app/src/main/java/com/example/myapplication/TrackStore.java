@@ -0,0 +1,161 @@
+package com.example.myapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TrackStore ist die Speicher-Engine hinter dem {@link MusicRepository} für die Bibliothek selbst: Tracks
+ * einfügen, seitenweise und gefiltert lesen, zählen, als gelöscht markieren sowie die Zusammenfassungen nach
+ * Interpret und Album. Playlists, Analyseergebnisse und Berichte liegen in den Geschwister-Schnittstellen
+ * {@link PlaylistStore}, {@link TrackAnalysisStore} und {@link ReportStore}.
+ * <p>
+ * Es gibt zwei Implementierungen: {@link SqliteTrackStore} für die App und {@link InMemoryTrackStore} für
+ * JVM-Tests und Benchmarks ohne Android-SQLite. Beide liefern dieselben Ergebnisse in derselben Reihenfolge
+ * (Titel nach {@link SortKeys#sortKey(String)}, dann ID). Welche Engine verwendet wird, entscheidet allein das
+ * {@link StorageModule}.
+ * <p>
+ * Implementierungen müssen threadsicher sein; das Repository serialisiert nur Massenänderungen gegen Playlists.
+ * Lesende Abfragen nehmen eine {@link QueryCancellation} entgegen; nach einem Abbruch enden sie mit einer
+ * Ausnahme statt mit einem Teilergebnis. Die Track-Listen (Gesamtliste, Seiten, Album, Interpret) werfen auch bei
+ * Fehlern der Engine eine RuntimeException, damit das Repository kein Fehlerergebnis zwischenspeichert.
+ */
+public interface TrackStore {
+
+    /**
+     * Öffnet die Engine samt ausstehender Migrationen. Blockiert; nicht im UI-Thread aufrufen.
+     */
+    void open();
+
+    /**
+     * Fügt neue Tracks in einem Batch ein und überspringt exakte Dubletten (gleicher Titel, Interpret und URI).
+     * Alle eingefügten oder ergänzten Tracks erhalten dieselbe neue Generation. Eingefügte, übersprungene und
+     * fehlerhafte Tracks werden in {@code metrics} gezählt.
+     *
+     * @return Die eingefügten Tracks mit vergebener ID und Generation, in Einfügereihenfolge.
+     */
+    default List<Track> insertTracks(List<Track> tracks, ScanMetrics metrics) {
+        return insertTracks(tracks, metrics, new ArrayList<>());
+    }
+
+    /**
+     * Wie {@link #insertTracks(List, ScanMetrics)}; sichtbare Tracks, deren Dauer, Tracknummer oder Album dabei
+     * ergänzt wurde, werden zusätzlich mit ihrem neuen Stand an {@code backfilled} angehängt (nur nach Commit).
+     */
+    List<Track> insertTracks(List<Track> tracks, ScanMetrics metrics, List<Track> backfilled);
+
+    /**
+     * @return Alle sichtbaren Tracks (nicht gelöscht, keine zusammengeklappte Dublette) in Titelreihenfolge.
+     */
+    List<Track> getVisibleTracks(QueryCancellation cancellation);
+
+    default List<Track> getVisibleTracks() {
+        return getVisibleTracks(QueryCancellation.NONE);
+    }
+
+    /**
+     * Liest eine Seite in Titelreihenfolge. Ohne Filter wie {@link #getVisibleTracks(QueryCancellation)}; mit Filter alle nicht
+     * gelöschten Tracks, deren URI mit {@code folderUriFilter} beginnt, auch Dubletten.
+     */
+    List<Track> getTracksPage(int page, int pageSize, String folderUriFilter, QueryCancellation cancellation);
+
+    default List<Track> getTracksPage(int page, int pageSize, String folderUriFilter) {
+        return getTracksPage(page, pageSize, folderUriFilter, QueryCancellation.NONE);
+    }
+
+    /**
+     * @return Anzahl der nicht gelöschten Tracks.
+     */
+    long getTrackCount();
+
+    /**
+     * @return Die Titel eines Albums nach Tracknummer, dann Titel.
+     */
+    List<Track> getTracksForAlbum(String album, QueryCancellation cancellation);
+
+    default List<Track> getTracksForAlbum(String album) {
+        return getTracksForAlbum(album, QueryCancellation.NONE);
+    }
+
+    /**
+     * @return Die Titel eines Interpreten nach Album, Tracknummer, dann Titel.
+     */
+    List<Track> getTracksForArtist(String artist, QueryCancellation cancellation);
+
+    default List<Track> getTracksForArtist(String artist) {
+        return getTracksForArtist(artist, QueryCancellation.NONE);
+    }
+
+    /**
+     * @return Der Sektionsindex (Anfangsbuchstabe → Anzahl) der sichtbaren Tracks, in Titelreihenfolge.
+     */
+    SectionIndex getTitleSectionIndex();
+
+    /**
+     * Liest eine Seite der Interpreten-Zusammenfassung nach Sortierschlüssel, dann ID. Geblättert wird per
+     * Keyset: Die Kosten je Seite sind unabhängig von Position und Bibliotheksgröße.
+     *
+     * @param after Letzter Eintrag der vorherigen Seite oder {@code null} für die erste Seite.
+     */
+    List<LibrarySummary> getArtistsPage(LibrarySummary after, int pageSize);
+
+    /**
+     * Wie {@link #getArtistsPage(LibrarySummary, int)} für Alben.
+     */
+    List<LibrarySummary> getAlbumsPage(LibrarySummary after, int pageSize);
+
+    long getArtistCount();
+
+    long getAlbumCount();
+
+    /**
+     * Baut einen {@link LibraryIndex} über alle sichtbaren Tracks auf (nicht gelöscht, keine zusammengeklappte
+     * Dublette).
+     */
+    LibraryIndex loadLibraryIndex(QueryCancellation cancellation);
+
+    default LibraryIndex loadLibraryIndex() {
+        return loadLibraryIndex(QueryCancellation.NONE);
+    }
+
+    /**
+     * Löscht alle Tracks samt abhängiger Daten (Playlist-Einträge, Wiedergabe-Ereignisse, Zusammenfassungen) in
+     * einer Transaktion.
+     *
+     * @return Anzahl der gelöschten Tracks.
+     */
+    int deleteAllTracks();
+
+    /**
+     * Markiert alle Tracks, deren URI mit {@code folderUri} beginnt, als gelöscht.
+     *
+     * @return Anzahl der markierten Tracks.
+     */
+    int markDeletedInFolder(String folderUri);
+
+    /**
+     * Markiert alle Tracks als gelöscht, deren URI mit keinem der Ordner beginnt; bei leerer Liste alle.
+     *
+     * @return Anzahl der markierten Tracks.
+     */
+    int markDeletedOutside(List<String> validFolderUris);
+
+    /**
+     * Entfernt die als gelöscht markierten Tracks endgültig, sobald es mindestens {@code minCount} sind.
+     *
+     * @return Anzahl der entfernten Tracks; 0, wenn die Schwelle nicht erreicht wurde.
+     */
+    int purgeDeleted(int minCount);
+
+    /**
+     * Entfernt höchstens {@code limit} als gelöscht markierte Tracks (die ältesten zuerst) in einer kurzen
+     * Transaktion. Für die zeitlich begrenzte Wartung, die so lange Batches aufruft, wie ihr Budget reicht.
+     *
+     * @return Anzahl der entfernten Tracks; 0, wenn keine mehr übrig sind.
+     */
+    int purgeDeletedBatch(int limit);
+
+    /**
+     * Schreibt Aufbau und Zustand der Engine ins Log (Diagnose).
+     */
+    void logDebugInfo();
+}
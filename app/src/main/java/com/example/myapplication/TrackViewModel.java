@@ -4,28 +4,107 @@ import android.app.Application;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * TrackViewModel stellt die Track-Daten als LiveData bereit und kapselt so den Zugriff auf das MusicRepository.
- * Dadurch wird die UI automatisch benachrichtigt, wenn sich die Daten ändern.
+ * TrackViewModel stellt die alphabetische Titelliste als LiveData bereit und kapselt so den Zugriff auf das
+ * MusicRepository. Die Liste entsteht aus dem {@link LibraryIndex} im UiLoad-Pool, ohne Track-Zeilen aus der
+ * Datenbank zu lesen; die Tracks tragen nur die Spalten des Index (ohne URI).
  */
 public class TrackViewModel extends AndroidViewModel {
-    private MusicRepository repository;
-    private LiveData<List<Track>> allTracks;
+
+    // Sektionen in der Reihenfolge der Schnellsprungleiste: # vor A..Z vor anderen Schriften
+    private static final int SECTION_COUNT = 28;
+
+    /**
+     * Titel samt passendem Sektionsindex.
+     */
+    public static final class TitleList {
+        public final List<Track> tracks;
+        public final SectionIndex sections;
+
+        TitleList(List<Track> tracks, SectionIndex sections) {
+            this.tracks = tracks;
+            this.sections = sections;
+        }
+    }
+
+    private final MusicRepository repository;
+    private final AppExecutors executors;
+    private final MutableLiveData<TitleList> titles = new MutableLiveData<>();
 
     public TrackViewModel(@NonNull Application application) {
         super(application);
         repository = MusicRepository.getInstance(application);
-        allTracks = repository.getAllTracksLiveData();
+        executors = AppExecutors.getInstance(application);
+        refreshTracks();
     }
 
-    public LiveData<List<Track>> getAllTracks() {
-        return allTracks;
+    public LiveData<TitleList> getTitles() {
+        return titles;
     }
 
-    // Optional: Falls du die Daten aktualisieren möchtest, kannst du auch eine Methode hinzufügen:
+    /**
+     * Baut die Liste im Hintergrund neu aus dem (fortgeschriebenen) Index auf.
+     */
     public void refreshTracks() {
-        allTracks = repository.getAllTracksLiveData();
+        executors.uiLoad().execute(() -> titles.postValue(buildTitleList(repository.getLibraryIndex())));
+    }
+
+    /**
+     * Ordnet die Zeilen stabil nach {@link SortKeys#sectionOf(String)}; innerhalb einer Sektion bleibt die
+     * Titelreihenfolge des Index erhalten. So liegt jede Sektion zusammenhängend und der Sektionsindex passt zur
+     * Liste, auch wo der Index anders sortiert als der gespeicherte Sortierschlüssel (z. B. "Die Ärzte" unter A).
+     */
+    static TitleList buildTitleList(LibraryIndex index) {
+        int[] rows = index.sortedRows(LibraryIndex.SORT_TITLE, true);
+        List<List<Track>> buckets = new ArrayList<>(SECTION_COUNT);
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int row : rows) {
+            String title = index.getTitle(row);
+            Track track = new Track.Builder(title, "")
+                    .id(index.getId(row))
+                    .artist(index.getArtist(row))
+                    .album(index.getAlbum(row))
+                    .durationMs(index.getDurationMs(row))
+                    .build();
+            buckets.get(bucketOf(SortKeys.sectionOf(title))).add(track);
+        }
+        List<Track> tracks = new ArrayList<>(rows.length);
+        StringBuilder sectionChars = new StringBuilder(SECTION_COUNT);
+        int[] counts = new int[SECTION_COUNT];
+        int sections = 0;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            List<Track> bucket = buckets.get(i);
+            if (!bucket.isEmpty()) {
+                sectionChars.append(sectionChar(i));
+                counts[sections++] = bucket.size();
+                tracks.addAll(bucket);
+            }
+        }
+        int[] sectionCounts = new int[sections];
+        System.arraycopy(counts, 0, sectionCounts, 0, sections);
+        return new TitleList(tracks, new SectionIndex(sectionChars.toString().toCharArray(), sectionCounts));
+    }
+
+    private static int bucketOf(char section) {
+        if (section == SortKeys.SECTION_OTHER) {
+            return 0;
+        }
+        if (section >= 'A' && section <= 'Z') {
+            return 1 + section - 'A';
+        }
+        return SECTION_COUNT - 1;
+    }
+
+    private static char sectionChar(int bucket) {
+        if (bucket == 0) {
+            return SortKeys.SECTION_OTHER;
+        }
+        return bucket == SECTION_COUNT - 1 ? SortKeys.SECTION_NON_LATIN : (char) ('A' + bucket - 1);
     }
 }
@@ -0,0 +1,36 @@
+package com.example.myapplication;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.startup.Initializer;
+import androidx.work.Configuration;
+import androidx.work.WorkManager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * WorkManagerConfigInitializer ersetzt den mitgelieferten {@code WorkManagerInitializer} (siehe Manifest) und
+ * initialisiert WorkManager beim Prozessstart mit dem Scan-Pool als Executor. Damit laufen Scanner, Analyse-,
+ * Dubletten- und Wartungs-Worker in {@link AppExecutors#scan()} mit Hintergrund-Priorität und erscheinen mit
+ * ihren Wartezeiten in der Diagnose, statt in einem eigenen Pool von WorkManager.
+ */
+public class WorkManagerConfigInitializer implements Initializer<WorkManager> {
+
+    @NonNull
+    @Override
+    public WorkManager create(@NonNull Context context) {
+        Configuration configuration = new Configuration.Builder()
+                .setExecutor(AppExecutors.getInstance(context).scan())
+                .build();
+        WorkManager.initialize(context, configuration);
+        return WorkManager.getInstance(context);
+    }
+
+    @NonNull
+    @Override
+    public List<Class<? extends Initializer<?>>> dependencies() {
+        return Collections.emptyList();
+    }
+}
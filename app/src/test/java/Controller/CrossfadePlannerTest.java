@@ -0,0 +1,37 @@
+package Controller;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CrossfadePlannerTest {
+
+    @Test
+    public void testConsecutiveAlbumTracksAreGapless() {
+        assertEquals(CrossfadePlanner.TRANSITION_GAPLESS,
+                CrossfadePlanner.planTransition("Live", 3, "Live", 4, 6000));
+        assertEquals(CrossfadePlanner.TRANSITION_CROSSFADE,
+                CrossfadePlanner.planTransition("Live", 3, "Live", 5, 6000));
+        assertEquals(CrossfadePlanner.TRANSITION_CROSSFADE,
+                CrossfadePlanner.planTransition("", 3, "", 4, 6000));
+        assertEquals(CrossfadePlanner.TRANSITION_NONE,
+                CrossfadePlanner.planTransition("A", 1, "B", 1, 0));
+    }
+
+    @Test
+    public void testOverlapIsLimitedByShorterTrack() {
+        assertEquals(6000, CrossfadePlanner.overlapMs(6000, 200_000, 180_000));
+        assertEquals(4000, CrossfadePlanner.overlapMs(6000, 200_000, 8000));
+        assertEquals(6000, CrossfadePlanner.overlapMs(6000, 0, 0));
+    }
+
+    @Test
+    public void testEqualPowerCurve() {
+        assertEquals(1f, CrossfadePlanner.fadeOutGain(0), 1e-6);
+        assertEquals(0f, CrossfadePlanner.fadeInGain(0), 1e-6);
+        float out = CrossfadePlanner.fadeOutGain(0.5);
+        float in = CrossfadePlanner.fadeInGain(0.5);
+        assertEquals(1.0, out * out + in * in, 1e-6);
+        assertEquals(1f, CrossfadePlanner.fadeInGain(2), 1e-6);
+    }
+}
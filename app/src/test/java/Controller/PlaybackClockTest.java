@@ -0,0 +1,48 @@
+package Controller;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PlaybackClockTest {
+
+    private long now;
+    private PlaybackClock clock;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        clock = new PlaybackClock(() -> now);
+        clock.setDurationMs(60_000);
+    }
+
+    @Test
+    public void testExtrapolatesWhileRunning() {
+        clock.start(2_000);
+        now += 1_500;
+        assertEquals(3_500, clock.getPositionMs());
+    }
+
+    @Test
+    public void testStandsStillWhenPaused() {
+        clock.start(0);
+        now += 1_000;
+        clock.pause(1_000);
+        now += 10_000;
+        assertFalse(clock.isRunning());
+        assertEquals(1_000, clock.getPositionMs());
+    }
+
+    @Test
+    public void testRateAndClampToDuration() {
+        clock.start(0);
+        now += 1_000;
+        clock.setRate(2f);
+        now += 1_000;
+        assertEquals(3_000, clock.getPositionMs());
+
+        now += 120_000;
+        assertEquals(60_000, clock.getPositionMs());
+    }
+}
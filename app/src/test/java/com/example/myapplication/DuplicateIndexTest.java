@@ -0,0 +1,130 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.Random;
+
+public class DuplicateIndexTest {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    @Test
+    public void testEqualContentHashFormsGroupWithOldestAsRepresentative() {
+        DuplicateIndex index = new DuplicateIndex();
+        index.add(7, "abc", null);
+        index.add(3, "abc", null);
+        index.add(5, "def", null);
+        Map<Integer, Integer> representatives = index.representatives();
+        assertEquals(1, representatives.size());
+        assertEquals(Integer.valueOf(3), representatives.get(7));
+    }
+
+    @Test
+    public void testSimilarFingerprintsAreGroupedWithoutComparingAllPairs() {
+        Random random = new Random(42);
+        DuplicateIndex index = new DuplicateIndex();
+        long[] original = randomFingerprint(random);
+        index.add(1, null, original);
+        for (int id = 2; id <= 500; id++) {
+            index.add(id, null, randomFingerprint(random));
+        }
+        long[] copy = original.clone();
+        copy[0] ^= 0b1011; // drei abweichende Bits
+        copy[2] ^= 1L << 40;
+        index.add(1000, null, copy);
+
+        Map<Integer, Integer> representatives = index.representatives();
+        assertEquals(Integer.valueOf(1), representatives.get(1000));
+        assertEquals(1, representatives.size());
+        // Zufällige Abdrücke teilen kaum Bänder: weit weniger als n²/2 Vergleiche
+        assertTrue(index.getComparisons() < 1000);
+    }
+
+    @Test
+    public void testReencodedSignalHasCloseFingerprint() {
+        long[] a = fingerprint(SAMPLE_RATE, 0.0, 1);
+        // Andere Abtastrate, leiser und mit Rauschen: wie eine neu kodierte Kopie
+        long[] b = fingerprint(48000, 0.01, 1);
+        long[] other = fingerprint(SAMPLE_RATE, 0.0, 7);
+        assertNotNull(a);
+        assertNotNull(b);
+        assertTrue(DuplicateIndex.hammingDistance(a, b) <= DuplicateIndex.MAX_DISTANCE);
+        assertTrue(DuplicateIndex.hammingDistance(a, other) > DuplicateIndex.MAX_DISTANCE);
+    }
+
+    @Test
+    public void testFingerprintBytesRoundTrip() {
+        long[] fingerprint = {0x0123456789ABCDEFL, -1L, 42L};
+        assertArrayEquals(fingerprint, DuplicateIndex.fromBytes(DuplicateIndex.toBytes(fingerprint)));
+        assertNull(DuplicateIndex.fromBytes(new byte[5]));
+    }
+
+    @Test
+    public void testContentHashDependsOnSampledBlocksAndSize() throws Exception {
+        byte[] data = new byte[ContentHasher.BLOCK_SIZE * 5];
+        new Random(1).nextBytes(data);
+        File first = writeTemp(data);
+        File second = writeTemp(data);
+        assertEquals(hash(first), hash(second));
+
+        data[data.length / 2] ^= 1; // liegt im mittleren Block
+        File changed = writeTemp(data);
+        assertNotEquals(hash(first), hash(changed));
+    }
+
+    private static long[] randomFingerprint(Random random) {
+        return new long[]{random.nextLong(), random.nextLong(), random.nextLong()};
+    }
+
+    /**
+     * Eine Folge von Dreiklängen, je Segment ein anderer; {@code seed} wählt die Akkordfolge.
+     */
+    private static long[] fingerprint(int sampleRate, double noise, long seed) {
+        Random chords = new Random(seed);
+        Random noiseSource = new Random(99);
+        ChromaFingerprinter fingerprinter = new ChromaFingerprinter(sampleRate, 1);
+        int segmentFrames = (int) Math.round(sampleRate * ChromaFingerprinter.SEGMENT_SECONDS);
+        float[] buffer = new float[segmentFrames];
+        double gain = noise > 0 ? 0.5 : 0.8;
+        for (int s = 0; s < ChromaFingerprinter.SEGMENTS; s++) {
+            int root = 48 + chords.nextInt(24);
+            double[] hz = {midiToHz(root), midiToHz(root + 4), midiToHz(root + 7)};
+            for (int i = 0; i < segmentFrames; i++) {
+                double t = (double) (s * segmentFrames + i) / sampleRate;
+                double value = 0;
+                for (double f : hz) {
+                    value += Math.sin(2 * Math.PI * f * t);
+                }
+                buffer[i] = (float) (gain * value / 3 + noise * noiseSource.nextGaussian());
+            }
+            fingerprinter.process(buffer, segmentFrames);
+        }
+        return fingerprinter.getFingerprint();
+    }
+
+    private static double midiToHz(int midi) {
+        return 440.0 * Math.pow(2, (midi - 69) / 12.0);
+    }
+
+    private static File writeTemp(byte[] data) throws Exception {
+        File file = File.createTempFile("hash", ".bin");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        return file;
+    }
+
+    private static String hash(File file) throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            return ContentHasher.hash(channel);
+        }
+    }
+}
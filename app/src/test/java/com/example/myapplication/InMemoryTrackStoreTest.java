@@ -0,0 +1,151 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class InMemoryTrackStoreTest {
+
+    private static Track track(String title, String artist, String uri) {
+        return new Track.Builder(title, uri).artist(artist).album("Album " + artist).durationMs(180_000).build();
+    }
+
+    @Test
+    public void testInsertAssignsIdsAndGenerationsAndSkipsDuplicates() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        ScanMetrics metrics = new ScanMetrics();
+        List<Track> first = store.insertTracks(Arrays.asList(
+                track("Beta", "A", "file:///m/b.mp3"),
+                track("Alpha", "A", "file:///m/a.mp3")), metrics);
+        List<Track> second = store.insertTracks(Arrays.asList(
+                track("Alpha", "A", "file:///m/a.mp3"),
+                track("Gamma", "B", "file:///m/g.mp3")), metrics);
+
+        assertEquals(1, first.get(0).getId());
+        assertEquals(2, first.get(1).getId());
+        assertEquals(1, first.get(0).getGeneration());
+        assertEquals(1, second.size());
+        assertEquals(3, second.get(0).getId());
+        assertEquals(2, second.get(0).getGeneration());
+        assertEquals(3, metrics.get(ScanMetrics.INSERTED));
+        assertEquals(1, metrics.get(ScanMetrics.SKIPPED));
+        assertEquals(3, store.getTrackCount());
+    }
+
+    @Test
+    public void testPagesFollowTitleOrderAndFolderFilter() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String folder = i % 2 == 0 ? "file:///m/even/" : "file:///m/odd/";
+            tracks.add(track(String.format("Song %02d", 24 - i), "A", folder + i + ".mp3"));
+        }
+        store.insertTracks(tracks, new ScanMetrics());
+
+        List<Track> page = store.getTracksPage(1, 10, null);
+        assertEquals(10, page.size());
+        assertEquals("Song 10", page.get(0).getTitle());
+        assertEquals(5, store.getTracksPage(2, 10, null).size());
+        assertTrue(store.getTracksPage(3, 10, null).isEmpty());
+
+        List<Track> even = store.getTracksPage(0, 100, "FILE:///m/even/");
+        assertEquals(13, even.size());
+        for (Track track : even) {
+            assertTrue(track.getUri().startsWith("file:///m/even/"));
+        }
+        assertEquals(store.getVisibleTracks().subList(10, 20), page);
+    }
+
+    @Test
+    public void testMarkDeletedAndPurge() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        store.insertTracks(Arrays.asList(
+                track("One", "A", "file:///keep/1.mp3"),
+                track("Two", "A", "file:///drop/2.mp3"),
+                track("Three", "B", "file:///gone/3.mp3")), new ScanMetrics());
+
+        assertEquals(1, store.markDeletedInFolder("file:///drop/"));
+        assertEquals(1, store.markDeletedOutside(Collections.singletonList(" file:///keep/")));
+        assertEquals(1, store.getTrackCount());
+        assertEquals(1, store.getVisibleTracks().size());
+        assertEquals(1, store.loadLibraryIndex().size());
+
+        // Ein gelöschter Track darf erneut eingefügt werden und bekommt eine neue ID
+        List<Track> again = store.insertTracks(Collections.singletonList(
+                track("Two", "A", "file:///drop/2.mp3")), new ScanMetrics());
+        assertEquals(4, again.get(0).getId());
+
+        assertEquals(0, store.purgeDeleted(10));
+        assertEquals(2, store.purgeDeleted(2));
+        assertEquals(0, store.purgeDeleted(1));
+        assertEquals(2, store.getTrackCount());
+    }
+
+    @Test
+    public void testPurgeDeletedInBatches() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tracks.add(track("Song " + i, "A", "file:///drop/" + i + ".mp3"));
+        }
+        tracks.add(track("Keep", "A", "file:///keep/1.mp3"));
+        store.insertTracks(tracks, new ScanMetrics());
+        assertEquals(5, store.markDeletedInFolder("file:///drop/"));
+
+        assertEquals(2, store.purgeDeletedBatch(2));
+        assertEquals(2, store.purgeDeletedBatch(2));
+        assertEquals(1, store.purgeDeletedBatch(2));
+        assertEquals(0, store.purgeDeletedBatch(2));
+        assertEquals(0, store.purgeDeleted(1));
+        assertEquals(1, store.getTrackCount());
+    }
+
+    @Test
+    public void testBackfillCompletesTracksWithoutDuration() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        store.insertTracks(Collections.singletonList(
+                new Track.Builder("Old", "file:///m/old.mp3").artist("A").build()), new ScanMetrics());
+        Track rescanned = new Track.Builder("Old", "file:///m/old.mp3").artist("A").album("Later")
+                .durationMs(200_000).trackNumber(3).build();
+        store.insertTracks(Collections.singletonList(rescanned), new ScanMetrics());
+
+        Track stored = store.getVisibleTracks().get(0);
+        assertEquals(1, stored.getId());
+        assertEquals(200_000, stored.getDurationMs());
+        assertEquals(3, stored.getTrackNumber());
+        assertEquals("Later", stored.getAlbum());
+        assertEquals(2, stored.getGeneration());
+    }
+
+    @Test
+    public void testAlbumAndArtistOrder() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        store.insertTracks(Arrays.asList(
+                new Track.Builder("Z", "u1").artist("A").album("Second").trackNumber(1).build(),
+                new Track.Builder("Y", "u2").artist("A").album("First").trackNumber(2).build(),
+                new Track.Builder("X", "u3").artist("A").album("First").trackNumber(1).build(),
+                new Track.Builder("W", "u4").artist("B").album("First").trackNumber(3).build()), new ScanMetrics());
+
+        List<Track> album = store.getTracksForAlbum("First");
+        assertEquals(Arrays.asList("X", "Y", "W"), titles(album));
+        List<Track> artist = store.getTracksForArtist("A");
+        assertEquals(Arrays.asList("X", "Y", "Z"), titles(artist));
+
+        assertEquals(4, store.deleteAllTracks());
+        assertEquals(0, store.getTrackCount());
+        assertTrue(store.getVisibleTracks().isEmpty());
+    }
+
+    private static List<String> titles(List<Track> tracks) {
+        List<String> titles = new ArrayList<>();
+        for (Track track : tracks) {
+            titles.add(track.getTitle());
+        }
+        return titles;
+    }
+}
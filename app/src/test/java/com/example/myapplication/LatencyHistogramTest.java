@@ -0,0 +1,50 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverValuesWithoutGaps() {
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.lowerBound(bucket) <= value);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+        }
+        int last = LatencyHistogram.bucketOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(last));
+    }
+
+    @Test
+    public void testPercentilesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 100);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        long p50 = histogram.valueAtPercentile(50);
+        long p99 = histogram.valueAtPercentile(99);
+        assertEquals(500_000, p50, 500_000.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(990_000, p99, 990_000.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(1_000_000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void testAddAndCountAbove() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(8_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(40_000);
+        }
+        fast.add(slow);
+        assertEquals(100, fast.getCount());
+        assertEquals(10, fast.getCountAbove(16_666));
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(50));
+    }
+}
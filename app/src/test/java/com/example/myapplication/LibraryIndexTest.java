@@ -0,0 +1,94 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LibraryIndexTest {
+
+    private LibraryIndex index;
+
+    @Before
+    public void setUp() {
+        index = new LibraryIndex();
+        index.add(1, "Zebra", "Beta", "B-Seite", 200_000);
+        index.add(2, "apfel", "alpha", "A-Seite", 100_000);
+        index.add(3, "Mango", "Beta", "A-Seite", 300_000);
+    }
+
+    @Test
+    public void testSortByTitleIgnoresCase() {
+        int[] rows = index.sortedRows(LibraryIndex.SORT_TITLE, true);
+        assertEquals("apfel", index.getTitle(rows[0]));
+        assertEquals("Mango", index.getTitle(rows[1]));
+        assertEquals("Zebra", index.getTitle(rows[2]));
+    }
+
+    @Test
+    public void testSortByArtistThenTitleAndDuration() {
+        int[] rows = index.sortedRows(LibraryIndex.SORT_ARTIST, true);
+        assertEquals(2, index.getId(rows[0]));
+        assertEquals(3, index.getId(rows[1]));
+        assertEquals(1, index.getId(rows[2]));
+
+        rows = index.sortedRows(LibraryIndex.SORT_DURATION, false);
+        assertEquals(3, index.getId(rows[0]));
+    }
+
+    @Test
+    public void testGroupAndCount() {
+        LibraryIndex.Groups groups = index.groupBy(LibraryIndex.GROUP_ARTIST);
+        assertEquals(2, groups.size());
+        assertEquals("alpha", groups.getName(0));
+        assertEquals(1, groups.getCount(0));
+        assertEquals("Beta", groups.getName(1));
+        assertEquals(2, groups.getCount(1));
+        assertEquals(2, index.countByAlbum("A-Seite"));
+        assertEquals(0, index.countByArtist("Gamma"));
+    }
+
+    @Test
+    public void testGroupsFollowSortKeys() {
+        index.add(4, "Schrei nach Liebe", "Die Ärzte", "Debil", 240_000);
+        LibraryIndex.Groups groups = index.groupBy(LibraryIndex.GROUP_ARTIST);
+        // Ohne Artikel und mit gefaltetem Umlaut zwischen "alpha" und "Beta", wie in der Datenbank
+        assertEquals("alpha", groups.getName(0));
+        assertEquals("Die Ärzte", groups.getName(1));
+        assertEquals("Beta", groups.getName(2));
+    }
+
+    @Test
+    public void testRemoveAndReplace() {
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(2, index.size());
+        assertEquals(-1, index.rowOf(1));
+
+        index.add(3, "Mango (Live)", "Beta", "A-Seite", 310_000);
+        assertEquals(2, index.size());
+        assertEquals("Mango (Live)", index.getTitle(index.rowOf(3)));
+        assertEquals(1, index.countByArtist("Beta"));
+    }
+
+    @Test
+    public void testLargeSortIsOrdered() {
+        LibraryIndex large = new LibraryIndex();
+        Random random = new Random(7);
+        for (int id = 1; id <= 5000; id++) {
+            large.add(id, "t" + random.nextInt(100_000), "a" + random.nextInt(50), "", random.nextInt(600_000));
+        }
+        for (int id = 1; id <= 5000; id += 2) {
+            large.remove(id);
+        }
+        int[] rows = large.sortedRows(LibraryIndex.SORT_DURATION, true);
+        assertEquals(2500, rows.length);
+        for (int i = 1; i < rows.length; i++) {
+            assertTrue(large.getDurationMs(rows[i - 1]) <= large.getDurationMs(rows[i]));
+        }
+        LibraryIndex.Groups groups = large.groupBy(LibraryIndex.GROUP_ARTIST);
+        assertEquals(2500, groups.rows.length);
+    }
+}
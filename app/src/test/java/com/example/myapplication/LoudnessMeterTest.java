@@ -0,0 +1,54 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LoudnessMeterTest {
+
+    @Test
+    public void testSineReferenceLevel() {
+        // 997 Hz Sinus mit -23 dBFS Spitzenpegel auf beiden Kanälen entspricht -23 LUFS (EBU Tech 3341).
+        LoudnessMeter meter = new LoudnessMeter(48000, 2);
+        feedSine(meter, 48000, 997, Math.pow(10, -23 / 20.0), 10);
+
+        assertEquals(-23.0, meter.getIntegratedLoudness(), 0.2);
+        assertEquals(5.0, LoudnessMeter.gainForLoudness(meter.getIntegratedLoudness()), 0.2);
+        assertTrue(meter.getGatedBlockCount() > 0);
+    }
+
+    @Test
+    public void testTruePeakOfSine() {
+        LoudnessMeter meter = new LoudnessMeter(44100, 2);
+        feedSine(meter, 44100, 1000, 0.5, 2);
+
+        assertEquals(0.5, meter.getTruePeak(), 0.02);
+    }
+
+    @Test
+    public void testSilenceIsGatedAway() {
+        LoudnessMeter meter = new LoudnessMeter(44100, 1);
+        meter.process(new float[44100], 44100);
+
+        assertTrue(Double.isInfinite(meter.getIntegratedLoudness()));
+        assertEquals(0, meter.getGatedBlockCount());
+    }
+
+    @Test
+    public void testCombineLoudnessWeightsByBlocks() {
+        double album = LoudnessMeter.combineLoudness(new double[]{-20, -20, Double.NEGATIVE_INFINITY},
+                new int[]{10, 30, 5});
+        assertEquals(-20.0, album, 0.001);
+    }
+
+    private static void feedSine(LoudnessMeter meter, int sampleRate, double frequency, double amplitude, int seconds) {
+        int frames = sampleRate * seconds;
+        float[] samples = new float[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            float value = (float) (amplitude * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            samples[2 * i] = value;
+            samples[2 * i + 1] = value;
+        }
+        meter.process(samples, frames);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class MonitoredExecutorTest {
+
+    @Test
+    public void testMeasuresQueueDepthAndWaitTime() throws Exception {
+        MonitoredExecutor executor = new MonitoredExecutor("Test", 1, runnable -> new Thread(runnable, "Test-1"));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> last = null;
+        for (int i = 0; i < 3; i++) {
+            last = executor.submit(() -> Thread.currentThread().getName());
+        }
+        assertEquals(3, executor.getQueueDepth());
+        assertEquals(3, executor.getMaxQueueDepth());
+
+        Thread.sleep(20);
+        release.countDown();
+        assertEquals("Test-1", last.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(0, executor.getQueueDepth());
+        assertEquals(4, executor.getWaitHistogram().getCount());
+        assertEquals(4, executor.getRunHistogram().getCount());
+        // Die eingereihten Aufgaben haben mindestens so lange gewartet, wie die erste blockiert war
+        assertTrue(executor.getWaitHistogram().getMax() >= 20_000);
+        assertTrue(executor.getRunHistogram().getMax() >= 20_000);
+        assertTrue(executor.formatStats().startsWith("Test  1 Thr.  Queue 0/3  4 Aufg."));
+
+        executor.resetStats();
+        assertEquals(0, executor.getWaitHistogram().getCount());
+        assertEquals(0, executor.getMaxQueueDepth());
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Das Repository auf der In-Memory-Engine: jede öffentliche Funktion muss ohne SQLite laufen.
+ */
+public class MusicRepositoryInMemoryTest {
+
+    private MusicRepository repository;
+
+    @Before
+    public void setUp() {
+        InMemoryTrackStore store = new InMemoryTrackStore();
+        // Der Pool startet erst mit der ersten Aufgabe einen Thread; die Tests nutzen nur synchrone Methoden.
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        repository = new MusicRepository(store, store, store, new InMemoryReportStore(), executor,
+                new DbWriter(Executors.newSingleThreadExecutor()), new SharedQueries(Runnable::run, Runnable::run));
+    }
+
+    private static Track track(String title, String artist, String album, String uri) {
+        return new Track.Builder(title, uri).artist(artist).album(album).durationMs(180_000).build();
+    }
+
+    @Test
+    public void testPlaylistsAndPlayCounts() {
+        repository.insertTracks(Arrays.asList(
+                track("Beta", "A", "Eins", "file:///m/b.mp3"),
+                track("Alpha", "A", "Eins", "file:///m/a.mp3"),
+                track("Gamma", "B", "Zwei", "file:///m/g.mp3")));
+        assertEquals(Arrays.asList("Alpha", "Beta", "Gamma"), titles(repository.getCachedTracks()));
+        assertEquals(3, repository.getTrackCount());
+
+        long newTitles = repository.getSystemPlaylistId(TrackDatabaseHelper.SYSTEM_KEY_NEW_TITLES);
+        assertEquals(3, repository.getPlaylistTracks(newTitles).size());
+
+        long neverPlayed = repository.createSmartPlaylist("Nie gespielt", PlaylistRule.parse("play_count = 0"));
+        assertEquals(3, repository.getPlaylistTracks(neverPlayed).size());
+
+        long now = System.currentTimeMillis();
+        repository.insertPlayEvents(Arrays.asList(
+                new PlayEvent(2, now - 1000, 120_000, false),
+                new PlayEvent(2, now - 500, 5_000, true),
+                new PlayEvent(3, now - 200, 3_000, true)));
+        repository.rollUpPlayEvents();
+        // Ein zweiter Lauf darf dieselben Ereignisse nicht erneut zählen
+        repository.rollUpPlayEvents();
+
+        assertEquals(Arrays.asList("Alpha"), titles(repository.getMostPlayed(10)));
+        assertEquals(Arrays.asList("Gamma", "Alpha"), titles(repository.getRecentlyPlayed(10)));
+        assertEquals(Arrays.asList("Beta", "Gamma"), titles(repository.getPlaylistTracks(neverPlayed)));
+
+        long mix = repository.createPlaylist("Mix");
+        repository.addTrackToPlaylist(mix, 3);
+        repository.addTrackToPlaylist(mix, 1);
+        repository.addTrackToPlaylist(mix, 3);
+        assertEquals(Arrays.asList("Gamma", "Beta"), titles(repository.getPlaylistTracks(mix)));
+
+        List<Playlist> playlists = repository.getPlaylists();
+        assertEquals(3, playlists.size());
+        assertEquals(newTitles, playlists.get(0).getId());
+        assertEquals("Mix", playlists.get(1).getName());
+        assertEquals(2, playlists.get(1).getTrackCount());
+
+        repository.deletePlaylist(mix);
+        assertEquals(2, repository.getPlaylists().size());
+    }
+
+    @Test
+    public void testAnalysisSummariesAndReports() {
+        repository.insertTracks(Arrays.asList(
+                track("Eins", "A", "Live", "file:///m/1.mp3"),
+                track("Zwei", "B", "Live", "file:///m/2.mp3"),
+                track("Drei", "B", "Studio", "file:///m/3.mp3")));
+        assertEquals(3, repository.getTracksPendingLoudness(10).size());
+
+        assertTrue(repository.saveLoudness(1, -20.0, 100, 0.5));
+        assertTrue(repository.saveLoudness(2, -20.0, 100, 0.8));
+        assertTrue(repository.markLoudnessFailed(3));
+        assertFalse(repository.saveLoudness(99, -20.0, 100, 0.5));
+        assertTrue(repository.getTracksPendingLoudness(10).isEmpty());
+        repository.updateAlbumGain("A", "Live");
+        repository.updateAlbumGain("B", "Live");
+
+        // Gleichnamige Alben verschiedener Interpreten werden getrennt berechnet
+        for (Track track : repository.getTracksForAlbum("Live")) {
+            assertEquals(2.0f, track.getTrackGain(), 1e-6f);
+            assertEquals(2.0f, track.getAlbumGain(), 1e-6f);
+            assertEquals(track.getTrackPeak(), track.getAlbumPeak(), 1e-6f);
+        }
+
+        List<LibrarySummary> albums = repository.getAlbumsPage(null, 1);
+        assertEquals(1, albums.size());
+        assertEquals("Live", albums.get(0).getName());
+        assertEquals(TrackDatabaseHelper.VARIOUS_ARTISTS, albums.get(0).getArtist());
+        assertEquals(2, albums.get(0).getTrackCount());
+        List<LibrarySummary> next = repository.getAlbumsPage(albums.get(0), 1);
+        assertEquals("Studio", next.get(0).getName());
+        assertEquals(2, repository.getAlbumCount());
+        assertEquals(2, repository.getArtistCount());
+
+        assertEquals(3, repository.getCachedTracks().size());
+        assertTrue(repository.saveDedupData(1, "abc", null, false));
+        assertTrue(repository.saveDedupData(3, "abc", null, false));
+        assertTrue(repository.markDedupFailed(2));
+        assertEquals(1, repository.updateDuplicateGroups());
+        assertEquals(Arrays.asList("Eins", "Zwei"), titles(repository.getCachedTracks()));
+        assertArrayEquals(new String[]{"E", "Z"}, repository.getTitleSectionIndex().getSections());
+
+        assertNull(repository.getSeekIndex(1));
+
+        repository.saveScanReport(new ScanReport(System.currentTimeMillis(), 10, 3, 3000, 3, 0, 0, 1, 2, 3, 4, 5, 6));
+        assertEquals(1, repository.getScanReports().size());
+        assertTrue(repository.getMaintenanceReports().isEmpty());
+
+        repository.deleteAllTracks();
+        assertEquals(0, repository.getTrackCount());
+        assertTrue(repository.getCachedTracks().isEmpty());
+        assertEquals(0, repository.getAlbumCount());
+    }
+
+    @Test
+    public void testAlbumGainKeepsTagValuesAndIgnoresTagLoudness() {
+        repository.insertTracks(Arrays.asList(
+                track("Eins", "A", "Live", "file:///m/1.mp3"),
+                track("Zwei", "A", "Live", "file:///m/2.mp3"),
+                new Track.Builder("Drei", "file:///m/3.mp3").artist("A").album("Live")
+                        .replayGain(-8.0f, 0.9f, -6.0f, 0.95f).build(),
+                new Track.Builder("Vier", "file:///m/4.mp3").artist("A").album("Live")
+                        .replayGain(-10.0f, 0.7f, Float.NaN, Float.NaN).build()));
+        assertTrue(repository.saveLoudness(1, -20.0, 100, 0.5));
+        assertTrue(repository.saveLoudness(2, -20.0, 300, 0.6));
+        repository.updateAlbumGain("A", "Live");
+
+        for (Track track : repository.getTracksForAlbum("Live")) {
+            if (track.getTitle().equals("Drei")) {
+                assertEquals(-6.0f, track.getAlbumGain(), 1e-6f);
+                assertEquals(0.95f, track.getAlbumPeak(), 1e-6f);
+            } else {
+                // Die aus Tags zurückgerechnete Lautheit (ohne Messblöcke) zählt nicht mit
+                assertEquals(track.getTitle(), 2.0f, track.getAlbumGain(), 1e-6f);
+            }
+        }
+    }
+
+    @Test
+    public void testLibraryIndexFollowsInsertsAndBackfill() {
+        repository.insertTracks(Arrays.asList(
+                new Track.Builder("Alt", "file:///m/alt.mp3").artist("A").build(),
+                track("Eins", "A", "Live", "file:///m/1.mp3")));
+        LibraryIndex index = repository.getLibraryIndex();
+        assertEquals(0, index.getDurationMs(index.rowOf(1)));
+
+        repository.insertTracks(Arrays.asList(
+                new Track.Builder("Alt", "file:///m/alt.mp3").artist("A").album("Live").durationMs(90_000).build(),
+                track("Zwei", "B", "Live", "file:///m/2.mp3")));
+        assertSame(index, repository.getLibraryIndex());
+        assertEquals(3, index.size());
+        assertEquals(90_000, index.getDurationMs(index.rowOf(1)));
+        assertEquals("Live", index.getAlbum(index.rowOf(1)));
+        assertEquals(3, index.countByAlbum("Live"));
+    }
+
+    @Test
+    public void testLibraryIndexHidesCollapsedDuplicates() {
+        repository.insertTracks(Arrays.asList(
+                track("Eins", "A", "Live", "file:///m/1.mp3"),
+                track("Eins", "A", "Live", "file:///m/1-kopie.mp3")));
+        assertEquals(2, repository.getLibraryIndex().size());
+
+        repository.saveDedupData(1, "abc", null, false);
+        repository.saveDedupData(2, "abc", null, false);
+        assertEquals(1, repository.updateDuplicateGroups());
+        LibraryIndex index = repository.getLibraryIndex();
+        assertEquals(1, index.size());
+        assertEquals(1, index.countByAlbum("Live"));
+    }
+
+    @Test
+    public void testSmartPlaylistsCatchUpAfterFailedEvaluation() {
+        boolean[] failing = {true};
+        InMemoryTrackStore store = new InMemoryTrackStore() {
+            @Override
+            public synchronized void addNewTracksToSmartPlaylists() {
+                // Wie ein Rollback: weder Mitglieder noch Stand werden gespeichert
+                if (!failing[0]) {
+                    super.addNewTracksToSmartPlaylists();
+                }
+            }
+        };
+        MusicRepository repository = new MusicRepository(store, store, store, new InMemoryReportStore(),
+                Executors.newSingleThreadExecutor(), new DbWriter(Runnable::run),
+                new SharedQueries(Runnable::run, Runnable::run));
+        long newTitles = repository.getSystemPlaylistId(TrackDatabaseHelper.SYSTEM_KEY_NEW_TITLES);
+
+        repository.insertTracks(Arrays.asList(track("Eins", "A", "Live", "file:///m/1.mp3")));
+        assertTrue(repository.getPlaylistTracks(newTitles).isEmpty());
+        failing[0] = false;
+        repository.insertTracks(Arrays.asList(track("Zwei", "B", "Live", "file:///m/2.mp3")));
+        List<String> members = titles(repository.getPlaylistTracks(newTitles));
+        assertEquals(2, members.size());
+        assertTrue(members.containsAll(Arrays.asList("Eins", "Zwei")));
+    }
+
+    @Test
+    public void testFailedQueryIsNotCached() {
+        boolean[] failing = {true};
+        InMemoryTrackStore store = new InMemoryTrackStore() {
+            @Override
+            public synchronized List<Track> getVisibleTracks(QueryCancellation cancellation) {
+                if (failing[0]) {
+                    throw new IllegalStateException("database is locked");
+                }
+                return super.getVisibleTracks(cancellation);
+            }
+        };
+        MusicRepository repository = new MusicRepository(store, store, store, new InMemoryReportStore(),
+                Executors.newSingleThreadExecutor(), new DbWriter(Runnable::run),
+                new SharedQueries(Runnable::run, Runnable::run));
+        store.insertTracks(Arrays.asList(track("Eins", "A", "Live", "file:///m/1.mp3")), new ScanMetrics());
+
+        assertTrue(repository.getCachedTracks().isEmpty());
+        failing[0] = false;
+        assertEquals(1, repository.getCachedTracks().size());
+    }
+
+    @Test
+    public void testAnalysisBookkeepingKeepsCache() {
+        repository.insertTracks(Arrays.asList(
+                track("Eins", "A", "Live", "file:///m/1.mp3"),
+                track("Zwei", "B", "Live", "file:///m/2.mp3")));
+        repository.getCachedTracks();
+        QueryCache cache = repository.getQueryCache();
+        assertEquals(1, cache.size());
+
+        repository.markLoudnessFailed(2);
+        repository.saveDedupData(1, "abc", null, false);
+        repository.saveDedupData(2, "def", null, false);
+        assertEquals(0, repository.updateDuplicateGroups());
+        assertEquals(1, cache.size());
+
+        // Gain-Werte werden erst mit dem Batch sichtbar
+        repository.saveLoudness(1, -20.0, 100, 0.5);
+        assertEquals(1, cache.size());
+        repository.publishLoudnessResults();
+        assertEquals(0, cache.size());
+        assertEquals(2.0f, repository.getCachedTracks().get(0).getTrackGain(), 1e-6f);
+    }
+
+    private static List<String> titles(List<Track> tracks) {
+        List<String> titles = new ArrayList<>();
+        for (Track track : tracks) {
+            titles.add(track.getTitle());
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class PlayEventRecorderTest {
+
+    private final List<PlayEvent> written = new ArrayList<>();
+    private int rollUps;
+    private long now;
+    private ScheduledExecutorService writer;
+    private PlayEventRecorder recorder;
+
+    @Before
+    public void setUp() {
+        writer = Executors.newSingleThreadScheduledExecutor();
+        recorder = new PlayEventRecorder(new PlayEventRecorder.Sink() {
+            @Override
+            public void write(List<PlayEvent> events) {
+                written.addAll(events);
+            }
+
+            @Override
+            public void rollUp() {
+                rollUps++;
+            }
+        }, writer, writer, () -> now);
+    }
+
+    private static Track track(int id, long durationMs) {
+        Track track = new Track.Builder("T" + id, "content://t/" + id)
+                .id(id)
+                .durationMs(durationMs)
+                .build();
+        return track;
+    }
+
+    private void drain() throws InterruptedException {
+        writer.shutdown();
+        assertTrue(writer.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPausedTimeIsNotCountedAndEarlyStopIsSkip() throws InterruptedException {
+        recorder.trackStarted(track(1, 200_000));
+        now += 30_000;
+        recorder.paused();
+        now += 600_000;
+        recorder.resumed();
+        now += 10_000;
+        recorder.trackStarted(track(2, 200_000)); // bricht Track 1 ab
+        now += 200_000;
+        recorder.trackCompleted();
+        recorder.flush();
+        drain();
+
+        assertEquals(2, written.size());
+        assertEquals(1L, written.get(0).getTrackId());
+        assertEquals(40_000, written.get(0).getListenedMs());
+        assertTrue(written.get(0).isSkipped());
+        assertFalse(written.get(1).isSkipped());
+        assertEquals(0, rollUps);
+    }
+
+    @Test
+    public void testEventsAreBufferedUntilBatchIsFull() throws InterruptedException {
+        for (int i = 1; i < PlayEventRecorder.FLUSH_BATCH; i++) {
+            recorder.trackStarted(track(i, 1000));
+            now += 1000;
+            recorder.trackCompleted();
+        }
+        Thread.sleep(50);
+        assertTrue(written.isEmpty());
+
+        recorder.trackStarted(track(99, 1000));
+        recorder.stop();
+        drain();
+        assertEquals(PlayEventRecorder.FLUSH_BATCH, written.size());
+        assertEquals(1, rollUps);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PlaylistRuleTest {
+
+    @Test
+    public void testCompileBindsValuesAsArguments() {
+        PlaylistRule rule = PlaylistRule.parse("artist = Queen; duration_min > 5");
+        PlaylistRule.Sql sql = rule.compile(0);
+        assertEquals("artist = ? AND duration_ms > ?", sql.where);
+        assertArrayEquals(new String[]{"Queen", "300000"}, sql.args);
+        assertFalse(rule.isTimeRelative());
+    }
+
+    @Test
+    public void testAddedDaysBecomesCutoff() {
+        long now = 10L * 24 * 60 * 60 * 1000;
+        PlaylistRule rule = PlaylistRule.parse("added_days < 7");
+        PlaylistRule.Sql sql = rule.compile(now);
+        assertEquals("added_at > ?", sql.where);
+        assertEquals(String.valueOf(3L * 24 * 60 * 60 * 1000), sql.args[0]);
+        assertTrue(rule.isTimeRelative());
+    }
+
+    @Test
+    public void testContainsEscapesLikeWildcards() {
+        PlaylistRule.Sql sql = PlaylistRule.parse("title ~ 100%").compile(0);
+        assertEquals("title LIKE ? ESCAPE '\\'", sql.where);
+        assertEquals("%100\\%%", sql.args[0]);
+    }
+
+    @Test
+    public void testRoundTripAndValueWithOperatorCharacters() {
+        PlaylistRule rule = PlaylistRule.parse("play_count = 0;title ~ a>b");
+        assertEquals("play_count = 0; title ~ a>b", rule.toString());
+        assertTrue(rule.dependsOnPlayCount());
+    }
+
+    @Test
+    public void testMatchesFollowsCompiledSemantics() {
+        long day = 24L * 60 * 60 * 1000;
+        long now = 10 * day;
+        Track queen = new Track.Builder("Bohemian Rhapsody", "u").artist("Queen").durationMs(354_000).build();
+        assertTrue(PlaylistRule.parse("artist = Queen; duration_min > 5").matches(queen, 0, 0, now));
+        assertFalse(PlaylistRule.parse("artist = queen").matches(queen, 0, 0, now));
+        assertTrue(PlaylistRule.parse("title ~ RHAPSODY").matches(queen, 0, 0, now));
+        assertTrue(PlaylistRule.parse("added_days < 7").matches(queen, now - 2 * day, 0, now));
+        assertFalse(PlaylistRule.parse("added_days < 7").matches(queen, now - 8 * day, 0, now));
+        assertFalse(PlaylistRule.parse("play_count = 0").matches(queen, 0, 3, now));
+        assertFalse(PlaylistRule.parse("album = X").matches(
+                new Track.Builder("t", "u").album(null).build(), 0, 0, now));
+    }
+
+    @Test
+    public void testUnknownFieldIsRejected() {
+        try {
+            PlaylistRule.parse("uri = x");
+            fail("Unbekanntes Feld muss abgelehnt werden");
+        } catch (IllegalArgumentException expected) {
+            // erwartet
+        }
+    }
+
+    @Test
+    public void testAddedDaysRejectsEquality() {
+        for (String text : new String[]{"added_days = 3", "added_days != 3"}) {
+            try {
+                PlaylistRule.parse(text);
+                fail("Gleichheit auf added_days muss abgelehnt werden: " + text);
+            } catch (IllegalArgumentException expected) {
+                // erwartet
+            }
+        }
+    }
+
+    @Test
+    public void testContainsFoldsOnlyAsciiLikeSqlite() {
+        Track track = new Track.Builder("Über Alles", "u").artist("ÄRZTE").build();
+        assertTrue(PlaylistRule.parse("title ~ über alles").matches(
+                new Track.Builder("über ALLES", "u").build(), 0, 0, 0));
+        assertTrue(PlaylistRule.parse("title ~ Über alles").matches(track, 0, 0, 0));
+        // SQLite LIKE faltet nur ASCII: "ü" passt nicht zu "Ü"
+        assertFalse(PlaylistRule.parse("title ~ über").matches(track, 0, 0, 0));
+        assertFalse(PlaylistRule.parse("artist ~ ärzte").matches(track, 0, 0, 0));
+    }
+}
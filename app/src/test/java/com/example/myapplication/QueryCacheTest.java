@@ -0,0 +1,85 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QueryCacheTest {
+
+    private static List<Track> tracks(int count) {
+        List<Track> tracks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tracks.add(new Track.Builder("Titel " + i, "content://music/" + i).id(i + 1).build());
+        }
+        return tracks;
+    }
+
+    @Test
+    public void testHitUntilInvalidated() {
+        QueryCache cache = new QueryCache(8, 1000);
+        assertNull(cache.get("all"));
+
+        List<Track> loaded = tracks(3);
+        List<Track> snapshot = cache.put("all", cache.generation(), loaded);
+        assertEquals(loaded, snapshot);
+        assertSame(snapshot, cache.get("all"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        cache.invalidate();
+        assertNull(cache.get("all"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testResultFromBeforeCommitIsNotStored() {
+        QueryCache cache = new QueryCache(8, 1000);
+        long before = cache.generation();
+        // Während die Abfrage läuft, schreibt ein Scan-Batch
+        cache.invalidate();
+        cache.put("page:0:50:", before, tracks(2));
+        assertNull(cache.get("page:0:50:"));
+    }
+
+    @Test
+    public void testSnapshotIsImmutableCopy() {
+        QueryCache cache = new QueryCache(8, 1000);
+        List<Track> loaded = tracks(2);
+        List<Track> snapshot = cache.put("album:A", cache.generation(), loaded);
+        loaded.clear();
+        assertEquals(2, cache.get("album:A").size());
+        try {
+            snapshot.add(tracks(1).get(0));
+            fail("Schnappschuss darf nicht veränderbar sein");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByEntriesAndRows() {
+        QueryCache cache = new QueryCache(2, 10);
+        long generation = cache.generation();
+        cache.put("a", generation, tracks(2));
+        cache.put("b", generation, tracks(2));
+        cache.get("a");
+        cache.put("c", generation, tracks(2));
+        // "b" wurde am längsten nicht gelesen
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+
+        // Zu große Ergebnisse werden nicht abgelegt, verdrängen aber auch nichts
+        cache.put("all", generation, tracks(11));
+        assertNull(cache.get("all"));
+        assertEquals(2, cache.size());
+
+        // Die Zeilengrenze verdrängt ältere Einträge
+        cache.put("d", generation, tracks(9));
+        assertEquals(9, cache.get("d").size());
+        assertNull(cache.get("a"));
+        assertNull(cache.get("c"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ScanMetricsTest {
+
+    @Test
+    public void testReportSummarizesCountersAndPhases() {
+        ScanMetrics metrics = new ScanMetrics();
+        for (int i = 1; i <= 100; i++) {
+            metrics.increment(ScanMetrics.FILES);
+            metrics.add(ScanMetrics.BYTES, 1_000);
+            metrics.record(ScanMetrics.PHASE_METADATA, i * 1_000L); // 1..100 ms
+        }
+        metrics.add(ScanMetrics.INSERTED, 90);
+        metrics.add(ScanMetrics.SKIPPED, 10);
+        metrics.record(ScanMetrics.PHASE_COMMIT, 25_000);
+
+        ScanReport report = ScanReport.from(metrics, 0, 10_000);
+        assertEquals(100, report.getFiles());
+        assertEquals(100_000, report.getBytes());
+        assertEquals(90, report.getInserted());
+        assertEquals(10, report.getSkipped());
+        assertEquals(0, report.getErrors());
+        assertEquals(10.0, report.getFilesPerSecond(), 0.001);
+        assertEquals(5_050, report.getMetadataMs());
+        assertEquals(25, report.getCommitMs());
+        assertEquals(50_000, report.getMetadataP50Us(), 50_000.0 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(99_000, report.getMetadataP99Us(), 99_000.0 / LatencyHistogram.SUB_BUCKETS);
+        // Nie gemessene Phasen zählen als 0
+        assertEquals(0, report.getListMs());
+    }
+}
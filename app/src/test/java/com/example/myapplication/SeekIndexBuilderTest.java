@@ -0,0 +1,126 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+public class SeekIndexBuilderTest {
+
+    // MPEG1 Layer III, 44,1 kHz, Stereo: 128 kbit/s (Index 9) bzw. 192 kbit/s (Index 11)
+    private static final int FRAME_128 = 417;
+    private static final int FRAME_192 = 626;
+
+    @Test
+    public void testVbrMp3WithoutTableGetsGeneratedIndex() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 100; i++) {
+            boolean high = i % 2 == 1;
+            byte[] frame = new byte[high ? FRAME_192 : FRAME_128];
+            frame[0] = (byte) 0xFF;
+            frame[1] = (byte) 0xFB;
+            frame[2] = (byte) ((high ? 11 : 9) << 4);
+            out.write(frame);
+        }
+        byte[] data = out.toByteArray();
+        SeekIndex index = build(data);
+
+        assertNotNull(index);
+        assertEquals(SeekIndex.SOURCE_GENERATED, index.getSource());
+        assertFalse(index.isNativelySeekable());
+        assertEquals(100 * 1152 * 1000L / 44100, index.getDurationMs());
+        assertEquals(3, index.size());
+        assertEquals(0, index.getByteOffset(0));
+        // Jeder Punkt muss auf einem Frame-Header liegen.
+        for (int i = 0; i < index.size(); i++) {
+            int offset = (int) index.getByteOffset(i);
+            assertEquals(0xFF, data[offset] & 0xFF);
+            assertEquals(0xFB, data[offset + 1] & 0xFF);
+        }
+        assertEquals(1, index.findPoint(1500));
+    }
+
+    @Test
+    public void testFlacSeekTable() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 34 + 4 + 36 + 100);
+        buffer.put(new byte[]{'f', 'L', 'a', 'C'});
+        // STREAMINFO: 44100 Hz, 441000 Samples (10 s)
+        buffer.put((byte) 0x00).put((byte) 0).put((byte) 0).put((byte) 34);
+        byte[] streamInfo = new byte[34];
+        streamInfo[10] = 0x0A;
+        streamInfo[11] = (byte) 0xC4;
+        streamInfo[12] = 0x42;
+        ByteBuffer.wrap(streamInfo, 14, 4).putInt(441000);
+        buffer.put(streamInfo);
+        // SEEKTABLE (letzter Block) mit einem echten Punkt und einem Platzhalter
+        buffer.put((byte) 0x83).put((byte) 0).put((byte) 0).put((byte) 36);
+        buffer.putLong(220500).putLong(5000).putShort((short) 4096);
+        buffer.putLong(-1L).putLong(0).putShort((short) 0);
+        int firstFrame = buffer.position();
+
+        SeekIndex index = build(buffer.array());
+
+        assertNotNull(index);
+        assertEquals(SeekIndex.SOURCE_FLAC_SEEKTABLE, index.getSource());
+        assertEquals(10_000, index.getDurationMs());
+        assertEquals(1, index.size());
+        assertEquals(5_000, index.getTimeMs(0));
+        assertEquals(firstFrame + 5000, index.getByteOffset(0));
+    }
+
+    @Test
+    public void testOtherFormatsAreMarkedWithoutScanning() throws Exception {
+        // Ogg-Kopf, dahinter zufällig ein gültiges MP3-Frame-Paar: darf nicht als MP3 gelten
+        byte[] data = new byte[4096];
+        data[0] = 'O';
+        data[1] = 'g';
+        data[2] = 'g';
+        data[3] = 'S';
+        for (int offset : new int[]{100, 100 + FRAME_128}) {
+            data[offset] = (byte) 0xFF;
+            data[offset + 1] = (byte) 0xFB;
+            data[offset + 2] = (byte) (9 << 4);
+        }
+        SeekIndex index = build(data);
+
+        assertNotNull(index);
+        assertEquals(SeekIndex.SOURCE_NONE, index.getSource());
+        assertTrue(index.isNativelySeekable());
+        assertEquals(0, index.size());
+        SeekIndex copy = SeekIndex.fromBytes(index.toBytes());
+        assertNotNull(copy);
+        assertEquals(SeekIndex.SOURCE_NONE, copy.getSource());
+    }
+
+    @Test
+    public void testBlobRoundTrip() {
+        SeekIndex index = new SeekIndex(SeekIndex.SOURCE_XING, 5000, 12345,
+                new int[]{0, 2500}, new long[]{10, 6000});
+        SeekIndex copy = SeekIndex.fromBytes(index.toBytes());
+
+        assertNotNull(copy);
+        assertEquals(SeekIndex.SOURCE_XING, copy.getSource());
+        assertEquals(2, copy.size());
+        assertEquals(6000, copy.getByteOffset(1));
+        assertNull(SeekIndex.fromBytes(new byte[0]));
+    }
+
+    private static SeekIndex build(byte[] data) throws Exception {
+        File file = File.createTempFile("seekindex", ".bin");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(data);
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                return SeekIndexBuilder.build(raf.getChannel());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
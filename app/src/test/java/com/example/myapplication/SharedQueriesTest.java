@@ -0,0 +1,175 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class SharedQueriesTest {
+
+    // Führt Aufgaben erst aus, wenn der Test es verlangt
+    private static final class ManualExecutor implements Executor {
+        final List<Runnable> pending = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+
+        void runAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).run();
+            }
+        }
+    }
+
+    @Test
+    public void testSameKeyRunsOnceAndDeliversToAll() {
+        ManualExecutor worker = new ManualExecutor();
+        ManualExecutor delivery = new ManualExecutor();
+        SharedQueries queries = new SharedQueries(worker, delivery);
+        int[] runs = {0};
+        List<String> results = new ArrayList<>();
+
+        queries.submit("album:A", cancellation -> {
+            runs[0]++;
+            return "A";
+        }, results::add);
+        queries.submit("album:A", cancellation -> "nie ausgeführt", results::add);
+        queries.submit("album:B", cancellation -> "B", results::add);
+        worker.runAll();
+        delivery.runAll();
+
+        assertEquals(1, runs[0]);
+        assertEquals(2, queries.getExecutionCount());
+        assertEquals(1, queries.getDeduplicatedCount());
+        assertEquals(3, results.size());
+        assertEquals(2, results.stream().filter("A"::equals).count());
+
+        // Nach dem Ende läuft dieselbe Abfrage wieder neu
+        queries.submit("album:A", cancellation -> "A", results::add);
+        assertEquals(3, queries.getExecutionCount());
+    }
+
+    @Test
+    public void testLastCancelAbortsRunningQuery() {
+        ManualExecutor worker = new ManualExecutor();
+        ManualExecutor delivery = new ManualExecutor();
+        SharedQueries queries = new SharedQueries(worker, delivery);
+        List<String> results = new ArrayList<>();
+        boolean[] sawCancel = {false};
+
+        SharedQueries.Handle first = queries.submit("titles", cancellation -> {
+            cancellation.addListener(() -> sawCancel[0] = true);
+            return "Titel";
+        }, results::add);
+        SharedQueries.Handle second = queries.submit("titles", cancellation -> "Titel", results::add);
+
+        first.cancel();
+        assertFalse(sawCancel[0]);
+        second.cancel();
+        assertTrue(first.isCanceled() && second.isCanceled());
+        assertEquals(1, queries.getCanceledCount());
+
+        // Die Ausführung startet gar nicht erst, es wird nichts zugestellt
+        worker.runAll();
+        delivery.runAll();
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testCancelDuringQueryDropsResult() {
+        ManualExecutor worker = new ManualExecutor();
+        ManualExecutor delivery = new ManualExecutor();
+        SharedQueries queries = new SharedQueries(worker, delivery);
+        List<Integer> results = new ArrayList<>();
+        SharedQueries.Handle[] handle = new SharedQueries.Handle[1];
+
+        handle[0] = queries.submit("page:0", cancellation -> {
+            int rows = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (i == 10) {
+                    // Der Nutzer verlässt den Bildschirm mitten im Lesen
+                    handle[0].cancel();
+                }
+                cancellation.throwIfCanceled();
+                rows++;
+            }
+            return rows;
+        }, results::add);
+        worker.runAll();
+        delivery.runAll();
+
+        assertTrue(results.isEmpty());
+        assertTrue(delivery.pending.isEmpty());
+    }
+
+    @Test
+    public void testCancelAfterResultBeforeDeliverySkipsCallback() {
+        ManualExecutor worker = new ManualExecutor();
+        ManualExecutor delivery = new ManualExecutor();
+        SharedQueries queries = new SharedQueries(worker, delivery);
+        List<String> results = new ArrayList<>();
+
+        SharedQueries.Handle handle = queries.submit("artist:X", cancellation -> "X", results::add);
+        worker.runAll();
+        handle.cancel();
+        delivery.runAll();
+
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void testFailureIsDeliveredAsErrorAndWorkerKeepsRunning() {
+        ManualExecutor worker = new ManualExecutor();
+        ManualExecutor delivery = new ManualExecutor();
+        SharedQueries queries = new SharedQueries(worker, delivery);
+        List<String> results = new ArrayList<>();
+        List<RuntimeException> errors = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("Datenbank gesperrt");
+
+        queries.<String>submit("album:A", cancellation -> {
+            throw failure;
+        }, results::add, errors::add);
+        queries.submit("album:A", cancellation -> "nie ausgeführt", results::add, errors::add);
+        SharedQueries.Handle canceled = queries.submit("album:A", cancellation -> "nie ausgeführt", results::add,
+                errors::add);
+        // Die Ausnahme bleibt im Worker; der nächste Auftrag läuft normal
+        worker.runAll();
+        canceled.cancel();
+        delivery.runAll();
+
+        assertTrue(results.isEmpty());
+        assertEquals(2, errors.size());
+        assertSame(failure, errors.get(0));
+        assertEquals(1, queries.getFailedCount());
+
+        // Der Schlüssel ist wieder frei, ein erneuter Versuch läuft neu
+        queries.submit("album:A", cancellation -> "A", results::add, errors::add);
+        worker.runAll();
+        delivery.runAll();
+        assertEquals(1, results.size());
+        assertEquals(2, queries.getExecutionCount());
+    }
+
+    @Test
+    public void testNoneIgnoresCancel() {
+        QueryCancellation.NONE.cancel();
+        assertFalse(QueryCancellation.NONE.isCanceled());
+        QueryCancellation.NONE.throwIfCanceled();
+
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+        boolean[] called = {false};
+        cancellation.addListener(() -> called[0] = true);
+        assertTrue(called[0]);
+        try {
+            cancellation.throwIfCanceled();
+            fail("Abbruch erwartet");
+        } catch (QueryCancellation.CanceledException expected) {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SortKeysTest {
+
+    @Test
+    public void testNormalizeStripsArticlesAndFoldsUmlauts() {
+        assertEquals("arzte", SortKeys.normalize("Die Ärzte"));
+        assertEquals("beatles", SortKeys.normalize("The Beatles"));
+        assertEquals("strasse", SortKeys.normalize("Straße"));
+        // Ein Artikel allein bleibt erhalten
+        assertEquals("the", SortKeys.normalize("The"));
+    }
+
+    @Test
+    public void testSortKeysFollowGermanCollation() {
+        assertTrue(SortKeys.sortKey("apfel").compareTo(SortKeys.sortKey("Öl")) < 0);
+        assertTrue(SortKeys.sortKey("Öl").compareTo(SortKeys.sortKey("Zebra")) < 0);
+        assertTrue(SortKeys.sortKey("99 Luftballons").compareTo(SortKeys.sortKey("A")) < 0);
+        assertEquals(SortKeys.sortKey("Straße"), SortKeys.sortKey("strasse"));
+    }
+
+    @Test
+    public void testSections() {
+        assertEquals('A', SortKeys.sectionOf("Die Ärzte"));
+        assertEquals('O', SortKeys.sectionOf("Öl"));
+        assertEquals(SortKeys.SECTION_OTHER, SortKeys.sectionOf("99 Luftballons"));
+        assertEquals(SortKeys.SECTION_NON_LATIN, SortKeys.sectionOf("Юля"));
+    }
+
+    @Test
+    public void testLettersWithoutDecompositionFoldToBaseLetter() {
+        assertEquals('O', SortKeys.sectionOf("Øresund"));
+        assertEquals('A', SortKeys.sectionOf("Ærø"));
+        assertEquals('L', SortKeys.sectionOf("Łódź"));
+        assertEquals('D', SortKeys.sectionOf("Đakovo"));
+        assertEquals('T', SortKeys.sectionOf("Þingvellir"));
+        assertEquals('O', SortKeys.sectionOf("ørsted"));
+        // Sortierschlüssel und Sektion stimmen überein: "Øresund" liegt zwischen "Oper" und "Pop"
+        assertTrue(SortKeys.sortKey("Oper").compareTo(SortKeys.sortKey("Øresund")) < 0);
+        assertTrue(SortKeys.sortKey("Øresund").compareTo(SortKeys.sortKey("Pop")) < 0);
+    }
+
+    @Test
+    public void testSectionIndexPositions() {
+        SectionIndex index = new SectionIndex(new char[]{'#', 'A', 'C'}, new int[]{2, 3, 1});
+        assertEquals(0, index.getPositionForSection(0));
+        assertEquals(2, index.getPositionForSection(1));
+        assertEquals(5, index.getPositionForSection(2));
+        assertEquals(0, index.getSectionForPosition(1));
+        assertEquals(1, index.getSectionForPosition(4));
+        assertEquals(2, index.getSectionForPosition(5));
+    }
+}
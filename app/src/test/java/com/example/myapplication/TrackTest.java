@@ -8,22 +8,53 @@ public class TrackTest {
     @Test
     public void testEqualsAndHashCode() {
         // Erstelle zwei Tracks ohne gesetzte ID – standardmäßig ist id = 0.
-        Track track1 = new Track("Title", "uri");
-        Track track2 = new Track("Title", "uri");
+        Track track1 = new Track.Builder("Title", "uri").build();
+        Track track2 = new Track.Builder("Title", "uri").build();
 
         // Da beide id = 0 haben, sollten sie als gleich angesehen werden.
         assertTrue(track1.equals(track2));
         assertEquals(track1.hashCode(), track2.hashCode());
 
-        // Setze unterschiedliche IDs und teste, dass sie jetzt ungleich sind.
-        track1.setId(1);
-        track2.setId(2);
+        // Unterschiedliche IDs: jetzt ungleich.
+        track1 = track1.toBuilder().id(1).build();
+        track2 = track2.toBuilder().id(2).build();
         assertFalse(track1.equals(track2));
     }
 
+    @Test
+    public void testSameContentUsesGenerationWhenKnown() {
+        Track before = new Track.Builder("Title", "uri").artist("Artist").build();
+        Track after = before.toBuilder().durationMs(180_000).build();
+        // Ohne Generation werden die angezeigten Felder verglichen
+        assertFalse(before.hasSameContent(after));
+
+        before = before.toBuilder().generation(3).build();
+        after = after.toBuilder().generation(3).build();
+        assertTrue(before.hasSameContent(after));
+        after = after.toBuilder().generation(4).build();
+        assertFalse(before.hasSameContent(after));
+    }
+
+    @Test
+    public void testArtistAndAlbumAreShared() {
+        // Namen aus verschiedenen Quellen (z. B. Cursor-Zeilen) landen auf derselben Instanz
+        Track first = new Track.Builder("A", "uri://a").album(new String("Album")).build();
+        Track second = new Track.Builder("B", "uri://b").album(new String("Album")).build();
+        assertSame(first.getAlbum(), second.getAlbum());
+        assertEquals("", new Track.Builder("C", "uri://c").artist(null).build().getArtist());
+    }
+
+    @Test
+    public void testDurationFormatting() {
+        DurationFormatter formatter = new DurationFormatter();
+        assertEquals("3:05", formatter.format(185_000).toString());
+        assertEquals("1:02:03", formatter.format(3_723_000).toString());
+        assertEquals("", formatter.format(0).toString());
+    }
+
     @Test
     public void testToString() {
-        Track track = new Track("Sample Title", "sampleUri");
+        Track track = new Track.Builder("Sample Title", "sampleUri").build();
         String s = track.toString();
         assertTrue(s.contains("Sample Title"));
         assertTrue(s.contains("sampleUri"));
@@ -0,0 +1,207 @@
+package com.example.myapplication;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class LibraryFixtureGeneratorTest {
+
+    @Test
+    public void testSameSeedGivesSameLibrary() {
+        List<LibraryFixtureGenerator.FixtureTrack> first = new LibraryFixtureGenerator(7, 20).generate(500);
+        List<LibraryFixtureGenerator.FixtureTrack> second = new LibraryFixtureGenerator(7, 20).generate(500);
+        List<LibraryFixtureGenerator.FixtureTrack> other = new LibraryFixtureGenerator(8, 20).generate(500);
+        assertEquals(500, first.size());
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getRelativePath(), second.get(i).getRelativePath());
+            assertEquals(first.get(i).getArtist(), second.get(i).getArtist());
+            assertEquals(first.get(i).getAlbum(), second.get(i).getAlbum());
+            assertEquals(first.get(i).getDurationMs(), second.get(i).getDurationMs());
+            differs |= !first.get(i).getTitle().equals(other.get(i).getTitle());
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    public void testArtistsFollowZipfAndAlbumsStayRealistic() {
+        List<LibraryFixtureGenerator.FixtureTrack> tracks = new LibraryFixtureGenerator(1, 50).generate(10_000);
+        Map<String, Integer> perArtist = new HashMap<>();
+        Map<String, Integer> perAlbum = new HashMap<>();
+        for (LibraryFixtureGenerator.FixtureTrack track : tracks) {
+            perArtist.merge(track.getArtist(), 1, Integer::sum);
+            perAlbum.merge(track.getAlbum(), 1, Integer::sum);
+            assertTrue(track.getDurationMs() >= 60_000 && track.getDurationMs() <= 480_000);
+        }
+        List<Integer> counts = new ArrayList<>(perArtist.values());
+        Collections.sort(counts, Collections.reverseOrder());
+        int top = counts.get(0);
+        int median = counts.get(counts.size() / 2);
+        // Wenige Interpreten stellen einen großen Teil der Bibliothek
+        assertTrue("top=" + top + " median=" + median, top > 20 * median);
+        for (int size : perAlbum.values()) {
+            assertTrue(size <= 16);
+        }
+    }
+
+    @Test
+    public void testFoldersAreNestedAndPathsUnique() {
+        List<LibraryFixtureGenerator.FixtureTrack> tracks = new LibraryFixtureGenerator(3, 100).generate(5_000);
+        List<String> folders = LibraryFixtureGenerator.foldersOf(tracks);
+        assertTrue(folders.size() <= 100);
+        int maxDepth = 0;
+        for (String folder : folders) {
+            maxDepth = Math.max(maxDepth, folder.split("/").length);
+        }
+        assertTrue(maxDepth >= 2);
+        Set<String> paths = new HashSet<>();
+        for (LibraryFixtureGenerator.FixtureTrack track : tracks) {
+            assertTrue(paths.add(track.getRelativePath()));
+        }
+        // Ein einzelner Ordner ist die Wurzel selbst
+        assertEquals("", new LibraryFixtureGenerator(3, 1).generate(10).get(0).getFolder());
+    }
+
+    @Test
+    public void testMp3HasId3TagBeforeMpegFrames() {
+        LibraryFixtureGenerator.FixtureTrack track = first(LibraryFixtureGenerator.FORMAT_MP3);
+        byte[] data = FixtureAudioWriter.encode(track);
+        assertEquals("ID3", new String(data, 0, 3, StandardCharsets.US_ASCII));
+        int tagSize = (data[6] << 21) | (data[7] << 14) | (data[8] << 7) | data[9];
+        int audio = 10 + tagSize;
+        assertEquals(0xFF, data[audio] & 0xFF);
+        assertEquals(0xFB, data[audio + 1] & 0xFF);
+        assertEquals("TIT2", new String(data, 10, 4, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testFlacFramesCarryValidChecksums() {
+        LibraryFixtureGenerator.FixtureTrack track = first(LibraryFixtureGenerator.FORMAT_FLAC);
+        byte[] data = FixtureAudioWriter.encode(track);
+        assertEquals("fLaC", new String(data, 0, 4, StandardCharsets.US_ASCII));
+        int pos = 4;
+        boolean last = false;
+        while (!last) {
+            last = (data[pos] & 0x80) != 0;
+            pos += 4 + readInt(data, pos + 1, 3);
+        }
+        assertTrue(new String(data, 0, pos, StandardCharsets.UTF_8).contains("TITLE=" + track.getTitle()));
+        // Frames zu je 11 Bytes: Header (5) + CRC-8, Subframe (3), CRC-16
+        int frames = 0;
+        for (; pos < data.length; pos += 11, frames++) {
+            assertEquals(0xFFF8, readInt(data, pos, 2));
+            assertEquals(FixtureAudioWriter.crc8(slice(data, pos, 5)), data[pos + 5] & 0xFF);
+            assertEquals(FixtureAudioWriter.crc16(slice(data, pos, 9)), readInt(data, pos + 9, 2));
+        }
+        assertEquals(data.length, pos);
+        assertTrue(frames > 0);
+    }
+
+    @Test
+    public void testOggPagesCarryValidChecksums() {
+        LibraryFixtureGenerator.FixtureTrack track = first(LibraryFixtureGenerator.FORMAT_OGG);
+        byte[] data = FixtureAudioWriter.encode(track);
+        int pos = 0;
+        int pages = 0;
+        while (pos < data.length) {
+            assertEquals("OggS", new String(data, pos, 4, StandardCharsets.US_ASCII));
+            int segments = data[pos + 26] & 0xFF;
+            int length = 27 + segments;
+            for (int i = 0; i < segments; i++) {
+                length += data[pos + 27 + i] & 0xFF;
+            }
+            byte[] page = slice(data, pos, length);
+            int stored = (page[22] & 0xFF) | (page[23] & 0xFF) << 8 | (page[24] & 0xFF) << 16 | (page[25] & 0xFF) << 24;
+            page[22] = page[23] = page[24] = page[25] = 0;
+            assertEquals(FixtureAudioWriter.oggCrc(page), stored);
+            pos += length;
+            pages++;
+        }
+        assertEquals(3, pages);
+        String text = new String(data, StandardCharsets.UTF_8);
+        assertTrue(text.contains("OpusHead"));
+        assertTrue(text.contains("ARTIST=" + track.getArtist()));
+    }
+
+    @Test
+    public void testM4aBoxesAreConsistent() {
+        LibraryFixtureGenerator.FixtureTrack track = first(LibraryFixtureGenerator.FORMAT_M4A);
+        byte[] data = FixtureAudioWriter.encode(track);
+        List<String> types = new ArrayList<>();
+        int pos = 0;
+        int mdat = -1;
+        while (pos < data.length) {
+            String type = new String(data, pos + 4, 4, StandardCharsets.US_ASCII);
+            types.add(type);
+            if (type.equals("mdat")) {
+                mdat = pos + 8;
+            }
+            pos += readInt(data, pos, 4);
+        }
+        assertEquals(data.length, pos);
+        assertEquals(List.of("ftyp", "moov", "mdat"), types);
+        // Der Chunk-Offset zeigt auf die Nutzdaten der mdat-Box
+        int stco = indexOf(data, "stco".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(mdat, readInt(data, stco + 12, 4));
+        assertTrue(indexOf(data, track.getTitle().getBytes(StandardCharsets.UTF_8)) > 0);
+    }
+
+    @Test
+    public void testWriteLibraryCreatesAllFiles() throws Exception {
+        File root = Files.createTempDirectory("fixture").toFile();
+        List<LibraryFixtureGenerator.FixtureTrack> tracks = new LibraryFixtureGenerator(5, 12).generate(60);
+        LibraryFixtureGenerator.writeLibrary(root, tracks);
+        for (LibraryFixtureGenerator.FixtureTrack track : tracks) {
+            File file = new File(root, track.getRelativePath());
+            assertTrue(file.getPath(), file.isFile());
+            assertEquals(FixtureAudioWriter.encode(track).length, file.length());
+        }
+    }
+
+    private static LibraryFixtureGenerator.FixtureTrack first(String format) {
+        for (LibraryFixtureGenerator.FixtureTrack track : new LibraryFixtureGenerator(11, 4).generate(200)) {
+            if (track.getFormat().equals(format)) {
+                return track;
+            }
+        }
+        throw new AssertionError("Kein Track im Format " + format);
+    }
+
+    private static int readInt(byte[] data, int offset, int bytes) {
+        int value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static byte[] slice(byte[] data, int offset, int length) {
+        byte[] out = new byte[length];
+        System.arraycopy(data, offset, out, 0, length);
+        return out;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
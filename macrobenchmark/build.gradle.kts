@@ -0,0 +1,50 @@
+import com.android.build.api.dsl.ManagedVirtualDevice
+
+plugins {
+    alias(libs.plugins.android.test)
+    alias(libs.plugins.baselineprofile)
+}
+
+android {
+    namespace = "com.example.macrobenchmark"
+    compileSdk = 35
+
+    defaultConfig {
+        minSdk = 31
+        targetSdk = 35
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Emulatoren liefern keine stabilen absoluten Zeiten, eignen sich aber für Vergleiche auf CI
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "EMULATOR"
+    }
+
+    targetProjectPath = ":app"
+
+    // Headless-Emulator für CI-Rechner ohne Gerät. Das System-Image muss im SDK vorliegen, die Tests selbst
+    // brauchen kein Netzwerk: alle Testdaten erzeugt die App (BenchmarkFixtureReceiver).
+    testOptions.managedDevices.allDevices {
+        create<ManagedVirtualDevice>("pixel6Api34") {
+            device = "Pixel 6"
+            apiLevel = 34
+            systemImageSource = "aosp-atd"
+        }
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_11
+        targetCompatibility = JavaVersion.VERSION_11
+    }
+}
+
+// Profile und Messungen laufen auf einem angeschlossenen Gerät bzw. laufenden Emulator (adb). Das Plugin
+// installiert für die Messungen :app in benchmarkRelease und für die Profile in nonMinifiedRelease; nur diese
+// Varianten (und debug) enthalten den BenchmarkFixtureReceiver, der Release-Build nicht.
+baselineProfile {
+    useConnectedDevices = true
+}
+
+dependencies {
+    implementation(libs.ext.junit)
+    implementation(libs.uiautomator)
+    implementation(libs.benchmark.macro.junit4)
+}
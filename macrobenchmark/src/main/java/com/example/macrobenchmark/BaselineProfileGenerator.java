@@ -0,0 +1,38 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Erzeugt das Baseline-Profil der App aus dem Kaltstart bis zur ersten Seite und dem Öffnen von "Alle Titel".
+ * Ausführen mit {@code ./gradlew :app:generateBaselineProfile}; das Ergebnis landet unter
+ * {@code app/src/release/generated/baselineProfiles} und wird mit eingecheckt.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Before
+    public void setUp() {
+        Fixtures.populate(2_000);
+    }
+
+    @Test
+    public void startup() {
+        baselineProfileRule.collect(Journeys.TARGET_PACKAGE, scope -> {
+            scope.pressHome();
+            Journeys.startPlayer(scope);
+            Journeys.openAllTracks(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
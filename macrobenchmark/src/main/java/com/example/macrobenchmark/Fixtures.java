@@ -0,0 +1,84 @@
+package com.example.macrobenchmark;
+
+import android.os.SystemClock;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Steuert den BenchmarkFixtureReceiver der App über {@code am broadcast}. Alle Daten entstehen auf dem Gerät;
+ * es wird weder Netzwerk noch ein vorbereitetes Geräteabbild benötigt. Den Receiver gibt es nur in den Varianten
+ * benchmarkRelease, nonMinifiedRelease und debug der App, nicht im Release-Build.
+ */
+final class Fixtures {
+
+    private static final String RECEIVER = Journeys.TARGET_PACKAGE + "/.BenchmarkFixtureReceiver";
+    private static final String ACTION_PREFIX = Journeys.TARGET_PACKAGE + ".benchmark.";
+    // Intent.FLAG_INCLUDE_STOPPED_PACKAGES: der Benchmark beendet die App zwischen den Durchläufen
+    private static final String FLAGS = "-f 0x20";
+    private static final long POLL_INTERVAL_MS = 250;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Liest eine Bibliotheksgröße aus den Instrumentation-Argumenten, z. B.
+     * {@code -Pandroid.testInstrumentationRunnerArguments.libraryTracks=200000}, damit dieselben Messungen
+     * mit 1k, 50k oder 200k Tracks laufen können.
+     */
+    static int size(String argument, int defaultValue) {
+        String value = InstrumentationRegistry.getArguments().getString(argument);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    /**
+     * Füllt die Datenbank mit {@code tracks} synthetischen Tracks.
+     */
+    static void populate(int tracks) {
+        expect(broadcast("POPULATE", tracks), "populated");
+    }
+
+    /**
+     * Erzeugt {@code files} getaggte Audio-Dateien im Benchmark-Ordner der App.
+     */
+    static void generateFiles(int files) {
+        expect(broadcast("GENERATE_FILES", files), "generated");
+    }
+
+    static void reset() {
+        expect(broadcast("RESET", 0), "reset");
+    }
+
+    /**
+     * Startet einen vollständigen Scan und wartet, bis er abgeschlossen ist.
+     */
+    static void scanAndWait(long timeoutMs) {
+        expect(broadcast("SCAN", 0), "enqueued");
+        long deadline = SystemClock.uptimeMillis() + timeoutMs;
+        while (!broadcast("STATUS", 0).contains("data=\"done\"")) {
+            if (SystemClock.uptimeMillis() > deadline) {
+                throw new IllegalStateException("Scan nicht innerhalb von " + timeoutMs + " ms beendet");
+            }
+            SystemClock.sleep(POLL_INTERVAL_MS);
+        }
+    }
+
+    private static String broadcast(String action, int count) {
+        String command = "am broadcast " + FLAGS + " -n " + RECEIVER + " -a " + ACTION_PREFIX + action
+                + " --ei count " + count;
+        try {
+            return UiDevice.getInstance(InstrumentationRegistry.getInstrumentation()).executeShellCommand(command);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void expect(String output, String result) {
+        if (!output.contains("data=\"" + result)) {
+            throw new IllegalStateException("Unerwartete Antwort des Receivers: " + output);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.macrobenchmark;
+
+import android.content.Intent;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * Gemeinsame Nutzerwege für Baseline-Profil und Messungen, damit das Profil genau den gemessenen Code abdeckt.
+ */
+final class Journeys {
+
+    static final String TARGET_PACKAGE = "com.example.myapplication";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private Journeys() {
+    }
+
+    /**
+     * Startet den Player direkt und wartet, bis seine Bedienelemente sichtbar sind. Das Ende des Starts
+     * (erste Seite geladen) meldet der Player selbst über reportFullyDrawn().
+     */
+    static void startPlayer(MacrobenchmarkScope scope) {
+        Intent intent = new Intent(Intent.ACTION_MAIN);
+        intent.setClassName(TARGET_PACKAGE, TARGET_PACKAGE + ".MusicPlayerActivity");
+        scope.startActivityAndWait(intent);
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "btnAllTracks")), TIMEOUT_MS);
+    }
+
+    /**
+     * Startet die App über den Launcher-Eintrag (MainActivity) und wechselt von dort in den Player.
+     */
+    static void startPlayerViaMain(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "music_button")), TIMEOUT_MS);
+        scope.getDevice().findObject(By.res(TARGET_PACKAGE, "music_button")).click();
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "btnAllTracks")), TIMEOUT_MS);
+    }
+
+    /**
+     * Startet "Alle Titel" direkt und wartet, bis die Liste sichtbar ist.
+     */
+    static void startAllTracks(MacrobenchmarkScope scope) {
+        Intent intent = new Intent(Intent.ACTION_MAIN);
+        intent.setClassName(TARGET_PACKAGE, TARGET_PACKAGE + ".AllTracksActivity");
+        scope.startActivityAndWait(intent);
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "recyclerTracks")), TIMEOUT_MS);
+    }
+
+    /**
+     * Wischt die Liste {@code times} Mal schnell nach unten und wartet jeweils, bis sie zur Ruhe kommt.
+     */
+    static void flingTracks(MacrobenchmarkScope scope, int times) {
+        UiObject2 list = scope.getDevice().findObject(By.res(TARGET_PACKAGE, "recyclerTracks"));
+        // Abstand zum Rand, damit die Geste nicht die Systemnavigation auslöst
+        list.setGestureMargin(scope.getDevice().getDisplayWidth() / 5);
+        for (int i = 0; i < times; i++) {
+            list.fling(Direction.DOWN);
+            scope.getDevice().waitForIdle();
+        }
+    }
+
+    /**
+     * Öffnet vom Player aus "Alle Titel" und scrollt einmal durch die Liste.
+     */
+    static void openAllTracks(MacrobenchmarkScope scope) {
+        scope.getDevice().findObject(By.res(TARGET_PACKAGE, "btnAllTracks")).click();
+        scope.getDevice().wait(Until.hasObject(By.res(TARGET_PACKAGE, "recyclerTracks")), TIMEOUT_MS);
+        flingTracks(scope, 1);
+    }
+}
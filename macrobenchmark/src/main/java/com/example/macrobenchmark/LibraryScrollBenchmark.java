@@ -0,0 +1,59 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Misst Frame-Zeiten und Bind-Aufwand beim schnellen Scrollen durch "Alle Titel" mit einer Bibliothek
+ * von standardmäßig {@value #DEFAULT_LIBRARY_TRACKS} Tracks (Argument {@code libraryTracks}).
+ * Die Abschnitte "RV OnBindView" und "RV CreateView" schreibt RecyclerView selbst in den Trace.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LibraryScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+    private static final int DEFAULT_LIBRARY_TRACKS = 20_000;
+    private static final int FLINGS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Before
+    public void setUp() {
+        Fixtures.populate(Fixtures.size("libraryTracks", DEFAULT_LIBRARY_TRACKS));
+    }
+
+    @Test
+    public void flingAllTracks() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Arrays.asList(
+                        new FrameTimingMetric(),
+                        new TraceSectionMetric("RV OnBindView", TraceSectionMetric.Mode.Sum.INSTANCE),
+                        new TraceSectionMetric("RV CreateView", TraceSectionMetric.Mode.Sum.INSTANCE)),
+                new CompilationMode.Partial(),
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    Journeys.startAllTracks(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.flingTracks(scope, FLINGS);
+                    return Unit.INSTANCE;
+                });
+    }
+}
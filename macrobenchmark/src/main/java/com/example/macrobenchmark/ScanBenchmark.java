@@ -0,0 +1,60 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import kotlin.Unit;
+
+/**
+ * Misst einen vollständigen Scan von standardmäßig {@value #DEFAULT_LIBRARY_FILES} getaggten Audio-Dateien
+ * (MP3, FLAC, M4A, Ogg in verschachtelten Ordnern; Argument {@code libraryFiles}) durch den
+ * MusicLoaderWorker über dessen Trace-Abschnitte. "scan:metadata" wird nur für jede 64. Datei geschrieben
+ * und ist daher eine Stichprobe; Durchsatz und Phasenzeiten des Laufs stehen zusätzlich im Scan-Bericht
+ * (Diagnose-Bildschirm).
+ */
+@RunWith(AndroidJUnit4.class)
+public class ScanBenchmark {
+
+    private static final int ITERATIONS = 5;
+    private static final int DEFAULT_LIBRARY_FILES = 1_000;
+    private static final long SCAN_TIMEOUT_MS = 120_000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Before
+    public void setUp() {
+        Fixtures.generateFiles(Fixtures.size("libraryFiles", DEFAULT_LIBRARY_FILES));
+    }
+
+    @Test
+    public void fullScan() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Arrays.asList(
+                        new TraceSectionMetric("scan:list", TraceSectionMetric.Mode.First.INSTANCE),
+                        new TraceSectionMetric("scan:insertBatch", TraceSectionMetric.Mode.Sum.INSTANCE),
+                        new TraceSectionMetric("scan:metadata", TraceSectionMetric.Mode.Average.INSTANCE)),
+                new CompilationMode.Partial(),
+                null,
+                ITERATIONS,
+                scope -> {
+                    // Jeder Durchlauf fügt alle Dateien neu ein
+                    Fixtures.reset();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Fixtures.scanAndWait(SCAN_TIMEOUT_MS);
+                    return Unit.INSTANCE;
+                });
+    }
+}
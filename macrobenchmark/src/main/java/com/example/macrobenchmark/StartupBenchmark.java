@@ -0,0 +1,102 @@
+package com.example.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Misst den Start bis zum ersten Frame (timeToInitialDisplay) und bis zur ersten geladenen Seite des Players
+ * (timeToFullDisplay), jeweils ohne Vorkompilierung und mit Baseline-Profil:
+ * <ul>
+ *     <li>Kaltstart direkt in den Player,</li>
+ *     <li>Kalt- und Warmstart über den Launcher-Eintrag (MainActivity) mit Wechsel in den Player.</li>
+ * </ul>
+ * Ausführen mit {@code ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest}.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+    // Eine mittelgroße Bibliothek, damit die erste Seite voll ist
+    private static final int LIBRARY_TRACKS = 2_000;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> compilationModes() {
+        return Arrays.asList(
+                new Object[]{new CompilationMode.None()},
+                new Object[]{new CompilationMode.Partial(BaselineProfileMode.Require)});
+    }
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Before
+    public void setUp() {
+        Fixtures.populate(LIBRARY_TRACKS);
+    }
+
+    @Test
+    public void coldStartToFirstPage() {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Arrays.asList(new StartupTimingMetric(), new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.startPlayer(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void coldStartViaMain() {
+        startViaMain(StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStartViaMain() {
+        startViaMain(StartupMode.WARM);
+    }
+
+    private void startViaMain(StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.TARGET_PACKAGE,
+                Arrays.asList(new StartupTimingMetric(), new FrameTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.startPlayerViaMain(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}